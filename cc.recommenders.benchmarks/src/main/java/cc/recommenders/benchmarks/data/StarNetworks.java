@@ -0,0 +1,222 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.benchmarks.data;
+
+import static cc.recommenders.mining.calls.pbn.PBNModelConstants.CALL_PREFIX;
+import static cc.recommenders.mining.calls.pbn.PBNModelConstants.CLASS_CONTEXT_TITLE;
+import static cc.recommenders.mining.calls.pbn.PBNModelConstants.DEFINITION_TITLE;
+import static cc.recommenders.mining.calls.pbn.PBNModelConstants.METHOD_CONTEXT_TITLE;
+import static cc.recommenders.mining.calls.pbn.PBNModelConstants.PATTERN_TITLE;
+import static cc.recommenders.mining.calls.pbn.PBNModelConstants.STATE_FALSE;
+import static cc.recommenders.mining.calls.pbn.PBNModelConstants.STATE_TRUE;
+import static cc.recommenders.mining.calls.pbn.PBNModelConstants.newClassContext;
+import static cc.recommenders.mining.calls.pbn.PBNModelConstants.newDefinition;
+import static cc.recommenders.mining.calls.pbn.PBNModelConstants.newMethodContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.recommenders.commons.bayesnet.BayesianNetwork;
+import org.eclipse.recommenders.commons.bayesnet.Node;
+import org.eclipse.recommenders.jayes.BayesNet;
+import org.eclipse.recommenders.jayes.BayesNode;
+
+import cc.recommenders.names.VmMethodName;
+import cc.recommenders.names.VmTypeName;
+import cc.recommenders.usages.CallSite;
+import cc.recommenders.usages.CallSites;
+import cc.recommenders.usages.DefinitionSites;
+import cc.recommenders.usages.Query;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Deterministic generator of networks with the structure that is learned by
+ * the PBN miner: a pattern node in the center and one child for each context,
+ * the definition and each call. All probabilities are drawn from the seeded
+ * random generator, so the same parameters always result in the same network.
+ */
+public class StarNetworks {
+
+	public static final String TYPE = "Lorg/example/Star";
+	public static final int NUM_CLASS_CONTEXTS = 20;
+	public static final int NUM_METHOD_CONTEXTS = 20;
+	public static final int NUM_DEFINITIONS = 5;
+
+	private final Random rnd;
+	private final int numPatterns;
+
+	private final String[] patterns;
+	private final String[] classContexts;
+	private final String[] methodContexts;
+	private final String[] definitions;
+	private final String[] calls;
+
+	private final double[] patternProbabilities;
+	private final double[] classContextProbabilities;
+	private final double[] methodContextProbabilities;
+	private final double[] definitionProbabilities;
+	private final double[][] callProbabilities;
+
+	public StarNetworks(long seed, int numPatterns, int numCalls) {
+		rnd = new Random(seed);
+		this.numPatterns = numPatterns;
+
+		patterns = new String[numPatterns];
+		for (int i = 0; i < numPatterns; i++) {
+			patterns[i] = "p" + i;
+		}
+		classContexts = new String[NUM_CLASS_CONTEXTS];
+		for (int i = 0; i < NUM_CLASS_CONTEXTS; i++) {
+			classContexts[i] = newClassContext(VmTypeName.get("Lorg/example/Ctx" + i));
+		}
+		methodContexts = new String[NUM_METHOD_CONTEXTS];
+		for (int i = 0; i < NUM_METHOD_CONTEXTS; i++) {
+			methodContexts[i] = newMethodContext(VmMethodName.get("Lorg/example/Ctx.m" + i + "()V"));
+		}
+		definitions = new String[NUM_DEFINITIONS];
+		for (int i = 0; i < NUM_DEFINITIONS; i++) {
+			definitions[i] = newDefinition(DefinitionSites.createDefinitionByReturn("Lorg/example/Factory.create"
+					+ i + "()" + TYPE + ";"));
+		}
+		calls = new String[numCalls];
+		for (int i = 0; i < numCalls; i++) {
+			calls[i] = TYPE + ".call" + i + "()V";
+		}
+
+		patternProbabilities = distributions(1, numPatterns);
+		classContextProbabilities = distributions(numPatterns, NUM_CLASS_CONTEXTS);
+		methodContextProbabilities = distributions(numPatterns, NUM_METHOD_CONTEXTS);
+		definitionProbabilities = distributions(numPatterns, NUM_DEFINITIONS);
+		callProbabilities = new double[numCalls][];
+		for (int i = 0; i < numCalls; i++) {
+			callProbabilities[i] = callDistributions();
+		}
+	}
+
+	private double[] distributions(int numParentStates, int numStates) {
+		double[] probs = new double[numParentStates * numStates];
+		for (int p = 0; p < numParentStates; p++) {
+			double sum = 0;
+			for (int s = 0; s < numStates; s++) {
+				double v = 0.01 + rnd.nextDouble();
+				probs[p * numStates + s] = v;
+				sum += v;
+			}
+			for (int s = 0; s < numStates; s++) {
+				probs[p * numStates + s] /= sum;
+			}
+		}
+		return probs;
+	}
+
+	// most calls are rare in most patterns
+	private double[] callDistributions() {
+		double[] probs = new double[numPatterns * 2];
+		for (int p = 0; p < numPatterns; p++) {
+			double t = rnd.nextInt(4) == 0 ? 0.5 + rnd.nextDouble() * 0.49 : 0.01 + rnd.nextDouble() * 0.1;
+			probs[2 * p] = t;
+			probs[2 * p + 1] = 1 - t;
+		}
+		return probs;
+	}
+
+	public int getNumCalls() {
+		return calls.length;
+	}
+
+	public BayesianNetwork createNetwork() {
+		BayesianNetwork net = new BayesianNetwork();
+		Node patternNode = addNode(net, PATTERN_TITLE, null, patterns, patternProbabilities);
+		addNode(net, CLASS_CONTEXT_TITLE, patternNode, classContexts, classContextProbabilities);
+		addNode(net, METHOD_CONTEXT_TITLE, patternNode, methodContexts, methodContextProbabilities);
+		addNode(net, DEFINITION_TITLE, patternNode, definitions, definitionProbabilities);
+		String[] states = new String[] { STATE_TRUE, STATE_FALSE };
+		for (int i = 0; i < calls.length; i++) {
+			addNode(net, CALL_PREFIX + calls[i], patternNode, states, callProbabilities[i]);
+		}
+		return net;
+	}
+
+	private static Node addNode(BayesianNetwork net, String title, Node parent, String[] states, double[] probs) {
+		Node node = new Node(title);
+		net.addNode(node);
+		if (parent != null) {
+			node.setParents(new Node[] { parent });
+		}
+		node.setStates(states);
+		node.setProbabilities(probs);
+		return node;
+	}
+
+	public BayesNet createJayesNetwork() {
+		BayesNet net = new BayesNet();
+		BayesNode patternNode = addNode(net, PATTERN_TITLE, null, patterns, patternProbabilities);
+		addNode(net, CLASS_CONTEXT_TITLE, patternNode, classContexts, classContextProbabilities);
+		addNode(net, METHOD_CONTEXT_TITLE, patternNode, methodContexts, methodContextProbabilities);
+		addNode(net, DEFINITION_TITLE, patternNode, definitions, definitionProbabilities);
+		String[] states = new String[] { STATE_TRUE, STATE_FALSE };
+		for (int i = 0; i < calls.length; i++) {
+			addNode(net, CALL_PREFIX + calls[i], patternNode, states, callProbabilities[i]);
+		}
+		return net;
+	}
+
+	private static BayesNode addNode(BayesNet net, String title, BayesNode parent, String[] states, double[] probs) {
+		BayesNode node = net.createNode(title);
+		node.addOutcomes(states);
+		if (parent != null) {
+			List<BayesNode> parents = Lists.newArrayList(parent);
+			node.setParents(parents);
+		}
+		node.setProbabilities(probs);
+		return node;
+	}
+
+	/**
+	 * query with contexts and definition of the network and 0-3 of its calls
+	 */
+	public Query createQuery() {
+		Query q = new Query();
+		q.setType(VmTypeName.get(TYPE));
+		q.setClassContext(VmTypeName.get("Lorg/example/Ctx" + rnd.nextInt(NUM_CLASS_CONTEXTS)));
+		q.setMethodContext(VmMethodName.get("Lorg/example/Ctx.m" + rnd.nextInt(NUM_METHOD_CONTEXTS) + "()V"));
+		q.setDefinition(DefinitionSites.createDefinitionByReturn("Lorg/example/Factory.create"
+				+ rnd.nextInt(NUM_DEFINITIONS) + "()" + TYPE + ";"));
+		int numCalls = rnd.nextInt(4);
+		for (int i = 0; i < numCalls; i++) {
+			q.addCallSite(CallSites.createReceiverCallSite(calls[rnd.nextInt(calls.length)]));
+		}
+		return q;
+	}
+
+	/**
+	 * evidence that corresponds to the query, like it is set by the
+	 * PBNRecommender
+	 */
+	public static Map<BayesNode, String> toEvidence(BayesNet net, Query q) {
+		Map<BayesNode, String> evidence = Maps.newHashMap();
+		evidence.put(net.getNode(CLASS_CONTEXT_TITLE), newClassContext(q.getClassContext()));
+		evidence.put(net.getNode(METHOD_CONTEXT_TITLE), newMethodContext(q.getMethodContext()));
+		evidence.put(net.getNode(DEFINITION_TITLE), newDefinition(q.getDefinitionSite()));
+		for (CallSite site : q.getAllCallsites()) {
+			evidence.put(net.getNode(CALL_PREFIX + site.getMethod()), STATE_TRUE);
+		}
+		return evidence;
+	}
+}
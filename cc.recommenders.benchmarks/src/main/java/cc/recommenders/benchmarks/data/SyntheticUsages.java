@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.benchmarks.data;
+
+import java.util.List;
+import java.util.Random;
+
+import cc.recommenders.names.VmMethodName;
+import cc.recommenders.names.VmTypeName;
+import cc.recommenders.usages.CallSites;
+import cc.recommenders.usages.DefinitionSites;
+import cc.recommenders.usages.Query;
+import cc.recommenders.usages.Usage;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Deterministic generator of synthetic usages, the same seed always results
+ * in the same sequence of usages.
+ */
+public class SyntheticUsages {
+
+	public static final int NUM_TYPES = 50;
+	public static final int NUM_CALLS_PER_TYPE = 30;
+	public static final int NUM_CONTEXTS = 200;
+
+	private final Random rnd;
+
+	public SyntheticUsages(long seed) {
+		rnd = new Random(seed);
+	}
+
+	public String nextType() {
+		return "Lorg/example/Type" + rnd.nextInt(NUM_TYPES);
+	}
+
+	public Query createQuery() {
+		return createQuery(nextType());
+	}
+
+	/**
+	 * independent usage with random contexts and 1-6 random calls
+	 */
+	public Query createQuery(String type) {
+		Query q = new Query();
+		q.setType(VmTypeName.get(type));
+		q.setClassContext(VmTypeName.get("Lorg/example/Ctx" + rnd.nextInt(NUM_CONTEXTS)));
+		q.setMethodContext(VmMethodName.get("Lorg/example/Ctx.m" + rnd.nextInt(100) + "()V"));
+		q.setDefinition(DefinitionSites.createDefinitionByReturn("Lorg/example/Factory.create()" + type + ";"));
+		int numCalls = 1 + rnd.nextInt(6);
+		for (int i = 0; i < numCalls; i++) {
+			q.addCallSite(CallSites.createReceiverCallSite(type + ".call" + rnd.nextInt(NUM_CALLS_PER_TYPE) + "()V"));
+		}
+		return q;
+	}
+
+	/**
+	 * usages of a single type that follow the given number of patterns (fixed
+	 * contexts, definition and 2-5 calls) plus some noise, so clustering has
+	 * something to find
+	 */
+	public List<Usage> createPatternUsages(String type, int numUsages, int numPatterns) {
+		List<Query> patterns = Lists.newArrayList();
+		for (int i = 0; i < numPatterns; i++) {
+			patterns.add(createPattern(type, i));
+		}
+		List<Usage> usages = Lists.newArrayList();
+		for (int i = 0; i < numUsages; i++) {
+			Query q = Query.createAsCopyFrom(patterns.get(rnd.nextInt(numPatterns)));
+			if (rnd.nextInt(10) == 0) {
+				q.addCallSite(CallSites.createReceiverCallSite(type + ".call" + rnd.nextInt(NUM_CALLS_PER_TYPE) + "()V"));
+			}
+			usages.add(q);
+		}
+		return usages;
+	}
+
+	private Query createPattern(String type, int patternNum) {
+		Query q = new Query();
+		q.setType(VmTypeName.get(type));
+		q.setClassContext(VmTypeName.get("Lorg/example/Ctx" + rnd.nextInt(NUM_CONTEXTS)));
+		q.setMethodContext(VmMethodName.get("Lorg/example/Ctx.m" + rnd.nextInt(100) + "()V"));
+		q.setDefinition(DefinitionSites.createDefinitionByReturn("Lorg/example/Factory.create" + (patternNum % 5)
+				+ "()" + type + ";"));
+		int numCalls = 2 + rnd.nextInt(4);
+		for (int i = 0; i < numCalls; i++) {
+			q.addCallSite(CallSites.createReceiverCallSite(type + ".call" + rnd.nextInt(NUM_CALLS_PER_TYPE) + "()V"));
+		}
+		return q;
+	}
+
+	/**
+	 * copy of the usage that only contains its first call, like a partial
+	 * usage in the evaluation
+	 */
+	public static Query toPartialQuery(Usage usage) {
+		Query q = Query.createAsCopyFrom(usage);
+		q.resetCallsites();
+		q.addCallSite(usage.getAllCallsites().iterator().next());
+		return q;
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.benchmarks.gson;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import cc.recommenders.benchmarks.data.SyntheticUsages;
+import cc.recommenders.names.IFieldName;
+import cc.recommenders.names.IMethodName;
+import cc.recommenders.names.ITypeName;
+import cc.recommenders.names.VmFieldName;
+import cc.recommenders.names.VmMethodName;
+import cc.recommenders.names.VmTypeName;
+import cc.recommenders.usages.CallSite;
+import cc.recommenders.usages.ProjectFoldedUsage;
+import cc.recommenders.usages.Query;
+import cc.recommenders.usages.Usage;
+import cc.recommenders.utils.gson.GsonFieldNameDeserializer;
+import cc.recommenders.utils.gson.GsonMethodNameDeserializer;
+import cc.recommenders.utils.gson.GsonNameSerializer;
+import cc.recommenders.utils.gson.GsonTypeNameDeserializer;
+import cc.recommenders.utils.gson.GsonUtil;
+import cc.recommenders.utils.gson.UsageTypeAdapter;
+
+import com.google.common.collect.Lists;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Decode throughput (usages per second) of the streaming adapters in
+ * {@link GsonUtil} compared to the previous configuration, in which
+ * {@link ProjectFoldedUsage}, {@link CallSite} and the names were handled by
+ * reflection and tree-based (de-)serializers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UsageDecodingBenchmark {
+
+	private static final int NUM_USAGES = 1000;
+
+	private Gson legacy;
+	private Gson streaming;
+
+	private List<String> usages;
+	private List<String> callSites;
+
+	@Setup
+	public void setup() {
+		legacy = createLegacyGson();
+		streaming = GsonUtil.getInstance();
+
+		SyntheticUsages generator = new SyntheticUsages(1234);
+		usages = Lists.newArrayList();
+		callSites = Lists.newArrayList();
+		for (int i = 0; i < NUM_USAGES; i++) {
+			Query q = generator.createQuery();
+			usages.add(GsonUtil.serialize(new ProjectFoldedUsage(q, "project" + (i % 20))));
+			callSites.add(GsonUtil.serialize(q.getAllCallsites().iterator().next()));
+		}
+	}
+
+	private static Gson createLegacyGson() {
+		GsonBuilder builder = new GsonBuilder();
+		builder.registerTypeAdapter(VmMethodName.class, new GsonNameSerializer());
+		builder.registerTypeAdapter(IMethodName.class, new GsonNameSerializer());
+		builder.registerTypeAdapter(VmMethodName.class, new GsonMethodNameDeserializer());
+		builder.registerTypeAdapter(IMethodName.class, new GsonMethodNameDeserializer());
+		builder.registerTypeAdapter(VmTypeName.class, new GsonNameSerializer());
+		builder.registerTypeAdapter(ITypeName.class, new GsonNameSerializer());
+		builder.registerTypeAdapter(VmTypeName.class, new GsonTypeNameDeserializer());
+		builder.registerTypeAdapter(ITypeName.class, new GsonTypeNameDeserializer());
+		builder.registerTypeAdapter(VmFieldName.class, new GsonNameSerializer());
+		builder.registerTypeAdapter(IFieldName.class, new GsonNameSerializer());
+		builder.registerTypeAdapter(VmFieldName.class, new GsonFieldNameDeserializer());
+		builder.registerTypeAdapter(IFieldName.class, new GsonFieldNameDeserializer());
+		builder.registerTypeAdapter(Usage.class, new UsageTypeAdapter());
+		builder.registerTypeAdapter(Query.class, new UsageTypeAdapter());
+		return builder.create();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_USAGES)
+	public void legacyProjectFoldedUsages(Blackhole bh) {
+		decode(legacy, usages, ProjectFoldedUsage.class, bh);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_USAGES)
+	public void streamingProjectFoldedUsages(Blackhole bh) {
+		decode(streaming, usages, ProjectFoldedUsage.class, bh);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_USAGES)
+	public void legacyCallSites(Blackhole bh) {
+		decode(legacy, callSites, CallSite.class, bh);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_USAGES)
+	public void streamingCallSites(Blackhole bh) {
+		decode(streaming, callSites, CallSite.class, bh);
+	}
+
+	private static void decode(Gson gson, List<String> jsons, Class<?> classOfT, Blackhole bh) {
+		for (String json : jsons) {
+			bh.consume(gson.fromJson(json, classOfT));
+		}
+	}
+}
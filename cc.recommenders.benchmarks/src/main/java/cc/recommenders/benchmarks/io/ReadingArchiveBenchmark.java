@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.benchmarks.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import cc.recommenders.benchmarks.data.SyntheticUsages;
+import cc.recommenders.io.ArchiveFormat;
+import cc.recommenders.io.ReadingArchive;
+import cc.recommenders.io.WritingArchive;
+import cc.recommenders.usages.ProjectFoldedUsage;
+import cc.recommenders.utils.gson.GsonUtil;
+
+import com.google.common.io.Files;
+
+/**
+ * Reading and decoding (through {@link GsonUtil}) all usages of an archive in
+ * both archive formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadingArchiveBenchmark {
+
+	private static final int NUM_USAGES = 5000;
+
+	@Param({ "ZIP", "CHUNKED" })
+	public ArchiveFormat format;
+
+	private File dir;
+	private File archive;
+
+	@Setup
+	public void setup() throws IOException {
+		dir = Files.createTempDir();
+		archive = new File(dir, "usages.zip");
+		SyntheticUsages generator = new SyntheticUsages(1234);
+		WritingArchive wa = new WritingArchive(archive, format);
+		try {
+			for (int i = 0; i < NUM_USAGES; i++) {
+				wa.add(new ProjectFoldedUsage(generator.createQuery(), "project" + (i % 20)));
+			}
+		} finally {
+			wa.close();
+		}
+	}
+
+	@TearDown
+	public void teardown() throws IOException {
+		FileUtils.deleteDirectory(dir);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_USAGES)
+	public void readAll(Blackhole bh) throws IOException {
+		ReadingArchive ra = new ReadingArchive(archive);
+		try {
+			while (ra.hasNext()) {
+				bh.consume(ra.<ProjectFoldedUsage> getNext(ProjectFoldedUsage.class));
+			}
+		} finally {
+			ra.close();
+		}
+	}
+}
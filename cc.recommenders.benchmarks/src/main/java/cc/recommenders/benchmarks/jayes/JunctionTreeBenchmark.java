@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.benchmarks.jayes;
+
+import static cc.recommenders.mining.calls.pbn.PBNModelConstants.CALL_PREFIX;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.recommenders.jayes.BayesNet;
+import org.eclipse.recommenders.jayes.BayesNode;
+import org.eclipse.recommenders.jayes.inference.junctionTree.JunctionTreeAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import cc.recommenders.benchmarks.data.StarNetworks;
+
+import com.google.common.collect.Lists;
+
+/**
+ * {@link JunctionTreeAlgorithm#getBeliefs(BayesNode)} for all call nodes of
+ * a star network after setting new evidence, which is the inference part of
+ * a PBN query without the name handling of the recommender.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JunctionTreeBenchmark {
+
+	private static final int NUM_EVIDENCES = 100;
+
+	@Param({ "5", "25", "100" })
+	public int numPatterns;
+
+	@Param({ "10", "50", "200" })
+	public int numCalls;
+
+	@Param({ "float", "double" })
+	public String precision;
+
+	private JunctionTreeAlgorithm algorithm;
+	private List<BayesNode> callNodes;
+	private List<Map<BayesNode, String>> evidences;
+
+	@Setup
+	public void setup() {
+		StarNetworks networks = new StarNetworks(1234, numPatterns, numCalls);
+		BayesNet net = networks.createJayesNetwork();
+
+		algorithm = new JunctionTreeAlgorithm();
+		if ("float".equals(precision)) {
+			algorithm.getFactory().setFloatingPointType(float.class);
+		}
+		algorithm.setNetwork(net);
+
+		callNodes = Lists.newArrayList();
+		for (BayesNode node : net.getNodes()) {
+			if (node.getName().startsWith(CALL_PREFIX)) {
+				callNodes.add(node);
+			}
+		}
+		evidences = Lists.newArrayList();
+		for (int i = 0; i < NUM_EVIDENCES; i++) {
+			evidences.add(StarNetworks.toEvidence(net, networks.createQuery()));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_EVIDENCES)
+	public void getBeliefs(Blackhole bh) {
+		for (Map<BayesNode, String> evidence : evidences) {
+			algorithm.setEvidence(evidence);
+			for (BayesNode node : callNodes) {
+				bh.consume(algorithm.getBeliefs(node));
+			}
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.benchmarks.mining;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import cc.recommenders.benchmarks.data.SyntheticUsages;
+import cc.recommenders.mining.calls.DictionaryBuilder;
+import cc.recommenders.mining.calls.MiningOptions;
+import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.mining.calls.bmn.BMNMiner;
+import cc.recommenders.mining.calls.bmn.BMNRecommender;
+import cc.recommenders.mining.features.UsageFeatureExtractor;
+import cc.recommenders.usages.Query;
+import cc.recommenders.usages.Usage;
+import cc.recommenders.usages.features.UsageFeature;
+
+/**
+ * Latency of {@link BMNRecommender#query(Query)}, which scans the whole
+ * table, for models learned from different numbers of usages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BMNQueryBenchmark {
+
+	private static final int NUM_QUERIES = 100;
+	private static final String TYPE = "Lorg/example/Type";
+
+	@Param({ "100", "1000", "10000" })
+	public int numUsages;
+
+	private BMNRecommender recommender;
+	private Query[] queries;
+
+	@Setup
+	public void setup() {
+		MiningOptions mOpts = MiningOptions.newMiningOptions("BMN+MANHATTAN+W[0.00; 0.00; 0.00; 0.00]-INIT-DROP");
+		QueryOptions qOpts = QueryOptions.newQueryOptions("+CLASS+METHOD+DEF+PARAMS");
+		UsageFeatureExtractor extractor = new UsageFeatureExtractor(mOpts);
+		BMNMiner miner = new BMNMiner(mOpts, qOpts, new DictionaryBuilder<Usage, UsageFeature>(extractor), extractor);
+
+		SyntheticUsages generator = new SyntheticUsages(1234);
+		recommender = miner.createRecommender(generator.createPatternUsages(TYPE, numUsages, 20));
+
+		List<Usage> validation = generator.createPatternUsages(TYPE, NUM_QUERIES, 20);
+		queries = new Query[NUM_QUERIES];
+		for (int i = 0; i < NUM_QUERIES; i++) {
+			queries[i] = SyntheticUsages.toPartialQuery(validation.get(i));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_QUERIES)
+	public void query(Blackhole bh) {
+		for (Query q : queries) {
+			bh.consume(recommender.query(q));
+		}
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.benchmarks.mining;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import cc.recommenders.benchmarks.data.StarNetworks;
+import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.mining.calls.pbn.PBNRecommender;
+import cc.recommenders.usages.Query;
+
+/**
+ * Latency of {@link PBNRecommender#query(Query)} on star networks of
+ * different size, with the float precision that is used in the evaluations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PBNQueryBenchmark {
+
+	private static final int NUM_QUERIES = 100;
+
+	@Param({ "5", "25", "100" })
+	public int numPatterns;
+
+	@Param({ "10", "50", "200" })
+	public int numCalls;
+
+	private PBNRecommender recommender;
+	private Query[] queries;
+
+	@Setup
+	public void setup() {
+		StarNetworks networks = new StarNetworks(1234, numPatterns, numCalls);
+		QueryOptions options = QueryOptions.newQueryOptions("+CLASS+METHOD+DEF+PARAMS-DOUBLE");
+		recommender = new PBNRecommender(networks.createNetwork(), options);
+		queries = new Query[NUM_QUERIES];
+		for (int i = 0; i < NUM_QUERIES; i++) {
+			queries[i] = networks.createQuery();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_QUERIES)
+	public void query(Blackhole bh) {
+		for (Query q : queries) {
+			bh.consume(recommender.query(q));
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.benchmarks.mining;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cc.recommenders.benchmarks.data.SyntheticUsages;
+import cc.recommenders.mining.calls.DictionaryBuilder;
+import cc.recommenders.mining.calls.DistanceMeasureFactory;
+import cc.recommenders.mining.calls.MiningOptions;
+import cc.recommenders.mining.calls.Pattern;
+import cc.recommenders.mining.calls.clustering.CanopyClusteredPatternFinder;
+import cc.recommenders.mining.calls.clustering.VectorBuilder;
+import cc.recommenders.mining.features.RareFeatureDropper;
+import cc.recommenders.mining.features.UsageFeatureExtractor;
+import cc.recommenders.mining.features.UsageFeatureWeighter;
+import cc.recommenders.usages.Usage;
+import cc.recommenders.usages.features.UsageFeature;
+import cc.recommenders.utils.dictionary.Dictionary;
+
+/**
+ * The two expensive steps of the PBN mining on already extracted features:
+ * dropping rare features and clustering with
+ * {@link CanopyClusteredPatternFinder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatternMiningBenchmark {
+
+	private static final String TYPE = "Lorg/example/Type";
+
+	@Param({ "100", "1000", "10000" })
+	public int numUsages;
+
+	@Param({ "10", "50" })
+	public int numPatterns;
+
+	private CanopyClusteredPatternFinder<UsageFeature> patternFinder;
+	private RareFeatureDropper<UsageFeature> dropper;
+
+	private List<List<UsageFeature>> features;
+	private Dictionary<UsageFeature> dictionary;
+
+	@Setup
+	public void setup() {
+		MiningOptions mOpts = MiningOptions
+				.newMiningOptions("CANOPY[0.51; 0.50]+MANHATTAN+W[0.15; 0.15; 0.15; 0.00]-INIT+DROP");
+		UsageFeatureExtractor extractor = new UsageFeatureExtractor(mOpts);
+		UsageFeatureWeighter weighter = new UsageFeatureWeighter(mOpts);
+		patternFinder = new CanopyClusteredPatternFinder<UsageFeature>(new VectorBuilder<UsageFeature>(weighter),
+				weighter, new DistanceMeasureFactory(mOpts).get(), mOpts.getT1(), mOpts.getT2());
+		dropper = new RareFeatureDropper<UsageFeature>();
+
+		List<Usage> usages = new SyntheticUsages(1234).createPatternUsages(TYPE, numUsages, numPatterns);
+		features = extractor.extract(usages);
+		dictionary = new DictionaryBuilder<Usage, UsageFeature>(extractor).newDictionary(usages);
+	}
+
+	@Benchmark
+	public Dictionary<UsageFeature> dropRare() {
+		return dropper.dropRare(dictionary, features);
+	}
+
+	@Benchmark
+	public List<Pattern<UsageFeature>> find() {
+		return patternFinder.find(features, dictionary);
+	}
+}
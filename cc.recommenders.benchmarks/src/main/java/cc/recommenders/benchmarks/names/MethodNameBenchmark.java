@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.benchmarks.names;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import cc.recommenders.names.IMethodName;
+import cc.recommenders.names.VmMethodName;
+
+/**
+ * Single-threaded cost of {@link VmMethodName#get(String)} for known and for
+ * unseen names (the latter includes building the identifier) and of the
+ * accessors that parse the identifier. See {@link NameInterningBenchmark}
+ * for the contended case.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodNameBenchmark {
+
+	private static final int NUM_NAMES = 1000;
+
+	private String[] identifiers;
+	private IMethodName[] names;
+	private long counter;
+
+	@Setup
+	public void setup() {
+		Random rnd = new Random(1234);
+		identifiers = new String[NUM_NAMES];
+		names = new IMethodName[NUM_NAMES];
+		for (int i = 0; i < NUM_NAMES; i++) {
+			String type = "Lorg/example/Type" + rnd.nextInt(100);
+			identifiers[i] = type + ".call" + rnd.nextInt(50) + "(Ljava/lang/String;I" + type + ";)V";
+			names[i] = VmMethodName.get(identifiers[i]);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_NAMES)
+	public void getKnown(Blackhole bh) {
+		for (String id : identifiers) {
+			bh.consume(VmMethodName.get(id));
+		}
+	}
+
+	@Benchmark
+	public IMethodName getUnseen() {
+		return VmMethodName.get("Lorg/example/Unseen.m" + (counter++) + "()V");
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_NAMES)
+	public void accessors(Blackhole bh) {
+		for (IMethodName m : names) {
+			bh.consume(m.getDeclaringType());
+			bh.consume(m.getName());
+			bh.consume(m.getParameterTypes());
+			bh.consume(m.getReturnType());
+		}
+	}
+}
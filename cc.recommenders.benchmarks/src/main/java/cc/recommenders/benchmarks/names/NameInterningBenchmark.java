@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.benchmarks.names;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import cc.recommenders.benchmarks.data.SyntheticUsages;
+import cc.recommenders.names.VmMethodName;
+import cc.recommenders.names.VmTypeName;
+import cc.recommenders.usages.ProjectFoldedUsage;
+import cc.recommenders.utils.gson.GsonUtil;
+
+import com.google.common.collect.MapMaker;
+
+/**
+ * Many threads that intern names at the same time, either directly or by
+ * parsing usages. The synchronized variant reproduces the former
+ * implementation of {@link VmMethodName#get(String)} as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class NameInterningBenchmark {
+
+	private static final int NUM_NAMES = 1000;
+
+	private static final Map<String, VmMethodName> legacyIndex = new MapMaker().weakValues().makeMap();
+
+	private String[] methods;
+	private String[] types;
+	private String[] usages;
+
+	@Setup
+	public void setup() {
+		Random rnd = new Random(1234);
+		SyntheticUsages generator = new SyntheticUsages(1234);
+		methods = new String[NUM_NAMES];
+		types = new String[NUM_NAMES];
+		usages = new String[NUM_NAMES];
+		for (int i = 0; i < NUM_NAMES; i++) {
+			String type = "Lorg/example/Type" + rnd.nextInt(100);
+			types[i] = type;
+			methods[i] = type + ".call" + rnd.nextInt(50) + "(Ljava/lang/String;)V";
+			usages[i] = GsonUtil.serialize(new ProjectFoldedUsage(generator.createQuery(type), "p" + rnd.nextInt(10)));
+			legacyGet(methods[i]);
+		}
+	}
+
+	private static synchronized VmMethodName legacyGet(String identifier) {
+		VmMethodName res = legacyIndex.get(identifier);
+		if (res == null) {
+			res = VmMethodName.get(identifier);
+			legacyIndex.put(identifier, res);
+		}
+		return res;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_NAMES)
+	public void knownMethodNamesSynchronized(Blackhole bh) {
+		for (String m : methods) {
+			bh.consume(legacyGet(m));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_NAMES)
+	public void knownMethodNames(Blackhole bh) {
+		for (String m : methods) {
+			bh.consume(VmMethodName.get(m));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_NAMES)
+	public void knownTypeNames(Blackhole bh) {
+		for (String t : types) {
+			bh.consume(VmTypeName.get(t));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_NAMES)
+	public void parseUsages(Blackhole bh) {
+		for (String json : usages) {
+			bh.consume(GsonUtil.<ProjectFoldedUsage> deserialize(json, ProjectFoldedUsage.class));
+		}
+	}
+}
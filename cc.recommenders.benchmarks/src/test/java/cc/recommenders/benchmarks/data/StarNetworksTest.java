@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.benchmarks.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.recommenders.commons.bayesnet.BayesianNetwork;
+import org.eclipse.recommenders.commons.bayesnet.Node;
+import org.junit.Test;
+
+import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.mining.calls.pbn.PBNRecommender;
+
+public class StarNetworksTest {
+
+	@Test
+	public void structure() {
+		BayesianNetwork net = new StarNetworks(1, 7, 13).createNetwork();
+		assertEquals(4 + 13, net.getNodes().size());
+		for (Node n : net.getNodes()) {
+			assertTrue(n.isValid());
+		}
+	}
+
+	@Test
+	public void sameSeedSameNetwork() {
+		Node[] a = nodes(new StarNetworks(1, 3, 5).createNetwork());
+		Node[] b = nodes(new StarNetworks(1, 3, 5).createNetwork());
+		assertEquals(a.length, b.length);
+		for (int i = 0; i < a.length; i++) {
+			assertArrayEquals(a[i].getProbabilities(), b[i].getProbabilities(), 0.0);
+		}
+	}
+
+	@Test
+	public void jayesNetworkHasSameNodes() {
+		StarNetworks networks = new StarNetworks(1, 3, 5);
+		assertEquals(networks.createNetwork().getNodes().size(), networks.createJayesNetwork().getNodes().size());
+	}
+
+	@Test
+	public void queriesCanBeAnswered() {
+		StarNetworks networks = new StarNetworks(1, 3, 20);
+		PBNRecommender rec = new PBNRecommender(networks.createNetwork(), QueryOptions.newQueryOptions(""));
+		assertFalse(rec.query(networks.createQuery()).isEmpty());
+	}
+
+	private static Node[] nodes(BayesianNetwork net) {
+		return net.getNodes().toArray(new Node[0]);
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.benchmarks.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import cc.recommenders.usages.Query;
+import cc.recommenders.usages.Usage;
+
+public class SyntheticUsagesTest {
+
+	@Test
+	public void sameSeedSameUsages() {
+		assertEquals(create(1), create(1));
+	}
+
+	@Test
+	public void differentSeedDifferentUsages() {
+		assertNotEquals(create(1), create(2));
+	}
+
+	@Test
+	public void patternUsagesShareTheirContexts() {
+		List<Usage> usages = new SyntheticUsages(1).createPatternUsages("LT", 200, 3);
+		assertEquals(200, usages.size());
+		int numSameAsFirst = 0;
+		for (Usage u : usages) {
+			if (u.getClassContext().equals(usages.get(0).getClassContext())) {
+				numSameAsFirst++;
+			}
+		}
+		assertTrue(numSameAsFirst > 30);
+	}
+
+	@Test
+	public void partialQueriesContainOneCall() {
+		Query q = new SyntheticUsages(1).createQuery();
+		Query partial = SyntheticUsages.toPartialQuery(q);
+		assertEquals(1, partial.getAllCallsites().size());
+		assertEquals(q.getClassContext(), partial.getClassContext());
+		assertEquals(q.getAllCallsites().iterator().next(), partial.getAllCallsites().iterator().next());
+	}
+
+	private static List<Usage> create(long seed) {
+		SyntheticUsages generator = new SyntheticUsages(seed);
+		List<Usage> usages = generator.createPatternUsages("LT", 50, 5);
+		usages.add(generator.createQuery());
+		return usages;
+	}
+}
@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.util.List;
 
 import cc.recommenders.evaluation.io.DecoratedObjectUsageStore;
+import cc.recommenders.io.Logger;
 import cc.recommenders.mining.calls.MiningOptions;
 import cc.recommenders.mining.calls.pbn.ExportMiner;
 import cc.recommenders.names.ITypeName;
@@ -47,7 +48,7 @@ public class ExportToMatlab {
 				exporter.export(type, usages);
 
 			} catch (IOException e) {
-				e.printStackTrace();
+				Logger.err(e, "cannot export %s:", type);
 			}
 		}
 	}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.data;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+import cc.recommenders.assertions.Asserts;
+
+/**
+ * Streaming alternative to {@link Averager} and {@link BoxplotData#getVariance()}
+ * that does not store the values. Mean and (bias-corrected) variance are
+ * updated with Welford's algorithm, two instances can be merged without loss
+ * of precision, e.g., to combine the results of several workers.
+ */
+public class MeanVariance implements Serializable {
+
+	private static final long serialVersionUID = -2954066414719307853L;
+
+	private long num;
+	private double mean;
+	private double m2;
+
+	public void add(double value) {
+		num++;
+		double delta = value - mean;
+		mean += delta / num;
+		m2 += delta * (value - mean);
+	}
+
+	public void merge(MeanVariance other) {
+		if (other.num == 0) {
+			return;
+		}
+		if (num == 0) {
+			num = other.num;
+			mean = other.mean;
+			m2 = other.m2;
+			return;
+		}
+		long total = num + other.num;
+		double delta = other.mean - mean;
+		mean += delta * other.num / total;
+		m2 += other.m2 + delta * delta * num * other.num / total;
+		num = total;
+	}
+
+	public boolean hasValues() {
+		return num > 0;
+	}
+
+	public long getNumValues() {
+		return num;
+	}
+
+	public double getMean() {
+		Asserts.assertTrue(num > 0);
+		return mean;
+	}
+
+	/**
+	 * same as {@link BoxplotData#getVarianceRaw()}
+	 */
+	public double getVarianceRaw() {
+		Asserts.assertTrue(num > 0);
+		return num == 1 ? 0.0 : m2 / (num - 1);
+	}
+
+	public Variance getVariance() {
+		return new Variance((int) num, getMean(), getVarianceRaw());
+	}
+
+	void writeTo(DataOutput out) throws IOException {
+		out.writeLong(num);
+		out.writeDouble(mean);
+		out.writeDouble(m2);
+	}
+
+	void readFrom(DataInput in) throws IOException {
+		num = in.readLong();
+		mean = in.readDouble();
+		m2 = in.readDouble();
+	}
+}
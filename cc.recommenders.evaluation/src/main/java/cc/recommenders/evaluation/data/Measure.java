@@ -36,17 +36,15 @@ public class Measure {
 	public double getF(double beta) {
 		assertNotNegative(beta);
 		assertLessOrEqual(beta, 1.0);
+		return f(precision, recall, beta);
+	}
 
-		if (isPrecisionOrRecallSet()) {
+	static double f(double precision, double recall, double beta) {
+		if (precision != 0.0 || recall != 0.0) {
 			return (1.0 + beta * beta) * precision * recall / (beta * beta * precision + recall);
 		} else {
 			return 0.0;
 		}
-
-	}
-
-	private boolean isPrecisionOrRecallSet() {
-		return precision != 0.0 || recall != 0.0;
 	}
 
 	public static <T> Measure newMeasure(Set<T> expected, Set<T> proposed) {
@@ -68,7 +66,7 @@ public class Measure {
 		return m;
 	}
 
-	private static double saveDivision(double numerator, double denominator) {
+	static double saveDivision(double numerator, double denominator) {
 		if (denominator != 0.0) {
 			return numerator / denominator;
 		} else {
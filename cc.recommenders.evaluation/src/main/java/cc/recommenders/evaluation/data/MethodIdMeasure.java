@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.data;
+
+import java.util.Arrays;
+
+import cc.recommenders.datastructures.IntHashSet;
+import cc.recommenders.names.IMethodName;
+import cc.recommenders.names.NameTable;
+
+/**
+ * Allocation-free alternative to {@link Measure} for the inner loops of the
+ * evaluations. Methods are represented by their {@link NameTable} ids, the
+ * expected and proposed ids are collected in buffers that are reused after a
+ * {@link #reset()}. Like sets, both sides ignore duplicates and the proposals
+ * keep their order. Instances are not thread-safe.
+ */
+public class MethodIdMeasure {
+
+	private int[] expected = new int[16];
+	private int numExpected;
+	private final IntHashSet expectedSet = new IntHashSet();
+
+	private int[] proposed = new int[16];
+	private int numProposed;
+	private final IntHashSet proposedSet = new IntHashSet();
+
+	public MethodIdMeasure reset() {
+		numExpected = 0;
+		expectedSet.clear();
+		numProposed = 0;
+		proposedSet.clear();
+		return this;
+	}
+
+	public void addExpected(IMethodName method) {
+		addExpected(NameTable.getId(method));
+	}
+
+	public void addExpected(int methodId) {
+		if (expectedSet.add(methodId)) {
+			if (numExpected == expected.length) {
+				expected = Arrays.copyOf(expected, 2 * numExpected);
+			}
+			expected[numExpected++] = methodId;
+		}
+	}
+
+	public void addProposed(IMethodName method) {
+		addProposed(NameTable.getId(method));
+	}
+
+	public void addProposed(int methodId) {
+		if (proposedSet.add(methodId)) {
+			if (numProposed == proposed.length) {
+				proposed = Arrays.copyOf(proposed, 2 * numProposed);
+			}
+			proposed[numProposed++] = methodId;
+		}
+	}
+
+	/**
+	 * see {@link Measure#dropAfterTotalRecall(java.util.Set, java.util.Set)}
+	 */
+	public void dropAfterTotalRecall() {
+		int numFound = 0;
+		int numKept = 0;
+		while (numKept < numProposed && numFound < numExpected) {
+			if (expectedSet.contains(proposed[numKept])) {
+				numFound++;
+			}
+			numKept++;
+		}
+		numProposed = numKept;
+	}
+
+	public int getNumExpected() {
+		return numExpected;
+	}
+
+	public int getNumProposed() {
+		return numProposed;
+	}
+
+	private int getNumHits() {
+		int numHits = 0;
+		for (int i = 0; i < numProposed; i++) {
+			if (expectedSet.contains(proposed[i])) {
+				numHits++;
+			}
+		}
+		return numHits;
+	}
+
+	public double getPrecision() {
+		return Measure.saveDivision(getNumHits(), numProposed);
+	}
+
+	public double getRecall() {
+		return Measure.saveDivision(getNumHits(), numExpected);
+	}
+
+	public double getF1() {
+		int numHits = getNumHits();
+		double precision = Measure.saveDivision(numHits, numProposed);
+		double recall = Measure.saveDivision(numHits, numExpected);
+		return Measure.f(precision, recall, 1);
+	}
+}
@@ -0,0 +1,226 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.data;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import cc.recommenders.assertions.Asserts;
+
+/**
+ * Fixed-size, mergeable replacement for {@link BoxplotData}. Values are kept
+ * as (value, count) centroids, sorted by value. As long as there are not more
+ * distinct values than centroids (typical for f1 values), the percentiles are
+ * exactly the ones of {@link BoxplotData}. Otherwise the two closest
+ * centroids are merged (streaming histogram of Ben-Haim and Tom-Tov), so the
+ * percentiles become approximations. Mean and variance are always exact.
+ */
+public class QuantileSketch implements Serializable {
+
+	private static final long serialVersionUID = 4706716373580758093L;
+
+	public static final int DEFAULT_MAX_CENTROIDS = 128;
+
+	private final int maxCentroids;
+
+	private double[] values;
+	private long[] counts;
+	private int numCentroids;
+	private boolean isCompressed;
+
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+	private final MeanVariance meanVariance = new MeanVariance();
+
+	public QuantileSketch() {
+		this(DEFAULT_MAX_CENTROIDS);
+	}
+
+	public QuantileSketch(int maxCentroids) {
+		Asserts.assertGreaterThan(maxCentroids, 1);
+		this.maxCentroids = maxCentroids;
+		values = new double[maxCentroids + 1];
+		counts = new long[maxCentroids + 1];
+	}
+
+	public static QuantileSketch from(double... vs) {
+		QuantileSketch sketch = new QuantileSketch();
+		sketch.addAll(vs);
+		return sketch;
+	}
+
+	public void add(double value) {
+		meanVariance.add(value);
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+		insert(value, 1);
+		compress();
+	}
+
+	public void addAll(double[] vs) {
+		for (double v : vs) {
+			add(v);
+		}
+	}
+
+	public void merge(QuantileSketch other) {
+		isCompressed |= other.isCompressed;
+		meanVariance.merge(other.meanVariance);
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+		for (int i = 0; i < other.numCentroids; i++) {
+			insert(other.values[i], other.counts[i]);
+			compress();
+		}
+	}
+
+	private void insert(double value, long count) {
+		int idx = Arrays.binarySearch(values, 0, numCentroids, value);
+		if (idx >= 0) {
+			counts[idx] += count;
+			return;
+		}
+		int insertAt = -idx - 1;
+		System.arraycopy(values, insertAt, values, insertAt + 1, numCentroids - insertAt);
+		System.arraycopy(counts, insertAt, counts, insertAt + 1, numCentroids - insertAt);
+		values[insertAt] = value;
+		counts[insertAt] = count;
+		numCentroids++;
+	}
+
+	private void compress() {
+		while (numCentroids > maxCentroids) {
+			int closest = 0;
+			for (int i = 1; i < numCentroids - 1; i++) {
+				if (values[i + 1] - values[i] < values[closest + 1] - values[closest]) {
+					closest = i;
+				}
+			}
+			long count = counts[closest] + counts[closest + 1];
+			values[closest] = (values[closest] * counts[closest] + values[closest + 1] * counts[closest + 1]) / count;
+			counts[closest] = count;
+			int numMoved = numCentroids - closest - 2;
+			System.arraycopy(values, closest + 2, values, closest + 1, numMoved);
+			System.arraycopy(counts, closest + 2, counts, closest + 1, numMoved);
+			numCentroids--;
+			isCompressed = true;
+		}
+	}
+
+	public boolean hasData() {
+		return meanVariance.hasValues();
+	}
+
+	public long getNumValues() {
+		return meanVariance.getNumValues();
+	}
+
+	public boolean isExact() {
+		return !isCompressed;
+	}
+
+	public double getMean() {
+		return hasData() ? meanVariance.getMean() : Double.NaN;
+	}
+
+	public Variance getVariance() {
+		return meanVariance.getVariance();
+	}
+
+	/**
+	 * estimation like in {@link org.apache.commons.math.stat.descriptive.rank.Percentile}
+	 */
+	public double getPercentile(double percent) {
+		Asserts.assertTrue(hasData());
+		Asserts.assertGreaterOrEqual(percent, 0.0);
+		Asserts.assertGreaterOrEqual(100.0, percent);
+		long n = getNumValues();
+		if (n == 1) {
+			return getValueAtRank(0);
+		}
+		double pos = percent * (n + 1) / 100;
+		double fpos = Math.floor(pos);
+		if (pos < 1) {
+			return getValueAtRank(0);
+		}
+		if (pos >= n) {
+			return getValueAtRank(n - 1);
+		}
+		double lower = getValueAtRank((long) fpos - 1);
+		double upper = getValueAtRank((long) fpos);
+		return lower + (pos - fpos) * (upper - lower);
+	}
+
+	private double getValueAtRank(long rank) {
+		if (rank == 0) {
+			return min;
+		}
+		if (rank == getNumValues() - 1) {
+			return max;
+		}
+		long seen = 0;
+		for (int i = 0; i < numCentroids; i++) {
+			seen += counts[i];
+			if (rank < seen) {
+				return values[i];
+			}
+		}
+		return max;
+	}
+
+	public Boxplot getBoxplot() {
+		if (!hasData()) {
+			double nan = Double.NaN;
+			return new Boxplot(0, nan, nan, nan, nan, nan, nan);
+		}
+		return new Boxplot((int) getNumValues(), getMean(), getPercentile(5), getPercentile(25), getPercentile(50),
+				getPercentile(75), getPercentile(95));
+	}
+
+	/**
+	 * compact alternative to Java serialization, only the used centroids are
+	 * written
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(maxCentroids);
+		out.writeInt(numCentroids);
+		for (int i = 0; i < numCentroids; i++) {
+			out.writeDouble(values[i]);
+			out.writeLong(counts[i]);
+		}
+		out.writeBoolean(isCompressed);
+		out.writeDouble(min);
+		out.writeDouble(max);
+		meanVariance.writeTo(out);
+	}
+
+	public static QuantileSketch readFrom(DataInput in) throws IOException {
+		int maxCentroids = in.readInt();
+		int numCentroids = in.readInt();
+		if (maxCentroids < 2 || numCentroids < 0 || numCentroids > maxCentroids) {
+			throw new IOException("corrupt sketch (" + numCentroids + "/" + maxCentroids + " centroids)");
+		}
+		QuantileSketch sketch = new QuantileSketch(maxCentroids);
+		for (int i = 0; i < numCentroids; i++) {
+			sketch.values[i] = in.readDouble();
+			sketch.counts[i] = in.readLong();
+		}
+		sketch.numCentroids = numCentroids;
+		sketch.isCompressed = in.readBoolean();
+		sketch.min = in.readDouble();
+		sketch.max = in.readDouble();
+		sketch.meanVariance.readFrom(in);
+		return sketch;
+	}
+}
@@ -0,0 +1,28 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.distribution;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Results that implement this interface are sent by the socket transport in
+ * a compact binary form instead of being Java-serialized. Implementations
+ * need a public default constructor, {@link #readFrom(DataInput)} is called on
+ * a fresh instance.
+ */
+public interface IBinaryEncodable {
+
+	public void writeTo(DataOutput out) throws IOException;
+
+	public void readFrom(DataInput in) throws IOException;
+}
@@ -0,0 +1,29 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.distribution;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Optional extension of an {@link ITaskProvider}. The {@link TaskScheduler}
+ * considers a task overdue relative to its estimated duration, if one is
+ * available.
+ */
+public interface ITaskCostEstimator<TResult> {
+
+	public static final double UNKNOWN = -1;
+
+	/**
+	 * @return the expected processing time of a worker that has been created
+	 *         by the provider or {@link #UNKNOWN}
+	 */
+	public double getEstimatedDurationInS(Callable<TResult> worker);
+}
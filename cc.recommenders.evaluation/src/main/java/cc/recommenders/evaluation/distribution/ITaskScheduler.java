@@ -13,13 +13,20 @@ package cc.recommenders.evaluation.distribution;
 import java.io.Serializable;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.UUID;
 
 public interface ITaskScheduler<T> extends Remote, Serializable {
 
 	/**
-	 * @return <i>next task</i> or <i>null</i> if no more tasks exist
+	 * @return <i>next task</i>, a {@link RetryLater} if no task is available
+	 *         right now, or <i>null</i> if no more tasks exist
 	 */
 	public Runnable getNextNullableTask() throws RemoteException;
 
+	/**
+	 * sent periodically by workers while they are processing a task
+	 */
+	public void heartbeat(UUID taskId) throws RemoteException;
+
 	public void finished(Task<T> task) throws RemoteException;
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.distribution;
+
+import static cc.recommenders.assertions.Asserts.assertGreaterThan;
+import static cc.recommenders.assertions.Asserts.assertNotNull;
+
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import cc.recommenders.assertions.Asserts;
+import cc.recommenders.io.Logger;
+
+import com.google.inject.Injector;
+import com.google.inject.Provider;
+
+/**
+ * In-process alternative to {@link TaskScheduler} for runs on a single
+ * machine. All tasks are executed on a work-stealing {@link ForkJoinPool},
+ * every pool thread gets its own {@link Injector} from the given provider, so
+ * the per-task state of the workers (e.g., mining and query options) is not
+ * shared between threads.
+ *
+ * Results are passed to the {@link ITaskProvider} while other tasks are still
+ * running, the calls to the provider are serialized, because the providers
+ * are not thread-safe.
+ */
+public class LocalTaskScheduler<T> implements ITaskScheduler<T> {
+
+	private static final long serialVersionUID = 7345028716325528316L;
+
+	private final Queue<InjectableRunnable> tasks = new ConcurrentLinkedQueue<InjectableRunnable>();
+	private final ITaskProvider<T> provider;
+	private final ThreadLocal<Injector> injectors;
+	private final int numTasks;
+
+	private final CountDownLatch unfinished;
+
+	public LocalTaskScheduler(ITaskProvider<T> provider, final Provider<Injector> injectorProvider) {
+		assertNotNull(provider);
+		assertNotNull(injectorProvider);
+		this.provider = provider;
+		injectors = new ThreadLocal<Injector>() {
+			@Override
+			protected Injector initialValue() {
+				return injectorProvider.get();
+			}
+		};
+		for (Callable<T> callable : provider.createWorkers()) {
+			tasks.add(new Task<T>(callable, this));
+		}
+		numTasks = tasks.size();
+		unfinished = new CountDownLatch(numTasks);
+	}
+
+	public void run() throws InterruptedException {
+		run(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * executes all tasks and blocks until the provider has been informed that
+	 * the evaluation is done
+	 */
+	public void run(int parallelism) throws InterruptedException {
+		assertGreaterThan(parallelism, 0);
+		Logger.log("# running %d tasks on %d local threads", numTasks, parallelism);
+		if (numTasks == 0) {
+			provider.done();
+			return;
+		}
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			for (int i = 0; i < numTasks; i++) {
+				pool.execute(new Runnable() {
+					@Override
+					public void run() {
+						runNextTask();
+					}
+				});
+			}
+			unfinished.await();
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private void runNextTask() {
+		InjectableRunnable task = getNextNullableTask();
+		if (task != null) {
+			try {
+				task.injectionForMembers(injectors.get());
+			} catch (RuntimeException e) {
+				crashed(task.toString(), e);
+				return;
+			}
+			try {
+				task.run();
+			} catch (Throwable t) {
+				// errors escape Task.run before the task is reported as finished
+				crashed(task.toString(), new ExecutionException(t));
+			}
+		}
+	}
+
+	@Override
+	public InjectableRunnable getNextNullableTask() {
+		return tasks.poll();
+	}
+
+	@Override
+	public void heartbeat(UUID taskId) {
+		// tasks cannot get lost in-process
+	}
+
+	@Override
+	public void finished(Task<T> task) {
+		synchronized (provider) {
+			if (task.hasResult()) {
+				provider.addResult(task.getResult());
+			} else {
+				Asserts.assertTrue(task.hasCrashed());
+				provider.addCrash(task.toString(), task.getException());
+			}
+			countDown();
+		}
+	}
+
+	private void crashed(String taskToString, Exception e) {
+		synchronized (provider) {
+			provider.addCrash(taskToString, e);
+			countDown();
+		}
+	}
+
+	private void countDown() {
+		if (unfinished.getCount() == 1) {
+			provider.done();
+		}
+		unfinished.countDown();
+	}
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.distribution;
+
+import java.io.Serializable;
+
+import com.google.inject.Injector;
+
+/**
+ * Handed out instead of <i>null</i> while there is no task to run, but started
+ * tasks are not finished yet and might be issued again later. Running it makes
+ * the worker wait before it asks for the next task, so idle workers stay
+ * available until the scheduler is done.
+ */
+public class RetryLater implements InjectableRunnable, Serializable {
+
+	private static final long serialVersionUID = -3185463729914637822L;
+
+	private final long delayMs;
+
+	public RetryLater(long delayMs) {
+		this.delayMs = delayMs;
+	}
+
+	public long getDelayMs() {
+		return delayMs;
+	}
+
+	@Override
+	public void injectionForMembers(Injector injector) {
+		// nothing to inject
+	}
+
+	@Override
+	public void run() {
+		try {
+			Thread.sleep(delayMs);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[RetryLater: %d ms]", delayMs);
+	}
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.distribution;
+
+import static cc.recommenders.assertions.Asserts.assertGreaterThan;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.rmi.RemoteException;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Worker side of the {@link SocketTaskServer}. Tasks are leased in batches and
+ * run locally, so the usual worker loop (
+ * <code>getNextNullableTask()</code> until <i>null</i>) works unchanged.
+ * Heartbeats also cover the leased tasks that have not been started yet, the
+ * scheduler is informed as soon as one of them is started.
+ *
+ * One instance can be shared by all worker threads of a JVM.
+ */
+public class SocketTaskScheduler<T> implements ITaskScheduler<T>, Closeable {
+
+	private static final long serialVersionUID = -2260716620347883025L;
+
+	private final SocketChannel channel;
+	private final DataInputStream in;
+	private final OutputStream out;
+	private final int batchSize;
+
+	private final Queue<Task<T>> leased = Lists.newLinkedList();
+
+	public SocketTaskScheduler(String host, int port, int batchSize) throws IOException {
+		assertGreaterThan(batchSize, 0);
+		this.batchSize = batchSize;
+		channel = SocketChannel.open(new InetSocketAddress(host, port));
+		channel.socket().setTcpNoDelay(true);
+		in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+		out = new BufferedOutputStream(Channels.newOutputStream(channel));
+	}
+
+	@Override
+	public synchronized Runnable getNextNullableTask() throws RemoteException {
+		try {
+			Runnable next = leased.isEmpty() ? lease() : leased.poll();
+			if (next instanceof Task) {
+				sendStarted(((Task<?>) next).getUuid());
+			}
+			return next;
+		} catch (IOException e) {
+			throw new RemoteException("cannot lease tasks", e);
+		}
+	}
+
+	private void sendStarted(UUID taskId) throws IOException {
+		ByteArrayOutputStream frame = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(frame);
+		dos.writeByte(TaskProtocol.STARTED);
+		TaskProtocol.writeUuid(dos, taskId);
+		TaskProtocol.writeFrame(out, frame);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Runnable lease() throws IOException {
+		ByteArrayOutputStream frame = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(frame);
+		dos.writeByte(TaskProtocol.LEASE);
+		dos.writeInt(batchSize);
+		TaskProtocol.writeFrame(out, frame);
+
+		in.readInt();
+		byte type = in.readByte();
+		if (type == TaskProtocol.RETRY) {
+			return new RetryLater(in.readLong());
+		}
+		if (type != TaskProtocol.TASKS) {
+			throw new IOException("unexpected message type " + type);
+		}
+		int num = in.readInt();
+		for (int i = 0; i < num; i++) {
+			UUID uuid = TaskProtocol.readUuid(in);
+			Callable<T> callable = (Callable<T>) TaskProtocol.readObject(in);
+			leased.add(new Task<T>(uuid, callable, this));
+		}
+		return leased.poll();
+	}
+
+	@Override
+	public synchronized void heartbeat(UUID taskId) throws RemoteException {
+		try {
+			ByteArrayOutputStream frame = new ByteArrayOutputStream();
+			DataOutputStream dos = new DataOutputStream(frame);
+			dos.writeByte(TaskProtocol.HEARTBEAT);
+			dos.writeInt(1 + leased.size());
+			TaskProtocol.writeUuid(dos, taskId);
+			for (Task<T> task : leased) {
+				TaskProtocol.writeUuid(dos, task.getUuid());
+			}
+			TaskProtocol.writeFrame(out, frame);
+		} catch (IOException e) {
+			throw new RemoteException("cannot send heartbeat", e);
+		}
+	}
+
+	@Override
+	public synchronized void finished(Task<T> task) throws RemoteException {
+		try {
+			ByteArrayOutputStream frame = new ByteArrayOutputStream();
+			DataOutputStream dos = new DataOutputStream(frame);
+			if (task.hasResult()) {
+				dos.writeByte(TaskProtocol.RESULT);
+				TaskProtocol.writeUuid(dos, task.getUuid());
+				TaskProtocol.writeObject(dos, task.getResult());
+			} else {
+				dos.writeByte(TaskProtocol.CRASH);
+				TaskProtocol.writeUuid(dos, task.getUuid());
+				writeException(dos, task.getException());
+			}
+			TaskProtocol.writeFrame(out, frame);
+		} catch (IOException e) {
+			throw new RemoteException("cannot send result", e);
+		}
+	}
+
+	private static void writeException(DataOutputStream dos, Exception e) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		try {
+			if (!isTrusted(e)) {
+				throw new NotSerializableException(e.getClass().getName());
+			}
+			TaskProtocol.writeObject(new DataOutputStream(buffer), e);
+		} catch (NotSerializableException nse) {
+			RuntimeException replacement = new RuntimeException(e.toString());
+			replacement.setStackTrace(e.getStackTrace());
+			buffer.reset();
+			TaskProtocol.writeObject(new DataOutputStream(buffer), replacement);
+		}
+		buffer.writeTo(dos);
+	}
+
+	// the server would reject the exception
+	private static boolean isTrusted(Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause()) {
+			if (!TaskProtocol.isTrusted(t.getClass().getName())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,336 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.distribution;
+
+import static cc.recommenders.assertions.Asserts.assertNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+
+import cc.recommenders.io.Logger;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Alternative to publishing a {@link TaskScheduler} with {@link RmiUtils}.
+ * Serves the tasks of a scheduler over a small binary protocol (see
+ * {@link TaskProtocol}), workers connect with a {@link SocketTaskScheduler}.
+ *
+ * Instead of one remote call per task, workers lease several tasks per round
+ * trip. Tasks are sent without the scheduler stub, and results are sent back
+ * without the worker that produced them. All connections are handled by a
+ * single selector thread, calls to the scheduler are therefore sequential.
+ * The leases of a connection are dropped when it is closed, the scheduler
+ * issues these tasks again once their heartbeats time out.
+ *
+ * Frames are not authenticated, so the server listens on the loopback
+ * interface unless another bind address is given (e.g., an interface of a
+ * trusted cluster network).
+ */
+public class SocketTaskServer<T> implements Closeable {
+
+	private final TaskScheduler<T> scheduler;
+	private final Map<UUID, Task<T>> leased = Maps.newConcurrentMap();
+
+	private final Selector selector;
+	private final ServerSocketChannel server;
+	private final Thread selectorThread;
+
+	private volatile boolean isRunning = true;
+
+	public SocketTaskServer(TaskScheduler<T> scheduler, int port) throws IOException {
+		this(scheduler, InetAddress.getLoopbackAddress().getHostAddress(), port);
+	}
+
+	public SocketTaskServer(TaskScheduler<T> scheduler, String bindAddress, int port) throws IOException {
+		assertNotNull(scheduler);
+		assertNotNull(bindAddress);
+		this.scheduler = scheduler;
+		selector = Selector.open();
+		server = ServerSocketChannel.open();
+		server.socket().bind(new InetSocketAddress(bindAddress, port));
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+
+		selectorThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				serve();
+			}
+		}, "task-server");
+		selectorThread.setDaemon(true);
+		selectorThread.start();
+		Logger.log("# serving tasks on %s:%d", bindAddress, getPort());
+	}
+
+	public InetAddress getAddress() {
+		return server.socket().getInetAddress();
+	}
+
+	public int getPort() {
+		return server.socket().getLocalPort();
+	}
+
+	private void serve() {
+		while (isRunning) {
+			try {
+				selector.select();
+			} catch (IOException e) {
+				Logger.err("task server stopped: %s", e.getMessage());
+				return;
+			}
+			Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+			while (it.hasNext()) {
+				SelectionKey key = it.next();
+				it.remove();
+				try {
+					if (!key.isValid()) {
+						continue;
+					}
+					if (key.isAcceptable()) {
+						accept();
+						continue;
+					}
+					if (key.isReadable()) {
+						read(key);
+					}
+					if (key.isValid() && key.isWritable()) {
+						write(key);
+					}
+				} catch (IOException e) {
+					Logger.err("closing connection to worker: %s", e.getMessage());
+					closeQuietly(key);
+				}
+			}
+		}
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel = server.accept();
+		if (channel != null) {
+			channel.configureBlocking(false);
+			channel.socket().setTcpNoDelay(true);
+			channel.register(selector, SelectionKey.OP_READ, new Connection());
+		}
+	}
+
+	private void read(SelectionKey key) throws IOException {
+		SocketChannel channel = (SocketChannel) key.channel();
+		Connection conn = (Connection) key.attachment();
+		while (true) {
+			ByteBuffer buffer = conn.body == null ? conn.header : conn.body;
+			int num = channel.read(buffer);
+			if (num < 0) {
+				closeQuietly(key);
+				return;
+			}
+			if (buffer.hasRemaining()) {
+				return;
+			}
+			if (conn.body == null) {
+				conn.header.flip();
+				int length = conn.header.getInt();
+				conn.header.clear();
+				if (length <= 0 || length > TaskProtocol.MAX_FRAME_SIZE) {
+					throw new IOException("invalid frame length " + length);
+				}
+				conn.body = ByteBuffer.allocate(length);
+			} else {
+				byte[] frame = conn.body.array();
+				conn.body = null;
+				ByteArrayOutputStream response = handle(conn, frame);
+				if (response != null) {
+					send(key, conn, response);
+				}
+			}
+		}
+	}
+
+	private ByteArrayOutputStream handle(Connection conn, byte[] frame) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+		byte type = in.readByte();
+		switch (type) {
+		case TaskProtocol.LEASE:
+			return lease(conn, in.readInt());
+		case TaskProtocol.STARTED:
+			scheduler.started(TaskProtocol.readUuid(in));
+			return null;
+		case TaskProtocol.HEARTBEAT:
+			int num = in.readInt();
+			for (int i = 0; i < num; i++) {
+				scheduler.heartbeat(TaskProtocol.readUuid(in));
+			}
+			return null;
+		case TaskProtocol.RESULT:
+		case TaskProtocol.CRASH:
+			finished(conn, TaskProtocol.readUuid(in), type, TaskProtocol.readObject(in));
+			return null;
+		default:
+			throw new IOException("unknown message type " + type);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private ByteArrayOutputStream lease(Connection conn, int max) throws IOException {
+		List<Task<T>> tasks = Lists.newLinkedList();
+		RetryLater retry = null;
+		for (int i = 0; i < max; i++) {
+			Runnable r = scheduler.getNextNullableTask();
+			if (r == null) {
+				break;
+			}
+			if (r instanceof RetryLater) {
+				retry = (RetryLater) r;
+				break;
+			}
+			Task<T> task = (Task<T>) r;
+			scheduler.leased(task.getUuid());
+			leased.put(task.getUuid(), task);
+			conn.leased.add(task.getUuid());
+			tasks.add(task);
+		}
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(baos);
+		if (tasks.isEmpty() && retry != null) {
+			out.writeByte(TaskProtocol.RETRY);
+			out.writeLong(retry.getDelayMs());
+			out.close();
+			return baos;
+		}
+		out.writeByte(TaskProtocol.TASKS);
+		out.writeInt(tasks.size());
+		for (Task<T> task : tasks) {
+			TaskProtocol.writeUuid(out, task.getUuid());
+			TaskProtocol.writeObject(out, task.getCallable());
+		}
+		out.close();
+		return baos;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void finished(Connection conn, UUID uuid, byte type, Object outcome) throws IOException {
+		conn.leased.remove(uuid);
+		Task<T> task = leased.remove(uuid);
+		if (task == null) {
+			// another copy of the task has finished earlier
+			return;
+		}
+		if (type == TaskProtocol.RESULT) {
+			task.complete((T) outcome, null);
+		} else {
+			task.complete(null, (Exception) outcome);
+		}
+		scheduler.finished(task);
+	}
+
+	private void send(SelectionKey key, Connection conn, ByteArrayOutputStream frame) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(4 + frame.size());
+		buffer.putInt(frame.size());
+		buffer.put(frame.toByteArray());
+		buffer.flip();
+		conn.outgoing.add(buffer);
+		write(key);
+	}
+
+	private void write(SelectionKey key) throws IOException {
+		SocketChannel channel = (SocketChannel) key.channel();
+		Connection conn = (Connection) key.attachment();
+		while (!conn.outgoing.isEmpty()) {
+			ByteBuffer buffer = conn.outgoing.peek();
+			channel.write(buffer);
+			if (buffer.hasRemaining()) {
+				key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+				return;
+			}
+			conn.outgoing.poll();
+		}
+		key.interestOps(SelectionKey.OP_READ);
+	}
+
+	private void closeQuietly(SelectionKey key) {
+		key.cancel();
+		if (key.attachment() instanceof Connection) {
+			dropLeases((Connection) key.attachment());
+		}
+		try {
+			key.channel().close();
+		} catch (IOException e) {
+			// nothing to do
+		}
+	}
+
+	private void dropLeases(Connection closed) {
+		for (UUID uuid : closed.leased) {
+			if (!isLeasedByOpenConnection(uuid)) {
+				leased.remove(uuid);
+			}
+		}
+		closed.leased.clear();
+	}
+
+	// a task that has been re-issued can be leased by several connections
+	private boolean isLeasedByOpenConnection(UUID uuid) {
+		for (SelectionKey key : selector.keys()) {
+			Object conn = key.attachment();
+			if (key.isValid() && conn instanceof Connection && ((Connection) conn).leased.contains(uuid)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** number of tasks that are leased by connected workers */
+	int getNumLeasedTasks() {
+		return leased.size();
+	}
+
+	@Override
+	public void close() throws IOException {
+		isRunning = false;
+		selector.wakeup();
+		try {
+			selectorThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for (SelectionKey key : selector.keys()) {
+			closeQuietly(key);
+		}
+		selector.close();
+		server.close();
+	}
+
+	private static class Connection {
+		private final ByteBuffer header = ByteBuffer.allocate(4);
+		private ByteBuffer body;
+		private final Queue<ByteBuffer> outgoing = Lists.newLinkedList();
+		private final Set<UUID> leased = Sets.newHashSet();
+	}
+}
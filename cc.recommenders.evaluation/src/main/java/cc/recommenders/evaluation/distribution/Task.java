@@ -16,26 +16,51 @@ import java.io.Serializable;
 import java.rmi.RemoteException;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.UnhandledException;
 
+import cc.recommenders.io.Logger;
+
 import com.google.inject.Injector;
 
 public class Task<TResult> implements Serializable, InjectableRunnable {
 
 	private static final long serialVersionUID = -584046208094647116L;
 
+	public static final long HEARTBEAT_INTERVAL_S = 10;
+
+	private static final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "task-heartbeats");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+
 	private final ITaskScheduler<TResult> scheduler;
 
-	private final UUID uuid = UUID.randomUUID();
+	private final UUID uuid;
 	private final Callable<TResult> callable;
 
 	private TResult result;
 	private Exception caughtException;
 
 	public Task(Callable<TResult> callable, ITaskScheduler<TResult> scheduler) {
+		this(UUID.randomUUID(), callable, scheduler);
+	}
+
+	Task(UUID uuid, Callable<TResult> callable, ITaskScheduler<TResult> scheduler) {
+		assertNotNull(uuid);
 		assertNotNull(callable);
 		assertNotNull(scheduler);
+		this.uuid = uuid;
 		this.callable = callable;
 		this.scheduler = scheduler;
 	}
@@ -60,6 +85,18 @@ public class Task<TResult> implements Serializable, InjectableRunnable {
 		return caughtException;
 	}
 
+	Callable<TResult> getCallable() {
+		return callable;
+	}
+
+	/**
+	 * used by transports that only send back the outcome of a remote execution
+	 */
+	void complete(TResult result, Exception caughtException) {
+		this.result = result;
+		this.caughtException = caughtException;
+	}
+
 	@Override
 	public void injectionForMembers(Injector injector) {
 		injector.injectMembers(callable);
@@ -68,10 +105,13 @@ public class Task<TResult> implements Serializable, InjectableRunnable {
 	@Override
 	public void run() {
 		try {
+			ScheduledFuture<?> heartbeat = startHeartbeat();
 			try {
 				result = callable.call();
 			} catch (Exception e) {
 				caughtException = e;
+			} finally {
+				heartbeat.cancel(false);
 			}
 			scheduler.finished(this);
 		} catch (RemoteException e) {
@@ -79,6 +119,19 @@ public class Task<TResult> implements Serializable, InjectableRunnable {
 		}
 	}
 
+	private ScheduledFuture<?> startHeartbeat() {
+		return heartbeats.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					scheduler.heartbeat(uuid);
+				} catch (RemoteException e) {
+					Logger.err("heartbeat failed for %s: %s", Task.this, e.getMessage());
+				}
+			}
+		}, HEARTBEAT_INTERVAL_S, HEARTBEAT_INTERVAL_S, TimeUnit.SECONDS);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
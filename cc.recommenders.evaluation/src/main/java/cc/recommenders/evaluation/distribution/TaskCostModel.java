@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.distribution;
+
+import java.io.IOException;
+import java.util.Map;
+
+import cc.recommenders.io.Directory;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Estimates the processing time of a task from the number of usages of its
+ * type and its option string. For each option string, the model fits
+ * <code>time = a * usages^b</code> (least squares in log space) to the
+ * observed processing times; option strings without observations fall back
+ * to a fit over all observations and, without any observation, to the number
+ * of usages.
+ *
+ * The model can be persisted, so later runs start with the estimates of the
+ * previous ones.
+ */
+public class TaskCostModel {
+
+	private static final double MIN_EXPONENT = 0.5;
+	private static final double MAX_EXPONENT = 3.0;
+
+	private final Map<String, Observations> byOptions = Maps.newHashMap();
+	private final Observations all = new Observations();
+
+	private transient Directory dir;
+	private transient String fileName;
+
+	public static TaskCostModel load(Directory dir, String fileName) throws IOException {
+		TaskCostModel model = dir.exists(fileName) ? dir.<TaskCostModel> read(fileName, TaskCostModel.class)
+				: new TaskCostModel();
+		model.dir = dir;
+		model.fileName = fileName;
+		return model;
+	}
+
+	public synchronized void save() throws IOException {
+		if (dir != null) {
+			dir.write(this, fileName);
+		}
+	}
+
+	public synchronized double estimate(String options, int numUsages) {
+		Observations obs = byOptions.get(options);
+		if (obs == null) {
+			obs = all;
+		}
+		if (obs.num == 0) {
+			return Math.max(numUsages, 1);
+		}
+		return obs.estimate(numUsages);
+	}
+
+	public synchronized void observe(String options, int numUsages, double processingTimeInS) {
+		Observations obs = byOptions.get(options);
+		if (obs == null) {
+			obs = new Observations();
+			byOptions.put(options, obs);
+		}
+		obs.add(numUsages, processingTimeInS);
+		all.add(numUsages, processingTimeInS);
+	}
+
+	public synchronized int getNumObservations() {
+		return all.num;
+	}
+
+	private static class Observations {
+		private int num;
+		private double sumX;
+		private double sumY;
+		private double sumXX;
+		private double sumXY;
+
+		public void add(int numUsages, double processingTimeInS) {
+			double x = Math.log(Math.max(numUsages, 1));
+			double y = Math.log(Math.max(processingTimeInS, 0.001));
+			num++;
+			sumX += x;
+			sumY += y;
+			sumXX += x * x;
+			sumXY += x * y;
+		}
+
+		public double estimate(int numUsages) {
+			double meanX = sumX / num;
+			double meanY = sumY / num;
+			double varX = sumXX / num - meanX * meanX;
+			double exponent = 1;
+			if (varX > 0.01) {
+				double covXY = sumXY / num - meanX * meanY;
+				exponent = Math.min(MAX_EXPONENT, Math.max(MIN_EXPONENT, covXY / varX));
+			}
+			double logFactor = meanY - exponent * meanX;
+			return Math.exp(logFactor + exponent * Math.log(Math.max(numUsages, 1)));
+		}
+	}
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.distribution;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.util.UUID;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Frames of the socket transport are <code>int length, byte type, payload</code>.
+ * Objects (workers, results, exceptions) are Java-serialized, except for
+ * results that are {@link IBinaryEncodable}, which are written as class name
+ * and their compact encoding. Objects are deflated if they are larger than
+ * {@link #COMPRESSION_THRESHOLD} bytes. Only classes from
+ * {@link #TRUSTED_PACKAGES} are deserialized or instantiated.
+ *
+ * <ul>
+ * <li>LEASE (worker): <code>int max</code></li>
+ * <li>TASKS (scheduler): <code>int num, num * (uuid, object callable)</code></li>
+ * <li>RETRY (scheduler): <code>long delayMs</code>, no task is available yet</li>
+ * <li>STARTED (worker): <code>uuid</code>, a leased task is started</li>
+ * <li>HEARTBEAT (worker): <code>int num, num * uuid</code></li>
+ * <li>RESULT (worker): <code>uuid, object result</code></li>
+ * <li>CRASH (worker): <code>uuid, object exception</code></li>
+ * </ul>
+ */
+class TaskProtocol {
+
+	public static final byte LEASE = 1;
+	public static final byte TASKS = 2;
+	public static final byte HEARTBEAT = 3;
+	public static final byte RESULT = 4;
+	public static final byte CRASH = 5;
+	public static final byte RETRY = 6;
+	public static final byte STARTED = 7;
+
+	public static final int MAX_FRAME_SIZE = 256 * 1024 * 1024;
+	public static final int COMPRESSION_THRESHOLD = 1024;
+
+	public static final String[] TRUSTED_PACKAGES = { "java.", "cc.recommenders.", "com.google.common." };
+
+	// encoding flags
+	private static final byte PLAIN = 0;
+	private static final byte DEFLATED = 1;
+	private static final byte COMPACT = 2;
+
+	private TaskProtocol() {
+	}
+
+	public static void writeUuid(DataOutput out, UUID uuid) throws IOException {
+		out.writeLong(uuid.getMostSignificantBits());
+		out.writeLong(uuid.getLeastSignificantBits());
+	}
+
+	public static UUID readUuid(DataInput in) throws IOException {
+		return new UUID(in.readLong(), in.readLong());
+	}
+
+	public static void writeObject(DataOutput out, Object o) throws IOException {
+		byte encoding = PLAIN;
+		byte[] bytes;
+		if (o instanceof IBinaryEncodable) {
+			encoding |= COMPACT;
+			bytes = encode((IBinaryEncodable) o);
+		} else {
+			bytes = serialize(o);
+		}
+		if (bytes.length > COMPRESSION_THRESHOLD) {
+			ByteArrayOutputStream baos = new ByteArrayOutputStream(bytes.length / 2);
+			DeflaterOutputStream dos = new DeflaterOutputStream(baos);
+			dos.write(bytes);
+			dos.close();
+			encoding |= DEFLATED;
+			bytes = baos.toByteArray();
+		}
+		out.writeByte(encoding);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	public static Object readObject(DataInput in) throws IOException {
+		byte encoding = in.readByte();
+		if ((encoding & ~(DEFLATED | COMPACT)) != 0) {
+			throw new IOException("unknown encoding " + encoding);
+		}
+		int length = in.readInt();
+		if (length < 0 || length > MAX_FRAME_SIZE) {
+			throw new IOException("invalid object length " + length);
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		InputStream is = new ByteArrayInputStream(bytes);
+		if ((encoding & DEFLATED) != 0) {
+			is = new InflaterInputStream(is);
+		}
+		if ((encoding & COMPACT) != 0) {
+			return decode(new DataInputStream(is));
+		}
+		ObjectInputStream ois = new ObjectInputStream(is) {
+			@Override
+			protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+				if (!isTrusted(desc.getName())) {
+					throw new InvalidClassException(desc.getName(), "class is not trusted");
+				}
+				return super.resolveClass(desc);
+			}
+
+			@Override
+			protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+				for (String name : interfaces) {
+					if (!isTrusted(name)) {
+						throw new InvalidClassException(name, "class is not trusted");
+					}
+				}
+				return super.resolveProxyClass(interfaces);
+			}
+		};
+		try {
+			return ois.readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException(e);
+		} finally {
+			ois.close();
+		}
+	}
+
+	public static boolean isTrusted(String className) {
+		String name = className;
+		// arrays, e.g., "[[Ljava.lang.String;" or "[D"
+		if (name.startsWith("[")) {
+			name = name.substring(name.lastIndexOf('[') + 1);
+			if (name.length() == 1) {
+				return true;
+			}
+			name = name.substring(1, name.length() - 1);
+		}
+		for (String pkg : TRUSTED_PACKAGES) {
+			if (name.startsWith(pkg)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static byte[] encode(IBinaryEncodable o) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DataOutputStream dos = new DataOutputStream(baos);
+		dos.writeUTF(o.getClass().getName());
+		o.writeTo(dos);
+		dos.close();
+		return baos.toByteArray();
+	}
+
+	private static IBinaryEncodable decode(DataInputStream in) throws IOException {
+		String className = in.readUTF();
+		if (!isTrusted(className)) {
+			throw new InvalidClassException(className, "class is not trusted");
+		}
+		IBinaryEncodable o;
+		try {
+			Class<?> c = Class.forName(className, false, TaskProtocol.class.getClassLoader());
+			if (!IBinaryEncodable.class.isAssignableFrom(c)) {
+				throw new InvalidClassException(className, "class is not binary encodable");
+			}
+			o = (IBinaryEncodable) c.newInstance();
+		} catch (ClassNotFoundException e) {
+			throw new IOException(e);
+		} catch (InstantiationException e) {
+			throw new IOException(e);
+		} catch (IllegalAccessException e) {
+			throw new IOException(e);
+		}
+		o.readFrom(in);
+		if (in.read() != -1) {
+			throw new IOException("trailing bytes after " + className);
+		}
+		return o;
+	}
+
+	private static byte[] serialize(Object o) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(baos);
+		oos.writeObject(o);
+		oos.close();
+		return baos.toByteArray();
+	}
+
+	public static void writeFrame(OutputStream out, ByteArrayOutputStream frame) throws IOException {
+		int length = frame.size();
+		out.write(new byte[] { (byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length });
+		frame.writeTo(out);
+		out.flush();
+	}
+}
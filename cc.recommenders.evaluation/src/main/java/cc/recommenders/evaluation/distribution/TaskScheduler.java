@@ -14,53 +14,180 @@ import static cc.recommenders.assertions.Asserts.assertNotNull;
 
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
+import java.util.Map;
 import java.util.Queue;
+import java.util.UUID;
 import java.util.concurrent.Callable;
 
 import cc.recommenders.assertions.Asserts;
+import cc.recommenders.io.Logger;
+import cc.recommenders.utils.DateProvider;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
+/**
+ * Hands out tasks to remote workers. Once all tasks have been started, a
+ * started task is only handed out again, if its workers did not send a
+ * heartbeat for {@link #HEARTBEAT_TIMEOUT_S} (they are considered dead), or if
+ * it runs {@link #OVERDUE_FACTOR} times longer than expected. The expected
+ * duration is taken from the provider, if it is an {@link ITaskCostEstimator}
+ * that knows the task, and falls back to the longest task that has finished so
+ * far otherwise. In the latter case, at most
+ * {@link #MAX_CONCURRENT_COPIES} copies of a task are running at the same
+ * time.
+ *
+ * Idle workers get a {@link RetryLater} as long as started tasks are
+ * unfinished, so they are still around to pick up a task that is issued again.
+ *
+ * Transports that hand out tasks in batches mark them as {@link #leased(UUID)}
+ * and report when a worker has {@link #started(UUID)} them, so a task that
+ * waits in a batch is not considered to be overdue.
+ */
 public class TaskScheduler<T> extends UnicastRemoteObject implements ITaskScheduler<T> {
 
 	private static final long serialVersionUID = 1596515633547490112L;
 
-	private final Queue<InjectableRunnable> tasks = Lists.newLinkedList();
-	private final Queue<InjectableRunnable> started = Lists.newLinkedList();
+	public static final long HEARTBEAT_TIMEOUT_S = 6 * Task.HEARTBEAT_INTERVAL_S;
+	public static final int OVERDUE_FACTOR = 3;
+	public static final int MAX_CONCURRENT_COPIES = 2;
+	public static final long RETRY_DELAY_MS = 1000;
+
+	private final Queue<Task<T>> tasks = Lists.newLinkedList();
+	private final Map<UUID, Execution> started = Maps.newLinkedHashMap();
+	private final Map<UUID, Double> estimatedDurations = Maps.newHashMap();
 
-	private ITaskProvider<T> provider;
+	private final ITaskProvider<T> provider;
+	private final DateProvider dateProvider;
+
+	private static final long NOT_STARTED = -1;
 
 	private boolean isRunning = true;
+	private long longestDurationS = -1;
 
-	private TaskScheduler(ITaskProvider<T> provider) throws RemoteException {
+	@SuppressWarnings("unchecked")
+	private TaskScheduler(ITaskProvider<T> provider, DateProvider dateProvider) throws RemoteException {
 		super();
 		this.provider = provider;
+		this.dateProvider = dateProvider;
+		ITaskCostEstimator<T> estimator = null;
+		if (provider instanceof ITaskCostEstimator) {
+			estimator = (ITaskCostEstimator<T>) provider;
+		}
 		for (Callable<T> callable : provider.createWorkers()) {
-			tasks.add(new Task<T>(callable, this));
+			Task<T> task = new Task<T>(callable, this);
+			tasks.add(task);
+			if (estimator != null) {
+				double estimateS = estimator.getEstimatedDurationInS(callable);
+				if (estimateS >= 0) {
+					estimatedDurations.put(task.getUuid(), estimateS);
+				}
+			}
+		}
+		if (tasks.isEmpty()) {
+			// e.g., all results have been replayed from a journal
+			isRunning = false;
+			provider.done();
 		}
 	}
 
 	@Override
 	public synchronized Runnable getNextNullableTask() throws RemoteException {
+		long now = dateProvider.getTimeSeconds();
 
 		if (!tasks.isEmpty()) {
-			InjectableRunnable task = tasks.poll();
-			started.add(task);
+			Task<T> task = tasks.poll();
+			Execution e = new Execution(task, now);
+			started.put(task.getUuid(), e);
 			return task;
 		}
 
+		Execution e = findExecutionToRepeat(now);
+		if (e != null) {
+			e.attempts++;
+			e.lastSeen = e.lastStarted = now;
+			Logger.log("re-issuing %s (attempt %d, %d copies running)", e.task, e.attempts, e.copies);
+			return e.task;
+		}
+
 		if (!started.isEmpty()) {
-			InjectableRunnable task = started.poll();
-			started.add(task);
-			return task;
+			return new RetryLater(RETRY_DELAY_MS);
 		}
+		return null;
+	}
 
+	private Execution findExecutionToRepeat(long now) {
+		for (Execution e : started.values()) {
+			if (now - e.lastSeen > HEARTBEAT_TIMEOUT_S) {
+				// all copies are considered to be dead
+				e.copies = 1;
+				return e;
+			}
+		}
+		for (Execution e : started.values()) {
+			boolean isStarted = e.lastStarted != NOT_STARTED;
+			if (isStarted && e.copies < MAX_CONCURRENT_COPIES && isOverdue(e, now)) {
+				e.copies++;
+				return e;
+			}
+		}
 		return null;
 	}
 
+	private boolean isOverdue(Execution e, long now) {
+		Double estimateS = estimatedDurations.get(e.task.getUuid());
+		double expectedS;
+		if (estimateS != null) {
+			expectedS = estimateS;
+		} else if (longestDurationS >= 0) {
+			expectedS = longestDurationS;
+		} else {
+			return false;
+		}
+		double overdueLimit = OVERDUE_FACTOR * Math.max(expectedS, Task.HEARTBEAT_INTERVAL_S);
+		return now - e.lastStarted > overdueLimit;
+	}
+
+	/**
+	 * the task has been handed out in a batch and waits for its worker, the
+	 * overdue clock is stopped until the task is started
+	 */
+	public synchronized void leased(UUID taskId) {
+		Execution e = started.get(taskId);
+		if (e != null) {
+			e.lastStarted = NOT_STARTED;
+			if (e.attempts == 1) {
+				e.firstStarted = NOT_STARTED;
+			}
+		}
+	}
+
+	public synchronized void started(UUID taskId) {
+		Execution e = started.get(taskId);
+		if (e != null) {
+			long now = dateProvider.getTimeSeconds();
+			e.lastSeen = e.lastStarted = now;
+			if (e.firstStarted == NOT_STARTED) {
+				e.firstStarted = now;
+			}
+		}
+	}
+
+	@Override
+	public synchronized void heartbeat(UUID taskId) throws RemoteException {
+		Execution e = started.get(taskId);
+		if (e != null) {
+			e.lastSeen = dateProvider.getTimeSeconds();
+		}
+	}
+
 	@Override
 	public synchronized void finished(Task<T> task) throws RemoteException {
-		if (started.remove(task)) {
+		Execution e = started.remove(task.getUuid());
+		if (e != null) {
+			estimatedDurations.remove(task.getUuid());
+			long start = e.firstStarted == NOT_STARTED ? e.firstIssued : e.firstStarted;
+			longestDurationS = Math.max(longestDurationS, dateProvider.getTimeSeconds() - start);
 			if (task.hasResult()) {
 				provider.addResult(task.getResult());
 			} else {
@@ -74,9 +201,30 @@ public class TaskScheduler<T> extends UnicastRemoteObject implements ITaskSchedu
 		}
 	}
 
-	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public static <U> TaskScheduler<U> create(ITaskProvider<U> provider) throws RemoteException {
+		return create(provider, new DateProvider());
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public static <U> TaskScheduler<U> create(ITaskProvider<U> provider, DateProvider dateProvider)
+			throws RemoteException {
 		assertNotNull(provider);
-		return new TaskScheduler(provider);
+		assertNotNull(dateProvider);
+		return new TaskScheduler(provider, dateProvider);
+	}
+
+	private static class Execution {
+		private final Task<?> task;
+		private final long firstIssued;
+		private long firstStarted;
+		private long lastStarted;
+		private long lastSeen;
+		private int attempts = 1;
+		private int copies = 1;
+
+		public Execution(Task<?> task, long now) {
+			this.task = task;
+			firstIssued = firstStarted = lastStarted = lastSeen = now;
+		}
 	}
 }
\ No newline at end of file
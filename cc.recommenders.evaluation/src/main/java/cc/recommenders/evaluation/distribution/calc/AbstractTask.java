@@ -12,8 +12,14 @@ package cc.recommenders.evaluation.distribution.calc;
 
 import static java.lang.String.format;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 
+import cc.recommenders.evaluation.data.QuantileSketch;
+import cc.recommenders.evaluation.distribution.IBinaryEncodable;
+
 public abstract class AbstractTask implements Serializable {
 
 	private static final long serialVersionUID = 9180495389887500614L;
@@ -46,4 +52,71 @@ public abstract class AbstractTask implements Serializable {
 	protected String resultToString() {
 		return "";
 	}
+
+	/**
+	 * helper for subclasses that implement {@link IBinaryEncodable}
+	 */
+	protected void writeBasics(DataOutput out) throws IOException {
+		writeNullableString(out, app);
+		writeNullableString(out, options);
+		writeNullableString(out, typeName);
+		out.writeInt(currentFold);
+		out.writeInt(numFolds);
+		out.writeDouble(processingTimeInS);
+	}
+
+	protected void readBasics(DataInput in) throws IOException {
+		app = readNullableString(in);
+		options = readNullableString(in);
+		typeName = readNullableString(in);
+		currentFold = in.readInt();
+		numFolds = in.readInt();
+		processingTimeInS = in.readDouble();
+	}
+
+	protected static void writeNullableString(DataOutput out, String s) throws IOException {
+		out.writeBoolean(s != null);
+		if (s != null) {
+			out.writeUTF(s);
+		}
+	}
+
+	protected static String readNullableString(DataInput in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	protected static void writeDoubles(DataOutput out, double[] values) throws IOException {
+		out.writeInt(values == null ? -1 : values.length);
+		if (values != null) {
+			for (double v : values) {
+				out.writeDouble(v);
+			}
+		}
+	}
+
+	protected static double[] readDoubles(DataInput in) throws IOException {
+		int length = in.readInt();
+		if (length < -1) {
+			throw new IOException("invalid array length " + length);
+		}
+		if (length == -1) {
+			return null;
+		}
+		double[] values = new double[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = in.readDouble();
+		}
+		return values;
+	}
+
+	protected static void writeSketch(DataOutput out, QuantileSketch sketch) throws IOException {
+		out.writeBoolean(sketch != null);
+		if (sketch != null) {
+			sketch.writeTo(out);
+		}
+	}
+
+	protected static QuantileSketch readSketch(DataInput in) throws IOException {
+		return in.readBoolean() ? QuantileSketch.readFrom(in) : null;
+	}
 }
\ No newline at end of file
@@ -14,28 +14,43 @@ import static cc.recommenders.io.Logger.log;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 
+import cc.recommenders.assertions.Asserts;
 import cc.recommenders.evaluation.OutputUtils;
+import cc.recommenders.evaluation.distribution.ITaskCostEstimator;
 import cc.recommenders.evaluation.distribution.ITaskProvider;
+import cc.recommenders.evaluation.distribution.TaskCostModel;
 import cc.recommenders.evaluation.io.ProjectFoldedUsageStore;
 import cc.recommenders.evaluation.io.TypeStore;
+import cc.recommenders.evaluation.io.TypeStoreCache;
 import cc.recommenders.io.Logger;
 import cc.recommenders.names.ITypeName;
+import cc.recommenders.names.VmTypeName;
 import cc.recommenders.usages.Usage;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
-public abstract class AbstractTaskProvider<TTask extends AbstractTask> implements ITaskProvider<TTask> {
+public abstract class AbstractTaskProvider<TTask extends AbstractTask> implements ITaskProvider<TTask>,
+		ITaskCostEstimator<TTask> {
 
 	private final ProjectFoldedUsageStore store;
 	private final OutputUtils output;
 
 	private double aggregatedProcessingTimeInS = 0;
 
+	private TaskCostModel costModel = new TaskCostModel();
+	private ResultJournal<TTask> journal;
+
+	private final Map<Callable<TTask>, Double> estimatedDurations = Maps.newIdentityHashMap();
+
 	public AbstractTaskProvider(ProjectFoldedUsageStore store, OutputUtils output) {
 		this.store = store;
 		this.output = output;
@@ -45,15 +60,98 @@ public abstract class AbstractTaskProvider<TTask extends AbstractTask> implement
 
 	protected abstract Map<String, String> getOptions();
 
+	/**
+	 * the (persisted) model is used to order the tasks and is updated with the
+	 * processing times of all results
+	 */
+	public void setCostModel(TaskCostModel costModel) {
+		Asserts.assertNotNull(costModel);
+		this.costModel = costModel;
+	}
+
+	/**
+	 * all results are appended to the journal, tasks that already have a
+	 * journaled result are not scheduled again, their results are replayed
+	 * instead
+	 */
+	public void setJournal(ResultJournal<TTask> journal) {
+		Asserts.assertNotNull(journal);
+		this.journal = journal;
+	}
+
 	@Override
 	public Collection<Callable<TTask>> createWorkers() {
 		Set<Callable<TTask>> workers = Sets.newLinkedHashSet();
-		for (TTask task : createTasks()) {
-			workers.add(createWorker(task));
+		List<TTask> replayed = Lists.newLinkedList();
+		boolean hasObservations = costModel.getNumObservations() > 0;
+		for (TTask task : sortByEstimatedCost(createTasks())) {
+			if (journal != null && journal.contains(task)) {
+				replayed.add(journal.get(task));
+			} else {
+				Callable<TTask> worker = createWorker(task);
+				workers.add(worker);
+				if (hasObservations) {
+					// without observations, the model only estimates relative costs
+					estimatedDurations.put(worker, costModel.estimate(task.options, getNumberOfUsages(task)));
+				}
+			}
+		}
+		if (!replayed.isEmpty()) {
+			Logger.log("## replaying %d journaled results", replayed.size());
+			for (TTask r : replayed) {
+				processResult(r, true);
+			}
 		}
 		return workers;
 	}
 
+	/**
+	 * largest tasks first, so that no large task is started at the end of the
+	 * evaluation, when most workers are idle already. Tasks of the same type
+	 * are kept together (ordered by the cost of the whole type), so they are
+	 * picked up in sequence and the type stores can be shared through the
+	 * {@link TypeStoreCache} of the workers. This is only a best effort, the
+	 * tasks of a type are not leased as a unit and can still end up on
+	 * several machines.
+	 */
+	private List<TTask> sortByEstimatedCost(Set<TTask> tasks) {
+		final Map<TTask, Double> costs = Maps.newIdentityHashMap();
+		final Map<String, Double> typeCosts = Maps.newHashMap();
+		for (TTask task : tasks) {
+			double cost = costModel.estimate(task.options, getNumberOfUsages(task));
+			costs.put(task, cost);
+			Double typeCost = typeCosts.get(task.typeName);
+			typeCosts.put(task.typeName, typeCost == null ? cost : typeCost + cost);
+		}
+		List<TTask> sorted = Lists.newArrayList(tasks);
+		Collections.sort(sorted, new Comparator<TTask>() {
+			@Override
+			public int compare(TTask a, TTask b) {
+				int byType = Double.compare(typeCosts.get(b.typeName), typeCosts.get(a.typeName));
+				if (byType != 0) {
+					return byType;
+				}
+				int byName = a.typeName.compareTo(b.typeName);
+				if (byName != 0) {
+					return byName;
+				}
+				return Double.compare(costs.get(b), costs.get(a));
+			}
+		});
+		Logger.log("## scheduling tasks by estimated cost (%d observations)", costModel.getNumObservations());
+		return sorted;
+	}
+
+	@Override
+	public double getEstimatedDurationInS(Callable<TTask> worker) {
+		Double estimate = estimatedDurations.get(worker);
+		return estimate == null ? UNKNOWN : estimate;
+	}
+
+	private int getNumberOfUsages(TTask task) {
+		return store.getNumberOfUsages(VmTypeName.get(task.typeName));
+	}
+
 	protected abstract Callable<TTask> createWorker(TTask task);
 
 	protected Set<TTask> createTasks() {
@@ -64,8 +162,8 @@ public abstract class AbstractTaskProvider<TTask extends AbstractTask> implement
 		for (ITypeName type : store.getTypes()) {
 			if (useType(type)) {
 				if (store.isAvailable(type, getNumFolds())) {
+					TypeStore typeStore = createTypeStore(type);
 					for (int foldNum = 0; foldNum < getNumFolds(); foldNum++) {
-						TypeStore typeStore = createTypeStore(type);
 						List<Usage> training = typeStore.getTrainingData(foldNum);
 						List<Usage> validation = typeStore.getValidationData(foldNum);
 
@@ -116,16 +214,33 @@ public abstract class AbstractTaskProvider<TTask extends AbstractTask> implement
 
 	@Override
 	public void addResult(TTask r) {
+		if (journal != null) {
+			try {
+				journal.append(r);
+			} catch (IOException e) {
+				Logger.err(e, "cannot journal result of %s:", r);
+			}
+		}
+		processResult(r, false);
+	}
+
+	/**
+	 * replayed results have already been observed by the (persisted) cost
+	 * model when they were journaled
+	 */
+	private void processResult(TTask r, boolean isReplayed) {
 		try {
 			output.printProgress("### intermediate result, progress: %s");
 			log("task: %s", r);
 			log("duration: %.1fs", r.processingTimeInS);
 			aggregatedProcessingTimeInS += r.processingTimeInS;
+			if (r.typeName != null && !isReplayed) {
+				costModel.observe(r.options, getNumberOfUsages(r), r.processingTimeInS);
+			}
 			addResult2(r);
 			log("");
 		} catch (Exception e) {
-			Logger.err("error during execution of addResult(%s):\n", r);
-			e.printStackTrace();
+			Logger.err(e, "error during execution of addResult(%s):", r);
 		}
 
 	}
@@ -138,8 +253,7 @@ public abstract class AbstractTaskProvider<TTask extends AbstractTask> implement
 
 	@Override
 	public void addCrash(String taskToString, Exception e) {
-		Logger.err("evaluation has crashed whild processing %s\n", taskToString);
-		e.printStackTrace();
+		Logger.err(e, "evaluation has crashed whild processing %s", taskToString);
 	}
 
 	@Override
@@ -150,9 +264,12 @@ public abstract class AbstractTaskProvider<TTask extends AbstractTask> implement
 			output.printSpeedup(aggregatedProcessingTimeInS);
 			logResults();
 			output.printTypeCounts();
+			costModel.save();
+			if (journal != null) {
+				journal.close();
+			}
 		} catch (Exception e) {
-			Logger.err("error during execution of done:\n");
-			e.printStackTrace();
+			Logger.err(e, "error during execution of done:");
 		}
 	}
 
@@ -19,11 +19,17 @@ import java.util.concurrent.Callable;
 
 import cc.recommenders.evaluation.io.ProjectFoldedUsageStore;
 import cc.recommenders.evaluation.io.TypeStore;
+import cc.recommenders.evaluation.io.TypeStoreCache;
 import cc.recommenders.evaluation.queries.QueryBuilderFactory;
+import cc.recommenders.mining.calls.ICallsRecommender;
+import cc.recommenders.mining.calls.Miner;
 import cc.recommenders.mining.calls.MinerFactory;
 import cc.recommenders.mining.calls.MiningOptions;
+import cc.recommenders.mining.calls.ModelMiner;
 import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.names.ITypeName;
 import cc.recommenders.names.VmTypeName;
+import cc.recommenders.usages.Query;
 import cc.recommenders.usages.Usage;
 import cc.recommenders.utils.Timer;
 
@@ -57,6 +63,8 @@ public abstract class AbstractWorker<TTask extends AbstractTask> implements Call
 
 	private transient List<Usage> validationData;
 
+	private transient boolean isTypeStoreAcquired;
+
 	public AbstractWorker(TTask task) {
 		this.task = task;
 	}
@@ -72,7 +80,11 @@ public abstract class AbstractWorker<TTask extends AbstractTask> implements Call
 		log("queryBuilder: %s", queryBuilderFactory.get().getClass());
 
 		taskDurationTimer.startNew();
-		call2();
+		try {
+			call2();
+		} finally {
+			releaseData();
+		}
 		taskDurationTimer.stop();
 		task.processingTimeInS = taskDurationTimer.getDurationInSeconds();
 
@@ -95,7 +107,8 @@ public abstract class AbstractWorker<TTask extends AbstractTask> implements Call
 	private void lazyLoadData() {
 		if (trainingData == null) {
 			try {
-				TypeStore typeStore = usageStore.createTypeStore(VmTypeName.get(task.typeName), task.numFolds);
+				TypeStore typeStore = TypeStoreCache.getShared().acquire(usageStore, getType(), task.numFolds);
+				isTypeStoreAcquired = true;
 				trainingData = typeStore.getTrainingData(task.currentFold);
 				validationData = typeStore.getValidationData(task.currentFold);
 				log("number of usages:");
@@ -107,6 +120,36 @@ public abstract class AbstractWorker<TTask extends AbstractTask> implements Call
 		}
 	}
 
+	/**
+	 * creates a recommender for the complete training data, the mined model is
+	 * shared with all other tasks that only differ in query-only options
+	 */
+	protected ICallsRecommender<Query> createSharedRecommender() {
+		Miner<Usage, Query> miner = minerFactory.get();
+		if (miner instanceof ModelMiner) {
+			return createRecommenderFromSharedModel((ModelMiner<Usage, Query, ?>) miner);
+		}
+		return miner.createRecommender(getTrainingData());
+	}
+
+	private <Model> ICallsRecommender<Query> createRecommenderFromSharedModel(ModelMiner<Usage, Query, Model> miner) {
+		String dataId = String.format("%s|%s|%d/%d", usageStore.getId(), task.typeName, task.currentFold,
+				task.numFolds);
+		Model model = MinedModelCache.getShared().getModel(dataId, mOpts, qOpts, miner, getTrainingData());
+		return miner.createRecommenderFromModel(model);
+	}
+
+	private void releaseData() {
+		if (isTypeStoreAcquired) {
+			TypeStoreCache.getShared().release(usageStore, getType(), task.numFolds);
+			isTypeStoreAcquired = false;
+		}
+	}
+
+	private ITypeName getType() {
+		return VmTypeName.get(task.typeName);
+	}
+
 	protected abstract void call2();
 
 	@Override
@@ -10,13 +10,46 @@
  */
 package cc.recommenders.evaluation.distribution.calc;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 
+import cc.recommenders.evaluation.distribution.IBinaryEncodable;
 import cc.recommenders.usages.DefinitionSiteKind;
 
-public class DefinitionSitesTask extends AbstractTask {
+import com.google.common.collect.Maps;
+
+public class DefinitionSitesTask extends AbstractTask implements IBinaryEncodable {
 
 	private static final long serialVersionUID = 9216537562378275281L;
 
 	public Map<DefinitionSiteKind, double[]> results;
+
+	@Override
+	public void writeTo(DataOutput out) throws IOException {
+		writeBasics(out);
+		out.writeInt(results == null ? -1 : results.size());
+		if (results != null) {
+			for (Map.Entry<DefinitionSiteKind, double[]> e : results.entrySet()) {
+				out.writeUTF(e.getKey().name());
+				writeDoubles(out, e.getValue());
+			}
+		}
+	}
+
+	@Override
+	public void readFrom(DataInput in) throws IOException {
+		readBasics(in);
+		int num = in.readInt();
+		results = num < 0 ? null : Maps.<DefinitionSiteKind, double[]> newLinkedHashMap();
+		for (int i = 0; i < num; i++) {
+			String name = in.readUTF();
+			try {
+				results.put(DefinitionSiteKind.valueOf(name), readDoubles(in));
+			} catch (IllegalArgumentException e) {
+				throw new IOException("unknown definition site kind " + name);
+			}
+		}
+	}
 }
\ No newline at end of file
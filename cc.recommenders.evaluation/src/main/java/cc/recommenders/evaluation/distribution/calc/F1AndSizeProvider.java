@@ -26,7 +26,7 @@ import cc.recommenders.evaluation.OptionsUtils.OptionsBuilder;
 import cc.recommenders.evaluation.OutputUtils;
 import cc.recommenders.evaluation.data.Averager;
 import cc.recommenders.evaluation.data.Boxplot;
-import cc.recommenders.evaluation.data.BoxplotData;
+import cc.recommenders.evaluation.data.QuantileSketch;
 import cc.recommenders.evaluation.io.ProjectFoldedUsageStore;
 import cc.recommenders.names.ITypeName;
 import cc.recommenders.names.VmTypeName;
@@ -41,7 +41,8 @@ public class F1AndSizeProvider extends AbstractTaskProvider<F1AndSizeTask> {
 	private static final ITypeName BUTTON = VmTypeName.get("Lorg/eclipse/swt/widgets/Button");
 
 	private Map<String, Averager> sizes = Maps.newLinkedHashMap();
-	private Map<String, BoxplotData> quality = Maps.newLinkedHashMap();
+	private Map<String, Averager> heapSizes = Maps.newLinkedHashMap();
+	private Map<String, QuantileSketch> quality = Maps.newLinkedHashMap();
 
 	@Inject
 	public F1AndSizeProvider(ProjectFoldedUsageStore store, OutputUtils output) {
@@ -57,38 +58,41 @@ public class F1AndSizeProvider extends AbstractTaskProvider<F1AndSizeTask> {
 	public void addResult2(F1AndSizeTask r) {
 
 		log("size: %s (raw: %d B)", humanReadableByteCount(r.sizeInB), r.sizeInB);
-		log("f1:   %s", BoxplotData.from(r.f1s).getBoxplot());
+		log("heap: %s (raw: %d B)", humanReadableByteCount(r.heapSizeInB), r.heapSizeInB);
+		log("f1:   %s", r.f1s.getBoxplot());
 
-		getAverager(r.app).add(r.sizeInB);
-		getBoxplotData(r.app).addAll(r.f1s);
+		getAverager(sizes, r.app).add(r.sizeInB);
+		getAverager(heapSizes, r.app).add(r.heapSizeInB);
+		getQuality(r.app).merge(r.f1s);
 	}
 
-	private Averager getAverager(String app) {
-		Averager avg = sizes.get(app);
+	private static Averager getAverager(Map<String, Averager> avgs, String app) {
+		Averager avg = avgs.get(app);
 		if (avg == null) {
 			avg = new Averager();
-			sizes.put(app, avg);
+			avgs.put(app, avg);
 		}
 		return avg;
 	}
 
-	private BoxplotData getBoxplotData(String app) {
-		BoxplotData bpd = quality.get(app);
-		if (bpd == null) {
-			bpd = new BoxplotData();
-			quality.put(app, bpd);
+	private QuantileSketch getQuality(String app) {
+		QuantileSketch qs = quality.get(app);
+		if (qs == null) {
+			qs = new QuantileSketch();
+			quality.put(app, qs);
 		}
-		return bpd;
+		return qs;
 	}
 
 	@Override
 	protected void logResults() {
-		append("rec\tsize\tf1\t%% boxplot\n");
+		append("rec\tsize\theap\tf1\t%% boxplot\n");
 		Set<String> apps = Sets.newTreeSet(sizes.keySet());
 		for (String name : apps) {
 			int size = sizes.get(name).getIntAverage();
+			int heapSize = heapSizes.get(name).getIntAverage();
 			Boxplot f1 = quality.get(name).getBoxplot();
-			append("%s\t%d\t%.5f\t%% %s\n", name, size, f1.getMean(), f1);
+			append("%s\t%d\t%d\t%.5f\t%% %s\n", name, size, heapSize, f1.getMean(), f1);
 		}
 	}
 
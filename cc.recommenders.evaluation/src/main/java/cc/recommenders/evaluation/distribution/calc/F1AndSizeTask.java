@@ -10,10 +10,34 @@
  */
 package cc.recommenders.evaluation.distribution.calc;
 
-public class F1AndSizeTask extends AbstractTask {
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import cc.recommenders.evaluation.data.QuantileSketch;
+import cc.recommenders.evaluation.distribution.IBinaryEncodable;
+
+public class F1AndSizeTask extends AbstractTask implements IBinaryEncodable {
 
 	private static final long serialVersionUID = 1278933011864285374L;
 
-	public double[] f1s;
+	public QuantileSketch f1s;
 	public int sizeInB;
+	public int heapSizeInB;
+
+	@Override
+	public void writeTo(DataOutput out) throws IOException {
+		writeBasics(out);
+		writeSketch(out, f1s);
+		out.writeInt(sizeInB);
+		out.writeInt(heapSizeInB);
+	}
+
+	@Override
+	public void readFrom(DataInput in) throws IOException {
+		readBasics(in);
+		f1s = readSketch(in);
+		sizeInB = in.readInt();
+		heapSizeInB = in.readInt();
+	}
 }
\ No newline at end of file
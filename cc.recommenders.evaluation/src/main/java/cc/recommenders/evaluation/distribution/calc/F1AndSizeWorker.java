@@ -12,6 +12,7 @@ package cc.recommenders.evaluation.distribution.calc;
 
 import org.apache.commons.lang3.tuple.Pair;
 
+import cc.recommenders.evaluation.data.QuantileSketch;
 import cc.recommenders.evaluation.evaluators.SizeAndF1Evaluator;
 import cc.recommenders.mining.calls.ICallsRecommender;
 import cc.recommenders.usages.Query;
@@ -36,11 +37,12 @@ public class F1AndSizeWorker extends AbstractWorker<F1AndSizeTask> {
 	public void call2() {
 		evaluator.reinit();
 
-		ICallsRecommender<Query> rec = minerFactory.get().createRecommender(getTrainingData());
+		ICallsRecommender<Query> rec = createSharedRecommender();
 		evaluator.query(rec, getValidationData());
 
 		Pair<double[], Integer> res = evaluator.getRawResults();
-		task.f1s = res.getLeft();
+		task.f1s = QuantileSketch.from(res.getLeft());
 		task.sizeInB = res.getRight();
+		task.heapSizeInB = evaluator.getHeapSize();
 	}
 }
\ No newline at end of file
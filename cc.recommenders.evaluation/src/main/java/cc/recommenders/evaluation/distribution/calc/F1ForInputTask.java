@@ -10,7 +10,13 @@
  */
 package cc.recommenders.evaluation.distribution.calc;
 
-public class F1ForInputTask extends AbstractTask {
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import cc.recommenders.evaluation.distribution.IBinaryEncodable;
+
+public class F1ForInputTask extends AbstractTask implements IBinaryEncodable {
 
 	private static final long serialVersionUID = 1688301581995154488L;
 
@@ -21,4 +27,18 @@ public class F1ForInputTask extends AbstractTask {
 	protected String detailsToString() {
 		return String.format("input size: %d", inputSize);
 	}
+
+	@Override
+	public void writeTo(DataOutput out) throws IOException {
+		writeBasics(out);
+		out.writeInt(inputSize);
+		writeDoubles(out, f1s);
+	}
+
+	@Override
+	public void readFrom(DataInput in) throws IOException {
+		readBasics(in);
+		inputSize = in.readInt();
+		f1s = readDoubles(in);
+	}
 }
\ No newline at end of file
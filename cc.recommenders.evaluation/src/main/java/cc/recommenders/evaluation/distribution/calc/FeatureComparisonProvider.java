@@ -21,7 +21,7 @@ import java.util.concurrent.Callable;
 import cc.recommenders.evaluation.OutputUtils;
 import cc.recommenders.evaluation.data.Averager;
 import cc.recommenders.evaluation.data.Boxplot;
-import cc.recommenders.evaluation.data.BoxplotData;
+import cc.recommenders.evaluation.data.QuantileSketch;
 import cc.recommenders.evaluation.io.ProjectFoldedUsageStore;
 import cc.recommenders.io.Logger;
 
@@ -30,7 +30,7 @@ import com.google.inject.Inject;
 
 public class FeatureComparisonProvider extends AbstractTaskProvider<F1AndSizeTask> {
 
-	private Map<String, BoxplotData> resultsF1 = Maps.newLinkedHashMap();
+	private Map<String, QuantileSketch> resultsF1 = Maps.newLinkedHashMap();
 	private Map<String, Averager> resultsSizes = Maps.newLinkedHashMap();
 
 	@Inject
@@ -40,19 +40,19 @@ public class FeatureComparisonProvider extends AbstractTaskProvider<F1AndSizeTas
 
 	@Override
 	protected void addResult2(F1AndSizeTask r) {
-		log("f1:   %s", BoxplotData.from(r.f1s).getBoxplot());
+		log("f1:   %s", r.f1s.getBoxplot());
 		log("size: %d", r.sizeInB);
 
 		store(r.app, r.f1s, r.sizeInB);
 	}
 
-	private void store(String app, double[] f1s, int size) {
-		BoxplotData bpd = resultsF1.get(app);
-		if (bpd == null) {
-			bpd = new BoxplotData();
-			resultsF1.put(app, bpd);
+	private void store(String app, QuantileSketch f1s, int size) {
+		QuantileSketch qs = resultsF1.get(app);
+		if (qs == null) {
+			qs = new QuantileSketch();
+			resultsF1.put(app, qs);
 		}
-		bpd.addAll(f1s);
+		qs.merge(f1s);
 
 		Averager avg = resultsSizes.get(app);
 		if (avg == null) {
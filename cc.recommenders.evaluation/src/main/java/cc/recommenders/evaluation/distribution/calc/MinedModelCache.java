@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.distribution.calc;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import cc.recommenders.assertions.Asserts;
+import cc.recommenders.mining.calls.MiningOptions;
+import cc.recommenders.mining.calls.ModelMiner;
+import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.usages.Query;
+import cc.recommenders.usages.Usage;
+
+import com.google.common.base.Objects;
+
+/**
+ * Shares the mined models between all tasks of a JVM that only differ in
+ * options that are not relevant for mining (e.g., minProbability or the query
+ * type). A model is identified by the training data (store, type, fold) and
+ * by the mining options plus the model-relevant query options. Models are
+ * evicted in least-recently-used order.
+ */
+public class MinedModelCache {
+
+	public static final int DEFAULT_MAX_MODELS = 32;
+
+	private static final MinedModelCache SHARED = new MinedModelCache(DEFAULT_MAX_MODELS);
+
+	private final int maxModels;
+	private final Map<Key, Entry> entries;
+
+	private int numHits = 0;
+	private int numMisses = 0;
+
+	public MinedModelCache(int maxModels) {
+		Asserts.assertGreaterThan(maxModels, 0);
+		this.maxModels = maxModels;
+		entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				return size() > MinedModelCache.this.maxModels;
+			}
+		};
+	}
+
+	public static MinedModelCache getShared() {
+		return SHARED;
+	}
+
+	/**
+	 * returns the cached model or learns a new one from the given training
+	 * data, concurrent requests for the same model wait for a single mining
+	 */
+	public <Model> Model getModel(String dataId, MiningOptions mOpts, QueryOptions qOpts,
+			ModelMiner<Usage, Query, Model> miner, List<Usage> trainingData) {
+		Key key = new Key(dataId, miner.getClass(), mOpts, qOpts);
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(key);
+			if (entry == null) {
+				entry = new Entry();
+				entries.put(key, entry);
+				numMisses++;
+			} else {
+				numHits++;
+			}
+		}
+		synchronized (entry) {
+			if (entry.model == null) {
+				boolean isMined = false;
+				try {
+					entry.model = miner.learnModel(trainingData);
+					isMined = true;
+				} finally {
+					if (!isMined) {
+						remove(key, entry);
+					}
+				}
+			}
+			@SuppressWarnings("unchecked")
+			Model model = (Model) entry.model;
+			return model;
+		}
+	}
+
+	private synchronized void remove(Key key, Entry entry) {
+		if (entries.get(key) == entry) {
+			entries.remove(key);
+		}
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized int getNumberOfHits() {
+		return numHits;
+	}
+
+	public synchronized int getNumberOfMisses() {
+		return numMisses;
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		numHits = 0;
+		numMisses = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("MinedModelCache(%d models, %d hits, %d misses)", entries.size(), numHits, numMisses);
+	}
+
+	private static class Entry {
+		private Object model;
+	}
+
+	private static class Key {
+		private final String dataId;
+		private final Class<?> minerType;
+		private final MiningOptions mOpts;
+		private final QueryOptions qOpts;
+
+		public Key(String dataId, Class<?> minerType, MiningOptions mOpts, QueryOptions qOpts) {
+			this.dataId = dataId;
+			this.minerType = minerType;
+			// the injected options are mutable and shared
+			this.mOpts = new MiningOptions().setFrom(mOpts);
+			this.qOpts = qOpts.getModelRelevantOptions();
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(dataId, minerType, mOpts, qOpts);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return Objects.equal(dataId, other.dataId) && minerType == other.minerType
+					&& mOpts.equals(other.mOpts) && qOpts.equals(other.qOpts);
+		}
+	}
+}
@@ -24,6 +24,7 @@ import java.util.concurrent.Callable;
 import cc.recommenders.datastructures.Map2D;
 import cc.recommenders.evaluation.OutputUtils;
 import cc.recommenders.evaluation.data.BoxplotData;
+import cc.recommenders.evaluation.data.QuantileSketch;
 import cc.recommenders.evaluation.io.ProjectFoldedUsageStore;
 import cc.recommenders.io.Logger;
 import cc.recommenders.names.ITypeName;
@@ -45,6 +46,8 @@ public class QueryPerformanceProvider extends AbstractTaskProvider<QueryPerforma
 	private Map2D<String, Integer, BoxplotData> resSize = Map2D.create();
 	private Map2D<String, Integer, BoxplotData> resLearn = Map2D.create();
 	private Map2D<String, Integer, BoxplotData> resInfer = Map2D.create();
+	private Map2D<String, Integer, QuantileSketch> resLatency = Map2D.create();
+	private Map2D<String, Integer, BoxplotData> resAlloc = Map2D.create();
 
 	@Inject
 	public QueryPerformanceProvider(ProjectFoldedUsageStore store, OutputUtils output) {
@@ -56,11 +59,25 @@ public class QueryPerformanceProvider extends AbstractTaskProvider<QueryPerforma
 		Logger.log("model size: %s", humanReadableByteCount(r.modelSize));
 		Logger.log("learning: %.2fs", r.learningDurationInS);
 		Logger.log("per query: %.2fms", r.perQueryDurationInMS);
+		if (r.queryDurationsInMS != null && r.queryDurationsInMS.hasData()) {
+			QuantileSketch l = r.queryDurationsInMS;
+			Logger.log("latency: p50 %.3fms, p90 %.3fms, p99 %.3fms, max %.3fms", l.getPercentile(50),
+					l.getPercentile(90), l.getPercentile(99), l.getPercentile(100));
+		}
+		if (r.perQueryAllocatedBytes >= 0) {
+			Logger.log("allocated per query: %s", humanReadableByteCount((long) r.perQueryAllocatedBytes));
+		}
 
 		inputSizes.add(r.inputSize);
 		resSize.getOrAdd(r.app, r.inputSize, new BoxplotData()).add((double) r.modelSize);
 		resLearn.getOrAdd(r.app, r.inputSize, new BoxplotData()).add(r.learningDurationInS);
 		resInfer.getOrAdd(r.app, r.inputSize, new BoxplotData()).add(r.perQueryDurationInMS);
+		if (r.queryDurationsInMS != null) {
+			resLatency.getOrAdd(r.app, r.inputSize, new QuantileSketch()).merge(r.queryDurationsInMS);
+		}
+		if (r.perQueryAllocatedBytes >= 0) {
+			resAlloc.getOrAdd(r.app, r.inputSize, new BoxplotData()).add(r.perQueryAllocatedBytes);
+		}
 	}
 
 	@Override
@@ -92,6 +109,42 @@ public class QueryPerformanceProvider extends AbstractTaskProvider<QueryPerforma
 			}
 			append("\n");
 		}
+
+		logLatencies(apps);
+	}
+
+	private void logLatencies(Set<String> apps) {
+		append("\n%% latency distribution of single queries (%d warm-up rounds)\n",
+				QueryPerformanceWorker.NUMBER_OF_WARMUP_ROUNDS);
+		append("%% - units:\n");
+		append("%%	- percentiles: ms\n");
+		append("%%	- allocations: B per query\n\n");
+
+		append("input");
+		for (String app : apps) {
+			append("\t%s_p50\t%s_p90\t%s_p99\t%s_max\t%s_alloc", app, app, app, app, app);
+		}
+		append("\n");
+
+		for (int size : inputSizes) {
+			append("%d", size);
+			for (String app : apps) {
+				QuantileSketch l = resLatency.getOrAdd(app, size, new QuantileSketch());
+				if (l.hasData()) {
+					append("\t%.3f\t%.3f\t%.3f\t%.3f", l.getPercentile(50), l.getPercentile(90),
+							l.getPercentile(99), l.getPercentile(100));
+				} else {
+					append("\tNaN\tNaN\tNaN\tNaN");
+				}
+				BoxplotData a = resAlloc.getOrAdd(app, size, new BoxplotData());
+				if (a.hasData()) {
+					append("\t%d", (long) a.getMean());
+				} else {
+					append("\tNaN");
+				}
+			}
+			append("\n");
+		}
 	}
 
 	@Override
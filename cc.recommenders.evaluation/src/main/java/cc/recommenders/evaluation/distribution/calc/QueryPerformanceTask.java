@@ -10,7 +10,14 @@
  */
 package cc.recommenders.evaluation.distribution.calc;
 
-public class QueryPerformanceTask extends AbstractTask {
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import cc.recommenders.evaluation.data.QuantileSketch;
+import cc.recommenders.evaluation.distribution.IBinaryEncodable;
+
+public class QueryPerformanceTask extends AbstractTask implements IBinaryEncodable {
 
 	private static final long serialVersionUID = 436949561959032708L;
 
@@ -20,8 +27,34 @@ public class QueryPerformanceTask extends AbstractTask {
 	public double learningDurationInS;
 	public double perQueryDurationInMS;
 
+	public QuantileSketch queryDurationsInMS;
+	/** -1 if the vm cannot measure allocations */
+	public double perQueryAllocatedBytes = -1;
+
 	@Override
 	protected String detailsToString() {
 		return String.format("input size: %d", inputSize);
 	}
+
+	@Override
+	public void writeTo(DataOutput out) throws IOException {
+		writeBasics(out);
+		out.writeInt(inputSize);
+		out.writeInt(modelSize);
+		out.writeDouble(learningDurationInS);
+		out.writeDouble(perQueryDurationInMS);
+		writeSketch(out, queryDurationsInMS);
+		out.writeDouble(perQueryAllocatedBytes);
+	}
+
+	@Override
+	public void readFrom(DataInput in) throws IOException {
+		readBasics(in);
+		inputSize = in.readInt();
+		modelSize = in.readInt();
+		learningDurationInS = in.readDouble();
+		perQueryDurationInMS = in.readDouble();
+		queryDurationsInMS = readSketch(in);
+		perQueryAllocatedBytes = in.readDouble();
+	}
 }
\ No newline at end of file
@@ -15,11 +15,13 @@ import static cc.recommenders.collections.SublistSelector.pickRandomSublist;
 import java.util.List;
 
 import cc.recommenders.collections.SublistSelector;
+import cc.recommenders.evaluation.data.QuantileSketch;
 import cc.recommenders.io.Logger;
 import cc.recommenders.mining.calls.ICallsRecommender;
 import cc.recommenders.mining.calls.Miner;
 import cc.recommenders.usages.Query;
 import cc.recommenders.usages.Usage;
+import cc.recommenders.utils.AllocationMeter;
 import cc.recommenders.utils.Timer;
 
 import com.google.common.collect.Lists;
@@ -30,9 +32,12 @@ public class QueryPerformanceWorker extends AbstractWorker<QueryPerformanceTask>
 	private static final long serialVersionUID = 667108711001557184L;
 
 	public static final int NUMBER_OF_QUERIES_PER_FOLD = 300;
+	public static final int NUMBER_OF_WARMUP_ROUNDS = 3;
 
 	@Inject
 	public Timer performanceTimer;
+	@Inject
+	public AllocationMeter allocationMeter;
 	private QueryPerformanceTask task;
 
 	public QueryPerformanceWorker(QueryPerformanceTask task) {
@@ -70,21 +75,46 @@ public class QueryPerformanceWorker extends AbstractWorker<QueryPerformanceTask>
 		List<Query> queries = createQueries();
 		Logger.log("querying... (with %d querys)", queries.size());
 
+		warmUp(rec, queries);
+
+		// indexed access to an ArrayList, the loop itself must not allocate
+		long[] durationsInNS = new long[queries.size()];
+		long allocatedBefore = allocationMeter.getAllocatedBytes();
 		performanceTimer.startNew();
-		for (Query q : queries) {
-			rec.query(q);
+		for (int i = 0; i < durationsInNS.length; i++) {
+			long start = System.nanoTime();
+			rec.query(queries.get(i));
+			durationsInNS[i] = System.nanoTime() - start;
 		}
 		performanceTimer.stop();
+		long allocatedAfter = allocationMeter.getAllocatedBytes();
+
+		task.queryDurationsInMS = new QuantileSketch();
+		for (long d : durationsInNS) {
+			task.queryDurationsInMS.add(d / 1000000.0);
+		}
+		if (allocatedBefore >= 0 && allocatedAfter >= allocatedBefore && !queries.isEmpty()) {
+			task.perQueryAllocatedBytes = (allocatedAfter - allocatedBefore) / (double) queries.size();
+		}
 
 		return queries;
 	}
 
+	private static void warmUp(ICallsRecommender<Query> rec, List<Query> queries) {
+		Logger.log("warming up... (%d rounds)", NUMBER_OF_WARMUP_ROUNDS);
+		for (int round = 0; round < NUMBER_OF_WARMUP_ROUNDS; round++) {
+			for (Query q : queries) {
+				rec.query(q);
+			}
+		}
+	}
+
 	private List<Query> createQueries() {
 		List<Query> tmpQueries = Lists.newLinkedList();
 		for (Usage u : getValidationData()) {
 			tmpQueries.addAll(queryBuilderFactory.get().createQueries(u));
 		}
 		List<Query> queries = pickRandomSublist(tmpQueries, NUMBER_OF_QUERIES_PER_FOLD);
-		return queries;
+		return Lists.newArrayList(queries);
 	}
 }
\ No newline at end of file
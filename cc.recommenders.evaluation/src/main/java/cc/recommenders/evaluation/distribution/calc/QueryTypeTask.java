@@ -10,15 +10,53 @@
  */
 package cc.recommenders.evaluation.distribution.calc;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Map;
 
 import cc.recommenders.evaluation.data.NM;
+import cc.recommenders.evaluation.distribution.IBinaryEncodable;
 
 import com.google.common.collect.Maps;
 
-public class QueryTypeTask extends AbstractTask {
+public class QueryTypeTask extends AbstractTask implements IBinaryEncodable {
 
 	private static final long serialVersionUID = -4266925055843333384L;
 
 	public Map<NM, double[]> results = Maps.newLinkedHashMap();
+
+	@Override
+	public void writeTo(DataOutput out) throws IOException {
+		writeBasics(out);
+		out.writeInt(results.size());
+		for (Map.Entry<NM, double[]> e : results.entrySet()) {
+			out.writeInt(e.getKey().getNumQueried());
+			out.writeInt(e.getKey().getNumOriginal());
+			writeDoubles(out, e.getValue());
+		}
+	}
+
+	@Override
+	public void readFrom(DataInput in) throws IOException {
+		readBasics(in);
+		results = Maps.newLinkedHashMap();
+		int num = in.readInt();
+		for (int i = 0; i < num; i++) {
+			NM nm = readNM(in.readInt(), in.readInt());
+			results.put(nm, readDoubles(in));
+		}
+	}
+
+	private static NM readNM(int numQueried, int numOriginal) throws IOException {
+		for (NM marker : new NM[] { NM.ELSE_0M, NM.ELSE_NM }) {
+			if (marker.getNumQueried() == numQueried && marker.getNumOriginal() == numOriginal) {
+				return marker;
+			}
+		}
+		if (numQueried < 0 || numOriginal <= numQueried) {
+			throw new IOException("invalid query type " + numQueried + "|" + numOriginal);
+		}
+		return new NM(numQueried, numOriginal);
+	}
 }
\ No newline at end of file
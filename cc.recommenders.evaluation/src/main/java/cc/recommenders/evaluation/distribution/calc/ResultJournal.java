@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.distribution.calc;
+
+import static java.lang.String.format;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.StreamCorruptedException;
+import java.util.Map;
+
+import cc.recommenders.assertions.Asserts;
+import cc.recommenders.io.Logger;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Append-only journal of finished tasks, so an evaluation can be resumed after
+ * the scheduler process died. Every result is written as a length-prefixed,
+ * serialized record and synced to disk before it is processed. A record that
+ * was only partially written (crash during the append) is dropped when the
+ * journal is opened again.
+ *
+ * Results are identified by their task (type of the task, app, options, type,
+ * fold and details), see {@link #getKey(AbstractTask)}.
+ */
+public class ResultJournal<T extends AbstractTask> implements Closeable {
+
+	private final Map<String, T> results = Maps.newLinkedHashMap();
+	private final RandomAccessFile file;
+
+	private ResultJournal(RandomAccessFile file) {
+		this.file = file;
+	}
+
+	public static <U extends AbstractTask> ResultJournal<U> open(File f) throws IOException {
+		ResultJournal<U> journal = new ResultJournal<U>(new RandomAccessFile(f, "rw"));
+		journal.readExisting();
+		return journal;
+	}
+
+	private void readExisting() throws IOException {
+		long validLength = 0;
+		long fileLength = file.length();
+		try {
+			while (validLength < fileLength) {
+				file.seek(validLength);
+				int length = file.readInt();
+				if (length < 0 || length > fileLength - file.getFilePointer()) {
+					throw new EOFException();
+				}
+				byte[] bytes = new byte[length];
+				file.readFully(bytes);
+				T result = deserialize(bytes);
+				results.put(getKey(result), result);
+				validLength = file.getFilePointer();
+			}
+		} catch (EOFException e) {
+			Logger.err("dropping incomplete record at the end of the result journal");
+		} catch (StreamCorruptedException e) {
+			Logger.err("dropping corrupted record at the end of the result journal");
+		} catch (ClassNotFoundException e) {
+			Logger.err("dropping unreadable record at the end of the result journal");
+		}
+		if (validLength < fileLength) {
+			file.setLength(validLength);
+		}
+		file.seek(validLength);
+	}
+
+	public synchronized boolean contains(AbstractTask task) {
+		return results.containsKey(getKey(task));
+	}
+
+	public synchronized T get(AbstractTask task) {
+		T result = results.get(getKey(task));
+		Asserts.assertNotNull(result, format("no result journaled for %s", task));
+		return result;
+	}
+
+	public synchronized int size() {
+		return results.size();
+	}
+
+	public synchronized void append(T result) throws IOException {
+		byte[] bytes = serialize(result);
+		ByteArrayOutputStream baos = new ByteArrayOutputStream(bytes.length + 4);
+		DataOutputStream out = new DataOutputStream(baos);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+		out.flush();
+		// single write, so a crash cannot leave a valid length with missing data
+		file.write(baos.toByteArray());
+		file.getFD().sync();
+		results.put(getKey(result), result);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		file.close();
+	}
+
+	public static String getKey(AbstractTask task) {
+		return format("%s|%s|%s|%s|%d/%d|%s", task.getClass().getName(), task.app, task.options, task.typeName,
+				task.currentFold, task.numFolds, task.detailsToString());
+	}
+
+	private static byte[] serialize(Object o) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(baos);
+		out.writeObject(o);
+		out.close();
+		return baos.toByteArray();
+	}
+
+	@SuppressWarnings("unchecked")
+	private T deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+		try {
+			return (T) in.readObject();
+		} finally {
+			in.close();
+		}
+	}
+}
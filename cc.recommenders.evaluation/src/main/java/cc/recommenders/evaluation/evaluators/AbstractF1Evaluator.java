@@ -10,15 +10,21 @@
  */
 package cc.recommenders.evaluation.evaluators;
 
-import static cc.recommenders.evaluation.data.Measure.newMeasure;
-import static com.google.common.collect.Sets.newLinkedHashSet;
-
 import java.util.List;
+import java.util.RandomAccess;
 import java.util.Set;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cc.recommenders.assertions.Asserts;
 import cc.recommenders.datastructures.Tuple;
-import cc.recommenders.evaluation.data.Measure;
+import cc.recommenders.evaluation.data.MethodIdMeasure;
 import cc.recommenders.evaluation.queries.QueryBuilderFactory;
+import cc.recommenders.io.Logger;
 import cc.recommenders.mining.calls.ICallsRecommender;
 import cc.recommenders.mining.calls.QueryOptions;
 import cc.recommenders.names.IMethodName;
@@ -26,59 +32,176 @@ import cc.recommenders.usages.CallSite;
 import cc.recommenders.usages.Query;
 import cc.recommenders.usages.Usage;
 
+import com.google.common.collect.Lists;
+import com.google.inject.Provider;
+
 public abstract class AbstractF1Evaluator {
 
 	private final QueryBuilderFactory queryBuilder;
 	private QueryOptions qOpts;
 
+	private final MethodIdMeasure measure = new MethodIdMeasure();
+
+	private int lastNumQueries;
+	private double lastQueriesPerSecond;
+
 	public AbstractF1Evaluator(QueryBuilderFactory queryBuilder, QueryOptions qOpts) {
 		this.queryBuilder = queryBuilder;
 		this.qOpts = qOpts;
 	}
 
 	public void query(ICallsRecommender<Query> rec, List<Usage> validationData) {
+		long start = System.nanoTime();
+		int numQueries = 0;
 		for (Usage usage : validationData) {
 
 			startProcessingOfNewUsage(usage);
 
 			for (Query query : queryBuilder.get().createQueries(usage)) {
+				double f1 = getF1(rec, usage, query, measure);
+				addIntermediateResult(usage, query, f1);
+				numQueries++;
+			}
 
-				Set<IMethodName> expected = getExpected(usage, query);
-				Set<IMethodName> proposed = getProposed(rec, query);
+			storeResult();
+		}
+		storeThroughput(numQueries, start);
+	}
 
-				if (qOpts.isIgnoringAfterFullRecall) {
-					proposed = Measure.dropAfterTotalRecall(expected, proposed);
-				}
+	/**
+	 * Evaluates the usages on several threads, every thread queries its own
+	 * recommender, because the recommenders are not thread-safe. The results
+	 * are collected per usage and passed to the subclass in the order of the
+	 * validation data, so the results are identical to a sequential run.
+	 */
+	public void query(final Provider<? extends ICallsRecommender<Query>> recommenders, List<Usage> validationData,
+			int numThreads) {
+		Asserts.assertGreaterThan(numThreads, 0);
+		long start = System.nanoTime();
+
+		final List<Usage> usages = validationData instanceof RandomAccess ? validationData : Lists
+				.newArrayList(validationData);
+		final UsageResult[] results = new UsageResult[usages.size()];
+		final AtomicInteger nextUsage = new AtomicInteger();
+
+		ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+		try {
+			List<Future<Void>> futures = Lists.newLinkedList();
+			for (int i = 0; i < numThreads; i++) {
+				futures.add(pool.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						ICallsRecommender<Query> rec = recommenders.get();
+						MethodIdMeasure threadMeasure = new MethodIdMeasure();
+						int idx;
+						while ((idx = nextUsage.getAndIncrement()) < results.length) {
+							results[idx] = evaluate(rec, usages.get(idx), threadMeasure);
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> f : futures) {
+				waitFor(f);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
 
-				double f1 = newMeasure(expected, proposed).getF1();
+		int numQueries = 0;
+		for (int i = 0; i < results.length; i++) {
+			Usage usage = usages.get(i);
+			startProcessingOfNewUsage(usage);
+			for (int q = 0; q < results[i].queries.size(); q++) {
+				addIntermediateResult(usage, results[i].queries.get(q), results[i].f1s[q]);
+				numQueries++;
+			}
+			storeResult();
+		}
+		storeThroughput(numQueries, start);
+		Logger.log("evaluated %d queries on %d threads (%.1f queries/s)", numQueries, numThreads,
+				lastQueriesPerSecond);
+	}
 
-				addIntermediateResult(usage, query, f1);
+	private UsageResult evaluate(ICallsRecommender<Query> rec, Usage usage, MethodIdMeasure m) {
+		List<Query> queries = queryBuilder.get().createQueries(usage);
+		UsageResult res = new UsageResult(queries);
+		int q = 0;
+		for (Query query : queries) {
+			res.f1s[q++] = getF1(rec, usage, query, m);
+		}
+		return res;
+	}
+
+	private static void waitFor(Future<Void> f) {
+		try {
+			f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
 			}
+			throw new RuntimeException(e.getCause());
+		}
+	}
 
-			storeResult();
+	private double getF1(ICallsRecommender<Query> rec, Usage usage, Query query, MethodIdMeasure m) {
+		m.reset();
+		addExpected(usage, query, m);
+		addProposed(rec, query, m);
+
+		if (qOpts.isIgnoringAfterFullRecall) {
+			m.dropAfterTotalRecall();
 		}
+
+		return m.getF1();
 	}
 
-	private Set<IMethodName> getExpected(Usage usage, Query query) {
-		Set<IMethodName> expected = newLinkedHashSet();
+	private void storeThroughput(int numQueries, long startInNs) {
+		double durationInS = (System.nanoTime() - startInNs) / 1000000000.0;
+		lastNumQueries = numQueries;
+		lastQueriesPerSecond = durationInS > 0 ? numQueries / durationInS : 0;
+	}
+
+	/**
+	 * number of queries in the last call of query(...)
+	 */
+	public int getLastNumberOfQueries() {
+		return lastNumQueries;
+	}
+
+	/**
+	 * throughput of the last call of query(...)
+	 */
+	public double getLastQueriesPerSecond() {
+		return lastQueriesPerSecond;
+	}
 
+	private static void addExpected(Usage usage, Query query, MethodIdMeasure m) {
+		Set<CallSite> queried = query.getReceiverCallsites();
 		for (CallSite site : usage.getReceiverCallsites()) {
-			boolean isQueried = query.getReceiverCallsites().contains(site);
-			if (!isQueried) {
-				expected.add(site.getMethod());
+			if (!queried.contains(site)) {
+				m.addExpected(site.getMethod());
 			}
 		}
+	}
 
-		return expected;
+	private static void addProposed(ICallsRecommender<Query> rec, Query query, MethodIdMeasure m) {
+		for (Tuple<IMethodName, ?> t : rec.query(query)) {
+			m.addProposed(t.getFirst());
+		}
 	}
 
-	private Set<IMethodName> getProposed(ICallsRecommender<Query> rec, Query query) {
-		Set<Tuple<IMethodName, Double>> proposals = rec.query(query);
-		Set<IMethodName> ms = newLinkedHashSet();
-		for (Tuple<IMethodName, ?> t : proposals) {
-			ms.add(t.getFirst());
+	private static class UsageResult {
+		private final List<Query> queries;
+		private final double[] f1s;
+
+		public UsageResult(List<Query> queries) {
+			this.queries = queries instanceof RandomAccess ? queries : Lists.newArrayList(queries);
+			f1s = new double[queries.size()];
 		}
-		return ms;
 	}
 
 	protected abstract void startProcessingOfNewUsage(Usage usage);
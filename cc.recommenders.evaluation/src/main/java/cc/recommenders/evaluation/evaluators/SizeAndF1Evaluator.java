@@ -56,6 +56,10 @@ public class SizeAndF1Evaluator implements Evaluator<Usage, Pair<Boxplot, Intege
 		return Pair.of(f1, avgModelSize);
 	}
 
+	public int getHeapSize() {
+		return sizeAverager.getHeapResults();
+	}
+
 	public Pair<double[], Integer> getRawResults() {
 		double[] f1s = f1Evaluator.getRawResults();
 		int avgModelSize = sizeAverager.getResults();
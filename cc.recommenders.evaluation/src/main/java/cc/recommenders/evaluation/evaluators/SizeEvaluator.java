@@ -14,21 +14,42 @@ import java.util.List;
 
 import cc.recommenders.evaluation.data.Averager;
 import cc.recommenders.mining.calls.ICallsRecommender;
+import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.mining.calls.metrics.QueryMetrics;
+import cc.recommenders.mining.features.FeatureExtractor;
+import cc.recommenders.names.IName;
 import cc.recommenders.usages.Query;
 import cc.recommenders.usages.Usage;
+import cc.recommenders.utils.HeapFootprint;
 
+/**
+ * Averages the model size estimated by the recommenders (size of the
+ * probability tables) and the measured heap size of the recommenders.
+ */
 public class SizeEvaluator implements Evaluator<Usage, Integer, Query> {
 
+	// referenced by recommenders, but shared with the rest of the application
+	// (names are interned)
+	private static final Class<?>[] SHARED_TYPES = { QueryOptions.class, QueryMetrics.class, FeatureExtractor.class,
+			IName.class };
+
 	private Averager averager = new Averager();
+	private Averager heapAverager = new Averager();
 
 	@Override
 	public void reinit() {
 		averager.reinit();
+		heapAverager.reinit();
 	}
 
 	@Override
 	public void query(ICallsRecommender<Query> rec, List<Usage> validationData) {
 		averager.add(rec.getSize());
+		heapAverager.add(getHeapFootprint(rec).getTotalBytes());
+	}
+
+	public static HeapFootprint getHeapFootprint(ICallsRecommender<?> rec) {
+		return HeapFootprint.measure(rec, SHARED_TYPES);
 	}
 
 	@Override
@@ -40,4 +61,8 @@ public class SizeEvaluator implements Evaluator<Usage, Integer, Query> {
 	public Integer getResults() {
 		return averager.getIntAverage();
 	}
+
+	public int getHeapResults() {
+		return heapAverager.getIntAverage();
+	}
 }
\ No newline at end of file
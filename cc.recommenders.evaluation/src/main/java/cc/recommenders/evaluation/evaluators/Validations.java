@@ -97,7 +97,10 @@ public class Validations {
 		}
 	}
 
-	private static <In> List<In> createValidationData(int fold, int numFolds, List<In> ins) {
+	/**
+	 * every <i>numFolds</i>-th input, starting at index <i>fold</i>
+	 */
+	public static <In> List<In> createValidationData(int fold, int numFolds, List<In> ins) {
 
 		List<In> outs = newArrayList();
 
@@ -112,7 +115,10 @@ public class Validations {
 		return outs;
 	}
 
-	private static <In> List<In> createTrainingData(int fold, int numFolds, List<In> ins) {
+	/**
+	 * all inputs that are not part of the validation data of the fold
+	 */
+	public static <In> List<In> createTrainingData(int fold, int numFolds, List<In> ins) {
 
 		List<In> outs = newArrayList();
 
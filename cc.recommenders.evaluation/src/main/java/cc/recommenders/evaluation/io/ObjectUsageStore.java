@@ -74,7 +74,7 @@ public class ObjectUsageStore implements DataStore<ITypeName, ObjectUsage> {
 			WritingArchive archive = getArchive(usage.getType());
 			archive.add(usage);
 		} catch (IOException e) {
-			e.printStackTrace();
+			Logger.err(e, "cannot store usage of %s:", usage.getType());
 		}
 	}
 
@@ -10,6 +10,7 @@
  */
 package cc.recommenders.evaluation.io;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +18,7 @@ import java.util.Set;
 
 import cc.recommenders.assertions.Asserts;
 import cc.recommenders.io.Directory;
+import cc.recommenders.io.Logger;
 import cc.recommenders.io.ReadingArchive;
 import cc.recommenders.names.ITypeName;
 import cc.recommenders.usages.ProjectFoldedUsage;
@@ -57,22 +59,90 @@ public class ProjectFoldedUsageStore {
 		return projectsWithAtLeastOneUsage >= numFolds;
 	}
 
+	public int getNumberOfUsages(ITypeName type) {
+		lazyReadIndex();
+		return index.getTotalCount(type);
+	}
+
 	public TypeStore createTypeStore(ITypeName type, int numFolds) throws IOException {
 		Asserts.assertGreaterThan(numFolds, 0);
 		Asserts.assertTrue(isAvailable(type, numFolds));
 
+		Map<String, Integer> counts = index.getCounts(type);
+		Map<String, Integer> mapping = foldingStrategy.createMapping(counts, numFolds);
+
+		String columnsName = getColumnsFileName(type);
+		if (in.exists(columnsName)) {
+			File columnsFile = getFile(columnsName);
+			if (isStale(columnsFile, type)) {
+				Logger.log("rebuilding outdated %s", columnsName);
+				createColumns(type);
+			}
+			return new TypeStore(openColumns(columnsFile, type), mapping);
+		}
+		return new TypeStore(readUsages(type), mapping);
+	}
+
+	/**
+	 * stores the usages of a type in the columnar format, later calls to
+	 * createTypeStore will map this file instead of parsing the archive
+	 */
+	public void createColumns(ITypeName type) throws IOException {
+		List<ProjectFoldedUsage> usages = readUsages(type);
+		new UsageColumnsWriter().write(usages, getFile(getColumnsFileName(type)));
+	}
+
+	private UsageColumns openColumns(File columnsFile, ITypeName type) throws IOException {
+		try {
+			return new UsageColumns(columnsFile);
+		} catch (IOException e) {
+			// e.g., truncated or written in an older format
+			Logger.log("rebuilding invalid %s (%s)", columnsFile.getName(), e.getMessage());
+			createColumns(type);
+			return new UsageColumns(columnsFile);
+		}
+	}
+
+	private boolean isStale(File columnsFile, ITypeName type) throws IOException {
+		File archive = getFile(getBaseFileName(type) + ".zip");
+		return archive.lastModified() > columnsFile.lastModified();
+	}
+
+	private List<ProjectFoldedUsage> readUsages(ITypeName type) throws IOException {
 		List<ProjectFoldedUsage> usages = Lists.newLinkedList();
 
-		String fileName = type.toString().replace('/', '_') + ".zip";
+		String fileName = getBaseFileName(type) + ".zip";
 		ReadingArchive ra = in.getReadingArchive(fileName);
 		while (ra.hasNext()) {
 			ProjectFoldedUsage pfu = ra.getNext(ProjectFoldedUsage.class);
 			usages.add(pfu);
 		}
 		ra.close();
-		Map<String, Integer> counts = index.getCounts(type);
-		Map<String, Integer> mapping = foldingStrategy.createMapping(counts, numFolds);
-		return new TypeStore(usages, mapping);
+		return usages;
+	}
+
+	/**
+	 * identifies the folded data of this store, i.e., the input folder and the
+	 * folding strategy
+	 */
+	public String getId() {
+		try {
+			return in.getUrl() + "|" + foldingStrategy.getClass().getName();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static String getBaseFileName(ITypeName type) {
+		return type.toString().replace('/', '_');
+	}
+
+	private static String getColumnsFileName(ITypeName type) {
+		return getBaseFileName(type) + ".cols";
+	}
+
+	private File getFile(String fileName) throws IOException {
+		return new File(in.getUrl(fileName).getPath());
 	}
 
 	private void lazyReadIndex() {
@@ -10,6 +10,7 @@
  */
 package cc.recommenders.evaluation.io;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -27,12 +28,28 @@ public class TypeStore {
 	private List<ProjectFoldedUsage> allUsages;
 	private Map<String, Integer> mapping;
 
+	private UsageColumns columns;
+	private int[] foldOfProject;
+
 	public TypeStore(List<ProjectFoldedUsage> allUsages, Map<String, Integer> mapping) {
 		this.allUsages = allUsages;
 		this.mapping = mapping;
 
 	}
 
+	public TypeStore(UsageColumns columns, Map<String, Integer> mapping) {
+		this.columns = columns;
+		this.allUsages = columns.asList();
+		this.mapping = mapping;
+
+		foldOfProject = new int[columns.getNumberOfProjects()];
+		for (int projectId = 0; projectId < foldOfProject.length; projectId++) {
+			Integer idx = mapping.get(columns.getProjectName(projectId));
+			Asserts.assertNotNull(idx);
+			foldOfProject[projectId] = idx;
+		}
+	}
+
 	public List<ProjectFoldedUsage> getAllUsages() {
 		return allUsages;
 	}
@@ -42,6 +59,9 @@ public class TypeStore {
 	}
 
 	public List<Usage> getTrainingData(int foldNum) {
+		if (columns != null) {
+			return columns.select(selectRows(foldNum, false));
+		}
 		return filterAndMapUsages(isNotEqual(foldNum));
 	}
 
@@ -57,9 +77,34 @@ public class TypeStore {
 	}
 
 	public List<Usage> getValidationData(int foldNum) {
+		if (columns != null) {
+			return columns.select(selectRows(foldNum, true));
+		}
 		return filterAndMapUsages(isEqual(foldNum));
 	}
 
+	private int[] selectRows(int foldNum, boolean isInFold) {
+		int num = 0;
+		int[] rows = new int[columns.size()];
+		for (int row = 0; row < rows.length; row++) {
+			int fold = getFold(row);
+			if ((fold == foldNum) == isInFold) {
+				rows[num++] = row;
+			}
+		}
+		return Arrays.copyOf(rows, num);
+	}
+
+	private int getFold(int row) {
+		int projectId = columns.getProjectId(row);
+		if (projectId == UsageColumnsWriter.NULL) {
+			Integer idx = mapping.get(null);
+			Asserts.assertNotNull(idx);
+			return idx;
+		}
+		return foldOfProject[projectId];
+	}
+
 	private Predicate<ProjectFoldedUsage> isEqual(final int val) {
 		return new Predicate<ProjectFoldedUsage>() {
 			@Override
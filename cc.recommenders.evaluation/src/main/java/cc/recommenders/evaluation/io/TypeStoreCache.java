@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.io;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import cc.recommenders.assertions.Asserts;
+import cc.recommenders.names.ITypeName;
+
+import com.google.common.base.Objects;
+
+/**
+ * Shares decoded {@link TypeStore}s between all tasks that run in the same
+ * JVM. Stores are reference counted, a store that is in use is never evicted.
+ * Unused stores are evicted in least-recently-used order, as soon as the
+ * cached stores contain more than the configured number of usages. If loading
+ * a store fails, all requests that waited for it fail as well and nothing is
+ * cached.
+ */
+public class TypeStoreCache {
+
+	public static final long DEFAULT_MAX_USAGES = 1000000;
+
+	private static final TypeStoreCache SHARED = new TypeStoreCache(DEFAULT_MAX_USAGES);
+
+	private final long maxUsages;
+
+	// access order
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+	private long numCachedUsages = 0;
+	private int numHits = 0;
+	private int numMisses = 0;
+
+	public TypeStoreCache(long maxUsages) {
+		Asserts.assertNotNegative(maxUsages);
+		this.maxUsages = maxUsages;
+	}
+
+	public static TypeStoreCache getShared() {
+		return SHARED;
+	}
+
+	/**
+	 * every acquired store has to be released again
+	 */
+	public TypeStore acquire(ProjectFoldedUsageStore store, ITypeName type, int numFolds) throws IOException {
+		Key key = new Key(store, type, numFolds);
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(key);
+			if (entry == null) {
+				entry = new Entry();
+				entries.put(key, entry);
+				numMisses++;
+			} else {
+				numHits++;
+			}
+			entry.refCount++;
+		}
+		// concurrent requests for the same store wait for a single load
+		synchronized (entry) {
+			if (entry.failure != null) {
+				// the entry has already been removed, nothing to release
+				throw new IOException("loading of " + type + " has failed", entry.failure);
+			}
+			if (entry.typeStore == null) {
+				try {
+					entry.typeStore = store.createTypeStore(type, numFolds);
+				} catch (Throwable t) {
+					entry.failure = t;
+					remove(key, entry);
+					throw t;
+				}
+				synchronized (this) {
+					entry.numUsages = entry.typeStore.getAllUsages().size();
+					// the entry might have been dropped in the meantime (clear)
+					if (entries.get(key) == entry) {
+						numCachedUsages += entry.numUsages;
+						evict();
+					}
+				}
+			}
+			return entry.typeStore;
+		}
+	}
+
+	public synchronized void release(ProjectFoldedUsageStore store, ITypeName type, int numFolds) {
+		Entry entry = entries.get(new Key(store, type, numFolds));
+		Asserts.assertNotNull(entry);
+		Asserts.assertGreaterThan(entry.refCount, 0);
+		entry.refCount--;
+		evict();
+	}
+
+	private synchronized void remove(Key key, Entry entry) {
+		if (entries.get(key) == entry) {
+			entries.remove(key);
+		}
+	}
+
+	private void evict() {
+		Iterator<Entry> it = entries.values().iterator();
+		while (numCachedUsages > maxUsages && it.hasNext()) {
+			Entry e = it.next();
+			if (e.refCount == 0 && e.typeStore != null) {
+				numCachedUsages -= e.numUsages;
+				it.remove();
+			}
+		}
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getNumberOfCachedUsages() {
+		return numCachedUsages;
+	}
+
+	public synchronized int getNumberOfHits() {
+		return numHits;
+	}
+
+	public synchronized int getNumberOfMisses() {
+		return numMisses;
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		numCachedUsages = 0;
+		numHits = 0;
+		numMisses = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("TypeStoreCache(%d stores, %d usages, %d hits, %d misses)", entries.size(),
+				numCachedUsages, numHits, numMisses);
+	}
+
+	private static class Entry {
+		private TypeStore typeStore;
+		private Throwable failure;
+		private int numUsages;
+		private int refCount;
+	}
+
+	private static class Key {
+		private final Object storeId;
+		private final ITypeName type;
+		private final int numFolds;
+
+		public Key(ProjectFoldedUsageStore store, ITypeName type, int numFolds) {
+			// stores without id (e.g., mocks) are only equal to themselves
+			String id = store.getId();
+			this.storeId = id == null ? store : id;
+			this.type = type;
+			this.numFolds = numFolds;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(storeId, type, numFolds);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return Objects.equal(storeId, other.storeId) && Objects.equal(type, other.type)
+					&& numFolds == other.numFolds;
+		}
+	}
+}
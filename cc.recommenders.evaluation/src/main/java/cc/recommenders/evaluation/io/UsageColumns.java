@@ -0,0 +1,292 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.io;
+
+import static cc.recommenders.evaluation.io.UsageColumnsWriter.MAGIC;
+import static cc.recommenders.evaluation.io.UsageColumnsWriter.NO_DEFINITION;
+import static cc.recommenders.evaluation.io.UsageColumnsWriter.NULL;
+import static cc.recommenders.evaluation.io.UsageColumnsWriter.VERSION;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import cc.recommenders.names.IFieldName;
+import cc.recommenders.names.IMethodName;
+import cc.recommenders.names.ITypeName;
+import cc.recommenders.names.VmFieldName;
+import cc.recommenders.names.VmMethodName;
+import cc.recommenders.names.VmTypeName;
+import cc.recommenders.usages.CallSite;
+import cc.recommenders.usages.CallSiteKind;
+import cc.recommenders.usages.CallSites;
+import cc.recommenders.usages.DefinitionSite;
+import cc.recommenders.usages.DefinitionSiteKind;
+import cc.recommenders.usages.DefinitionSites;
+import cc.recommenders.usages.ProjectFoldedUsage;
+import cc.recommenders.usages.Query;
+import cc.recommenders.usages.Usage;
+
+/**
+ * read-only, memory-mapped view of a file that was written by
+ * {@link UsageColumnsWriter}. Usages are decoded on access, names are only
+ * parsed once per dictionary entry.
+ */
+public class UsageColumns {
+
+	private static final IMethodName PLACEHOLDER = VmMethodName.get("LT.m()V");
+	private static final CallSiteKind[] SITE_KINDS = CallSiteKind.values();
+	private static final DefinitionSiteKind[] DEF_KINDS = DefinitionSiteKind.values();
+	private static final int HEADER_SIZE = 6 * 4;
+	private static final int TRAILER_SIZE = 4;
+
+	private final int numUsages;
+
+	private final String[] names;
+	private final String[] projects;
+
+	private final ITypeName[] typeNames;
+	private final IMethodName[] methodNames;
+	private final IFieldName[] fieldNames;
+
+	private final IntBuffer type;
+	private final IntBuffer classCtx;
+	private final IntBuffer methodCtx;
+	private final IntBuffer defKind;
+	private final IntBuffer defMethod;
+	private final IntBuffer defField;
+	private final IntBuffer defArg;
+	private final IntBuffer project;
+	private final IntBuffer sitesStart;
+	private final IntBuffer siteKind;
+	private final IntBuffer siteMethod;
+	private final IntBuffer siteArg;
+
+	public UsageColumns(File file) throws IOException {
+		this(map(file));
+	}
+
+	private static MappedByteBuffer map(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			return channel.map(MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			// the mapping stays valid after the channel is closed
+			raf.close();
+		}
+	}
+
+	public UsageColumns(ByteBuffer buf) throws IOException {
+		// the trailer is missing in truncated files
+		if (buf.remaining() < HEADER_SIZE + TRAILER_SIZE || buf.getInt() != MAGIC || buf.getInt() != VERSION
+				|| buf.getInt(buf.limit() - TRAILER_SIZE) != MAGIC) {
+			throw new IOException("invalid usage column file");
+		}
+		numUsages = buf.getInt();
+		int numSites = buf.getInt();
+		int numNames = buf.getInt();
+		int numProjects = buf.getInt();
+		int expectedEnd = buf.limit() - TRAILER_SIZE;
+		buf.limit(expectedEnd);
+		names = readStrings(buf, numNames);
+		projects = readStrings(buf, numProjects);
+		long numColumnBytes = 4L * (9L * numUsages + 1 + 3L * numSites);
+		if (numUsages < 0 || numSites < 0 || buf.remaining() != numColumnBytes) {
+			throw new IOException("corrupt usage column file");
+		}
+
+		typeNames = new ITypeName[names.length];
+		methodNames = new IMethodName[names.length];
+		fieldNames = new IFieldName[names.length];
+
+		type = column(buf, numUsages);
+		classCtx = column(buf, numUsages);
+		methodCtx = column(buf, numUsages);
+		defKind = column(buf, numUsages);
+		defMethod = column(buf, numUsages);
+		defField = column(buf, numUsages);
+		defArg = column(buf, numUsages);
+		project = column(buf, numUsages);
+		sitesStart = column(buf, numUsages + 1);
+		siteKind = column(buf, numSites);
+		siteMethod = column(buf, numSites);
+		siteArg = column(buf, numSites);
+	}
+
+	private static String[] readStrings(ByteBuffer buf, int num) throws IOException {
+		if (num < 0 || num > buf.remaining() / 4) {
+			throw new IOException("corrupt usage column file");
+		}
+		String[] strings = new String[num];
+		int numBytes = 0;
+		for (int i = 0; i < num; i++) {
+			int length = buf.remaining() < 4 ? -1 : buf.getInt();
+			if (length < 0 || length > buf.remaining()) {
+				throw new IOException("corrupt usage column file");
+			}
+			byte[] bytes = new byte[length];
+			buf.get(bytes);
+			strings[i] = new String(bytes, StandardCharsets.UTF_8);
+			numBytes += bytes.length;
+		}
+		int padding = (4 - numBytes % 4) % 4;
+		if (padding > buf.remaining()) {
+			throw new IOException("corrupt usage column file");
+		}
+		buf.position(buf.position() + padding);
+		return strings;
+	}
+
+	private static IntBuffer column(ByteBuffer buf, int length) {
+		ByteBuffer slice = buf.slice();
+		slice.limit(length * 4);
+		buf.position(buf.position() + length * 4);
+		return slice.asIntBuffer();
+	}
+
+	public int size() {
+		return numUsages;
+	}
+
+	public int getNumberOfProjects() {
+		return projects.length;
+	}
+
+	public String getProjectName(int projectId) {
+		return projectId == NULL ? null : projects[projectId];
+	}
+
+	public int getProjectId(int row) {
+		return project.get(row);
+	}
+
+	public Usage getUsage(int row) {
+		Query q = new Query();
+		q.setType(typeName(type.get(row)));
+		q.setClassContext(typeName(classCtx.get(row)));
+		q.setMethodContext(methodName(methodCtx.get(row)));
+		q.setDefinition(definition(row));
+		for (int i = sitesStart.get(row); i < sitesStart.get(row + 1); i++) {
+			q.addCallSite(callSite(i));
+		}
+		return q;
+	}
+
+	private DefinitionSite definition(int row) {
+		int kind = defKind.get(row);
+		if (kind == NO_DEFINITION) {
+			return null;
+		}
+		DefinitionSite def = DefinitionSites.createUnknownDefinitionSite();
+		def.setKind(kind == NULL ? null : DEF_KINDS[kind]);
+		def.setMethod(methodName(defMethod.get(row)));
+		def.setField(fieldName(defField.get(row)));
+		def.setArgIndex(defArg.get(row));
+		return def;
+	}
+
+	private CallSite callSite(int idx) {
+		int kind = siteKind.get(idx);
+		CallSite site = CallSites.createReceiverCallSite(PLACEHOLDER);
+		site.setKind(kind == NULL ? null : SITE_KINDS[kind]);
+		site.setMethod(methodName(siteMethod.get(idx)));
+		site.setArgIndex(siteArg.get(idx));
+		return site;
+	}
+
+	// racy initialization is fine, all names are interned
+
+	private ITypeName typeName(int id) {
+		if (id == NULL) {
+			return null;
+		}
+		ITypeName name = typeNames[id];
+		if (name == null) {
+			name = typeNames[id] = VmTypeName.get(names[id]);
+		}
+		return name;
+	}
+
+	private IMethodName methodName(int id) {
+		if (id == NULL) {
+			return null;
+		}
+		IMethodName name = methodNames[id];
+		if (name == null) {
+			name = methodNames[id] = VmMethodName.get(names[id]);
+		}
+		return name;
+	}
+
+	private IFieldName fieldName(int id) {
+		if (id == NULL) {
+			return null;
+		}
+		IFieldName name = fieldNames[id];
+		if (name == null) {
+			name = fieldNames[id] = VmFieldName.get(names[id]);
+		}
+		return name;
+	}
+
+	public ProjectFoldedUsage getProjectFoldedUsage(int row) {
+		return new ProjectFoldedUsage(getUsage(row), getProjectName(project.get(row)));
+	}
+
+	public List<ProjectFoldedUsage> asList() {
+		return new ProjectFoldedUsageView();
+	}
+
+	public List<Usage> select(int[] rows) {
+		return new UsageView(rows);
+	}
+
+	private class ProjectFoldedUsageView extends AbstractList<ProjectFoldedUsage> implements RandomAccess {
+		@Override
+		public ProjectFoldedUsage get(int index) {
+			return getProjectFoldedUsage(index);
+		}
+
+		@Override
+		public int size() {
+			return numUsages;
+		}
+	}
+
+	private class UsageView extends AbstractList<Usage> implements RandomAccess {
+
+		private final int[] rows;
+
+		public UsageView(int[] rows) {
+			this.rows = rows;
+		}
+
+		@Override
+		public Usage get(int index) {
+			return getUsage(rows[index]);
+		}
+
+		@Override
+		public int size() {
+			return rows.length;
+		}
+	}
+}
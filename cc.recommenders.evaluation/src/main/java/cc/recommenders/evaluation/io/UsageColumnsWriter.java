@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import cc.recommenders.names.IName;
+import cc.recommenders.usages.CallSite;
+import cc.recommenders.usages.DefinitionSite;
+import cc.recommenders.usages.ProjectFoldedUsage;
+import cc.recommenders.usages.Usage;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Layout of a usage column file (all numbers are big endian ints):
+ *
+ * <pre>
+ * header:    magic, version, numUsages, numSites, numNames, numProjects
+ * names:     (length, utf8 bytes)* ... padded to a multiple of 4 bytes
+ * projects:  (length, utf8 bytes)* ... padded to a multiple of 4 bytes
+ * columns:   type[numUsages], classCtx[numUsages], methodCtx[numUsages],
+ *            defKind[numUsages], defMethod[numUsages], defField[numUsages],
+ *            defArg[numUsages], project[numUsages], sitesStart[numUsages + 1],
+ *            siteKind[numSites], siteMethod[numSites], siteArg[numSites]
+ * trailer:   magic
+ * </pre>
+ *
+ * The trailer marks a completely written file. Files are written to a
+ * temporary file first and moved into place atomically, so readers that
+ * still map an older version of the file are not affected.
+ *
+ * Names and enum values are stored as ids into the dictionaries (or as
+ * ordinals), -1 encodes null. A missing definition site is stored as defKind
+ * -2.
+ */
+public class UsageColumnsWriter {
+
+	public static final int MAGIC = 0x43435543; // "CCUC"
+	public static final int VERSION = 2;
+	public static final int NULL = -1;
+	public static final int NO_DEFINITION = -2;
+
+	private final Map<String, Integer> names = Maps.newLinkedHashMap();
+	private final Map<String, Integer> projects = Maps.newLinkedHashMap();
+
+	public void write(List<ProjectFoldedUsage> usages, File file) throws IOException {
+		names.clear();
+		projects.clear();
+
+		int numUsages = usages.size();
+		int numSites = 0;
+		for (ProjectFoldedUsage pfu : usages) {
+			numSites += getSites(pfu.getRawUsage()).size();
+		}
+
+		int[] type = new int[numUsages];
+		int[] classCtx = new int[numUsages];
+		int[] methodCtx = new int[numUsages];
+		int[] defKind = new int[numUsages];
+		int[] defMethod = new int[numUsages];
+		int[] defField = new int[numUsages];
+		int[] defArg = new int[numUsages];
+		int[] project = new int[numUsages];
+		int[] sitesStart = new int[numUsages + 1];
+		int[] siteKind = new int[numSites];
+		int[] siteMethod = new int[numSites];
+		int[] siteArg = new int[numSites];
+
+		int row = 0;
+		int siteIdx = 0;
+		for (ProjectFoldedUsage pfu : usages) {
+			Usage u = pfu.getRawUsage();
+			type[row] = id(u.getType());
+			classCtx[row] = id(u.getClassContext());
+			methodCtx[row] = id(u.getMethodContext());
+
+			DefinitionSite def = u.getDefinitionSite();
+			if (def == null) {
+				defKind[row] = NO_DEFINITION;
+			} else {
+				defKind[row] = def.getKind() == null ? NULL : def.getKind().ordinal();
+			}
+			defMethod[row] = def == null ? NULL : id(def.getMethod());
+			defField[row] = def == null ? NULL : id(def.getField());
+			defArg[row] = def == null ? NULL : def.getArgIndex();
+
+			project[row] = id(projects, pfu.getProjectName());
+
+			sitesStart[row] = siteIdx;
+			for (CallSite site : getSites(u)) {
+				siteKind[siteIdx] = site.getKind() == null ? NULL : site.getKind().ordinal();
+				siteMethod[siteIdx] = id(site.getMethod());
+				siteArg[siteIdx] = site.getArgIndex();
+				siteIdx++;
+			}
+			row++;
+		}
+		sitesStart[numUsages] = siteIdx;
+
+		Path tmp = Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(), file.getName(), ".tmp");
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp.toFile())));
+			try {
+				write(out, numUsages, numSites, type, classCtx, methodCtx, defKind, defMethod, defField, defArg, project,
+						sitesStart, siteKind, siteMethod, siteArg);
+			} finally {
+				out.close();
+			}
+			Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	private void write(DataOutputStream out, int numUsages, int numSites, int[]... columns) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(numUsages);
+		out.writeInt(numSites);
+		out.writeInt(names.size());
+		out.writeInt(projects.size());
+		writeStrings(out, names);
+		writeStrings(out, projects);
+		for (int[] column : columns) {
+			for (int val : column) {
+				out.writeInt(val);
+			}
+		}
+		out.writeInt(MAGIC);
+	}
+
+	private static Set<CallSite> getSites(Usage u) {
+		Set<CallSite> sites = u.getAllCallsites();
+		return sites == null ? Collections.<CallSite> emptySet() : sites;
+	}
+
+	private int id(IName name) {
+		return name == null ? NULL : id(names, name.getIdentifier());
+	}
+
+	private static int id(Map<String, Integer> dictionary, String s) {
+		if (s == null) {
+			return NULL;
+		}
+		Integer id = dictionary.get(s);
+		if (id == null) {
+			id = dictionary.size();
+			dictionary.put(s, id);
+		}
+		return id;
+	}
+
+	private static void writeStrings(DataOutputStream out, Map<String, Integer> dictionary) throws IOException {
+		int numBytes = 0;
+		for (String s : dictionary.keySet()) {
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+			numBytes += bytes.length;
+		}
+		int padding = (4 - numBytes % 4) % 4;
+		for (int i = 0; i < padding; i++) {
+			out.write(0);
+		}
+	}
+}
@@ -0,0 +1,25 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.optimization;
+
+import java.util.List;
+import java.util.Map;
+
+import cc.recommenders.usages.Usage;
+
+public interface BatchScoreCalculator extends ScoreCalculator {
+
+	/**
+	 * scores all candidates of an iteration at once, candidates that are not
+	 * worth a full evaluation get a score of {@link Double#NEGATIVE_INFINITY}
+	 */
+	public Map<EvaluationOptions, Double> evalAll(List<EvaluationOptions> candidates, List<Usage> usages);
+}
@@ -0,0 +1,31 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.optimization;
+
+import java.util.List;
+
+import cc.recommenders.usages.Usage;
+
+public interface FidelityScoreCalculator extends ScoreCalculator {
+
+	/**
+	 * prepares the normalization of scores (e.g., model sizes) for the complete
+	 * input, has to be called before approximations on subsamples of it
+	 */
+	public void calibrate(List<Usage> usages);
+
+	/**
+	 * cheap approximation of {@link #eval(EvaluationOptions, List)} that only
+	 * calculates a single fold of the cross-validation, the scores are
+	 * normalized with the last calibration
+	 */
+	public double evalSingleFold(EvaluationOptions options, List<Usage> usages);
+}
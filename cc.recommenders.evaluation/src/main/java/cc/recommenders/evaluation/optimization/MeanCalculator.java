@@ -1,28 +1,38 @@
 package cc.recommenders.evaluation.optimization;
 
-import static cc.recommenders.evaluation.evaluators.Validations.nFoldCrossValidation;
+import static cc.recommenders.assertions.Asserts.assertGreaterOrEqual;
+import static cc.recommenders.evaluation.evaluators.Validations.createTrainingData;
+import static cc.recommenders.evaluation.evaluators.Validations.createValidationData;
 import static cc.recommenders.mining.calls.MiningOptions.newMiningOptions;
 
 import java.util.List;
+import java.util.Map;
 
+import org.eclipse.recommenders.commons.bayesnet.BayesianNetwork;
+
+import cc.recommenders.assertions.Asserts;
+import cc.recommenders.evaluation.distribution.calc.MinedModelCache;
 import cc.recommenders.evaluation.evaluators.F1Evaluator;
 import cc.recommenders.evaluation.evaluators.SizeCostAndF1Evaluator;
 import cc.recommenders.evaluation.evaluators.SizeEvaluator;
 import cc.recommenders.io.Logger;
 import cc.recommenders.mining.calls.ICallsRecommender;
+import cc.recommenders.mining.calls.Miner;
 import cc.recommenders.mining.calls.MiningOptions;
 import cc.recommenders.mining.calls.QueryOptions;
 import cc.recommenders.mining.calls.pbn.PBNMiner;
 import cc.recommenders.usages.Query;
 import cc.recommenders.usages.Usage;
 
+import com.google.common.collect.MapMaker;
 import com.google.inject.Inject;
 
-public class MeanCalculator implements ScoreCalculator {
+public class MeanCalculator implements FidelityScoreCalculator {
 
 	private static final int NUM_FOLDS = 3;
-	private static final MiningOptions MINING_OPTIONS_FOR_SMALL_MODEL = newMiningOptions("CANOPY[2.00; 1.00]+W[0.00; 0.00; 0.00; 0.00]+L0");
-	private static final MiningOptions MINING_OPTIONS_FOR_BIG_MODEL = newMiningOptions("CANOPY[2.00; 1.00]+W[1.00; 1.00; 1.00; 1.00]+L0");
+	private static final int ALL_USAGES = -1;
+	private static final MiningOptions MINING_OPTIONS_FOR_SMALL_MODEL = newMiningOptions("CANOPY[2.00; 1.00]+MANHATTAN+W[0.00; 0.00; 0.00; 0.00]-INIT-DROP");
+	private static final MiningOptions MINING_OPTIONS_FOR_BIG_MODEL = newMiningOptions("CANOPY[2.00; 1.00]+MANHATTAN+W[1.00; 1.00; 1.00; 1.00]-INIT-DROP");
 
 	private final PBNMiner ouMiner;
 	private final F1Evaluator f1Evaluator;
@@ -30,8 +40,34 @@ public class MeanCalculator implements ScoreCalculator {
 	private MiningOptions miningOptions;
 	private QueryOptions queryOptionsSingleton;
 	private List<Usage> usages;
+	private List<Usage> calibratedUsages;
 	private SizeEvaluator sizeAveragor;
 
+	/**
+	 * the folds are mined once per mining configuration, moves in the raster
+	 * that only change query options (e.g., minProbability) reuse the models
+	 */
+	private final MinedModelCache models = new MinedModelCache(MinedModelCache.DEFAULT_MAX_MODELS);
+	/**
+	 * weak keys are compared by identity, fingerprinting the content of every
+	 * fold would cost more than the lookup saves
+	 */
+	private final Map<List<Usage>, Integer> inputIds = new MapMaker().weakKeys().makeMap();
+	private int nextInputId = 0;
+	// identifies the training data of the next mined model
+	private int currentFold = ALL_USAGES;
+	private final Miner<Usage, Query> cachingMiner = new Miner<Usage, Query>() {
+		@Override
+		public Object learnModel(List<Usage> in) {
+			return getModel(in);
+		}
+
+		@Override
+		public ICallsRecommender<Query> createRecommender(List<Usage> in) {
+			return ouMiner.createRecommenderFromModel(getModel(in));
+		}
+	};
+
 	@Inject
 	public MeanCalculator(PBNMiner ouMiner, F1Evaluator evaluator, SizeEvaluator sizeAveragor,
 			MiningOptions miningOptionsSingleton, QueryOptions queryOptionsSingleton) {
@@ -43,38 +79,94 @@ public class MeanCalculator implements ScoreCalculator {
 	}
 
 	@Override
-	public double eval(EvaluationOptions opts, List<Usage> usages) {
+	public void calibrate(List<Usage> usages) {
+		if (mixedEvaluator != null && calibratedUsages == usages) {
+			return;
+		}
 		this.usages = usages;
-		this.miningOptions.setFrom(opts.miningOptions);
-		this.queryOptionsSingleton.setFrom(opts.queryOptions);
-		reinitEvaluator();
+		int minSize = determineModelSize(MINING_OPTIONS_FOR_SMALL_MODEL);
+		int maxSize = determineModelSize(MINING_OPTIONS_FOR_BIG_MODEL);
+		Logger.log("Determined model sizes: min. %d, max. %d\n", minSize, maxSize);
+		mixedEvaluator = new SizeCostAndF1Evaluator(f1Evaluator, sizeAveragor, miningOptions, minSize, maxSize);
+		calibratedUsages = usages;
+	}
+
+	@Override
+	public double eval(EvaluationOptions opts, List<Usage> usages) {
+		calibrate(usages);
+		init(opts, usages);
 
-		nFoldCrossValidation(NUM_FOLDS, ouMiner, mixedEvaluator, usages);
+		validate(NUM_FOLDS);
+		Logger.log("... %s\n", models);
 
 		double score = mixedEvaluator.getResults();
 		Logger.log("... calculated %s --> %f\n", opts, score);
 		return score;
 	}
 
-	private void reinitEvaluator() {
-		// TODO bäh
-		if (mixedEvaluator == null) {
-			int minSize = determineModelSize(MINING_OPTIONS_FOR_SMALL_MODEL);
-			int maxSize = determineModelSize(MINING_OPTIONS_FOR_BIG_MODEL);
-			Logger.log("Determined model sizes: min. %d, max. %d\n", minSize, maxSize);
-			mixedEvaluator = new SizeCostAndF1Evaluator(f1Evaluator, sizeAveragor, miningOptions, minSize, maxSize);
-		} else {
-			mixedEvaluator.reinit();
+	@Override
+	public double evalSingleFold(EvaluationOptions opts, List<Usage> usages) {
+		init(opts, usages);
+
+		validate(1);
+		Logger.log("... %s\n", models);
+
+		double score = mixedEvaluator.getResults();
+		Logger.log("... approximated %s --> %f (%d usages, 1 fold)\n", opts, score, usages.size());
+		return score;
+	}
+
+	/**
+	 * cross-validation over the first <i>numValidatedFolds</i> folds, the fold
+	 * index identifies the training data in the model cache
+	 */
+	private void validate(int numValidatedFolds) {
+		assertGreaterOrEqual(usages.size(), NUM_FOLDS);
+		try {
+			for (int fold = 0; fold < numValidatedFolds; fold++) {
+				currentFold = fold;
+				List<Usage> training = createTrainingData(fold, NUM_FOLDS, usages);
+				List<Usage> validation = createValidationData(fold, NUM_FOLDS, usages);
+				mixedEvaluator.query(cachingMiner.createRecommender(training), validation);
+			}
+		} finally {
+			currentFold = ALL_USAGES;
 		}
 	}
 
+	private void init(EvaluationOptions opts, List<Usage> usages) {
+		Asserts.assertNotNull(mixedEvaluator, "calibrate(...) has to be called first");
+		this.usages = usages;
+		this.miningOptions.setFrom(opts.miningOptions);
+		this.queryOptionsSingleton.setFrom(opts.queryOptions);
+		mixedEvaluator.reinit();
+	}
+
 	private int determineModelSize(MiningOptions newOpts) {
 		MiningOptions old = setMiningOptions(newOpts);
-		ICallsRecommender<Query> recommender = ouMiner.createRecommender(usages);
+		ICallsRecommender<Query> recommender = cachingMiner.createRecommender(usages);
 		setMiningOptions(old);
 		return recommender.getSize();
 	}
 
+	private BayesianNetwork getModel(List<Usage> training) {
+		String dataId = getInputId() + "/" + currentFold;
+		return models.getModel(dataId, miningOptions, queryOptionsSingleton, ouMiner, training);
+	}
+
+	private int getInputId() {
+		Integer id = inputIds.get(usages);
+		if (id == null) {
+			id = nextInputId++;
+			inputIds.put(usages, id);
+		}
+		return id;
+	}
+
+	public MinedModelCache getModelCache() {
+		return models;
+	}
+
 	private MiningOptions setMiningOptions(MiningOptions newo) {
 		MiningOptions old = new MiningOptions();
 		old.setFrom(miningOptions);
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.optimization;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import cc.recommenders.assertions.Asserts;
+import cc.recommenders.io.Directory;
+import cc.recommenders.names.IName;
+import cc.recommenders.usages.CallSite;
+import cc.recommenders.usages.DefinitionSite;
+import cc.recommenders.usages.Usage;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Remembers the scores of evaluated options per input data, so searches never
+ * score the same candidate twice (neither across start values and iterations
+ * nor across runs, if the memo is persisted). Options are identified by their
+ * string representation, the input by its size and a SHA-1 fingerprint of the
+ * name identifiers in the usages, which is stable across JVMs. Persisted
+ * scores are only valid for the scorer that has calculated them, so they are
+ * also keyed by a scorer identity (e.g., the calculator, its configuration and
+ * a version that is increased whenever the scoring changes).
+ */
+public class ScoreMemo {
+
+	private final Map<String, Double> scores = Maps.newHashMap();
+
+	private transient Directory dir;
+	private transient String fileName;
+	private transient String scorerId = "";
+
+	public static ScoreMemo load(Directory dir, String fileName, String scorerId) throws IOException {
+		Asserts.assertNotNull(scorerId);
+		Asserts.assertFalse(scorerId.isEmpty(), "scores of a persisted memo need a scorer identity");
+		ScoreMemo memo = dir.exists(fileName) ? dir.<ScoreMemo> read(fileName, ScoreMemo.class) : new ScoreMemo();
+		memo.dir = dir;
+		memo.fileName = fileName;
+		memo.scorerId = scorerId;
+		return memo;
+	}
+
+	public synchronized void save() throws IOException {
+		if (dir != null) {
+			dir.write(this, fileName);
+		}
+	}
+
+	public synchronized Double getNullable(String dataId, EvaluationOptions options) {
+		return scores.get(key(dataId, options));
+	}
+
+	public synchronized void put(String dataId, EvaluationOptions options, double score) {
+		// NaN and pruned candidates (-Infinity) cannot be persisted
+		if (!Double.isNaN(score) && !Double.isInfinite(score)) {
+			scores.put(key(dataId, options), score);
+		}
+	}
+
+	public synchronized int size() {
+		return scores.size();
+	}
+
+	public static String getDataId(List<Usage> usages) {
+		Hasher hasher = Hashing.sha1().newHasher();
+		List<String> sites = Lists.newArrayList();
+		for (Usage u : usages) {
+			put(hasher, u.getType());
+			put(hasher, u.getClassContext());
+			put(hasher, u.getMethodContext());
+			DefinitionSite def = u.getDefinitionSite();
+			if (def == null) {
+				hasher.putChar('-');
+			} else {
+				put(hasher, def.getKind());
+				put(hasher, def.getMethod());
+				put(hasher, def.getField());
+				hasher.putInt(def.getArgIndex());
+			}
+			// set order depends on hash codes, which differ between JVMs
+			sites.clear();
+			for (CallSite site : u.getAllCallsites()) {
+				sites.add(site.getKind() + "|" + identifier(site.getMethod()) + "|" + site.getArgIndex());
+			}
+			Collections.sort(sites);
+			hasher.putInt(sites.size());
+			for (String site : sites) {
+				hasher.putString(site, Charsets.UTF_8);
+			}
+		}
+		return String.format("%d/%s", usages.size(), hasher.hash());
+	}
+
+	private static void put(Hasher hasher, Object o) {
+		String s = o instanceof IName ? identifier((IName) o) : String.valueOf(o);
+		hasher.putInt(s.length());
+		hasher.putString(s, Charsets.UTF_8);
+	}
+
+	private static String identifier(IName name) {
+		return name == null ? "null" : name.getIdentifier();
+	}
+
+	private String key(String dataId, EvaluationOptions options) {
+		return scorerId + ":" + dataId + ":" + options;
+	}
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.optimization;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import cc.recommenders.assertions.Asserts;
+import cc.recommenders.io.Logger;
+import cc.recommenders.usages.Usage;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Multi-fidelity scoring of the candidates of an iteration (successive
+ * halving). All candidates are first approximated with a single fold on a
+ * small subsample of the usages, only the best <i>1/eta</i> advance to the next
+ * round, in which the subsample is <i>eta</i> times larger. The survivors of
+ * the last round get the full evaluation, all others are scored with
+ * {@link Double#NEGATIVE_INFINITY}. Such pruned candidates are not final, the
+ * raster search scores them again when they are proposed in a later iteration.
+ *
+ * The CPU time of all evaluations is tracked and compared to the estimated
+ * time of evaluating all candidates fully (the exhaustive raster). It is
+ * measured for the whole process, so the threads of a parallel evaluator are
+ * included, but so is all unrelated work (e.g., garbage collection) that
+ * happens in the meantime.
+ */
+public class SuccessiveHalvingCalculator implements BatchScoreCalculator {
+
+	public static final int DEFAULT_ETA = 2;
+	public static final int DEFAULT_MIN_USAGES = 30;
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+	private static final OperatingSystemMXBean OS = ManagementFactory.getOperatingSystemMXBean();
+
+	private final FidelityScoreCalculator calculator;
+	private final int eta;
+	private final int minUsages;
+
+	private double cpuTimeInS;
+	private double exhaustiveCpuTimeInS;
+	private double fullEvaluationTimeInS;
+	private int numFullEvaluations;
+
+	public SuccessiveHalvingCalculator(FidelityScoreCalculator calculator) {
+		this(calculator, DEFAULT_ETA, DEFAULT_MIN_USAGES);
+	}
+
+	public SuccessiveHalvingCalculator(FidelityScoreCalculator calculator, int eta, int minUsages) {
+		Asserts.assertNotNull(calculator);
+		Asserts.assertGreaterThan(eta, 1);
+		Asserts.assertGreaterThan(minUsages, 0);
+		this.calculator = calculator;
+		this.eta = eta;
+		this.minUsages = minUsages;
+	}
+
+	@Override
+	public double eval(EvaluationOptions options, List<Usage> usages) {
+		long start = getCpuTime();
+		double score = calculator.eval(options, usages);
+		double duration = secondsSince(start);
+		fullEvaluationTimeInS += duration;
+		numFullEvaluations++;
+		cpuTimeInS += duration;
+		exhaustiveCpuTimeInS += duration;
+		return score;
+	}
+
+	@Override
+	public Map<EvaluationOptions, Double> evalAll(List<EvaluationOptions> candidates, List<Usage> usages) {
+		Map<EvaluationOptions, Double> scores = Maps.newLinkedHashMap();
+		// the approximations on subsamples are normalized for the full input
+		calculator.calibrate(usages);
+		int numRounds = getNumberOfCheapRounds(candidates.size(), usages.size());
+		double cpuTimeBefore = cpuTimeInS;
+
+		List<Usage> shuffled = Lists.newArrayList(usages);
+		Collections.shuffle(shuffled, new Random(usages.size()));
+
+		List<EvaluationOptions> alive = Lists.newArrayList(candidates);
+		for (int round = 0; round < numRounds; round++) {
+			int sampleSize = (int) (usages.size() / Math.pow(eta, numRounds - round));
+			List<Usage> sample = shuffled.subList(0, Math.max(sampleSize, minUsages));
+			final Map<EvaluationOptions, Double> approximations = Maps.newHashMap();
+			for (EvaluationOptions candidate : alive) {
+				long start = getCpuTime();
+				approximations.put(candidate, calculator.evalSingleFold(candidate, sample));
+				cpuTimeInS += secondsSince(start);
+			}
+			Collections.sort(alive, new Comparator<EvaluationOptions>() {
+				@Override
+				public int compare(EvaluationOptions a, EvaluationOptions b) {
+					// descending, NaN last
+					return -Double.compare(nanToMin(approximations.get(a)), nanToMin(approximations.get(b)));
+				}
+			});
+			int numSurvivors = (int) Math.ceil(alive.size() / (double) eta);
+			for (EvaluationOptions pruned : alive.subList(numSurvivors, alive.size())) {
+				scores.put(pruned, Double.NEGATIVE_INFINITY);
+			}
+			alive = Lists.newArrayList(alive.subList(0, numSurvivors));
+		}
+
+		for (EvaluationOptions candidate : alive) {
+			scores.put(candidate, eval(candidate, usages));
+		}
+		// eval(...) already counted the survivors
+		exhaustiveCpuTimeInS += (candidates.size() - alive.size()) * getAverageFullEvaluationTimeInS();
+
+		Logger.log("successive halving: %d candidates, %d rounds, %d fully evaluated (%.1fs cpu)\n",
+				candidates.size(), numRounds, alive.size(), cpuTimeInS - cpuTimeBefore);
+		Logger.log("total cpu: %.1fs, exhaustive raster: ~%.1fs, saved: ~%.1fs\n", cpuTimeInS,
+				exhaustiveCpuTimeInS, getSavedCpuTimeInS());
+		return scores;
+	}
+
+	private int getNumberOfCheapRounds(int numCandidates, int numUsages) {
+		int numRounds = 0;
+		int numAlive = numCandidates;
+		while (numAlive > 1 && numUsages / Math.pow(eta, numRounds + 1) >= minUsages) {
+			numAlive = (int) Math.ceil(numAlive / (double) eta);
+			numRounds++;
+		}
+		return numRounds;
+	}
+
+	private static double nanToMin(double d) {
+		return Double.isNaN(d) ? Double.NEGATIVE_INFINITY : d;
+	}
+
+	private double getAverageFullEvaluationTimeInS() {
+		return numFullEvaluations == 0 ? 0 : fullEvaluationTimeInS / numFullEvaluations;
+	}
+
+	public double getCpuTimeInS() {
+		return cpuTimeInS;
+	}
+
+	public double getExhaustiveCpuTimeInS() {
+		return exhaustiveCpuTimeInS;
+	}
+
+	public double getSavedCpuTimeInS() {
+		return exhaustiveCpuTimeInS - cpuTimeInS;
+	}
+
+	private static long getCpuTime() {
+		if (OS instanceof com.sun.management.OperatingSystemMXBean) {
+			return ((com.sun.management.OperatingSystemMXBean) OS).getProcessCpuTime();
+		}
+		return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+	}
+
+	private static double secondsSince(long start) {
+		return (getCpuTime() - start) / 1000000000.0;
+	}
+}
@@ -2,24 +2,35 @@ package cc.recommenders.evaluation.optimization.raster;
 
 import static cc.recommenders.evaluation.optimization.Vector.v;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import cc.recommenders.assertions.Asserts;
+import cc.recommenders.evaluation.optimization.BatchScoreCalculator;
 import cc.recommenders.evaluation.optimization.CandidateSelector;
 import cc.recommenders.evaluation.optimization.EvaluationOptions;
 import cc.recommenders.evaluation.optimization.EvaluationOptionsSearcher;
 import cc.recommenders.evaluation.optimization.OptimizationOptions;
 import cc.recommenders.evaluation.optimization.ScoreCalculator;
+import cc.recommenders.evaluation.optimization.ScoreMemo;
 import cc.recommenders.evaluation.optimization.Vector;
 import cc.recommenders.io.Logger;
 import cc.recommenders.usages.Usage;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 
 public class RasterSearch extends EvaluationOptionsSearcher {
 
@@ -43,12 +54,47 @@ public class RasterSearch extends EvaluationOptionsSearcher {
 	private Map<EvaluationOptions, Double> newScores;
 	private Set<EvaluationOptions> candidates;
 
+	private ScoreMemo memo = new ScoreMemo();
+	private String dataId;
+
+	private int numThreads = 1;
+	private ThreadLocal<ScoreCalculator> calculators;
+	private ExecutorService pool;
+
 	@Inject
 	public RasterSearch(CandidateSelector candidateSelector, ScoreCalculator scoreCalculator) {
 		this.candidateSelector = candidateSelector;
 		this.scoreCalculator = scoreCalculator;
 	}
 
+	/**
+	 * the memo is used to look up scores before calculating them and is saved
+	 * after every search
+	 */
+	public void setScoreMemo(ScoreMemo memo) {
+		Asserts.assertNotNull(memo);
+		this.memo = memo;
+	}
+
+	/**
+	 * evaluates the candidates of an iteration on several threads, every thread
+	 * uses its own calculator from the provider. Calculators mutate their
+	 * options (see MeanCalculator), so the provider has to create instances
+	 * that do not share options, e.g., from a new injector. Not used for a
+	 * {@link BatchScoreCalculator}, which gets all candidates of an iteration.
+	 */
+	public void setParallelism(int numThreads, final Provider<? extends ScoreCalculator> calculatorProvider) {
+		Asserts.assertGreaterThan(numThreads, 0);
+		Asserts.assertNotNull(calculatorProvider);
+		this.numThreads = numThreads;
+		calculators = new ThreadLocal<ScoreCalculator>() {
+			@Override
+			protected ScoreCalculator initialValue() {
+				return calculatorProvider.get();
+			}
+		};
+	}
+
 	@Override
 	public EvaluationOptions findOptimalOptions(List<Usage> usages, OptimizationOptions options,
 			Set<EvaluationOptions> startValues) {
@@ -60,8 +106,16 @@ public class RasterSearch extends EvaluationOptionsSearcher {
 
 		Set<EvaluationOptions> bestFromStartValues = Sets.newHashSet();
 
-		for (EvaluationOptions startValue : startValues) {
-			bestFromStartValues.add(findOptimalOptions(startValue));
+		try {
+			for (EvaluationOptions startValue : startValues) {
+				bestFromStartValues.add(findOptimalOptions(startValue));
+			}
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
+				pool = null;
+			}
+			saveMemo();
 		}
 
 		EvaluationOptions best = bestFrom(bestFromStartValues);
@@ -72,8 +126,20 @@ public class RasterSearch extends EvaluationOptionsSearcher {
 		return best;
 	}
 
+	private void saveMemo() {
+		try {
+			memo.save();
+		} catch (IOException e) {
+			Logger.err("cannot save score memo: %s", e.getMessage());
+		}
+	}
+
 	private void reinit(List<Usage> usages, OptimizationOptions options) {
 		this.usages = usages;
+		dataId = ScoreMemo.getDataId(usages);
+		if (numThreads > 1) {
+			pool = Executors.newFixedThreadPool(numThreads);
+		}
 		this.threshold = options.convergenceThreshold;
 		this.maxNumIterations = options.maxIterations;
 		// TODO get rid of Vector.v(...) style
@@ -110,7 +176,7 @@ public class RasterSearch extends EvaluationOptionsSearcher {
 	private EvaluationOptions findOptimalOptions(EvaluationOptions options) {
 		this.currentStepSize = initialStepSize;
 		bestCandidate = options;
-		bestScore = scoreCalculator.eval(options, usages);
+		bestScore = score(options);
 		scores.put(bestCandidate, bestScore);
 		secondBestScore = 0.0;
 		numIterations = 0;
@@ -145,14 +211,89 @@ public class RasterSearch extends EvaluationOptionsSearcher {
 
 	private void processNewCandidates(Set<EvaluationOptions> candidates) {
 		newScores = new HashMap<EvaluationOptions, Double>();
+		List<EvaluationOptions> unscored = Lists.newArrayList();
 		for (EvaluationOptions candidate : candidates) {
 			if (!scores.containsKey(candidate)) {
-				Double newScore = scoreCalculator.eval(candidate, usages);
-				determineBestValues(candidate, newScore);
-				scores.put(candidate, newScore);
-				newScores.put(candidate, newScore);
+				unscored.add(candidate);
+			}
+		}
+		Map<EvaluationOptions, Double> calculated = scoreAll(unscored);
+		// same order as the candidates, so the result does not depend on the
+		// order in which the scores have been calculated
+		for (EvaluationOptions candidate : unscored) {
+			Double newScore = calculated.get(candidate);
+			if (newScore == Double.NEGATIVE_INFINITY) {
+				// pruned on a small subsample, can be scored again as the
+				// neighbor of a later candidate
+				continue;
+			}
+			determineBestValues(candidate, newScore);
+			scores.put(candidate, newScore);
+			newScores.put(candidate, newScore);
+		}
+	}
+
+	private double score(EvaluationOptions candidate) {
+		Double score = memo.getNullable(dataId, candidate);
+		if (score == null) {
+			score = scoreCalculator.eval(candidate, usages);
+			memo.put(dataId, candidate, score);
+		}
+		return score;
+	}
+
+	private Map<EvaluationOptions, Double> scoreAll(List<EvaluationOptions> candidates) {
+		Map<EvaluationOptions, Double> calculated = Maps.newHashMap();
+		if (scoreCalculator instanceof BatchScoreCalculator) {
+			List<EvaluationOptions> unknown = Lists.newArrayList();
+			for (EvaluationOptions candidate : candidates) {
+				Double score = memo.getNullable(dataId, candidate);
+				if (score == null) {
+					unknown.add(candidate);
+				} else {
+					calculated.put(candidate, score);
+				}
+			}
+			if (!unknown.isEmpty()) {
+				BatchScoreCalculator batch = (BatchScoreCalculator) scoreCalculator;
+				for (Map.Entry<EvaluationOptions, Double> e : batch.evalAll(unknown, usages).entrySet()) {
+					memo.put(dataId, e.getKey(), e.getValue());
+					calculated.put(e.getKey(), e.getValue());
+				}
+			}
+			return calculated;
+		}
+		if (pool == null || candidates.size() < 2) {
+			for (EvaluationOptions candidate : candidates) {
+				calculated.put(candidate, score(candidate));
+			}
+			return calculated;
+		}
+
+		List<Future<Double>> futures = Lists.newArrayList();
+		for (final EvaluationOptions candidate : candidates) {
+			futures.add(pool.submit(new Callable<Double>() {
+				@Override
+				public Double call() throws Exception {
+					Double score = memo.getNullable(dataId, candidate);
+					if (score == null) {
+						score = calculators.get().eval(candidate, usages);
+						memo.put(dataId, candidate, score);
+					}
+					return score;
+				}
+			}));
+		}
+		try {
+			for (int i = 0; i < candidates.size(); i++) {
+				calculated.put(candidates.get(i), futures.get(i).get());
 			}
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
 		}
+		return calculated;
 	}
 
 	// private Vector adaptStepSize() {
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.apache.commons.math.stat.StatUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MeanVarianceTest {
+
+	private MeanVariance sut;
+
+	@Before
+	public void setup() {
+		sut = new MeanVariance();
+	}
+
+	@Test
+	public void defaultValues() {
+		assertFalse(sut.hasValues());
+		assertEquals(0, sut.getNumValues());
+	}
+
+	@Test
+	public void singleValue() {
+		sut.add(3.0);
+		assertTrue(sut.hasValues());
+		assertEquals(1, sut.getNumValues());
+		assertEquals(3.0, sut.getMean(), 0.000001);
+		assertEquals(0.0, sut.getVarianceRaw(), 0.000001);
+	}
+
+	@Test
+	public void sameResultsAsBoxplotData() {
+		double[] values = randomValues(1000, 1);
+		BoxplotData bpd = BoxplotData.from(values);
+		for (double v : values) {
+			sut.add(v);
+		}
+		assertEquals(bpd.getMean(), sut.getMean(), 0.000001);
+		assertEquals(bpd.getVarianceRaw(), sut.getVarianceRaw(), 0.000001);
+		assertEquals(bpd.getVariance().getVariance(), sut.getVariance().getVariance(), 0.000001);
+	}
+
+	@Test
+	public void mergingIsEqualToAddingAllValues() {
+		double[] a = randomValues(100, 2);
+		double[] b = randomValues(300, 3);
+		MeanVariance other = new MeanVariance();
+		for (double v : a) {
+			sut.add(v);
+		}
+		for (double v : b) {
+			other.add(v);
+		}
+		sut.merge(other);
+
+		double[] all = new double[a.length + b.length];
+		System.arraycopy(a, 0, all, 0, a.length);
+		System.arraycopy(b, 0, all, a.length, b.length);
+		assertEquals(400, sut.getNumValues());
+		assertEquals(StatUtils.mean(all), sut.getMean(), 0.000001);
+		assertEquals(StatUtils.variance(all), sut.getVarianceRaw(), 0.000001);
+	}
+
+	@Test
+	public void mergingEmptyInstances() {
+		MeanVariance other = new MeanVariance();
+		other.add(1.0);
+		other.add(3.0);
+		sut.merge(new MeanVariance());
+		sut.merge(other);
+		other.merge(new MeanVariance());
+		assertEquals(2, sut.getNumValues());
+		assertEquals(2.0, sut.getMean(), 0.000001);
+		assertEquals(2.0, sut.getVarianceRaw(), 0.000001);
+	}
+
+	private static double[] randomValues(int num, long seed) {
+		Random rnd = new Random(seed);
+		double[] values = new double[num];
+		for (int i = 0; i < num; i++) {
+			values[i] = rnd.nextDouble() * 10;
+		}
+		return values;
+	}
+}
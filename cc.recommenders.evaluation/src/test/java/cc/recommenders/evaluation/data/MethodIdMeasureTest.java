@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.data;
+
+import static com.google.common.collect.Sets.newLinkedHashSet;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import cc.recommenders.names.IMethodName;
+import cc.recommenders.names.VmMethodName;
+
+public class MethodIdMeasureTest {
+
+	private static final double DOUBLE_TRESHOLD = 0.0001;
+
+	private static final IMethodName A = m("a");
+	private static final IMethodName B = m("b");
+	private static final IMethodName C = m("c");
+	private static final IMethodName D = m("d");
+
+	private MethodIdMeasure sut;
+
+	@Before
+	public void setup() {
+		sut = new MethodIdMeasure();
+	}
+
+	@Test
+	public void precisionRecallAndF1() {
+		assertSameAsMeasure(set(A, B), set(A, C, D));
+		assertEquals(1.0 / 3.0, sut.getPrecision(), DOUBLE_TRESHOLD);
+		assertEquals(1.0 / 2.0, sut.getRecall(), DOUBLE_TRESHOLD);
+		assertEquals(0.4, sut.getF1(), DOUBLE_TRESHOLD);
+	}
+
+	@Test
+	public void emptySets() {
+		assertSameAsMeasure(set(A), none());
+		assertSameAsMeasure(none(), set(A));
+		assertSameAsMeasure(none(), none());
+		assertEquals(1.0, sut.getF1(), DOUBLE_TRESHOLD);
+	}
+
+	@Test
+	public void noHits() {
+		assertSameAsMeasure(set(A, B), set(C, D));
+		assertEquals(0.0, sut.getF1(), DOUBLE_TRESHOLD);
+	}
+
+	@Test
+	public void duplicatesAreIgnored() {
+		sut.addExpected(A);
+		sut.addExpected(A);
+		sut.addProposed(A);
+		sut.addProposed(B);
+		sut.addProposed(B);
+		assertEquals(1, sut.getNumExpected());
+		assertEquals(2, sut.getNumProposed());
+		assertEquals(0.5, sut.getPrecision(), DOUBLE_TRESHOLD);
+	}
+
+	@Test
+	public void buffersGrow() {
+		for (int i = 0; i < 100; i++) {
+			sut.addExpected(m("e" + i));
+			sut.addProposed(m("e" + (2 * i)));
+		}
+		assertEquals(100, sut.getNumExpected());
+		assertEquals(100, sut.getNumProposed());
+		assertEquals(0.5, sut.getPrecision(), DOUBLE_TRESHOLD);
+	}
+
+	@Test
+	public void resetClearsEverything() {
+		sut.addExpected(A);
+		sut.addProposed(B);
+		sut.reset();
+		sut.addExpected(B);
+		sut.addProposed(B);
+		assertEquals(1, sut.getNumExpected());
+		assertEquals(1.0, sut.getF1(), DOUBLE_TRESHOLD);
+	}
+
+	@Test
+	public void dropAfterTotalRecall() {
+		Set<IMethodName> expected = set(A, B);
+		Set<IMethodName> proposed = set(C, A, D, B, m("x"), m("y"));
+		add(expected, proposed);
+		sut.dropAfterTotalRecall();
+
+		Set<IMethodName> dropped = Measure.dropAfterTotalRecall(expected, proposed);
+		assertEquals(dropped.size(), sut.getNumProposed());
+		assertEquals(Measure.newMeasure(expected, dropped).getF1(), sut.getF1(), DOUBLE_TRESHOLD);
+	}
+
+	@Test
+	public void dropAfterTotalRecallWithoutFullRecall() {
+		Set<IMethodName> expected = set(A, B);
+		Set<IMethodName> proposed = set(C, A, D);
+		add(expected, proposed);
+		sut.dropAfterTotalRecall();
+		assertEquals(3, sut.getNumProposed());
+	}
+
+	private void assertSameAsMeasure(Set<IMethodName> expected, Set<IMethodName> proposed) {
+		sut.reset();
+		add(expected, proposed);
+		Measure m = Measure.newMeasure(expected, proposed);
+		assertEquals(m.getPrecision(), sut.getPrecision(), DOUBLE_TRESHOLD);
+		assertEquals(m.getRecall(), sut.getRecall(), DOUBLE_TRESHOLD);
+		assertEquals(m.getF1(), sut.getF1(), DOUBLE_TRESHOLD);
+	}
+
+	private void add(Set<IMethodName> expected, Set<IMethodName> proposed) {
+		for (IMethodName e : expected) {
+			sut.addExpected(e);
+		}
+		for (IMethodName p : proposed) {
+			sut.addProposed(p);
+		}
+	}
+
+	private static Set<IMethodName> none() {
+		return newLinkedHashSet();
+	}
+
+	private static Set<IMethodName> set(IMethodName... methods) {
+		return newLinkedHashSet(Arrays.asList(methods));
+	}
+
+	private static IMethodName m(String name) {
+		return VmMethodName.get("LT." + name + "()V");
+	}
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import cc.recommenders.exceptions.AssertionException;
+
+public class QuantileSketchTest {
+
+	private QuantileSketch sut;
+
+	@Before
+	public void setup() {
+		sut = new QuantileSketch();
+	}
+
+	@Test
+	public void defaultValues() {
+		assertFalse(sut.hasData());
+		assertEquals(0, sut.getNumValues());
+		assertTrue(sut.isExact());
+	}
+
+	@Test
+	public void boxplotWithoutDataIsNaN() {
+		double nan = Double.NaN;
+		assertEquals(new Boxplot(0, nan, nan, nan, nan, nan, nan), sut.getBoxplot());
+		assertTrue(Double.isNaN(sut.getMean()));
+	}
+
+	@Test
+	public void mergingEmptySketchesDoesNotChangeTheResult() {
+		sut.add(0.3);
+		sut.merge(new QuantileSketch());
+		assertEquals(new Boxplot(1, 0.3, 0.3, 0.3, 0.3, 0.3, 0.3), sut.getBoxplot());
+	}
+
+	@Test(expected = AssertionException.class)
+	public void atLeastTwoCentroids() {
+		new QuantileSketch(1);
+	}
+
+	@Test
+	public void singleValue() {
+		sut.add(0.3);
+		assertEquals(new Boxplot(1, 0.3, 0.3, 0.3, 0.3, 0.3, 0.3), sut.getBoxplot());
+	}
+
+	@Test
+	public void sameBoxplotAsBoxplotDataForFewDistinctValues() {
+		double[] values = new double[5000];
+		Random rnd = new Random(1);
+		for (int i = 0; i < values.length; i++) {
+			values[i] = rnd.nextInt(21) / 20.0;
+		}
+		sut = QuantileSketch.from(values);
+		assertTrue(sut.isExact());
+		assertEquals(BoxplotData.from(values).getBoxplot(), sut.getBoxplot());
+	}
+
+	@Test
+	public void sameBoxplotAsBoxplotDataForSmallInputs() {
+		double[] values = new double[] { 0.0, 0.1, 0.2, 0.3, 1234.5678 };
+		sut = QuantileSketch.from(values);
+		assertEquals(BoxplotData.from(values).getBoxplot(), sut.getBoxplot());
+	}
+
+	@Test
+	public void mergingIsEqualToAddingAllValues() {
+		double[] a = new double[] { 0.2, 0.4, 0.4, 1.0 };
+		double[] b = new double[] { 0.0, 0.4, 0.6 };
+		sut = QuantileSketch.from(a);
+		sut.merge(QuantileSketch.from(b));
+
+		BoxplotData expected = BoxplotData.from(a);
+		expected.addAll(b);
+		assertEquals(7, sut.getNumValues());
+		assertEquals(expected.getBoxplot(), sut.getBoxplot());
+	}
+
+	@Test
+	public void approximationForManyDistinctValues() {
+		Random rnd = new Random(2);
+		BoxplotData expected = new BoxplotData();
+		QuantileSketch other = new QuantileSketch();
+		for (int i = 0; i < 20000; i++) {
+			double v = rnd.nextDouble();
+			expected.add(v);
+			(i % 2 == 0 ? sut : other).add(v);
+		}
+		sut.merge(other);
+
+		assertFalse(sut.isExact());
+		Boxplot exp = expected.getBoxplot();
+		Boxplot act = sut.getBoxplot();
+		assertEquals(exp.getNumValues(), act.getNumValues());
+		assertEquals(exp.getMean(), act.getMean(), 0.00001);
+		assertEquals(exp.getLowerWhisker(), act.getLowerWhisker(), 0.02);
+		assertEquals(exp.getLowerQuartil(), act.getLowerQuartil(), 0.02);
+		assertEquals(exp.getMedian(), act.getMedian(), 0.02);
+		assertEquals(exp.getUpperQuartil(), act.getUpperQuartil(), 0.02);
+		assertEquals(exp.getUpperWhisker(), act.getUpperWhisker(), 0.02);
+	}
+
+	@Test
+	public void minAndMaxAreExact() {
+		sut = new QuantileSketch(2);
+		sut.addAll(new double[] { 1, 2, 3, 4, 5 });
+		assertEquals(1.0, sut.getPercentile(0), 0.000001);
+		assertEquals(5.0, sut.getPercentile(100), 0.000001);
+	}
+
+	@Test
+	public void varianceIsExact() {
+		double[] values = new double[] { 0.2, 0.4, 0.4, 1.0 };
+		sut = new QuantileSketch(2);
+		sut.addAll(values);
+		Variance expected = BoxplotData.from(values).getVariance();
+		Variance actual = sut.getVariance();
+		assertEquals(expected.getNumberOfInput(), actual.getNumberOfInput());
+		assertEquals(expected.getMean(), actual.getMean(), 0.000001);
+		assertEquals(expected.getVariance(), actual.getVariance(), 0.000001);
+	}
+
+	@Test
+	public void binaryEncodingPreservesTheSketch() throws IOException {
+		sut = new QuantileSketch(4);
+		sut.addAll(new double[] { 0.1, 0.2, 0.2, 0.5, 0.7, 0.9 });
+
+		QuantileSketch actual = roundTrip(sut);
+
+		assertFalse(actual.isExact());
+		assertEquals(sut.getBoxplot(), actual.getBoxplot());
+		actual.add(0.3);
+		sut.add(0.3);
+		assertEquals(sut.getBoxplot(), actual.getBoxplot());
+	}
+
+	@Test
+	public void binaryEncodingOfEmptySketch() throws IOException {
+		QuantileSketch actual = roundTrip(sut);
+		assertFalse(actual.hasData());
+		assertTrue(actual.isExact());
+	}
+
+	@Test(expected = IOException.class)
+	public void corruptBinaryEncodingIsDetected() throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(baos);
+		out.writeInt(2);
+		out.writeInt(3);
+		QuantileSketch.readFrom(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+	}
+
+	private static QuantileSketch roundTrip(QuantileSketch sketch) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		sketch.writeTo(new DataOutputStream(baos));
+		return QuantileSketch.readFrom(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+	}
+}
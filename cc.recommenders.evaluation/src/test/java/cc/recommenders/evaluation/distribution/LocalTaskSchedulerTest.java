@@ -0,0 +1,261 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.distribution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import cc.recommenders.exceptions.AssertionException;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Provider;
+
+public class LocalTaskSchedulerTest {
+
+	@Mock
+	private ITaskProvider<String> provider;
+
+	private List<Callable<String>> workers;
+	private Provider<Injector> injectorProvider;
+	private AtomicInteger numInjectors;
+
+	private LocalTaskScheduler<String> sut;
+
+	@Before
+	public void setup() {
+		MockitoAnnotations.initMocks(this);
+		workers = Lists.newLinkedList();
+		when(provider.createWorkers()).thenReturn(workers);
+
+		numInjectors = new AtomicInteger();
+		injectorProvider = new Provider<Injector>() {
+			@Override
+			public Injector get() {
+				final State state = new State(numInjectors.incrementAndGet());
+				return Guice.createInjector(new AbstractModule() {
+					@Override
+					protected void configure() {
+						bind(State.class).toInstance(state);
+					}
+				});
+			}
+		};
+	}
+
+	private void initSut() {
+		sut = new LocalTaskScheduler<String>(provider, injectorProvider);
+	}
+
+	@Test(expected = AssertionException.class)
+	public void providerMustNotBeNull() {
+		new LocalTaskScheduler<String>(null, injectorProvider);
+	}
+
+	@Test(expected = AssertionException.class)
+	public void injectorProviderMustNotBeNull() {
+		new LocalTaskScheduler<String>(provider, null);
+	}
+
+	@Test(expected = AssertionException.class)
+	public void parallelismMustBePositive() throws InterruptedException {
+		initSut();
+		sut.run(0);
+	}
+
+	@Test
+	public void noTasks() throws InterruptedException {
+		initSut();
+		sut.run(2);
+		verify(provider).done();
+		assertNull(sut.getNextNullableTask());
+	}
+
+	@Test
+	public void allResultsArePassedToTheProvider() throws InterruptedException {
+		Set<String> expected = Sets.newHashSet();
+		for (int i = 0; i < 50; i++) {
+			workers.add(new Worker("w" + i));
+			expected.add("w" + i);
+		}
+		final Set<String> actual = Collections.synchronizedSet(Sets.<String> newHashSet());
+		sut = new LocalTaskScheduler<String>(new CollectingProvider(workers, actual), injectorProvider);
+
+		sut.run(4);
+
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void doneIsCalledOnceAfterAllResults() throws InterruptedException {
+		workers.add(new Worker("a"));
+		workers.add(new Worker("b"));
+		initSut();
+
+		sut.run(2);
+
+		verify(provider).addResult(eq("a"));
+		verify(provider).addResult(eq("b"));
+		verify(provider).done();
+		assertNull(sut.getNextNullableTask());
+	}
+
+	@Test
+	public void injectorsAreCreatedPerThread() throws InterruptedException {
+		for (int i = 0; i < 20; i++) {
+			workers.add(new Worker("w" + i));
+		}
+		initSut();
+
+		sut.run(2);
+
+		assertTrue(numInjectors.get() >= 1);
+		assertTrue(numInjectors.get() <= 2);
+		for (Callable<String> w : workers) {
+			State s = ((Worker) w).state;
+			assertTrue(s.id >= 1 && s.id <= numInjectors.get());
+		}
+	}
+
+	@Test
+	public void crashesArePassedToTheProvider() throws Exception {
+		RuntimeException e = new RuntimeException();
+		@SuppressWarnings("unchecked")
+		Callable<String> failing = mock(Callable.class, "xyz");
+		when(failing.call()).thenThrow(e);
+		workers.add(failing);
+		workers.add(new Worker("a"));
+		initSut();
+
+		sut.run(2);
+
+		verify(provider).addCrash(contains("xyz"), eq(e));
+		verify(provider).addResult(eq("a"));
+		verify(provider).done();
+	}
+
+	@Test
+	public void errorsArePassedToTheProvider() throws Exception {
+		Error e = new Error();
+		@SuppressWarnings("unchecked")
+		Callable<String> failing = mock(Callable.class, "xyz");
+		when(failing.call()).thenThrow(e);
+		workers.add(failing);
+		workers.add(new Worker("a"));
+		initSut();
+
+		sut.run(2);
+
+		ArgumentCaptor<Exception> captor = ArgumentCaptor.forClass(Exception.class);
+		verify(provider).addCrash(contains("xyz"), captor.capture());
+		assertSame(e, captor.getValue().getCause());
+		verify(provider).addResult(eq("a"));
+		verify(provider).done();
+	}
+
+	@Test
+	public void failingInjectionIsReportedAsCrash() throws InterruptedException {
+		workers.add(new Worker("a"));
+		injectorProvider = new Provider<Injector>() {
+			@Override
+			public Injector get() {
+				return Guice.createInjector();
+			}
+		};
+		initSut();
+
+		sut.run(1);
+
+		verify(provider).addCrash(anyString(), any(RuntimeException.class));
+		verify(provider, never()).addResult(anyString());
+		verify(provider).done();
+	}
+
+	public static class State {
+		public final int id;
+
+		public State(int id) {
+			this.id = id;
+		}
+	}
+
+	public static class Worker implements Callable<String> {
+
+		@Inject
+		public State state;
+
+		private final String result;
+
+		public Worker(String result) {
+			this.result = result;
+		}
+
+		@Override
+		public String call() throws Exception {
+			return result;
+		}
+	}
+
+	private static class CollectingProvider implements ITaskProvider<String> {
+
+		private final List<Callable<String>> workers;
+		private final Set<String> results;
+
+		public CollectingProvider(List<Callable<String>> workers, Set<String> results) {
+			this.workers = workers;
+			this.results = results;
+		}
+
+		@Override
+		public List<Callable<String>> createWorkers() {
+			return workers;
+		}
+
+		@Override
+		public void addResult(String r) {
+			results.add(r);
+		}
+
+		@Override
+		public void addCrash(String taskToString, Exception e) {
+		}
+
+		@Override
+		public void done() {
+		}
+	}
+}
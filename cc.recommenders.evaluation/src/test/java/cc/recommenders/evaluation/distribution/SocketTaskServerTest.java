@@ -0,0 +1,525 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.distribution;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.ProcessBuilder.Redirect;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.mutable.MutableInt;
+import org.junit.After;
+import org.junit.Test;
+
+import cc.recommenders.evaluation.data.NM;
+import cc.recommenders.evaluation.data.QuantileSketch;
+import cc.recommenders.evaluation.distribution.calc.DefinitionSitesTask;
+import cc.recommenders.evaluation.distribution.calc.F1AndSizeTask;
+import cc.recommenders.evaluation.distribution.calc.F1ForInputTask;
+import cc.recommenders.evaluation.distribution.calc.QueryPerformanceTask;
+import cc.recommenders.evaluation.distribution.calc.QueryTypeTask;
+import cc.recommenders.exceptions.AssertionException;
+import cc.recommenders.io.Logger;
+import cc.recommenders.usages.DefinitionSiteKind;
+import cc.recommenders.utils.DateProvider;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.inject.Guice;
+
+public class SocketTaskServerTest {
+
+	private CollectingProvider provider;
+	private TaskScheduler<String> scheduler;
+	private SocketTaskServer<String> sut;
+	private List<SocketTaskScheduler<String>> clients = Lists.newLinkedList();
+
+	@After
+	public void teardown() throws IOException {
+		for (SocketTaskScheduler<String> client : clients) {
+			client.close();
+		}
+		if (sut != null) {
+			sut.close();
+		}
+		Logger.reset();
+	}
+
+	private void init(int numTasks) throws IOException {
+		Logger.setCapturing(true);
+		List<Callable<String>> workers = Lists.newLinkedList();
+		for (int i = 0; i < numTasks; i++) {
+			workers.add(new Worker("w" + i));
+		}
+		provider = new CollectingProvider(workers);
+		scheduler = TaskScheduler.create(provider);
+		sut = new SocketTaskServer<String>(scheduler, 0);
+	}
+
+	private SocketTaskScheduler<String> connect(int batchSize) throws IOException {
+		SocketTaskScheduler<String> client = new SocketTaskScheduler<String>("localhost", sut.getPort(), batchSize);
+		clients.add(client);
+		return client;
+	}
+
+	@Test(expected = AssertionException.class)
+	public void batchSizeMustBePositive() throws IOException {
+		init(1);
+		connect(0);
+	}
+
+	@Test
+	public void serverUsesFreePortIfRequested() throws IOException {
+		init(1);
+		assertTrue(sut.getPort() > 0);
+	}
+
+	@Test
+	public void noTasksLeft() throws Exception {
+		init(1);
+		SocketTaskScheduler<String> client = connect(3);
+		runAll(client);
+		assertNull(client.getNextNullableTask());
+	}
+
+	@Test
+	public void tasksAreLeasedInBatches() throws Exception {
+		init(5);
+		SocketTaskScheduler<String> a = connect(3);
+		SocketTaskScheduler<String> b = connect(3);
+
+		assertNotNull(a.getNextNullableTask());
+		assertNotNull(b.getNextNullableTask());
+		assertNotNull(b.getNextNullableTask());
+		// all tasks are leased after two round trips
+		assertTrue(scheduler.getNextNullableTask() instanceof RetryLater);
+		assertTrue(a.getNextNullableTask() instanceof Task);
+		assertTrue(a.getNextNullableTask() instanceof Task);
+		// leased tasks are unfinished, idle workers are kept alive
+		assertTrue(a.getNextNullableTask() instanceof RetryLater);
+		assertTrue(b.getNextNullableTask() instanceof RetryLater);
+	}
+
+	@Test
+	public void resultsOfSeveralWorkersArePassedToTheProvider() throws Exception {
+		init(40);
+		List<Thread> threads = Lists.newLinkedList();
+		for (int i = 0; i < 4; i++) {
+			final SocketTaskScheduler<String> client = connect(3);
+			threads.add(new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						runAll(client);
+					} catch (Exception e) {
+						throw new RuntimeException(e);
+					}
+				}
+			}));
+		}
+		for (Thread t : threads) {
+			t.start();
+		}
+		for (Thread t : threads) {
+			t.join();
+		}
+
+		assertTrue(provider.done.await(10, TimeUnit.SECONDS));
+		Set<String> expected = Sets.newHashSet();
+		for (int i = 0; i < 40; i++) {
+			expected.add("w" + i);
+		}
+		assertEquals(expected, provider.results);
+	}
+
+	@Test
+	public void crashesArePassedToTheProvider() throws Exception {
+		Logger.setCapturing(true);
+		List<Callable<String>> workers = Lists.newLinkedList();
+		workers.add(new CrashingWorker());
+		provider = new CollectingProvider(workers);
+		scheduler = TaskScheduler.create(provider);
+		sut = new SocketTaskServer<String>(scheduler, 0);
+
+		runAll(connect(1));
+
+		assertTrue(provider.done.await(10, TimeUnit.SECONDS));
+		assertEquals(1, provider.crashes.size());
+		assertTrue(provider.crashes.get(0) instanceof IllegalStateException);
+	}
+
+	@Test
+	public void serverListensOnLoopbackByDefault() throws IOException {
+		init(1);
+		assertTrue(sut.getAddress().isLoopbackAddress());
+	}
+
+	@Test
+	public void leasedTasksAreNotOverdueBeforeTheyAreStarted() throws Exception {
+		Logger.setCapturing(true);
+		final AtomicLong time = new AtomicLong();
+		DateProvider clock = new DateProvider() {
+			@Override
+			public long getTimeSeconds() {
+				return time.get();
+			}
+		};
+		List<Callable<String>> workers = Lists.newLinkedList();
+		workers.add(new Worker("a"));
+		workers.add(new Worker("b"));
+		provider = new CollectingProvider(workers);
+		scheduler = TaskScheduler.create(provider, clock);
+		sut = new SocketTaskServer<String>(scheduler, 0);
+
+		// leases both tasks, but only starts the first one
+		Runnable a = connect(2).getNextNullableTask();
+		time.set(Task.HEARTBEAT_INTERVAL_S);
+		((InjectableRunnable) a).injectionForMembers(Guice.createInjector());
+		a.run();
+		for (int i = 0; i < 100 && provider.results.isEmpty(); i++) {
+			Thread.sleep(50);
+		}
+		assertEquals(Sets.newHashSet("a"), provider.results);
+
+		// "b" waits longer than the overdue limit, but it is not running yet
+		time.set(5 * Task.HEARTBEAT_INTERVAL_S);
+		assertTrue(connect(1).getNextNullableTask() instanceof RetryLater);
+	}
+
+	@Test
+	public void leasesAreDroppedWhenAWorkerDisconnects() throws Exception {
+		init(5);
+		SocketTaskScheduler<String> client = connect(3);
+		client.getNextNullableTask();
+		assertEquals(3, sut.getNumLeasedTasks());
+
+		client.close();
+
+		for (int i = 0; i < 100 && sut.getNumLeasedTasks() > 0; i++) {
+			Thread.sleep(50);
+		}
+		assertEquals(0, sut.getNumLeasedTasks());
+	}
+
+	@Test
+	public void reissuedLeasesAreKeptWhenTheFirstWorkerDisconnects() throws Exception {
+		Logger.setCapturing(true);
+		final AtomicLong time = new AtomicLong();
+		DateProvider clock = new DateProvider() {
+			@Override
+			public long getTimeSeconds() {
+				return time.get();
+			}
+		};
+		List<Callable<String>> workers = Lists.newLinkedList();
+		workers.add(new Worker("a"));
+		provider = new CollectingProvider(workers);
+		scheduler = TaskScheduler.create(provider, clock);
+		sut = new SocketTaskServer<String>(scheduler, 0);
+
+		SocketTaskScheduler<String> dead = connect(1);
+		assertTrue(dead.getNextNullableTask() instanceof Task);
+		// the "started" message is sent asynchronously
+		Thread.sleep(200);
+		time.set(TaskScheduler.HEARTBEAT_TIMEOUT_S + 1);
+		SocketTaskScheduler<String> alive = connect(1);
+		Runnable copy = alive.getNextNullableTask();
+		assertTrue(copy instanceof Task);
+
+		dead.close();
+		Thread.sleep(200);
+		assertEquals(1, sut.getNumLeasedTasks());
+
+		((InjectableRunnable) copy).injectionForMembers(Guice.createInjector());
+		copy.run();
+		assertTrue(provider.done.await(10, TimeUnit.SECONDS));
+		assertEquals(Sets.newHashSet("a"), provider.results);
+	}
+
+	@Test
+	public void resultsOfWorkersInOtherJvmsArePassedToTheProvider() throws Exception {
+		Logger.setCapturing(true);
+		int numTasks = 30;
+		List<Callable<String>> workers = Lists.newLinkedList();
+		for (int i = 0; i < numTasks; i++) {
+			workers.add(new JvmNameWorker(i));
+		}
+		provider = new CollectingProvider(workers);
+		scheduler = TaskScheduler.create(provider);
+		sut = new SocketTaskServer<String>(scheduler, 0);
+
+		List<Process> processes = Lists.newLinkedList();
+		for (int i = 0; i < 3; i++) {
+			processes.add(forkWorkerJvm(sut.getPort(), 2));
+		}
+		for (Process p : processes) {
+			assertTrue(p.waitFor(60, TimeUnit.SECONDS));
+			assertEquals(0, p.exitValue());
+		}
+
+		assertTrue(provider.done.await(10, TimeUnit.SECONDS));
+		Set<String> ids = Sets.newHashSet();
+		String thisJvm = ManagementFactory.getRuntimeMXBean().getName();
+		for (String result : provider.results) {
+			String[] parts = result.split("@", 2);
+			ids.add(parts[0]);
+			assertFalse(thisJvm.equals(parts[1]));
+		}
+		assertEquals(numTasks, ids.size());
+	}
+
+	private static Process forkWorkerJvm(int port, int batchSize) throws IOException {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		ProcessBuilder pb = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+				WorkerJvm.class.getName(), Integer.toString(port), Integer.toString(batchSize));
+		pb.redirectErrorStream(true);
+		pb.redirectOutput(Redirect.INHERIT);
+		return pb.start();
+	}
+
+	public static class WorkerJvm {
+		public static void main(String[] args) throws Exception {
+			SocketTaskScheduler<String> client = new SocketTaskScheduler<String>("localhost",
+					Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+			try {
+				runAll(client);
+			} finally {
+				client.close();
+			}
+		}
+	}
+
+	public static class JvmNameWorker implements Callable<String>, Serializable {
+		private static final long serialVersionUID = 1L;
+		private final int id;
+
+		public JvmNameWorker(int id) {
+			this.id = id;
+		}
+
+		@Override
+		public String call() throws Exception {
+			return id + "@" + ManagementFactory.getRuntimeMXBean().getName();
+		}
+	}
+
+	@Test
+	public void resultsAreEncodedCompactly() throws IOException {
+		F1ForInputTask task = new F1ForInputTask();
+		task.app = "app";
+		task.options = "opts";
+		task.typeName = "LT";
+		task.currentFold = 2;
+		task.numFolds = 10;
+		task.processingTimeInS = 1.5;
+		task.inputSize = 123;
+		task.f1s = new double[] { 0.1, 0.2, 0.3 };
+
+		ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(serialized);
+		oos.writeObject(task);
+		oos.close();
+
+		F1ForInputTask actual = (F1ForInputTask) roundTrip(task, serialized.size() / 2);
+		assertEquals(task.toString(), actual.toString());
+		assertEquals(task.inputSize, actual.inputSize);
+		assertArrayEquals(task.f1s, actual.f1s, 0.000001);
+	}
+
+	@Test
+	public void allResultTypesAreEncodedCompactly() throws IOException {
+		QuantileSketch sketch = QuantileSketch.from(0.1, 0.5, 0.9);
+
+		F1AndSizeTask f1AndSize = new F1AndSizeTask();
+		f1AndSize.f1s = sketch;
+		f1AndSize.sizeInB = 1;
+		f1AndSize.heapSizeInB = 2;
+		F1AndSizeTask actualF1AndSize = (F1AndSizeTask) roundTrip(f1AndSize, 1000);
+		assertEquals(sketch.getBoxplot(), actualF1AndSize.f1s.getBoxplot());
+		assertEquals(1, actualF1AndSize.sizeInB);
+		assertEquals(2, actualF1AndSize.heapSizeInB);
+
+		QueryPerformanceTask perf = new QueryPerformanceTask();
+		perf.inputSize = 3;
+		perf.modelSize = 4;
+		perf.learningDurationInS = 5;
+		perf.perQueryDurationInMS = 6;
+		perf.perQueryAllocatedBytes = 7;
+		QueryPerformanceTask actualPerf = (QueryPerformanceTask) roundTrip(perf, 1000);
+		assertNull(actualPerf.queryDurationsInMS);
+		assertEquals(3, actualPerf.inputSize);
+		assertEquals(4, actualPerf.modelSize);
+		assertEquals(5, actualPerf.learningDurationInS, 0.000001);
+		assertEquals(6, actualPerf.perQueryDurationInMS, 0.000001);
+		assertEquals(7, actualPerf.perQueryAllocatedBytes, 0.000001);
+
+		DefinitionSitesTask defs = new DefinitionSitesTask();
+		defs.results = Maps.newLinkedHashMap();
+		defs.results.put(DefinitionSiteKind.FIELD, new double[] { 0.3 });
+		DefinitionSitesTask actualDefs = (DefinitionSitesTask) roundTrip(defs, 1000);
+		assertEquals(defs.results.keySet(), actualDefs.results.keySet());
+		assertArrayEquals(new double[] { 0.3 }, actualDefs.results.get(DefinitionSiteKind.FIELD), 0.000001);
+
+		QueryTypeTask types = new QueryTypeTask();
+		types.results.put(new NM(1, 2), new double[] { 0.4 });
+		types.results.put(NM.ELSE_NM, new double[] { 0.5 });
+		QueryTypeTask actualTypes = (QueryTypeTask) roundTrip(types, 1000);
+		assertEquals(types.results.keySet(), actualTypes.results.keySet());
+		assertArrayEquals(new double[] { 0.5 }, actualTypes.results.get(NM.ELSE_NM), 0.000001);
+	}
+
+	@Test
+	public void largeCompactResultsAreCompressed() throws IOException {
+		F1ForInputTask task = new F1ForInputTask();
+		task.f1s = new double[10000];
+		F1ForInputTask actual = (F1ForInputTask) roundTrip(task, 10000);
+		assertEquals(10000, actual.f1s.length);
+	}
+
+	@Test
+	public void untrustedClassesAreNotDeserialized() throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		TaskProtocol.writeObject(new DataOutputStream(baos), new MutableInt(1));
+		try {
+			TaskProtocol.readObject(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+			fail();
+		} catch (InvalidClassException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void trustedClasses() {
+		assertTrue(TaskProtocol.isTrusted("java.lang.String"));
+		assertTrue(TaskProtocol.isTrusted("cc.recommenders.evaluation.data.QuantileSketch"));
+		assertTrue(TaskProtocol.isTrusted("[D"));
+		assertTrue(TaskProtocol.isTrusted("[[Ljava.lang.String;"));
+		assertFalse(TaskProtocol.isTrusted("org.apache.commons.collections.functors.InvokerTransformer"));
+		assertFalse(TaskProtocol.isTrusted("[Lorg.apache.commons.lang.mutable.MutableInt;"));
+	}
+
+	@Test
+	public void objectsAreCompressedIfLarge() throws IOException {
+		String small = "abc";
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			sb.append('x');
+		}
+		String large = sb.toString();
+
+		assertEquals(small, roundTrip(small, 100));
+		assertEquals(large, roundTrip(large, 1000));
+	}
+
+	private static Object roundTrip(Object o, int maxSize) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		TaskProtocol.writeObject(new DataOutputStream(baos), o);
+		assertTrue(baos.size() < maxSize);
+		return TaskProtocol.readObject(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+	}
+
+	@Test
+	public void uuidsAreTransferred() throws IOException {
+		UUID uuid = UUID.randomUUID();
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		TaskProtocol.writeUuid(new DataOutputStream(baos), uuid);
+		assertEquals(16, baos.size());
+		assertEquals(uuid, TaskProtocol.readUuid(new DataInputStream(new ByteArrayInputStream(baos.toByteArray()))));
+	}
+
+	private static void runAll(SocketTaskScheduler<String> client) throws Exception {
+		Runnable r;
+		while ((r = client.getNextNullableTask()) != null) {
+			((InjectableRunnable) r).injectionForMembers(Guice.createInjector());
+			r.run();
+		}
+	}
+
+	public static class Worker implements Callable<String>, Serializable {
+		private static final long serialVersionUID = 1L;
+		private final String result;
+
+		public Worker(String result) {
+			this.result = result;
+		}
+
+		@Override
+		public String call() throws Exception {
+			return result;
+		}
+	}
+
+	public static class CrashingWorker implements Callable<String>, Serializable {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public String call() throws Exception {
+			throw new IllegalStateException();
+		}
+	}
+
+	private static class CollectingProvider implements ITaskProvider<String> {
+
+		private final List<Callable<String>> workers;
+		private final Set<String> results = Collections.synchronizedSet(Sets.<String> newHashSet());
+		private final List<Exception> crashes = Collections.synchronizedList(Lists.<Exception> newLinkedList());
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		public CollectingProvider(List<Callable<String>> workers) {
+			this.workers = workers;
+		}
+
+		@Override
+		public Collection<Callable<String>> createWorkers() {
+			return workers;
+		}
+
+		@Override
+		public void addResult(String r) {
+			results.add(r);
+		}
+
+		@Override
+		public void addCrash(String taskToString, Exception e) {
+			crashes.add(e);
+		}
+
+		@Override
+		public void done() {
+			done.countDown();
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.distribution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cc.recommenders.io.Directory;
+
+public class TaskCostModelTest {
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private TaskCostModel sut;
+
+	@Before
+	public void setup() {
+		sut = new TaskCostModel();
+	}
+
+	@Test
+	public void withoutObservationsTheNumberOfUsagesIsUsed() {
+		assertEquals(123, sut.estimate("a", 123), 0.0001);
+		assertEquals(1, sut.estimate("a", 0), 0.0001);
+		assertEquals(0, sut.getNumObservations());
+	}
+
+	@Test
+	public void singleObservationIsScaledLinearly() {
+		sut.observe("a", 100, 10);
+		assertEquals(10, sut.estimate("a", 100), 0.0001);
+		assertEquals(20, sut.estimate("a", 200), 0.0001);
+	}
+
+	@Test
+	public void exponentIsLearned() {
+		// quadratic
+		sut.observe("a", 10, 1);
+		sut.observe("a", 100, 100);
+		assertEquals(10000, sut.estimate("a", 1000), 0.01);
+	}
+
+	@Test
+	public void exponentIsBounded() {
+		sut.observe("a", 10, 1);
+		sut.observe("a", 20, 1000000);
+		// cubic growth from the (geometric) mean of the observations
+		double expected = 1000 * Math.pow(40 / Math.sqrt(200), 3);
+		assertEquals(expected, sut.estimate("a", 40), 0.01);
+	}
+
+	@Test
+	public void optionsAreDistinguished() {
+		sut.observe("a", 100, 1);
+		sut.observe("b", 100, 50);
+		assertEquals(1, sut.estimate("a", 100), 0.0001);
+		assertEquals(50, sut.estimate("b", 100), 0.0001);
+	}
+
+	@Test
+	public void unknownOptionsFallBackToAllObservations() {
+		sut.observe("a", 100, 1);
+		sut.observe("b", 100, 100);
+		assertEquals(10, sut.estimate("c", 100), 0.0001);
+		assertEquals(2, sut.getNumObservations());
+	}
+
+	@Test
+	public void savingWithoutDirectoryIsIgnored() throws IOException {
+		sut.observe("a", 100, 1);
+		sut.save();
+	}
+
+	@Test
+	public void persistence() throws IOException {
+		Directory dir = new Directory(tempFolder.getRoot().getAbsolutePath());
+		sut = TaskCostModel.load(dir, "costs.json");
+		assertFalse(dir.exists("costs.json"));
+		sut.observe("a", 10, 1);
+		sut.observe("a", 100, 100);
+		sut.save();
+		assertTrue(dir.exists("costs.json"));
+
+		TaskCostModel actual = TaskCostModel.load(dir, "costs.json");
+		assertEquals(2, actual.getNumObservations());
+		assertEquals(10000, actual.estimate("a", 1000), 0.01);
+
+		actual.observe("a", 1000, 10000);
+		actual.save();
+		assertEquals(3, TaskCostModel.load(dir, "costs.json").getNumObservations());
+	}
+}
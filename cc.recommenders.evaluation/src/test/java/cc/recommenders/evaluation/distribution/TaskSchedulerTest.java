@@ -10,11 +10,16 @@
  */
 package cc.recommenders.evaluation.distribution;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.contains;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -23,14 +28,17 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.rmi.RemoteException;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.Callable;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import cc.recommenders.exceptions.AssertionException;
+import cc.recommenders.utils.DateProvider;
 
 import com.google.common.collect.Maps;
 
@@ -38,7 +46,10 @@ public class TaskSchedulerTest {
 
 	@Mock
 	private ITaskProvider<String> provider;
+	@Mock
+	private DateProvider dateProvider;
 	private TaskScheduler<String> sut;
+	private long now;
 	private Map<String, Callable<String>> tasks;
 
 	@Before
@@ -48,10 +59,20 @@ public class TaskSchedulerTest {
 		tasks = Maps.newLinkedHashMap();
 
 		when(provider.createWorkers()).thenReturn(tasks.values());
+		setTime(0);
 	}
 
 	private void initSut() throws RemoteException {
-		sut = TaskScheduler.create(provider);
+		sut = TaskScheduler.create(provider, dateProvider);
+	}
+
+	private void setTime(long seconds) {
+		now = seconds;
+		when(dateProvider.getTimeSeconds()).thenReturn(now);
+	}
+
+	private void letWorkersDie() {
+		setTime(now + TaskScheduler.HEARTBEAT_TIMEOUT_S + 1);
 	}
 
 	@Test(expected = AssertionException.class)
@@ -59,6 +80,11 @@ public class TaskSchedulerTest {
 		TaskScheduler.create(null);
 	}
 
+	@Test(expected = AssertionException.class)
+	public void dateProviderMustNotBeNull() throws RemoteException {
+		TaskScheduler.create(provider, null);
+	}
+
 	@Test
 	public void absentOptionalIsReturnedWithNoTasks() throws RemoteException {
 		initSut();
@@ -79,6 +105,13 @@ public class TaskSchedulerTest {
 		verifyNoMoreInteractions(provider);
 	}
 
+	@Test
+	public void providerIsInformedImmediatelyIfThereAreNoTasks() throws Exception {
+		initSut();
+		verify(provider).done();
+		assertNull(sut.getNextNullableTask());
+	}
+
 	@Test
 	public void providerIsInformedAboutEnd() throws Exception {
 		addTasks("a", "b");
@@ -96,6 +129,7 @@ public class TaskSchedulerTest {
 		addTasks("a");
 		initSut();
 		Runnable a1 = sut.getNextNullableTask();
+		letWorkersDie();
 		Runnable a2 = sut.getNextNullableTask();
 
 		a1.run();
@@ -131,8 +165,10 @@ public class TaskSchedulerTest {
 		sut.getNextNullableTask();
 		sut.getNextNullableTask();
 		// 2
+		letWorkersDie();
 		sut.getNextNullableTask();
 		sut.getNextNullableTask();
+		letWorkersDie();
 		Runnable a = sut.getNextNullableTask();
 		Runnable b = sut.getNextNullableTask();
 
@@ -169,6 +205,7 @@ public class TaskSchedulerTest {
 
 		Runnable a1 = sut.getNextNullableTask();
 		sut.getNextNullableTask();
+		letWorkersDie();
 		Runnable a2 = sut.getNextNullableTask();
 
 		a1.run();
@@ -176,6 +213,203 @@ public class TaskSchedulerTest {
 		verify(provider).addResult(eq("a"));
 	}
 
+	@Test
+	public void startedTasksAreNotReissuedImmediately() throws Exception {
+		addTasks("a");
+		initSut();
+		assertNotNull(sut.getNextNullableTask());
+		assertRetryLater(sut.getNextNullableTask());
+		setTime(TaskScheduler.HEARTBEAT_TIMEOUT_S);
+		assertRetryLater(sut.getNextNullableTask());
+	}
+
+	@Test
+	public void idleWorkersPickUpTasksOfDeadWorkers() throws Exception {
+		addTasks("a", "b");
+		initSut();
+		Task<?> a = (Task<?>) sut.getNextNullableTask();
+		sut.getNextNullableTask().run();
+
+		// worker of "b" is idle while "a" is still running
+		for (int i = 1; i <= 3; i++) {
+			setTime(i * Task.HEARTBEAT_INTERVAL_S);
+			sut.heartbeat(a.getUuid());
+			assertRetryLater(sut.getNextNullableTask());
+		}
+
+		// worker of "a" dies
+		letWorkersDie();
+		Runnable a2 = sut.getNextNullableTask();
+		assertSame(a, a2);
+		verify(provider, never()).done();
+
+		a2.run();
+		verify(provider).addResult(eq("a"));
+		verify(provider).done();
+		assertNull(sut.getNextNullableTask());
+	}
+
+	private static void assertRetryLater(Runnable r) {
+		assertTrue(r instanceof RetryLater);
+		assertEquals(TaskScheduler.RETRY_DELAY_MS, ((RetryLater) r).getDelayMs());
+	}
+
+	@Test
+	public void silentTasksAreReissued() throws Exception {
+		addTasks("a");
+		initSut();
+		Task<?> a1 = (Task<?>) sut.getNextNullableTask();
+		letWorkersDie();
+		Task<?> a2 = (Task<?>) sut.getNextNullableTask();
+		assertSame(a1, a2);
+	}
+
+	@Test
+	public void heartbeatsKeepTasksAlive() throws Exception {
+		addTasks("a");
+		initSut();
+		Task<?> a = (Task<?>) sut.getNextNullableTask();
+		for (int i = 1; i <= 10; i++) {
+			setTime(i * Task.HEARTBEAT_INTERVAL_S);
+			sut.heartbeat(a.getUuid());
+			assertRetryLater(sut.getNextNullableTask());
+		}
+	}
+
+	@Test
+	public void leasedTasksAreNotOverdueBeforeTheyAreStarted() throws Exception {
+		addTasks("a", "b");
+		initSut();
+		Task<?> a = (Task<?>) sut.getNextNullableTask();
+		Task<?> b = (Task<?>) sut.getNextNullableTask();
+		sut.leased(a.getUuid());
+		sut.leased(b.getUuid());
+		sut.started(a.getUuid());
+		setTime(Task.HEARTBEAT_INTERVAL_S);
+		a.run(); // longest duration is now one interval
+
+		for (int i = 2; i <= 10; i++) {
+			setTime(i * Task.HEARTBEAT_INTERVAL_S);
+			sut.heartbeat(b.getUuid());
+			assertRetryLater(sut.getNextNullableTask());
+		}
+	}
+
+	@Test
+	public void overdueClockStartsWhenLeasedTaskIsStarted() throws Exception {
+		addTasks("a", "b");
+		initSut();
+		Task<?> a = (Task<?>) sut.getNextNullableTask();
+		Task<?> b = (Task<?>) sut.getNextNullableTask();
+		sut.leased(b.getUuid());
+		setTime(Task.HEARTBEAT_INTERVAL_S);
+		a.run();
+
+		setTime(5 * Task.HEARTBEAT_INTERVAL_S);
+		sut.started(b.getUuid());
+		setTime(5 * Task.HEARTBEAT_INTERVAL_S + TaskScheduler.OVERDUE_FACTOR * Task.HEARTBEAT_INTERVAL_S);
+		sut.heartbeat(b.getUuid());
+		assertRetryLater(sut.getNextNullableTask());
+
+		setTime(now + 1);
+		assertSame(b, sut.getNextNullableTask());
+	}
+
+	@Test
+	public void durationIsMeasuredFromTheStartOfALeasedTask() throws Exception {
+		addTasks("a", "b");
+		initSut();
+		Task<?> a = (Task<?>) sut.getNextNullableTask();
+		Task<?> b = (Task<?>) sut.getNextNullableTask();
+		sut.leased(a.getUuid());
+		setTime(5 * Task.HEARTBEAT_INTERVAL_S);
+		sut.started(a.getUuid());
+		setTime(6 * Task.HEARTBEAT_INTERVAL_S);
+		a.run(); // ran for one interval, waited for five
+
+		sut.heartbeat(b.getUuid());
+		assertSame(b, sut.getNextNullableTask());
+	}
+
+	@Test
+	public void heartbeatsOfUnknownTasksAreIgnored() throws Exception {
+		initSut();
+		sut.heartbeat(UUID.randomUUID());
+		assertNull(sut.getNextNullableTask());
+	}
+
+	@Test
+	public void overdueTasksAreDuplicatedUpToALimit() throws Exception {
+		addTasks("a", "b");
+		initSut();
+		Task<?> a = (Task<?>) sut.getNextNullableTask();
+		Task<?> b = (Task<?>) sut.getNextNullableTask();
+		setTime(Task.HEARTBEAT_INTERVAL_S);
+		a.run(); // longest duration is now one interval
+
+		long t = Task.HEARTBEAT_INTERVAL_S;
+		int numCopies = 1;
+		for (int i = 0; i < 10; i++) {
+			t += Task.HEARTBEAT_INTERVAL_S;
+			setTime(t);
+			sut.heartbeat(b.getUuid());
+			if (sut.getNextNullableTask() instanceof Task) {
+				numCopies++;
+			}
+		}
+		assertEquals(TaskScheduler.MAX_CONCURRENT_COPIES, numCopies);
+
+		b.run();
+		verify(provider, times(1)).addResult(eq("b"));
+		verify(provider).done();
+	}
+
+	@Test
+	public void tasksAreNotOverdueWithinTheirEstimate() throws Exception {
+		EstimatingProvider estimatingProvider = mockEstimatingProvider();
+		addTasks("a", "b");
+		setEstimate(estimatingProvider, "a", Task.HEARTBEAT_INTERVAL_S);
+		setEstimate(estimatingProvider, "b", 100 * Task.HEARTBEAT_INTERVAL_S);
+		sut = TaskScheduler.create(estimatingProvider, dateProvider);
+
+		Task<?> a = (Task<?>) sut.getNextNullableTask();
+		Task<?> b = (Task<?>) sut.getNextNullableTask();
+
+		setTime(Task.HEARTBEAT_INTERVAL_S);
+		a.run();
+
+		long limit = TaskScheduler.OVERDUE_FACTOR * 100 * Task.HEARTBEAT_INTERVAL_S;
+		for (long t = 2 * Task.HEARTBEAT_INTERVAL_S; t <= limit; t += Task.HEARTBEAT_INTERVAL_S) {
+			setTime(t);
+			sut.heartbeat(b.getUuid());
+			assertTrue(sut.getNextNullableTask() instanceof RetryLater);
+		}
+		setTime(limit + 1);
+		sut.heartbeat(b.getUuid());
+		assertSame(b, sut.getNextNullableTask());
+	}
+
+	@Test
+	public void tasksWithoutEstimateFallBackToTheLongestDuration() throws Exception {
+		EstimatingProvider estimatingProvider = mockEstimatingProvider();
+		addTasks("a", "b");
+		setEstimate(estimatingProvider, "a", Task.HEARTBEAT_INTERVAL_S);
+		sut = TaskScheduler.create(estimatingProvider, dateProvider);
+
+		Task<?> a = (Task<?>) sut.getNextNullableTask();
+		Task<?> b = (Task<?>) sut.getNextNullableTask();
+		setTime(Task.HEARTBEAT_INTERVAL_S);
+		a.run();
+
+		long limit = Task.HEARTBEAT_INTERVAL_S * TaskScheduler.OVERDUE_FACTOR;
+		setTime(limit);
+		sut.heartbeat(b.getUuid());
+		assertTrue(sut.getNextNullableTask() instanceof RetryLater);
+		setTime(limit + 1);
+		sut.heartbeat(b.getUuid());
+		assertSame(b, sut.getNextNullableTask());
+	}
+
 	@Test
 	public void ensureByReflectionThatAllDeclaredPublicMethodsAreSynchronized() {
 		for (Method m : TaskScheduler.class.getDeclaredMethods()) {
@@ -189,6 +423,21 @@ public class TaskSchedulerTest {
 		}
 	}
 
+	private EstimatingProvider mockEstimatingProvider() {
+		EstimatingProvider estimatingProvider = mock(EstimatingProvider.class);
+		when(estimatingProvider.createWorkers()).thenReturn(tasks.values());
+		when(estimatingProvider.getEstimatedDurationInS(Matchers.<Callable<String>> any())).thenReturn(
+				ITaskCostEstimator.UNKNOWN);
+		return estimatingProvider;
+	}
+
+	private void setEstimate(EstimatingProvider estimatingProvider, String task, double estimateS) {
+		when(estimatingProvider.getEstimatedDurationInS(tasks.get(task))).thenReturn(estimateS);
+	}
+
+	private interface EstimatingProvider extends ITaskProvider<String>, ITaskCostEstimator<String> {
+	}
+
 	private void addTasks(String... contents) {
 		for (final String content : contents) {
 			Callable<String> callable = new Callable<String>() {
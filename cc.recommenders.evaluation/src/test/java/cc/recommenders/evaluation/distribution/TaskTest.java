@@ -158,6 +158,10 @@ public class TaskTest {
 			return null;
 		}
 
+		@Override
+		public void heartbeat(UUID taskId) throws RemoteException {
+		}
+
 		@Override
 		public void finished(Task<String> task) throws RemoteException {
 		}
@@ -15,9 +15,13 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyDouble;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -36,8 +40,12 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import cc.recommenders.evaluation.OutputUtils;
+import cc.recommenders.evaluation.distribution.ITaskCostEstimator;
+import cc.recommenders.evaluation.distribution.TaskCostModel;
 import cc.recommenders.evaluation.io.ProjectFoldedUsageStore;
 import cc.recommenders.evaluation.io.TypeStore;
 import cc.recommenders.io.Logger;
@@ -167,6 +175,152 @@ public class AbstractTaskProviderTest {
 		verify(output, times(2)).count(TYPE2, 1, 4);
 	}
 
+	@Test
+	public void typeStoresAreCreatedOncePerType() throws IOException {
+		sut.createWorkers();
+		verify(store).createTypeStore(TYPE1, 2);
+		verify(store).createTypeStore(TYPE2, 2);
+	}
+
+	@Test
+	public void workersAreOrderedByEstimatedCost() {
+		when(store.getNumberOfUsages(TYPE1)).thenReturn(10);
+		when(store.getNumberOfUsages(TYPE2)).thenReturn(100);
+		TaskCostModel costModel = new TaskCostModel();
+		costModel.observe("AAAA", 10, 1);
+		costModel.observe("BBBB", 10, 50);
+		sut.setCostModel(costModel);
+
+		sut.createWorkers();
+
+		List<String> actual = Lists.newLinkedList();
+		for (TestTask task : sut.createdTasks) {
+			actual.add(task.options + "/" + task.typeName);
+		}
+		// estimates: BBBB/LT2=500, BBBB/LT1=50, AAAA/LT2=10, AAAA/LT1=1
+		// tasks are grouped by type: LT2=1020, LT1=102
+		List<String> expected = Lists.newArrayList("BBBB/LT2", "BBBB/LT2", "AAAA/LT2", "AAAA/LT2", "BBBB/LT1",
+				"BBBB/LT1", "AAAA/LT1", "AAAA/LT1");
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void workersAreEstimatedByTheCostModel() {
+		when(store.getNumberOfUsages(TYPE1)).thenReturn(10);
+		when(store.getNumberOfUsages(TYPE2)).thenReturn(100);
+		TaskCostModel costModel = new TaskCostModel();
+		costModel.observe("AAAA", 10, 1);
+		costModel.observe("BBBB", 10, 50);
+		sut.setCostModel(costModel);
+
+		double[] expected = new double[] { 500, 500, 10, 10, 50, 50, 1, 1 };
+		int i = 0;
+		for (Callable<TestTask> worker : sut.createWorkers()) {
+			assertEquals(expected[i++], sut.getEstimatedDurationInS(worker), 0.00001);
+		}
+		assertEquals(expected.length, i);
+	}
+
+	@Test
+	public void workersAreNotEstimatedWithoutObservations() {
+		when(store.getNumberOfUsages(TYPE1)).thenReturn(10);
+		when(store.getNumberOfUsages(TYPE2)).thenReturn(100);
+
+		for (Callable<TestTask> worker : sut.createWorkers()) {
+			assertEquals(ITaskCostEstimator.UNKNOWN, sut.getEstimatedDurationInS(worker), 0.00001);
+		}
+	}
+
+	@Test
+	public void processingTimesAreObserved() throws IOException {
+		when(store.getNumberOfUsages(TYPE1)).thenReturn(10);
+		TaskCostModel costModel = mock(TaskCostModel.class);
+		sut.setCostModel(costModel);
+
+		TestTask t = new TestTask();
+		t.options = "AAAA";
+		t.typeName = TYPE1.toString();
+		t.processingTimeInS = 3;
+		sut.addResult(t);
+		sut.done();
+
+		verify(costModel).observe("AAAA", 10, 3.0);
+		verify(costModel).save();
+	}
+
+	@Test
+	public void journaledTasksAreReplayedInsteadOfScheduled() throws IOException {
+		@SuppressWarnings("unchecked")
+		ResultJournal<TestTask> journal = mock(ResultJournal.class);
+		final TestTask journaled = sut.getAbstractTask("A", TYPE1, 1);
+		TestTask result = sut.getAbstractTask("A", TYPE1, 1);
+		result.processingTimeInS = 12;
+		when(journal.contains(any(AbstractTask.class))).thenAnswer(new Answer<Boolean>() {
+			@Override
+			public Boolean answer(InvocationOnMock invocation) throws Throwable {
+				return journaled.equals(invocation.getArguments()[0]);
+			}
+		});
+		when(journal.get(journaled)).thenReturn(result);
+		sut.setJournal(journal);
+
+		Collection<Callable<TestTask>> workers = sut.createWorkers();
+
+		assertEquals(7, workers.size());
+		assertFalse(sut.createdTasks.contains(journaled));
+		assertEquals(Lists.newArrayList(result), sut.finishedTasks);
+		assertEquals(12, sut.getAggregatedProcessingTimeInS(), 0.00001);
+		verify(journal, never()).append(any(TestTask.class));
+	}
+
+	@Test
+	public void replayedResultsAreNotObservedAgain() throws IOException {
+		when(store.getNumberOfUsages(TYPE1)).thenReturn(10);
+		TaskCostModel costModel = mock(TaskCostModel.class);
+		sut.setCostModel(costModel);
+		@SuppressWarnings("unchecked")
+		ResultJournal<TestTask> journal = mock(ResultJournal.class);
+		TestTask journaled = sut.getAbstractTask("A", TYPE1, 1);
+		TestTask result = sut.getAbstractTask("A", TYPE1, 1);
+		result.processingTimeInS = 12;
+		when(journal.contains(journaled)).thenReturn(true);
+		when(journal.get(journaled)).thenReturn(result);
+		sut.setJournal(journal);
+
+		sut.createWorkers();
+
+		assertEquals(Lists.newArrayList(result), sut.finishedTasks);
+		verify(costModel, never()).observe(anyString(), anyInt(), anyDouble());
+	}
+
+	@Test
+	public void resultsAreJournaled() throws IOException {
+		@SuppressWarnings("unchecked")
+		ResultJournal<TestTask> journal = mock(ResultJournal.class);
+		sut.setJournal(journal);
+
+		TestTask t = new TestTask();
+		sut.addResult(t);
+		sut.done();
+
+		verify(journal).append(t);
+		verify(journal).close();
+		assertTrue(sut.finishedTasks.contains(t));
+	}
+
+	@Test
+	public void journalingErrorsDoNotLoseResults() throws IOException {
+		@SuppressWarnings("unchecked")
+		ResultJournal<TestTask> journal = mock(ResultJournal.class);
+		doThrow(new IOException()).when(journal).append(any(TestTask.class));
+		sut.setJournal(journal);
+
+		TestTask t = new TestTask();
+		sut.addResult(t);
+
+		assertTrue(sut.finishedTasks.contains(t));
+	}
+
 	@Test(expected = RuntimeException.class)
 	public void ioCrashesForTypeStoreAreCascaded() throws IOException {
 		when(store.createTypeStore(any(ITypeName.class), anyInt())).thenThrow(new IOException());
@@ -291,6 +445,7 @@ public class AbstractTaskProviderTest {
 
 		public boolean doThrow;
 		private Set<Callable<TestTask>> workers = Sets.newLinkedHashSet();
+		private List<TestTask> createdTasks = Lists.newLinkedList();
 		private List<TestTask> finishedTasks = Lists.newLinkedList();
 		private boolean useType = true;
 		private boolean hasCalledLogResults = false;
@@ -319,6 +474,7 @@ public class AbstractTaskProviderTest {
 			@SuppressWarnings("unchecked")
 			Callable<AbstractTaskProviderTest.TestTask> c = mock(Callable.class);
 			workers.add(c);
+			createdTasks.add(task);
 			return c;
 		}
 
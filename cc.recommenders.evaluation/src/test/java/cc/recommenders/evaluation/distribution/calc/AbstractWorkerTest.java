@@ -31,8 +31,10 @@ import org.mockito.MockitoAnnotations;
 
 import cc.recommenders.evaluation.io.ProjectFoldedUsageStore;
 import cc.recommenders.evaluation.io.TypeStore;
+import cc.recommenders.evaluation.io.TypeStoreCache;
 import cc.recommenders.evaluation.queries.QueryBuilder;
 import cc.recommenders.evaluation.queries.QueryBuilderFactory;
+import cc.recommenders.exceptions.AssertionException;
 import cc.recommenders.io.Logger;
 import cc.recommenders.mining.calls.Miner;
 import cc.recommenders.mining.calls.MinerFactory;
@@ -66,6 +68,7 @@ public class AbstractWorkerTest {
 	public void setup() {
 		Logger.reset();
 		Logger.setCapturing(true);
+		TypeStoreCache.getShared().clear();
 
 		MockitoAnnotations.initMocks(this);
 		task = TestTask.create();
@@ -96,6 +99,7 @@ public class AbstractWorkerTest {
 	@After
 	public void teardown() {
 		Logger.reset();
+		TypeStoreCache.getShared().clear();
 	}
 
 	private void mockUsages(int numTraining, int numValidation) throws IOException {
@@ -213,6 +217,28 @@ public class AbstractWorkerTest {
 		assertEquals(3, Logger.getCapturedLog().size());
 	}
 
+	@Test
+	public void typeStoresAreSharedBetweenWorkers() throws Exception {
+		mockUsages(13, 4);
+		sut.getTrainingData();
+
+		TestWorker other = new TestWorker(TestTask.create());
+		other.usageStore = sut.usageStore;
+		other.getTrainingData();
+
+		verify(sut.usageStore).createTypeStore(any(ITypeName.class), anyInt());
+		assertEquals(1, TypeStoreCache.getShared().getNumberOfHits());
+	}
+
+	@Test(expected = AssertionException.class)
+	public void typeStoreIsReleasedAfterCall() throws Exception {
+		mockUsages(13, 4);
+		sut.getTrainingData();
+		sut.call();
+		// fails, because the worker has released the store already
+		TypeStoreCache.getShared().release(sut.usageStore, TYPE, task.numFolds);
+	}
+
 	@Test(expected = RuntimeException.class)
 	public void ioExceptionsOnLoadDoNotVanish() throws IOException {
 		when(sut.usageStore.createTypeStore(any(ITypeName.class), anyInt())).thenThrow(new IOException());
@@ -22,8 +22,12 @@ import org.junit.Before;
 import org.junit.Test;
 
 import cc.recommenders.evaluation.evaluators.DefF1Evaluator;
+import cc.recommenders.evaluation.io.ProjectFoldedUsageStore;
+import cc.recommenders.evaluation.io.TypeStoreCache;
 import cc.recommenders.mining.calls.Miner;
 import cc.recommenders.mining.calls.MinerFactory;
+import cc.recommenders.mining.calls.MiningOptions;
+import cc.recommenders.mining.calls.QueryOptions;
 import cc.recommenders.mining.calls.bmn.BMNMiner;
 import cc.recommenders.usages.DefinitionSiteKind;
 import cc.recommenders.usages.Query;
@@ -54,6 +58,11 @@ public class DefinitionSitesWorkerTest {
 		miner = mock(BMNMiner.class);
 		sut.minerFactory = mock(MinerFactory.class);
 		when(sut.minerFactory.get()).thenReturn(miner);
+		sut.usageStore = mock(ProjectFoldedUsageStore.class);
+		sut.mOpts = new MiningOptions();
+		sut.qOpts = new QueryOptions();
+		MinedModelCache.getShared().clear();
+		TypeStoreCache.getShared().clear();
 		sut.evaluator = mock(DefF1Evaluator.class);
 		expectedResult = Maps.newHashMap();
 		when(sut.evaluator.getRawResults()).thenReturn(expectedResult);
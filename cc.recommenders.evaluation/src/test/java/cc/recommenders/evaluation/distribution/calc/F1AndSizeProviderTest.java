@@ -26,6 +26,7 @@ import org.junit.Test;
 
 import cc.recommenders.evaluation.OptionsUtils.OptionsBuilder;
 import cc.recommenders.evaluation.OutputUtils;
+import cc.recommenders.evaluation.data.QuantileSketch;
 import cc.recommenders.evaluation.io.ProjectFoldedUsageStore;
 import cc.recommenders.io.Logger;
 import cc.recommenders.names.VmTypeName;
@@ -126,32 +127,51 @@ public class F1AndSizeProviderTest {
 
 	@Test
 	public void addResultLogging() {
-		task.f1s = new double[] { 0.3 };
+		task.f1s = QuantileSketch.from(0.3);
 		task.sizeInB = 102400;
+		task.heapSizeInB = 204800;
 		sut.addResult2(task);
 
 		LoggerUtils.assertLogContains(0, "size: 100.0 KiB (raw: 102400 B)");
-		LoggerUtils.assertLogContains(1, "f1:   [1 values (avg: 0.300) - 0.30; 0.30; 0.30; 0.30; 0.30]");
+		LoggerUtils.assertLogContains(1, "heap: 200.0 KiB (raw: 204800 B)");
+		LoggerUtils.assertLogContains(2, "f1:   [1 values (avg: 0.300) - 0.30; 0.30; 0.30; 0.30; 0.30]");
+	}
+
+	@Test
+	public void tasksWithoutQueriesAreSupported() {
+		task.f1s = new QuantileSketch();
+		task.sizeInB = 1024;
+		task.heapSizeInB = 2048;
+		sut.addResult2(task);
+
+		LoggerUtils.assertLogContains(2, "f1:   [0 values (avg: NaN) - NaN; NaN; NaN; NaN; NaN]");
+
+		Logger.clearLog();
+		sut.logResults();
+		LoggerUtils.assertLogContains(1, "APP1\t1024\t2048\tNaN\t% [0 values (avg: NaN) - NaN; NaN; NaN; NaN; NaN]");
 	}
 
 	@Test
 	public void resultMerging() {
-		task.f1s = new double[] { 0.2 };
+		task.f1s = QuantileSketch.from(0.2);
 		task.sizeInB = 102400;
+		task.heapSizeInB = 200000;
 		sut.addResult2(task);
-		task.f1s = new double[] { 0.6 };
+		task.f1s = QuantileSketch.from(0.6);
 		task.sizeInB = 307200;
+		task.heapSizeInB = 400000;
 		sut.addResult2(task);
 		task.app = "APP2";
-		task.f1s = new double[] { 0.3 };
+		task.f1s = QuantileSketch.from(0.3);
 		task.sizeInB = 30720;
+		task.heapSizeInB = 50000;
 		sut.addResult2(task);
 
 		Logger.clearLog();
 		sut.logResults();
 
-		LoggerUtils.assertLogContains(0, "rec\tsize\tf1\t% boxplot\n");
-		LoggerUtils.assertLogContains(1, "APP1\t204800\t0.40000\t% [2 values (avg: 0.400) - 0.20; 0.20; 0.40; 0.60; 0.60]");
-		LoggerUtils.assertLogContains(2, "APP2\t30720\t0.30000\t% [1 values (avg: 0.300) - 0.30; 0.30; 0.30; 0.30; 0.30]");
+		LoggerUtils.assertLogContains(0, "rec\tsize\theap\tf1\t% boxplot\n");
+		LoggerUtils.assertLogContains(1, "APP1\t204800\t300000\t0.40000\t% [2 values (avg: 0.400) - 0.20; 0.20; 0.40; 0.60; 0.60]");
+		LoggerUtils.assertLogContains(2, "APP2\t30720\t50000\t0.30000\t% [1 values (avg: 0.300) - 0.30; 0.30; 0.30; 0.30; 0.30]");
 	}
 }
\ No newline at end of file
@@ -10,8 +10,8 @@
  */
 package cc.recommenders.evaluation.distribution.calc;
 
-import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -22,10 +22,15 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.junit.Before;
 import org.junit.Test;
 
+import cc.recommenders.evaluation.data.Boxplot;
+import cc.recommenders.evaluation.data.BoxplotData;
 import cc.recommenders.evaluation.evaluators.SizeAndF1Evaluator;
+import cc.recommenders.evaluation.io.ProjectFoldedUsageStore;
+import cc.recommenders.evaluation.io.TypeStoreCache;
 import cc.recommenders.mining.calls.MinerFactory;
 import cc.recommenders.mining.calls.MiningOptions;
 import cc.recommenders.mining.calls.MiningOptions.Algorithm;
+import cc.recommenders.mining.calls.QueryOptions;
 import cc.recommenders.mining.calls.bmn.BMNMiner;
 import cc.recommenders.usages.Usage;
 
@@ -51,6 +56,11 @@ public class F1AndSizeWorkerTest {
 		miner = mock(BMNMiner.class);
 		sut.minerFactory = mock(MinerFactory.class);
 		when(sut.minerFactory.get()).thenReturn(miner);
+		sut.usageStore = mock(ProjectFoldedUsageStore.class);
+		sut.mOpts = mOpts;
+		sut.qOpts = new QueryOptions();
+		MinedModelCache.getShared().clear();
+		TypeStoreCache.getShared().clear();
 		sut.evaluator = mock(SizeAndF1Evaluator.class);
 		setResult(1, 0.0);
 	}
@@ -64,9 +74,14 @@ public class F1AndSizeWorkerTest {
 	@Test
 	public void correctValuesAreStored() {
 		setResult(17254, 0.0, 0.1, 0.2, 0.3, 1234.5678);
+		when(sut.evaluator.getHeapSize()).thenReturn(34567);
 		sut.call2();
 		assertEquals(17254, task.sizeInB);
-		assertArrayEquals(new double[] { 0.0, 0.1, 0.2, 0.3, 1234.5678 }, task.f1s, 0.00001);
+		assertEquals(34567, task.heapSizeInB);
+		assertEquals(5, task.f1s.getNumValues());
+		assertTrue(task.f1s.isExact());
+		Boxplot expected = BoxplotData.from(new double[] { 0.0, 0.1, 0.2, 0.3, 1234.5678 }).getBoxplot();
+		assertEquals(expected, task.f1s.getBoxplot());
 	}
 
 	private void setResult(int sizeInB, double... values) {
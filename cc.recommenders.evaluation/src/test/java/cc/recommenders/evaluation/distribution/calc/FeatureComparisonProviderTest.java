@@ -26,6 +26,7 @@ import cc.recommenders.evaluation.OptionsUtils.OptionsBuilder;
 import cc.recommenders.evaluation.OutputUtils;
 import cc.recommenders.evaluation.data.Boxplot;
 import cc.recommenders.evaluation.data.BoxplotData;
+import cc.recommenders.evaluation.data.QuantileSketch;
 import cc.recommenders.evaluation.io.ProjectFoldedUsageStore;
 import cc.recommenders.io.Logger;
 import cc.recommenders.testutils.LoggerUtils;
@@ -156,7 +157,7 @@ public class FeatureComparisonProviderTest {
 	private static F1AndSizeTask r(String app, int sizeInB, double... f1s) {
 		F1AndSizeTask t = new F1AndSizeTask();
 		t.app = app;
-		t.f1s = f1s;
+		t.f1s = QuantileSketch.from(f1s);
 		t.sizeInB = sizeInB;
 		return t;
 	}
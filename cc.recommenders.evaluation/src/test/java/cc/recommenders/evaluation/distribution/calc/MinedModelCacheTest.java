@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.distribution.calc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import cc.recommenders.mining.calls.MiningOptions;
+import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.mining.calls.bmn.BMNMiner;
+import cc.recommenders.mining.calls.bmn.BMNModel;
+import cc.recommenders.usages.Usage;
+
+import com.google.common.collect.Lists;
+
+public class MinedModelCacheTest {
+
+	private List<Usage> training;
+	private BMNMiner miner;
+	private MiningOptions mOpts;
+	private QueryOptions qOpts;
+	private MinedModelCache sut;
+
+	@Before
+	public void setup() {
+		training = Lists.newArrayList();
+		miner = mock(BMNMiner.class);
+		when(miner.learnModel(training)).thenReturn(new BMNModel(), new BMNModel(), new BMNModel());
+		mOpts = new MiningOptions();
+		qOpts = new QueryOptions();
+		sut = new MinedModelCache(2);
+	}
+
+	@Test
+	public void modelsAreReused() {
+		BMNModel a = sut.getModel("d", mOpts, qOpts, miner, training);
+		BMNModel b = sut.getModel("d", mOpts, qOpts, miner, training);
+		assertSame(a, b);
+		verify(miner).learnModel(training);
+		assertEquals(1, sut.getNumberOfHits());
+		assertEquals(1, sut.getNumberOfMisses());
+	}
+
+	@Test
+	public void queryOnlyOptionsAreIgnored() {
+		sut.getModel("d", mOpts, qOpts, miner, training);
+		qOpts.minProbability = 0.2;
+		qOpts.isIgnoringAfterFullRecall = true;
+		qOpts.useDoublePrecision = false;
+		qOpts.queryType = QueryOptions.QueryType.ZERO;
+		sut.getModel("d", mOpts, qOpts, miner, training);
+		verify(miner).learnModel(training);
+	}
+
+	@Test
+	public void dataAndMiningOptionsArePartOfTheKey() {
+		sut.getModel("d", mOpts, qOpts, miner, training);
+		sut.getModel("e", mOpts, qOpts, miner, training);
+		assertEquals(2, sut.size());
+		mOpts.setWeightDefinition(0.5);
+		sut.getModel("d", mOpts, qOpts, miner, training);
+		verify(miner, times(3)).learnModel(training);
+	}
+
+	@Test
+	public void optionsAreCopiedForTheKey() {
+		BMNModel a = sut.getModel("d", mOpts, qOpts, miner, training);
+		mOpts.setWeightDefinition(0.5);
+		qOpts.useClassContext = false;
+		sut.getModel("d", mOpts, qOpts, miner, training);
+		mOpts.setWeightDefinition(1.0);
+		qOpts.useClassContext = true;
+		assertSame(a, sut.getModel("d", mOpts, qOpts, miner, training));
+	}
+
+	@Test
+	public void leastRecentlyUsedModelsAreEvicted() {
+		sut.getModel("a", mOpts, qOpts, miner, training);
+		sut.getModel("b", mOpts, qOpts, miner, training);
+		sut.getModel("a", mOpts, qOpts, miner, training);
+		sut.getModel("c", mOpts, qOpts, miner, training);
+		assertEquals(2, sut.size());
+		sut.getModel("a", mOpts, qOpts, miner, training);
+		verify(miner, times(3)).learnModel(training);
+	}
+
+	@Test
+	public void failedMiningIsNotCached() {
+		RuntimeException e = new RuntimeException();
+		when(miner.learnModel(training)).thenThrow(e).thenReturn(new BMNModel());
+		try {
+			sut.getModel("d", mOpts, qOpts, miner, training);
+			fail();
+		} catch (RuntimeException actual) {
+			assertSame(e, actual);
+		}
+		assertEquals(0, sut.size());
+		sut.getModel("d", mOpts, qOpts, miner, training);
+		assertEquals(1, sut.size());
+	}
+}
@@ -30,12 +30,14 @@ import org.junit.Test;
 
 import cc.recommenders.evaluation.OptionsUtils.OptionsBuilder;
 import cc.recommenders.evaluation.OutputUtils;
+import cc.recommenders.evaluation.data.QuantileSketch;
 import cc.recommenders.evaluation.io.ProjectFoldedUsageStore;
 import cc.recommenders.io.Logger;
 import cc.recommenders.names.VmTypeName;
 import cc.recommenders.testutils.LoggerUtils;
 import cc.recommenders.usages.Usage;
 
+import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
@@ -82,6 +84,45 @@ public class QueryPerformanceProviderTest {
 		LoggerUtils.assertLogContains(2, "per query: 34.57ms");
 	}
 
+	@Test
+	public void addResultLoggingOfLatencies() {
+		task.queryDurationsInMS = QuantileSketch.from(1, 2, 3, 4);
+		task.perQueryAllocatedBytes = 123;
+
+		sut.addResult2(task);
+
+		LoggerUtils.assertLogContains(3, "latency: p50 2.500ms, p90 4.000ms, p99 4.000ms, max 4.000ms");
+		LoggerUtils.assertLogContains(4, "allocated per query: 123 B");
+	}
+
+	@Test
+	public void latenciesAreMergedOverFolds() {
+		task.queryDurationsInMS = QuantileSketch.from(1, 2);
+		task.perQueryAllocatedBytes = 1000;
+		addResult("APP1", 1000, 100, 1, 10);
+		task.queryDurationsInMS = QuantileSketch.from(3, 4);
+		task.perQueryAllocatedBytes = 2000;
+		addResult("APP1", 1000, 200, 2, 20);
+
+		Logger.clearLog();
+		sut.logResults();
+
+		String log = Joiner.on("").join(Logger.getCapturedLog());
+		assertTrue(log.contains("input\tAPP1_p50\tAPP1_p90\tAPP1_p99\tAPP1_max\tAPP1_alloc\n"));
+		assertTrue(log.contains("1000\t2.500\t4.000\t4.000\t4.000\t1500\n"));
+	}
+
+	@Test
+	public void missingLatenciesAreMarked() {
+		addResult("APP1", 1000, 100, 1, 10);
+
+		Logger.clearLog();
+		sut.logResults();
+
+		String log = Joiner.on("").join(Logger.getCapturedLog());
+		assertTrue(log.contains("1000\tNaN\tNaN\tNaN\tNaN\tNaN\n"));
+	}
+
 	@Test
 	public void correctMergingAndResultLogging_sameAppSameSize() {
 		addResult("APP1", 1000, 100, 1, 10);
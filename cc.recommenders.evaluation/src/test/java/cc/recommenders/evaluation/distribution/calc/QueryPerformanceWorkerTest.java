@@ -11,10 +11,13 @@
 package cc.recommenders.evaluation.distribution.calc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -35,6 +38,7 @@ import cc.recommenders.mining.calls.MinerFactory;
 import cc.recommenders.testutils.LoggerUtils;
 import cc.recommenders.usages.Query;
 import cc.recommenders.usages.Usage;
+import cc.recommenders.utils.AllocationMeter;
 import cc.recommenders.utils.Timer;
 
 import com.google.common.collect.Lists;
@@ -69,6 +73,7 @@ public class QueryPerformanceWorkerTest {
 		sut.minerFactory = mock(MinerFactory.class);
 		sut.queryBuilderFactory = mock(QueryBuilderFactory.class);
 		sut.performanceTimer = mock(Timer.class);
+		sut.allocationMeter = mock(AllocationMeter.class);
 
 		when(sut.queryBuilderFactory.get()).thenReturn(queryBuilder);
 		List<Query> queries = Lists.newArrayList(mock(Query.class), mock(Query.class));
@@ -108,6 +113,7 @@ public class QueryPerformanceWorkerTest {
 		LoggerUtils.assertLogContains(0, "working on QueryPerformanceTask: APP - LType (fold 5/13) - input size: 123");
 		LoggerUtils.assertLogContains(1, "learning... (from 123 usages)");
 		LoggerUtils.assertLogContains(2, "querying... (with 40 querys)");
+		LoggerUtils.assertLogContains(3, "warming up... (3 rounds)");
 	}
 
 	@Test
@@ -130,6 +136,35 @@ public class QueryPerformanceWorkerTest {
 		assertEquals(200 / 40, task.perQueryDurationInMS, 0.0001);
 	}
 
+	@Test
+	public void warmUpQueriesAreNotMeasured() {
+		sut.call2();
+		int numRounds = QueryPerformanceWorker.NUMBER_OF_WARMUP_ROUNDS + 1;
+		verify(recommender, times(numRounds * 40)).query(any(Query.class));
+		assertEquals(40, task.queryDurationsInMS.getNumValues());
+	}
+
+	@Test
+	public void latenciesAreMeasuredPerQuery() {
+		sut.call2();
+		assertTrue(task.queryDurationsInMS.getPercentile(0) >= 0);
+		assertTrue(task.queryDurationsInMS.getPercentile(100) <= 200);
+	}
+
+	@Test
+	public void allocationsAreMeasuredPerQuery() {
+		when(sut.allocationMeter.getAllocatedBytes()).thenReturn(1000L, 5000L);
+		sut.call2();
+		assertEquals(100, task.perQueryAllocatedBytes, 0.0001);
+	}
+
+	@Test
+	public void allocationsAreSkippedIfNotSupported() {
+		when(sut.allocationMeter.getAllocatedBytes()).thenReturn(-1L);
+		sut.call2();
+		assertEquals(-1, task.perQueryAllocatedBytes, 0.0001);
+	}
+
 	@Test
 	public void timerIsCalledInCorrectOrder() {
 		sut.call2();
@@ -13,6 +13,7 @@ package cc.recommenders.evaluation.distribution.calc;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -25,9 +26,14 @@ import org.junit.Test;
 
 import cc.recommenders.evaluation.data.NM;
 import cc.recommenders.evaluation.evaluators.NMF1Evaluator;
+import cc.recommenders.evaluation.io.ProjectFoldedUsageStore;
+import cc.recommenders.evaluation.io.TypeStoreCache;
 import cc.recommenders.mining.calls.Miner;
 import cc.recommenders.mining.calls.MinerFactory;
+import cc.recommenders.mining.calls.MiningOptions;
+import cc.recommenders.mining.calls.QueryOptions;
 import cc.recommenders.mining.calls.bmn.BMNMiner;
+import cc.recommenders.mining.calls.bmn.BMNModel;
 import cc.recommenders.usages.Query;
 import cc.recommenders.usages.Usage;
 
@@ -57,6 +63,11 @@ public class QueryTyeWorkerTest {
 		miner = mock(BMNMiner.class);
 		sut.minerFactory = mock(MinerFactory.class);
 		when(sut.minerFactory.get()).thenReturn(miner);
+		sut.usageStore = mock(ProjectFoldedUsageStore.class);
+		sut.mOpts = new MiningOptions();
+		sut.qOpts = new QueryOptions();
+		MinedModelCache.getShared().clear();
+		TypeStoreCache.getShared().clear();
 		sut.evaluator = mock(NMF1Evaluator.class);
 		expectedResult = Maps.newHashMap();
 		when(sut.evaluator.getRawResults()).thenReturn(expectedResult);
@@ -74,6 +85,35 @@ public class QueryTyeWorkerTest {
 		assertSame(expectedResult, task.results);
 	}
 
+	@Test
+	public void modelIsSharedForQueryOnlyOptions() {
+		BMNMiner bmnMiner = (BMNMiner) miner;
+		BMNModel model = new BMNModel();
+		when(bmnMiner.learnModel(trainingData)).thenReturn(model);
+
+		sut.call2();
+		sut.qOpts.minProbability = 0.3;
+		sut.qOpts.isIgnoringAfterFullRecall = true;
+		sut.call2();
+
+		verify(bmnMiner).learnModel(trainingData);
+		verify(bmnMiner, times(2)).createRecommenderFromModel(model);
+	}
+
+	@Test
+	public void modelIsNotSharedForModelRelevantOptions() {
+		BMNMiner bmnMiner = (BMNMiner) miner;
+		when(bmnMiner.learnModel(trainingData)).thenReturn(new BMNModel());
+
+		sut.call2();
+		sut.qOpts.useClassContext = false;
+		sut.call2();
+		sut.mOpts.setFeatureDropping(true);
+		sut.call2();
+
+		verify(bmnMiner, times(3)).learnModel(trainingData);
+	}
+
 	@Test
 	public void usesCorrectNmValues() {
 		Set<NM> actuals = sut.getInterestingValues();
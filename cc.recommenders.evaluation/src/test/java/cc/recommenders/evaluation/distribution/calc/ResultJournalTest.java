@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.distribution.calc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cc.recommenders.exceptions.AssertionException;
+import cc.recommenders.io.Logger;
+
+public class ResultJournalTest {
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private File file;
+	private ResultJournal<F1ForInputTask> sut;
+
+	@Before
+	public void setup() throws IOException {
+		Logger.reset();
+		Logger.setCapturing(true);
+		file = new File(tempFolder.getRoot(), "journal.bin");
+		sut = ResultJournal.open(file);
+	}
+
+	@After
+	public void teardown() throws IOException {
+		sut.close();
+		Logger.reset();
+	}
+
+	@Test
+	public void newJournalIsEmpty() {
+		assertEquals(0, sut.size());
+		assertFalse(sut.contains(task("A", 0, 1)));
+	}
+
+	@Test
+	public void appendedResultsAreContained() throws IOException {
+		sut.append(result("A", 0, 1, 0.3));
+		assertEquals(1, sut.size());
+		assertTrue(sut.contains(task("A", 0, 1)));
+		assertFalse(sut.contains(task("B", 0, 1)));
+		assertFalse(sut.contains(task("A", 1, 1)));
+		assertFalse(sut.contains(task("A", 0, 2)));
+	}
+
+	@Test(expected = AssertionException.class)
+	public void unknownTasksCannotBeRequested() {
+		sut.get(task("A", 0, 1));
+	}
+
+	@Test
+	public void resultsAreReadOnReopen() throws IOException {
+		sut.append(result("A", 0, 1, 0.3));
+		sut.append(result("A", 1, 1, 0.4, 0.5));
+		reopen();
+
+		assertEquals(2, sut.size());
+		assertArrayEquals(new double[] { 0.3 }, sut.get(task("A", 0, 1)).f1s, 0.00001);
+		assertArrayEquals(new double[] { 0.4, 0.5 }, sut.get(task("A", 1, 1)).f1s, 0.00001);
+	}
+
+	@Test
+	public void laterResultsOverrideEarlierOnes() throws IOException {
+		sut.append(result("A", 0, 1, 0.3));
+		sut.append(result("A", 0, 1, 0.7));
+		reopen();
+
+		assertEquals(1, sut.size());
+		assertArrayEquals(new double[] { 0.7 }, sut.get(task("A", 0, 1)).f1s, 0.00001);
+	}
+
+	@Test
+	public void incompleteRecordsAreDropped() throws IOException {
+		sut.append(result("A", 0, 1, 0.3));
+		sut.append(result("A", 1, 1, 0.4));
+		sut.close();
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.setLength(raf.length() - 5);
+		raf.close();
+
+		sut = ResultJournal.open(file);
+		assertEquals(1, sut.size());
+		assertTrue(sut.contains(task("A", 0, 1)));
+
+		// journal is usable after the repair
+		sut.append(result("A", 1, 1, 0.4));
+		reopen();
+		assertEquals(2, sut.size());
+	}
+
+	@Test
+	public void garbageAtTheEndIsDropped() throws IOException {
+		sut.append(result("A", 0, 1, 0.3));
+		sut.close();
+		FileOutputStream out = new FileOutputStream(file, true);
+		out.write(new byte[] { 0, 0, 0, 3, 1, 2, 3 });
+		out.close();
+
+		sut = ResultJournal.open(file);
+		assertEquals(1, sut.size());
+		assertTrue(Logger.getCapturedLog().get(0).contains("dropping"));
+	}
+
+	@Test
+	public void keyContainsTaskIdentity() {
+		F1ForInputTask t = task("A", 2, 30);
+		t.options = "OPTS";
+		t.typeName = "LT";
+		t.numFolds = 10;
+		String expected = F1ForInputTask.class.getName() + "|A|OPTS|LT|2/10|input size: 30";
+		assertEquals(expected, ResultJournal.getKey(t));
+	}
+
+	private void reopen() throws IOException {
+		sut.close();
+		sut = ResultJournal.open(file);
+	}
+
+	private static F1ForInputTask task(String app, int fold, int inputSize) {
+		F1ForInputTask t = new F1ForInputTask();
+		t.app = app;
+		t.currentFold = fold;
+		t.inputSize = inputSize;
+		return t;
+	}
+
+	private static F1ForInputTask result(String app, int fold, int inputSize, double... f1s) {
+		F1ForInputTask t = task(app, fold, inputSize);
+		t.f1s = f1s;
+		return t;
+	}
+}
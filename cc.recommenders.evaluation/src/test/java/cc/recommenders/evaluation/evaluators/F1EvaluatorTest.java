@@ -11,6 +11,7 @@
 package cc.recommenders.evaluation.evaluators;
 
 import static cc.recommenders.datastructures.Tuple.newTuple;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -18,6 +19,7 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -40,6 +42,7 @@ import cc.recommenders.usages.Usage;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.inject.Provider;
 
 public class F1EvaluatorTest {
 
@@ -161,6 +164,102 @@ public class F1EvaluatorTest {
 		assertEquals(expected, actual);
 	}
 
+	@Test
+	public void parallelEvaluationHasIdenticalResults() {
+		for (int i = 0; i < 50; i++) {
+			if (i % 3 == 0) {
+				addUsages(1, callQueried1, callQueried2, callProposal1);
+			} else if (i % 3 == 1) {
+				addUsages(1, callQueried1, callQueried2, callProposal1, callProposal2);
+			} else {
+				addUsages(1, callQueried1, callQueried2, callProposal2, callProposal3);
+			}
+		}
+		sut.query(new FixedRecommender(callProposal1), usages);
+		double[] expected = sut.getRawResults();
+
+		F1Evaluator sut2 = new F1Evaluator(new QueryBuilderFactory(queryOptions, null, queryBuilder), queryOptions);
+		sut2.query(new RecommenderProvider(callProposal1), usages, 4);
+		double[] actual = sut2.getRawResults();
+
+		assertArrayEquals(expected, actual, 0.0);
+		assertEquals(sut.getResults(), sut2.getResults());
+		assertEquals(50, sut2.getLastNumberOfQueries());
+		assertTrue(sut2.getLastQueriesPerSecond() > 0);
+	}
+
+	@Test
+	public void everyThreadGetsItsOwnRecommender() {
+		addUsages(100, callQueried1, callQueried2, callProposal1);
+		RecommenderProvider provider = new RecommenderProvider(callProposal1);
+
+		sut.query(provider, usages, 3);
+
+		assertTrue(provider.recommenders.size() <= 3);
+		for (FixedRecommender rec : provider.recommenders) {
+			assertTrue(rec.threads.size() <= 1);
+		}
+		assertEquals(100, sut.getResults().getNumValues());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void exceptionsOfParallelEvaluationAreRethrown() {
+		addUsages(10, callQueried1, callQueried2, callProposal1);
+		sut.query(new Provider<ICallsRecommender<Query>>() {
+			@Override
+			public ICallsRecommender<Query> get() {
+				throw new IllegalStateException();
+			}
+		}, usages, 2);
+	}
+
+	private static class RecommenderProvider implements Provider<FixedRecommender> {
+		private final IMethodName proposal;
+		private final List<FixedRecommender> recommenders = Collections
+				.synchronizedList(Lists.<FixedRecommender> newArrayList());
+
+		public RecommenderProvider(IMethodName proposal) {
+			this.proposal = proposal;
+		}
+
+		@Override
+		public FixedRecommender get() {
+			FixedRecommender rec = new FixedRecommender(proposal);
+			recommenders.add(rec);
+			return rec;
+		}
+	}
+
+	private static class FixedRecommender implements ICallsRecommender<Query> {
+		private final Set<Tuple<IMethodName, Double>> proposals = Sets.newLinkedHashSet();
+		private final Set<Thread> threads = Collections.synchronizedSet(Sets.<Thread> newHashSet());
+
+		public FixedRecommender(IMethodName proposal) {
+			proposals.add(newTuple(proposal, 1.0));
+		}
+
+		@Override
+		public Set<Tuple<IMethodName, Double>> query(Query query) {
+			threads.add(Thread.currentThread());
+			return proposals;
+		}
+
+		@Override
+		public Set<Tuple<String, Double>> getPatternsWithProbability() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Set<Tuple<IMethodName, Double>> queryPattern(String patternName) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int getSize() {
+			return 0;
+		}
+	}
+
 	private void addUsages(int numUsages, IMethodName... calls) {
 		for (int i = 0; i < numUsages; i++) {
 			Query q = createQuery(calls);
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.evaluators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import cc.recommenders.datastructures.Tuple;
+import cc.recommenders.mining.calls.ICallsRecommender;
+import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.names.IMethodName;
+import cc.recommenders.names.VmMethodName;
+import cc.recommenders.names.VmTypeName;
+import cc.recommenders.usages.Query;
+import cc.recommenders.utils.HeapFootprint;
+
+public class SizeEvaluatorTest {
+
+	private SizeEvaluator sut;
+
+	@Before
+	public void setup() {
+		sut = new SizeEvaluator();
+	}
+
+	@Test
+	public void noResultsByDefault() {
+		assertFalse(sut.hasResults());
+	}
+
+	@Test
+	public void estimatedSizesAreAveraged() {
+		sut.query(new FakeRecommender(10), null);
+		sut.query(new FakeRecommender(30), null);
+		assertTrue(sut.hasResults());
+		assertEquals(160, (int) sut.getResults());
+	}
+
+	@Test
+	public void heapSizesAreAveraged() {
+		FakeRecommender a = new FakeRecommender(10);
+		FakeRecommender b = new FakeRecommender(30);
+		sut.query(a, null);
+		sut.query(b, null);
+
+		long expected = (HeapFootprint.measure(a.table).getTotalBytes() + HeapFootprint.measure(b.table)
+				.getTotalBytes()) / 2 + HeapFootprint.getShallowSize(a);
+		assertEquals(expected, sut.getHeapResults());
+	}
+
+	@Test
+	public void sharedObjectsAreNotCounted() {
+		FakeRecommender rec = new FakeRecommender(10);
+		HeapFootprint actual = SizeEvaluator.getHeapFootprint(rec);
+		assertEquals(0, actual.getNumberOfInstances(QueryOptions.class));
+		assertEquals(0, actual.getNumberOfInstances(VmMethodName.class));
+		assertEquals(0, actual.getNumberOfInstances(VmTypeName.class));
+		assertEquals(2, actual.getNumberOfObjects());
+	}
+
+	@Test
+	public void reinitResetsBothResults() {
+		sut.query(new FakeRecommender(10), null);
+		sut.reinit();
+		assertFalse(sut.hasResults());
+	}
+
+	private static class FakeRecommender implements ICallsRecommender<Query> {
+
+		private final double[] table;
+		@SuppressWarnings("unused")
+		private final QueryOptions options = new QueryOptions();
+		@SuppressWarnings("unused")
+		private final IMethodName method = VmMethodName.get("LT.m()V");
+
+		public FakeRecommender(int numValues) {
+			table = new double[numValues];
+		}
+
+		@Override
+		public Set<Tuple<IMethodName, Double>> query(Query query) {
+			return null;
+		}
+
+		@Override
+		public Set<Tuple<String, Double>> getPatternsWithProbability() {
+			return null;
+		}
+
+		@Override
+		public Set<Tuple<IMethodName, Double>> queryPattern(String patternName) {
+			return null;
+		}
+
+		@Override
+		public int getSize() {
+			return table.length * 8;
+		}
+	}
+}
@@ -19,19 +19,25 @@ import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import cc.recommenders.exceptions.AssertionException;
 import cc.recommenders.io.Directory;
@@ -40,6 +46,7 @@ import cc.recommenders.names.ITypeName;
 import cc.recommenders.names.VmTypeName;
 import cc.recommenders.usages.ProjectFoldedUsage;
 import cc.recommenders.usages.ProjectFoldingIndex;
+import cc.recommenders.usages.Query;
 import cc.recommenders.usages.Usage;
 
 import com.google.common.collect.Lists;
@@ -49,6 +56,10 @@ import com.google.common.collect.Sets;
 public class ProjectFoldedUsageStoreTest {
 
 	private static final ITypeName TYPE = VmTypeName.get("LA/B/C");
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
 	private Directory dir;
 	private ProjectFoldingIndex index;
 	private HashSet<String> files;
@@ -80,6 +91,7 @@ public class ProjectFoldedUsageStoreTest {
 		when(dir.list()).thenReturn(files);
 		when(dir.read(eq("index.json"), eq(ProjectFoldingIndex.class))).thenReturn(index);
 		when(dir.getReadingArchive(anyString())).thenReturn(readingArchive);
+		when(dir.getUrl("LA_B_C.zip")).thenReturn(new File(tempFolder.getRoot(), "LA_B_C.zip").toURI().toURL());
 
 		when(index.getCounts(any(ITypeName.class))).thenReturn(counts);
 
@@ -177,6 +189,73 @@ public class ProjectFoldedUsageStoreTest {
 		assertNotNull(sut.createTypeStore(TYPE, 3));
 	}
 
+	@Test
+	public void columnsAreUsedIfAvailable() throws IOException {
+		File cols = tempFolder.newFile("LA_B_C.cols");
+		new UsageColumnsWriter().write(Lists.newArrayList(new ProjectFoldedUsage(new Query(), "XYZ")), cols);
+		when(dir.exists("LA_B_C.cols")).thenReturn(true);
+		when(dir.getUrl("LA_B_C.cols")).thenReturn(cols.toURI().toURL());
+
+		TypeStore actual = sut.createTypeStore(TYPE, 3);
+
+		verify(dir, never()).getReadingArchive(anyString());
+		assertEquals(1, actual.getAllUsages().size());
+		assertEquals(mapping, actual.getMapping());
+	}
+
+	@Test
+	public void outdatedColumnsAreRebuilt() throws IOException {
+		File cols = tempFolder.newFile("LA_B_C.cols");
+		new UsageColumnsWriter().write(Lists.newArrayList(new ProjectFoldedUsage(new Query(), "XYZ")), cols);
+		cols.setLastModified(1000);
+		tempFolder.newFile("LA_B_C.zip").setLastModified(2000);
+		when(dir.exists("LA_B_C.cols")).thenReturn(true);
+		when(dir.getUrl("LA_B_C.cols")).thenReturn(cols.toURI().toURL());
+		Query q = new Query();
+		q.setType(TYPE);
+		usages.set(0, new ProjectFoldedUsage(q, "XYZ"));
+		when(readingArchive.getNext(ProjectFoldedUsage.class)).thenReturn(usages.get(0));
+
+		TypeStore actual = sut.createTypeStore(TYPE, 3);
+
+		verify(dir).getReadingArchive("LA_B_C.zip");
+		assertEquals(usages, actual.getAllUsages());
+		assertEquals(usages, new UsageColumns(cols).asList());
+	}
+
+	@Test
+	public void truncatedColumnsAreRebuilt() throws IOException {
+		File cols = tempFolder.newFile("LA_B_C.cols");
+		new UsageColumnsWriter().write(Lists.newArrayList(new ProjectFoldedUsage(new Query(), "XYZ")), cols);
+		byte[] bytes = Files.readAllBytes(cols.toPath());
+		Files.write(cols.toPath(), Arrays.copyOf(bytes, bytes.length - 8));
+		when(dir.exists("LA_B_C.cols")).thenReturn(true);
+		when(dir.getUrl("LA_B_C.cols")).thenReturn(cols.toURI().toURL());
+		Query q = new Query();
+		q.setType(TYPE);
+		usages.set(0, new ProjectFoldedUsage(q, "XYZ"));
+		when(readingArchive.getNext(ProjectFoldedUsage.class)).thenReturn(usages.get(0));
+
+		TypeStore actual = sut.createTypeStore(TYPE, 3);
+
+		verify(dir).getReadingArchive("LA_B_C.zip");
+		assertEquals(usages, actual.getAllUsages());
+		assertEquals(usages, new UsageColumns(cols).asList());
+	}
+
+	@Test
+	public void columnsCanBeCreated() throws IOException {
+		File cols = new File(tempFolder.getRoot(), "LA_B_C.cols");
+		when(dir.getUrl("LA_B_C.cols")).thenReturn(cols.toURI().toURL());
+		usages.set(0, new ProjectFoldedUsage(new Query(), "p1"));
+		when(readingArchive.getNext(ProjectFoldedUsage.class)).thenReturn(usages.get(0));
+
+		sut.createColumns(TYPE);
+
+		verify(dir).getReadingArchive("LA_B_C.zip");
+		assertEquals(usages, new UsageColumns(cols).asList());
+	}
+
 	@Test
 	public void typeStoreIsCreatedWithCorrectParameters() throws IOException {
 		TypeStore actual = sut.createTypeStore(TYPE, 3);
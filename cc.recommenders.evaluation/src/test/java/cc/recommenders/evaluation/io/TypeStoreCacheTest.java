@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import cc.recommenders.exceptions.AssertionException;
+import cc.recommenders.names.ITypeName;
+import cc.recommenders.names.VmTypeName;
+import cc.recommenders.usages.ProjectFoldedUsage;
+
+import com.google.common.collect.Lists;
+
+public class TypeStoreCacheTest {
+
+	private static final ITypeName T1 = VmTypeName.get("LT1");
+	private static final ITypeName T2 = VmTypeName.get("LT2");
+
+	private ProjectFoldedUsageStore store;
+	private TypeStoreCache sut;
+
+	@Before
+	public void setup() throws IOException {
+		store = mock(ProjectFoldedUsageStore.class);
+		when(store.getId()).thenReturn("store");
+		mockTypeStore(T1, 3);
+		mockTypeStore(T2, 5);
+		sut = new TypeStoreCache(6);
+	}
+
+	private void mockTypeStore(ITypeName type, int numUsages) throws IOException {
+		List<ProjectFoldedUsage> usages = Lists.newArrayList();
+		for (int i = 0; i < numUsages; i++) {
+			usages.add(mock(ProjectFoldedUsage.class));
+		}
+		when(store.createTypeStore(type, 2)).thenAnswer(new TypeStoreAnswer(usages));
+	}
+
+	@Test
+	public void storesAreReused() throws IOException {
+		TypeStore a = sut.acquire(store, T1, 2);
+		TypeStore b = sut.acquire(store, T1, 2);
+		assertSame(a, b);
+		verify(store).createTypeStore(T1, 2);
+		assertEquals(1, sut.getNumberOfHits());
+		assertEquals(1, sut.getNumberOfMisses());
+	}
+
+	@Test
+	public void storesWithSameIdAreShared() throws IOException {
+		ProjectFoldedUsageStore other = mock(ProjectFoldedUsageStore.class);
+		when(other.getId()).thenReturn("store");
+		sut.acquire(store, T1, 2);
+		sut.acquire(other, T1, 2);
+		assertEquals(1, sut.size());
+		verify(other, never()).createTypeStore(T1, 2);
+	}
+
+	@Test
+	public void storesWithoutIdAreOnlySharedWithThemselves() throws IOException {
+		ProjectFoldedUsageStore a = mock(ProjectFoldedUsageStore.class);
+		ProjectFoldedUsageStore b = mock(ProjectFoldedUsageStore.class);
+		when(a.createTypeStore(T1, 2)).thenReturn(mock(TypeStore.class));
+		when(b.createTypeStore(T1, 2)).thenReturn(mock(TypeStore.class));
+		sut.acquire(a, T1, 2);
+		sut.acquire(b, T1, 2);
+		sut.acquire(a, T1, 2);
+		assertEquals(2, sut.size());
+		assertEquals(1, sut.getNumberOfHits());
+	}
+
+	@Test
+	public void numFoldsIsPartOfTheKey() throws IOException {
+		when(store.createTypeStore(T1, 3)).thenReturn(mock(TypeStore.class));
+		sut.acquire(store, T1, 2);
+		sut.acquire(store, T1, 3);
+		assertEquals(2, sut.size());
+	}
+
+	@Test
+	public void storesInUseAreNotEvicted() throws IOException {
+		sut.acquire(store, T1, 2);
+		sut.acquire(store, T2, 2);
+		assertEquals(2, sut.size());
+		assertEquals(8, sut.getNumberOfCachedUsages());
+	}
+
+	@Test
+	public void releasedStoresAreEvictedWhenCacheIsFull() throws IOException {
+		TypeStore a = sut.acquire(store, T1, 2);
+		sut.release(store, T1, 2);
+		sut.acquire(store, T2, 2);
+		assertEquals(1, sut.size());
+		assertEquals(5, sut.getNumberOfCachedUsages());
+
+		sut.release(store, T2, 2);
+		TypeStore a2 = sut.acquire(store, T1, 2);
+		assertNotSame(a, a2);
+		verify(store, times(2)).createTypeStore(T1, 2);
+	}
+
+	@Test
+	public void releasedStoresAreKeptIfThereIsSpace() throws IOException {
+		sut.acquire(store, T1, 2);
+		sut.release(store, T1, 2);
+		sut.acquire(store, T1, 2);
+		verify(store).createTypeStore(T1, 2);
+	}
+
+	@Test(expected = AssertionException.class)
+	public void unacquiredStoresCannotBeReleased() {
+		sut.release(store, T1, 2);
+	}
+
+	@Test
+	public void failedLoadsAreNotCached() throws IOException {
+		when(store.createTypeStore(T1, 2)).thenThrow(new IOException()).thenReturn(mock(TypeStore.class));
+		try {
+			sut.acquire(store, T1, 2);
+			fail();
+		} catch (IOException e) {
+			// expected
+		}
+		assertEquals(0, sut.size());
+		sut.acquire(store, T1, 2);
+		assertEquals(1, sut.size());
+	}
+
+	@Test
+	public void failedLoadsAreReportedToAllWaitingRequests() throws Exception {
+		final CountDownLatch isLoading = new CountDownLatch(1);
+		final CountDownLatch canFail = new CountDownLatch(1);
+		when(store.createTypeStore(T1, 2)).thenAnswer(new Answer<TypeStore>() {
+			@Override
+			public TypeStore answer(InvocationOnMock invocation) throws Throwable {
+				isLoading.countDown();
+				canFail.await();
+				throw new IOException("broken");
+			}
+		});
+
+		FailingAcquirer loader = new FailingAcquirer();
+		loader.start();
+		isLoading.await();
+		FailingAcquirer waiter = new FailingAcquirer();
+		waiter.start();
+		while (waiter.getState() != Thread.State.BLOCKED) {
+			Thread.sleep(1);
+		}
+		canFail.countDown();
+		loader.join();
+		waiter.join();
+
+		assertEquals("broken", loader.failure.getMessage());
+		assertEquals("broken", waiter.failure.getCause().getMessage());
+		verify(store, times(1)).createTypeStore(T1, 2);
+		assertEquals(0, sut.size());
+		assertEquals(0, sut.getNumberOfCachedUsages());
+
+		doAnswer(new TypeStoreAnswer(Lists.newArrayList(mock(ProjectFoldedUsage.class)))).when(store)
+				.createTypeStore(T1, 2);
+		sut.acquire(store, T1, 2);
+		sut.release(store, T1, 2);
+		assertEquals(1, sut.getNumberOfCachedUsages());
+	}
+
+	private class FailingAcquirer extends Thread {
+		private IOException failure;
+
+		@Override
+		public void run() {
+			try {
+				sut.acquire(store, T1, 2);
+			} catch (IOException e) {
+				failure = e;
+			}
+		}
+	}
+
+	private static class TypeStoreAnswer implements Answer<TypeStore> {
+		private final List<ProjectFoldedUsage> usages;
+
+		public TypeStoreAnswer(List<ProjectFoldedUsage> usages) {
+			this.usages = usages;
+		}
+
+		@Override
+		public TypeStore answer(InvocationOnMock invocation) {
+			return new TypeStore(usages, null);
+		}
+	}
+}
@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cc.recommenders.names.VmMethodName;
+import cc.recommenders.names.VmTypeName;
+import cc.recommenders.usages.CallSites;
+import cc.recommenders.usages.DefinitionSites;
+import cc.recommenders.usages.ProjectFoldedUsage;
+import cc.recommenders.usages.Query;
+import cc.recommenders.usages.Usage;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+public class UsageColumnsTest {
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private File file;
+	private List<ProjectFoldedUsage> usages;
+
+	@Before
+	public void setup() throws IOException {
+		file = tempFolder.newFile("a.cols");
+		usages = Lists.newArrayList();
+	}
+
+	@Test
+	public void emptyRoundtrip() throws IOException {
+		UsageColumns actual = writeAndRead();
+		assertEquals(0, actual.size());
+		assertEquals(0, actual.getNumberOfProjects());
+		assertTrue(actual.asList().isEmpty());
+	}
+
+	@Test
+	public void roundtrip() throws IOException {
+		usages.add(pfu(createQuery(1), "p1"));
+		usages.add(pfu(createQuery(2), "p2"));
+		usages.add(pfu(createQuery(3), "p1"));
+
+		UsageColumns actual = writeAndRead();
+
+		assertEquals(3, actual.size());
+		assertEquals(2, actual.getNumberOfProjects());
+		assertEquals(usages, actual.asList());
+	}
+
+	@Test
+	public void nullValuesAreSupported() throws IOException {
+		usages.add(pfu(new Query(), "p1"));
+
+		Query q = new Query();
+		q.setDefinition(DefinitionSites.createUnknownDefinitionSite());
+		usages.add(pfu(q, "p2"));
+
+		assertEquals(usages, writeAndRead().asList());
+	}
+
+	@Test
+	public void nullProjectsAreSupported() throws IOException {
+		usages.add(pfu(createQuery(1), null));
+		usages.add(pfu(createQuery(2), "p1"));
+
+		UsageColumns actual = writeAndRead();
+
+		assertEquals(usages, actual.asList());
+		assertNull(actual.getProjectName(actual.getProjectId(0)));
+
+		Map<String, Integer> mapping = Maps.newHashMap();
+		mapping.put(null, 0);
+		mapping.put("p1", 1);
+		TypeStore listStore = new TypeStore(usages, mapping);
+		TypeStore sut = new TypeStore(actual, mapping);
+		assertEquals(listStore.getValidationData(0), sut.getValidationData(0));
+		assertEquals(listStore.getTrainingData(0), sut.getTrainingData(0));
+	}
+
+	@Test
+	public void unicodeAndOddLengthsArePadded() throws IOException {
+		Query q = createQuery(1);
+		q.setClassContext(VmTypeName.get("Lä/ö/Ü"));
+		usages.add(pfu(q, "pä"));
+		usages.add(pfu(createQuery(2), "p"));
+
+		assertEquals(usages, writeAndRead().asList());
+	}
+
+	@Test
+	public void inMemoryBufferCanBeUsed() throws IOException {
+		usages.add(pfu(createQuery(1), "p1"));
+		new UsageColumnsWriter().write(usages, file);
+
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		UsageColumns actual = new UsageColumns(ByteBuffer.wrap(bytes));
+
+		assertEquals(usages, actual.asList());
+	}
+
+	@Test(expected = IOException.class)
+	public void invalidFilesAreDetected() throws IOException {
+		new UsageColumns(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }));
+	}
+
+	@Test
+	public void truncatedFilesAreDetected() throws IOException {
+		usages.add(pfu(createQuery(1), "p1"));
+		new UsageColumnsWriter().write(usages, file);
+
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		for (int length : new int[] { 0, 12, bytes.length / 2, bytes.length - 4, bytes.length - 1 }) {
+			try {
+				new UsageColumns(ByteBuffer.wrap(Arrays.copyOf(bytes, length)));
+				fail("truncated to " + length);
+			} catch (IOException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void rewritingDoesNotAffectMappedFiles() throws IOException {
+		usages.add(pfu(createQuery(1), "p1"));
+		UsageColumns before = writeAndRead();
+
+		List<ProjectFoldedUsage> others = Lists.newArrayList(pfu(createQuery(2), "p2"), pfu(createQuery(3), "p3"));
+		new UsageColumnsWriter().write(others, file);
+
+		assertEquals(usages, before.asList());
+		assertEquals(others, new UsageColumns(file).asList());
+		assertEquals(1, tempFolder.getRoot().list().length);
+	}
+
+	@Test
+	public void selectedRows() throws IOException {
+		for (int i = 0; i < 5; i++) {
+			usages.add(pfu(createQuery(i), "p" + i));
+		}
+		UsageColumns sut = writeAndRead();
+
+		List<Usage> actual = sut.select(new int[] { 4, 1 });
+		List<Usage> expected = Lists.newArrayList(usages.get(4).getRawUsage(), usages.get(1).getRawUsage());
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void typeStoreFolds() throws IOException {
+		Map<String, Integer> mapping = Maps.newHashMap();
+		mapping.put("p1", 0);
+		mapping.put("p2", 1);
+		mapping.put("p3", 0);
+
+		usages.add(pfu(createQuery(1), "p1"));
+		usages.add(pfu(createQuery(2), "p2"));
+		usages.add(pfu(createQuery(3), "p3"));
+		usages.add(pfu(createQuery(4), "p2"));
+
+		TypeStore listStore = new TypeStore(usages, mapping);
+		TypeStore sut = new TypeStore(writeAndRead(), mapping);
+
+		assertEquals(usages, sut.getAllUsages());
+		assertEquals(mapping, sut.getMapping());
+		for (int fold = 0; fold < 2; fold++) {
+			assertEquals(listStore.getTrainingData(fold), sut.getTrainingData(fold));
+			assertEquals(listStore.getValidationData(fold), sut.getValidationData(fold));
+		}
+	}
+
+	private UsageColumns writeAndRead() throws IOException {
+		new UsageColumnsWriter().write(usages, file);
+		return new UsageColumns(file);
+	}
+
+	private static ProjectFoldedUsage pfu(Query q, String project) {
+		return new ProjectFoldedUsage(q, project);
+	}
+
+	private static Query createQuery(int num) {
+		Query q = new Query();
+		q.setType(VmTypeName.get("La/T"));
+		q.setClassContext(VmTypeName.get("La/C" + num));
+		q.setMethodContext(VmMethodName.get("La/C" + num + ".m()V"));
+		q.setDefinition(DefinitionSites.createDefinitionByReturn("La/F.create()La/T;"));
+		for (int i = 0; i < num; i++) {
+			q.addCallSite(CallSites.createReceiverCallSite("La/T.m" + i + "()V"));
+		}
+		q.addCallSite(CallSites.createParameterCallSite("La/U.n(La/T;)V", 0));
+		return q;
+	}
+}
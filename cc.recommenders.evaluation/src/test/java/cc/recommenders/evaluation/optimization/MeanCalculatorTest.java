@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.optimization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.eclipse.recommenders.commons.bayesnet.BayesianNetwork;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import cc.recommenders.evaluation.data.Boxplot;
+import cc.recommenders.exceptions.AssertionException;
+import cc.recommenders.evaluation.evaluators.F1Evaluator;
+import cc.recommenders.evaluation.evaluators.SizeEvaluator;
+import cc.recommenders.io.Logger;
+import cc.recommenders.mining.calls.ICallsRecommender;
+import cc.recommenders.mining.calls.MiningOptions;
+import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.mining.calls.pbn.PBNMiner;
+import cc.recommenders.names.VmTypeName;
+import cc.recommenders.usages.Query;
+import cc.recommenders.usages.Usage;
+
+import com.google.common.collect.Lists;
+
+public class MeanCalculatorTest {
+
+	private PBNMiner miner;
+	private MiningOptions mOpts;
+	private QueryOptions qOpts;
+	private List<Usage> usages;
+
+	private MeanCalculator sut;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setup() {
+		Logger.setCapturing(true);
+		miner = mock(PBNMiner.class);
+		when(miner.learnModel(anyListOf(Usage.class))).thenReturn(mock(BayesianNetwork.class));
+		ICallsRecommender<Query> rec = mock(ICallsRecommender.class);
+		// small and big model of two calibrations
+		when(rec.getSize()).thenReturn(10, 20, 10, 20);
+		when(miner.createRecommenderFromModel(any(BayesianNetwork.class))).thenReturn(rec);
+
+		mOpts = new MiningOptions();
+		qOpts = new QueryOptions();
+		usages = Lists.newArrayList();
+		for (int i = 0; i < 9; i++) {
+			Query q = new Query();
+			q.setType(VmTypeName.get("LT" + i));
+			usages.add(q);
+		}
+		F1Evaluator f1Evaluator = mock(F1Evaluator.class);
+		when(f1Evaluator.getResults()).thenReturn(new Boxplot(1, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5));
+		sut = new MeanCalculator(miner, f1Evaluator, mock(SizeEvaluator.class), mOpts, qOpts);
+	}
+
+	@After
+	public void teardown() {
+		Logger.reset();
+	}
+
+	@Test
+	public void foldsAreMinedOnce() {
+		evalIgnoringScore(opts(0.5, 0.1));
+		// small and big model for calibration + 3 folds
+		verify(miner, times(5)).learnModel(anyListOf(Usage.class));
+		assertEquals(5, sut.getModelCache().getNumberOfMisses());
+	}
+
+	@Test
+	public void queryOnlyChangesReuseTheFoldModels() {
+		evalIgnoringScore(opts(0.5, 0.1));
+		evalIgnoringScore(opts(0.5, 0.3));
+
+		verify(miner, times(5)).learnModel(anyListOf(Usage.class));
+		assertEquals(3, sut.getModelCache().getNumberOfHits());
+		assertTrue(Logger.getCapturedLog().toString().contains("3 hits"));
+	}
+
+	@Test
+	public void miningChangesAreMinedAgain() {
+		evalIgnoringScore(opts(0.5, 0.1));
+		evalIgnoringScore(opts(0.7, 0.1));
+
+		verify(miner, times(8)).learnModel(anyListOf(Usage.class));
+	}
+
+	@Test
+	public void singleFoldIsMinedOnce() {
+		sut.calibrate(usages);
+		evalSingleFoldIgnoringScore(opts(0.5, 0.1));
+		evalSingleFoldIgnoringScore(opts(0.5, 0.3));
+
+		verify(miner, times(3)).learnModel(anyListOf(Usage.class));
+	}
+
+	@Test
+	public void singleFoldSharesTheModelOfTheFirstFold() {
+		sut.calibrate(usages);
+		evalSingleFoldIgnoringScore(opts(0.5, 0.1));
+		evalIgnoringScore(opts(0.5, 0.3));
+
+		verify(miner, times(5)).learnModel(anyListOf(Usage.class));
+	}
+
+	@Test
+	public void repeatedUsagesDoNotConfuseTheFolds() {
+		usages.set(1, usages.get(0));
+		evalIgnoringScore(opts(0.5, 0.1));
+
+		verify(miner, times(5)).learnModel(anyListOf(Usage.class));
+	}
+
+	@Test
+	public void foldsOfDifferentInputsAreMinedSeparately() {
+		evalIgnoringScore(opts(0.5, 0.1));
+		evalIgnoringScore(opts(0.5, 0.1), Lists.newArrayList(usages));
+
+		// the new input is calibrated as well
+		verify(miner, times(10)).learnModel(anyListOf(Usage.class));
+	}
+
+	@Test(expected = AssertionException.class)
+	public void singleFoldRequiresCalibration() {
+		sut.evalSingleFold(opts(0.5, 0.1), usages);
+	}
+
+	@Test
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public void subsamplesAreNormalizedWithTheCalibratedInput() {
+		sut.calibrate(usages);
+		try {
+			sut.evalSingleFold(opts(0.5, 0.1), usages.subList(0, 6));
+		} catch (RuntimeException e) {
+			assertScoreAggregationIsBroken(e);
+		}
+
+		ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+		verify(miner, times(3)).learnModel(captor.capture());
+		assertEquals(9, captor.getAllValues().get(0).size());
+		assertEquals(9, captor.getAllValues().get(1).size());
+		assertEquals(4, captor.getAllValues().get(2).size());
+	}
+
+	private void evalIgnoringScore(EvaluationOptions opts) {
+		evalIgnoringScore(opts, usages);
+	}
+
+	private void evalIgnoringScore(EvaluationOptions opts, List<Usage> in) {
+		try {
+			sut.eval(opts, in);
+		} catch (RuntimeException e) {
+			assertScoreAggregationIsBroken(e);
+		}
+	}
+
+	private void evalSingleFoldIgnoringScore(EvaluationOptions opts) {
+		try {
+			sut.evalSingleFold(opts, usages);
+		} catch (RuntimeException e) {
+			assertScoreAggregationIsBroken(e);
+		}
+	}
+
+	private static void assertScoreAggregationIsBroken(RuntimeException e) {
+		// score aggregation of SizeCostAndF1Evaluator is currently broken
+		if (!"currently broken?!".equals(e.getMessage())) {
+			throw e;
+		}
+	}
+
+	private static EvaluationOptions opts(double weight, double minProbability) {
+		MiningOptions m = new MiningOptions();
+		m.setWeightClassContext(weight);
+		QueryOptions q = new QueryOptions();
+		q.minProbability = minProbability;
+		return new EvaluationOptions(m, q);
+	}
+}
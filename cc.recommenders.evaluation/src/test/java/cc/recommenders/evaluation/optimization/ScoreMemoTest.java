@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.optimization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cc.recommenders.exceptions.AssertionException;
+import cc.recommenders.io.Directory;
+import cc.recommenders.mining.calls.MiningOptions;
+import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.names.VmMethodName;
+import cc.recommenders.names.VmTypeName;
+import cc.recommenders.usages.CallSites;
+import cc.recommenders.usages.DefinitionSites;
+import cc.recommenders.usages.Query;
+import cc.recommenders.usages.Usage;
+
+import com.google.common.collect.Lists;
+
+public class ScoreMemoTest {
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private ScoreMemo sut;
+
+	@Before
+	public void setup() {
+		sut = new ScoreMemo();
+	}
+
+	@Test
+	public void unknownScoresAreNull() {
+		assertNull(sut.getNullable("d", opts(0.1)));
+		assertEquals(0, sut.size());
+	}
+
+	@Test
+	public void scoresAreRemembered() {
+		sut.put("d", opts(0.1), 0.5);
+		assertEquals(0.5, sut.getNullable("d", opts(0.1)), 0.0001);
+		assertNull(sut.getNullable("d", opts(0.2)));
+		assertNull(sut.getNullable("e", opts(0.1)));
+	}
+
+	@Test
+	public void nanIsNotRemembered() {
+		sut.put("d", opts(0.1), Double.NaN);
+		assertNull(sut.getNullable("d", opts(0.1)));
+	}
+
+	@Test
+	public void dataIdDependsOnContent() {
+		List<Usage> a = Lists.newArrayList(mock(Usage.class));
+		List<Usage> b = Lists.newArrayList(mock(Usage.class), mock(Usage.class));
+		assertEquals(ScoreMemo.getDataId(a), ScoreMemo.getDataId(Lists.newLinkedList(a)));
+		assertNotEquals(ScoreMemo.getDataId(a), ScoreMemo.getDataId(b));
+	}
+
+	@Test
+	public void dataIdIsStableAcrossJvms() {
+		// identity hash codes of names and enums must not leak into the id
+		assertEquals("2/a7dc26a2caff53120307644ffec23cab7d9cf3d2", ScoreMemo.getDataId(createUsages()));
+	}
+
+	@Test
+	public void dataIdIgnoresOrderOfCallSites() {
+		Query a = new Query();
+		a.addCallSite(CallSites.createReceiverCallSite("La/T.m1()V"));
+		a.addCallSite(CallSites.createReceiverCallSite("La/T.m2()V"));
+		Query b = new Query();
+		b.addCallSite(CallSites.createReceiverCallSite("La/T.m2()V"));
+		b.addCallSite(CallSites.createReceiverCallSite("La/T.m1()V"));
+		assertEquals(ScoreMemo.getDataId(Lists.<Usage> newArrayList(a)),
+				ScoreMemo.getDataId(Lists.<Usage> newArrayList(b)));
+	}
+
+	@Test
+	public void persistedScoresAreFoundForFreshlyBuiltUsages() throws IOException {
+		Directory dir = new Directory(tempFolder.getRoot().getAbsolutePath());
+		sut = ScoreMemo.load(dir, "memo.json", "scorer-v1");
+		sut.put(ScoreMemo.getDataId(createUsages()), opts(0.1), 0.5);
+		sut.save();
+
+		sut = ScoreMemo.load(dir, "memo.json", "scorer-v1");
+		assertEquals(0.5, sut.getNullable(ScoreMemo.getDataId(createUsages()), opts(0.1)), 0.0001);
+		assertEquals(1, sut.size());
+	}
+
+	private static List<Usage> createUsages() {
+		List<Usage> usages = Lists.newArrayList();
+		for (int i = 1; i <= 2; i++) {
+			Query q = new Query();
+			q.setType(VmTypeName.get("La/T"));
+			q.setClassContext(VmTypeName.get("La/C" + i));
+			q.setMethodContext(VmMethodName.get("La/C" + i + ".m()V"));
+			q.setDefinition(DefinitionSites.createDefinitionByReturn("La/F.create()La/T;"));
+			q.addCallSite(CallSites.createReceiverCallSite("La/T.m" + i + "()V"));
+			q.addCallSite(CallSites.createParameterCallSite("La/U.n(La/T;)V", 0));
+			usages.add(q);
+		}
+		return usages;
+	}
+
+	@Test
+	public void memoCanBePersisted() throws IOException {
+		Directory dir = new Directory(tempFolder.getRoot().getAbsolutePath());
+		sut = ScoreMemo.load(dir, "memo.json", "scorer-v1");
+		sut.put("d", opts(0.1), 0.5);
+		sut.save();
+
+		sut = ScoreMemo.load(dir, "memo.json", "scorer-v1");
+		assertEquals(0.5, sut.getNullable("d", opts(0.1)), 0.0001);
+	}
+
+	@Test
+	public void persistedScoresOfOtherScorersAreIgnored() throws IOException {
+		Directory dir = new Directory(tempFolder.getRoot().getAbsolutePath());
+		sut = ScoreMemo.load(dir, "memo.json", "scorer-v1");
+		sut.put("d", opts(0.1), 0.5);
+		sut.save();
+
+		sut = ScoreMemo.load(dir, "memo.json", "scorer-v2");
+		assertNull(sut.getNullable("d", opts(0.1)));
+		sut.put("d", opts(0.1), 0.7);
+		sut.save();
+
+		sut = ScoreMemo.load(dir, "memo.json", "scorer-v1");
+		assertEquals(0.5, sut.getNullable("d", opts(0.1)), 0.0001);
+		assertEquals(2, sut.size());
+	}
+
+	@Test(expected = AssertionException.class)
+	public void persistedMemoRequiresScorerIdentity() throws IOException {
+		Directory dir = new Directory(tempFolder.getRoot().getAbsolutePath());
+		ScoreMemo.load(dir, "memo.json", "");
+	}
+
+	@Test
+	public void saveWithoutDirectoryIsIgnored() throws IOException {
+		sut.put("d", opts(0.1), 0.5);
+		sut.save();
+	}
+
+	private static EvaluationOptions opts(double weight) {
+		MiningOptions mOpts = new MiningOptions();
+		mOpts.setWeightClassContext(weight);
+		return new EvaluationOptions(mOpts, new QueryOptions());
+	}
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.optimization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cc.recommenders.exceptions.AssertionException;
+import cc.recommenders.io.Logger;
+import cc.recommenders.mining.calls.MiningOptions;
+import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.usages.Query;
+import cc.recommenders.usages.Usage;
+
+import com.google.common.collect.Lists;
+
+public class SuccessiveHalvingCalculatorTest {
+
+	private FakeCalculator calculator;
+	private SuccessiveHalvingCalculator sut;
+
+	@Before
+	public void setup() {
+		Logger.setCapturing(true);
+		calculator = new FakeCalculator();
+		sut = new SuccessiveHalvingCalculator(calculator, 2, 30);
+	}
+
+	@After
+	public void teardown() {
+		Logger.reset();
+	}
+
+	@Test(expected = AssertionException.class)
+	public void etaMustBeLargerThanOne() {
+		new SuccessiveHalvingCalculator(calculator, 1, 30);
+	}
+
+	@Test
+	public void singleEvaluationIsFull() {
+		assertEquals(0.3, sut.eval(opts(0.3), usages(100)), 0.0001);
+		assertEquals(Lists.newArrayList(100), calculator.fullSizes);
+		assertTrue(calculator.cheapSizes.isEmpty());
+	}
+
+	@Test
+	public void everythingIsFullyEvaluatedForSmallInputs() {
+		Map<EvaluationOptions, Double> actual = sut.evalAll(candidates(0.1, 0.2, 0.3), usages(40));
+
+		assertEquals(3, actual.size());
+		assertEquals(0.1, actual.get(opts(0.1)), 0.0001);
+		assertEquals(0.3, actual.get(opts(0.3)), 0.0001);
+		assertTrue(calculator.cheapSizes.isEmpty());
+		assertEquals(3, calculator.fullSizes.size());
+	}
+
+	@Test
+	public void candidatesAreHalvedOnGrowingSamples() {
+		List<EvaluationOptions> candidates = candidates(0.1, 0.8, 0.3, 0.4, 0.5, 0.2, 0.7, 0.6);
+
+		Map<EvaluationOptions, Double> actual = sut.evalAll(candidates, usages(240));
+
+		// 8 candidates on 30 usages, 4 on 60, 2 on 120
+		List<Integer> expectedCheap = Lists.newArrayList();
+		addTimes(expectedCheap, 8, 30);
+		addTimes(expectedCheap, 4, 60);
+		addTimes(expectedCheap, 2, 120);
+		assertEquals(expectedCheap, calculator.cheapSizes);
+		assertEquals(Lists.newArrayList(240), calculator.fullSizes);
+
+		assertEquals(8, actual.size());
+		assertEquals(0.8, actual.get(opts(0.8)), 0.0001);
+		assertEquals(Double.NEGATIVE_INFINITY, actual.get(opts(0.7)), 0.0001);
+		assertEquals(Double.NEGATIVE_INFINITY, actual.get(opts(0.1)), 0.0001);
+	}
+
+	@Test
+	public void calculatorIsCalibratedWithTheFullInput() {
+		sut.evalAll(candidates(0.1, 0.8, 0.3, 0.4), usages(240));
+		assertEquals(Lists.newArrayList(240), calculator.calibrationSizes);
+	}
+
+	@Test
+	public void nanIsPrunedFirst() {
+		calculator.nanWeight = 0.9;
+		Map<EvaluationOptions, Double> actual = sut.evalAll(candidates(0.9, 0.1), usages(60));
+		assertEquals(Double.NEGATIVE_INFINITY, actual.get(opts(0.9)), 0.0001);
+		assertEquals(0.1, actual.get(opts(0.1)), 0.0001);
+	}
+
+	@Test
+	public void cpuTimeIsTracked() {
+		calculator.busyFullEvaluations = true;
+		sut.evalAll(candidates(0.1, 0.8, 0.3, 0.4, 0.5, 0.2, 0.7, 0.6), usages(240));
+
+		assertTrue(sut.getCpuTimeInS() > 0);
+		assertTrue(sut.getExhaustiveCpuTimeInS() > sut.getCpuTimeInS());
+		assertEquals(sut.getExhaustiveCpuTimeInS() - sut.getCpuTimeInS(), sut.getSavedCpuTimeInS(), 0.000001);
+		assertTrue(Logger.getCapturedLog().get(1).contains("saved"));
+	}
+
+	private static void addTimes(List<Integer> list, int times, int value) {
+		for (int i = 0; i < times; i++) {
+			list.add(value);
+		}
+	}
+
+	private static List<Usage> usages(int num) {
+		List<Usage> usages = Lists.newArrayList();
+		for (int i = 0; i < num; i++) {
+			usages.add(new Query());
+		}
+		return usages;
+	}
+
+	private static List<EvaluationOptions> candidates(double... weights) {
+		List<EvaluationOptions> candidates = Lists.newArrayList();
+		for (double w : weights) {
+			candidates.add(opts(w));
+		}
+		return candidates;
+	}
+
+	private static EvaluationOptions opts(double weight) {
+		MiningOptions mOpts = new MiningOptions();
+		mOpts.setWeightClassContext(weight);
+		return new EvaluationOptions(mOpts, new QueryOptions());
+	}
+
+	private static class FakeCalculator implements FidelityScoreCalculator {
+
+		private List<Integer> calibrationSizes = Lists.newArrayList();
+		private List<Integer> fullSizes = Lists.newArrayList();
+		private List<Integer> cheapSizes = Lists.newArrayList();
+		private double nanWeight = -1;
+		private boolean busyFullEvaluations;
+
+		@Override
+		public double eval(EvaluationOptions options, List<Usage> usages) {
+			fullSizes.add(usages.size());
+			if (busyFullEvaluations) {
+				burnCpu();
+			}
+			return score(options);
+		}
+
+		@Override
+		public void calibrate(List<Usage> usages) {
+			calibrationSizes.add(usages.size());
+		}
+
+		@Override
+		public double evalSingleFold(EvaluationOptions options, List<Usage> usages) {
+			cheapSizes.add(usages.size());
+			return score(options);
+		}
+
+		private double score(EvaluationOptions options) {
+			double w = options.miningOptions.getWeightClassContext();
+			return w == nanWeight ? Double.NaN : w;
+		}
+
+		private static void burnCpu() {
+			long start = System.nanoTime();
+			double d = 0;
+			while (System.nanoTime() - start < 20000000) {
+				d += Math.sqrt(d + 1);
+			}
+			assertTrue(d > 0);
+		}
+	}
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.evaluation.optimization.raster;
+
+import static cc.recommenders.evaluation.optimization.OptimizationOptions.newBuilder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cc.recommenders.evaluation.optimization.BatchScoreCalculator;
+import cc.recommenders.evaluation.optimization.CandidateSelector;
+import cc.recommenders.evaluation.optimization.EvaluationOptions;
+import cc.recommenders.evaluation.optimization.OptimizationOptions;
+import cc.recommenders.evaluation.optimization.ScoreCalculator;
+import cc.recommenders.evaluation.optimization.ScoreMemo;
+import cc.recommenders.evaluation.optimization.Vector;
+import cc.recommenders.exceptions.AssertionException;
+import cc.recommenders.io.Logger;
+import cc.recommenders.mining.calls.MiningOptions;
+import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.usages.Query;
+import cc.recommenders.usages.Usage;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.inject.Provider;
+
+public class RasterSearchParallelismTest {
+
+	private List<Usage> usages;
+	private OptimizationOptions options;
+	private CountingCalculator calculator;
+	private AtomicInteger numCalculators;
+	private Provider<ScoreCalculator> calculatorProvider;
+
+	@Before
+	public void setup() {
+		Logger.setCapturing(true);
+		usages = Lists.<Usage> newArrayList(new Query());
+		options = newBuilder().maxIterations(20).build();
+		calculator = new CountingCalculator();
+		numCalculators = new AtomicInteger();
+		calculatorProvider = new Provider<ScoreCalculator>() {
+			@Override
+			public ScoreCalculator get() {
+				numCalculators.incrementAndGet();
+				return new CountingCalculator();
+			}
+		};
+	}
+
+	@After
+	public void teardown() {
+		Logger.reset();
+	}
+
+	private RasterSearch createSearch() {
+		return new RasterSearch(new NeighborSelector(), calculator);
+	}
+
+	@Test(expected = AssertionException.class)
+	public void numberOfThreadsMustBePositive() {
+		createSearch().setParallelism(0, calculatorProvider);
+	}
+
+	@Test
+	public void sequentialSearchFindsOptimum() {
+		EvaluationOptions actual = createSearch().findOptimalOptions(usages, options, startValues(0.0));
+		assertEquals(opts(0.75, 0.25), actual);
+	}
+
+	@Test
+	public void parallelSearchFindsSameOptimum() {
+		RasterSearch sut = createSearch();
+		sut.setParallelism(4, calculatorProvider);
+		EvaluationOptions actual = sut.findOptimalOptions(usages, options, startValues(0.0));
+
+		assertEquals(opts(0.75, 0.25), actual);
+		assertTrue(numCalculators.get() >= 1);
+		assertTrue(numCalculators.get() <= 4);
+		// only the start value is evaluated by the injected calculator
+		assertEquals(1, calculator.numEvaluations);
+	}
+
+	@Test
+	public void candidatesAreNotScoredTwiceForSeveralStartValues() {
+		ScoreMemo memo = new ScoreMemo();
+		RasterSearch sut = createSearch();
+		sut.setScoreMemo(memo);
+		sut.findOptimalOptions(usages, options, startValues(0.0, 1.0));
+
+		assertEquals(memo.size(), calculator.numEvaluations);
+	}
+
+	@Test
+	public void memoIsReusedAcrossSearches() {
+		ScoreMemo memo = new ScoreMemo();
+		RasterSearch sut = createSearch();
+		sut.setScoreMemo(memo);
+		sut.findOptimalOptions(usages, options, startValues(0.0));
+		int numEvaluations = calculator.numEvaluations;
+
+		EvaluationOptions actual = sut.findOptimalOptions(usages, options, startValues(0.0));
+
+		assertEquals(opts(0.75, 0.25), actual);
+		assertEquals(numEvaluations, calculator.numEvaluations);
+	}
+
+	@Test
+	public void batchCalculatorsGetAllCandidatesOfAnIteration() {
+		final List<Integer> batchSizes = Lists.newArrayList();
+		BatchScoreCalculator batch = new BatchScoreCalculator() {
+			@Override
+			public double eval(EvaluationOptions o, List<Usage> usages) {
+				return calculator.eval(o, usages);
+			}
+
+			@Override
+			public Map<EvaluationOptions, Double> evalAll(List<EvaluationOptions> candidates, List<Usage> usages) {
+				batchSizes.add(candidates.size());
+				Map<EvaluationOptions, Double> scores = Maps.newHashMap();
+				for (EvaluationOptions c : candidates) {
+					scores.put(c, c.equals(opts(0.25, 0.25)) ? calculator.eval(c, usages) : Double.NEGATIVE_INFINITY);
+				}
+				return scores;
+			}
+		};
+		RasterSearch sut = new RasterSearch(new NeighborSelector(), batch);
+
+		EvaluationOptions actual = sut.findOptimalOptions(usages, options, startValues(0.0));
+
+		assertEquals(opts(0.25, 0.25), actual);
+		// (0,0) is already known, the other three neighbors are new
+		assertEquals(3, (int) batchSizes.get(0));
+	}
+
+	@Test
+	public void prunedCandidatesCanBeScoredAgain() {
+		final List<List<EvaluationOptions>> batches = Lists.newArrayList();
+		BatchScoreCalculator batch = new BatchScoreCalculator() {
+			@Override
+			public double eval(EvaluationOptions o, List<Usage> usages) {
+				return calculator.eval(o, usages);
+			}
+
+			@Override
+			public Map<EvaluationOptions, Double> evalAll(List<EvaluationOptions> candidates, List<Usage> usages) {
+				boolean isFirstBatch = batches.isEmpty();
+				batches.add(Lists.newArrayList(candidates));
+				Map<EvaluationOptions, Double> scores = Maps.newHashMap();
+				for (EvaluationOptions c : candidates) {
+					boolean isPruned = isFirstBatch && c.equals(opts(0.25, 0.25));
+					scores.put(c, isPruned ? Double.NEGATIVE_INFINITY : calculator.eval(c, usages));
+				}
+				return scores;
+			}
+		};
+		RasterSearch sut = new RasterSearch(new NeighborSelector(), batch);
+
+		EvaluationOptions actual = sut.findOptimalOptions(usages, options, startValues(0.0));
+
+		assertEquals(opts(0.75, 0.25), actual);
+		assertTrue(batches.get(0).contains(opts(0.25, 0.25)));
+		assertTrue(batches.get(1).contains(opts(0.25, 0.25)));
+	}
+
+	private static Set<EvaluationOptions> startValues(double... weights) {
+		Set<EvaluationOptions> values = Sets.newHashSet();
+		for (double w : weights) {
+			values.add(opts(w, w));
+		}
+		return values;
+	}
+
+	private static EvaluationOptions opts(double wClass, double wMethod) {
+		MiningOptions mOpts = new MiningOptions();
+		mOpts.setWeightClassContext(wClass);
+		mOpts.setWeightMethodContext(wMethod);
+		return new EvaluationOptions(mOpts, new QueryOptions());
+	}
+
+	private static class CountingCalculator implements ScoreCalculator {
+		private int numEvaluations;
+
+		@Override
+		public synchronized double eval(EvaluationOptions o, List<Usage> usages) {
+			numEvaluations++;
+			double wClass = o.miningOptions.getWeightClassContext();
+			double wMethod = o.miningOptions.getWeightMethodContext();
+			return 2 - Math.abs(wClass - 0.75) - Math.abs(wMethod - 0.25);
+		}
+	}
+
+	private static class NeighborSelector implements CandidateSelector {
+
+		@Override
+		public Set<EvaluationOptions> selectNextCandidates(Vector stepSize, EvaluationOptions... opts) {
+			return selectNextCandidates(stepSize, Lists.newArrayList(opts));
+		}
+
+		@Override
+		public Set<EvaluationOptions> selectNextCandidates(Vector stepSize, Collection<EvaluationOptions> opts) {
+			Set<EvaluationOptions> candidates = Sets.newLinkedHashSet();
+			for (EvaluationOptions o : opts) {
+				double wClass = o.miningOptions.getWeightClassContext();
+				double wMethod = o.miningOptions.getWeightMethodContext();
+				for (double dc : new double[] { -0.25, 0, 0.25 }) {
+					for (double dm : new double[] { -0.25, 0, 0.25 }) {
+						double c = wClass + dc;
+						double m = wMethod + dm;
+						if (c >= 0 && c <= 1 && m >= 0 && m <= 1) {
+							candidates.add(opts(c, m));
+						}
+					}
+				}
+			}
+			return candidates;
+		}
+	}
+}
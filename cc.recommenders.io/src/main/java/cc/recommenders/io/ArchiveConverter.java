@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Rewrites existing archives into another {@link ArchiveFormat}. The entries
+ * are copied as plain text, so no deserialization is involved. Files keep
+ * their names, because {@link ReadingArchive} detects the format on its own.
+ */
+public class ArchiveConverter {
+
+	private final ArchiveFormat targetFormat;
+
+	public ArchiveConverter(ArchiveFormat targetFormat) {
+		this.targetFormat = targetFormat;
+	}
+
+	public void convert(File source, File target) throws IOException {
+		ReadingArchive ra = new ReadingArchive(source);
+		try {
+			WritingArchive wa = new WritingArchive(target, targetFormat);
+			try {
+				int count = 0;
+				while (ra.hasNext()) {
+					wa.addPlain(ra.getNextPlain(), count++ + ".json");
+				}
+			} finally {
+				wa.close();
+			}
+		} finally {
+			ra.close();
+		}
+	}
+
+	public boolean convertInPlace(File file) throws IOException {
+		if (ArchiveFormat.detect(file) == targetFormat) {
+			return false;
+		}
+		File tmp = new File(file.getAbsolutePath() + ".converting");
+		try {
+			convert(file, tmp);
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			if (tmp.exists()) {
+				tmp.delete();
+			}
+		}
+		return true;
+	}
+
+	public int convertAll(Directory dir) throws IOException {
+		String root = dir.getUrl().getPath();
+		int numConverted = 0;
+		for (String zip : dir.findFiles(f -> f.endsWith(".zip"))) {
+			Logger.log("converting %s", zip);
+			if (convertInPlace(new File(root, zip))) {
+				numConverted++;
+			}
+		}
+		return numConverted;
+	}
+}
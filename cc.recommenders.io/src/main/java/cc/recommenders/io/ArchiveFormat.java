@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.io;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * ZIP stores every entry as a separate deflate stream with its own local
+ * header and central directory record. CHUNKED packs many entries into a
+ * single compressed block and keeps an index of block offsets at the end of
+ * the file (see {@link ChunkedArchiveWriter}).
+ */
+public enum ArchiveFormat {
+	ZIP, CHUNKED;
+
+	public static ArchiveFormat detect(File file) throws IOException {
+		if (file.length() < ChunkedArchiveWriter.HEADER_SIZE) {
+			return ZIP;
+		}
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			boolean isChunked = in.readInt() == ChunkedArchiveWriter.MAGIC;
+			return isChunked ? CHUNKED : ZIP;
+		}
+	}
+}
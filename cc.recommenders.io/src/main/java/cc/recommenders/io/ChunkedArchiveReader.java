@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.io;
+
+import static cc.recommenders.io.ChunkedArchiveWriter.MAGIC;
+import static cc.recommenders.io.ChunkedArchiveWriter.TRAILER_SIZE;
+import static cc.recommenders.io.ChunkedArchiveWriter.VERSION;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.NoSuchElementException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+class ChunkedArchiveReader implements Closeable {
+
+	private final RandomAccessFile file;
+	private final long[] blockOffsets;
+	private final int[] blockRecords;
+	private final int numberOfEntries;
+
+	private final Inflater inflater = new Inflater();
+	private int nextBlock = 0;
+	private DataInputStream currentBlock;
+	private int remainingInBlock = 0;
+
+	public ChunkedArchiveReader(File f) throws IOException {
+		file = new RandomAccessFile(f, "r");
+		boolean isValid = false;
+		try {
+			assertFormat(file.readInt() == MAGIC, "missing header");
+			assertFormat(file.readInt() == VERSION, "unsupported version");
+
+			file.seek(file.length() - TRAILER_SIZE);
+			int numBlocks = file.readInt();
+			long indexOffset = file.readLong();
+			assertFormat(file.readInt() == MAGIC, "missing trailer");
+
+			blockOffsets = new long[numBlocks];
+			blockRecords = new int[numBlocks];
+			int sum = 0;
+			file.seek(indexOffset);
+			for (int i = 0; i < numBlocks; i++) {
+				blockOffsets[i] = file.readLong();
+				blockRecords[i] = file.readInt();
+				sum += blockRecords[i];
+			}
+			numberOfEntries = sum;
+			isValid = true;
+		} finally {
+			if (!isValid) {
+				file.close();
+			}
+		}
+	}
+
+	private static void assertFormat(boolean condition, String msg) throws IOException {
+		if (!condition) {
+			throw new IOException("invalid chunked archive: " + msg);
+		}
+	}
+
+	public boolean hasNext() {
+		return remainingInBlock > 0 || nextBlock < blockOffsets.length;
+	}
+
+	public byte[] next() throws IOException {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		if (remainingInBlock == 0) {
+			readBlock(nextBlock++);
+		}
+		byte[] record = new byte[currentBlock.readInt()];
+		currentBlock.readFully(record);
+		remainingInBlock--;
+		return record;
+	}
+
+	private void readBlock(int idx) throws IOException {
+		file.seek(blockOffsets[idx]);
+		int numRecords = file.readInt();
+		int rawLength = file.readInt();
+		int compressedLength = file.readInt();
+		assertFormat(numRecords >= 0 && rawLength >= 0 && compressedLength >= 0, "corrupt block " + idx);
+		byte[] compressed = new byte[compressedLength];
+		file.readFully(compressed);
+
+		byte[] raw = new byte[rawLength];
+		inflater.reset();
+		inflater.setInput(compressed);
+		try {
+			int len = 0;
+			while (len < rawLength && !inflater.finished()) {
+				int numInflated = inflater.inflate(raw, len, rawLength - len);
+				// no progress possible, the compressed data is incomplete
+				assertFormat(numInflated > 0 || !(inflater.needsInput() || inflater.needsDictionary()),
+						"truncated block " + idx);
+				len += numInflated;
+			}
+			assertFormat(len == rawLength, "block " + idx + " has " + len + " instead of " + rawLength + " bytes");
+		} catch (DataFormatException e) {
+			throw new IOException(e);
+		}
+
+		currentBlock = new DataInputStream(new ByteArrayInputStream(raw));
+		remainingInBlock = numRecords;
+	}
+
+	public int numberOfEntries() {
+		return numberOfEntries;
+	}
+
+	@Override
+	public void close() throws IOException {
+		inflater.end();
+		file.close();
+	}
+}
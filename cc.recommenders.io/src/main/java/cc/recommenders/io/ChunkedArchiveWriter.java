@@ -0,0 +1,134 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Layout of a chunked archive (all numbers big endian):
+ *
+ * <pre>
+ * header:  int magic, int version
+ * block*:  int numRecords, int rawLength, int compressedLength, byte[compressedLength]
+ * index:   (long blockOffset, int numRecords)*
+ * trailer: int numBlocks, long indexOffset, int magic
+ * </pre>
+ *
+ * The raw content of a block is a sequence of records, each stored as an int
+ * length followed by the record bytes.
+ */
+class ChunkedArchiveWriter implements Closeable {
+
+	public static final int MAGIC = 0x43435241; // "CCRA"
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 8;
+	public static final int TRAILER_SIZE = 16;
+	public static final int DEFAULT_BLOCK_SIZE = 256 * 1024;
+
+	private final int blockSize;
+	private final DataOutputStream out;
+	private long position = 0;
+
+	private final ByteArrayOutputStream rawBlock = new ByteArrayOutputStream();
+	private final DataOutputStream rawOut = new DataOutputStream(rawBlock);
+	private int numRecordsInBlock = 0;
+
+	private final Deflater deflater = new Deflater();
+	private final byte[] deflateBuffer = new byte[64 * 1024];
+	private final ByteArrayOutputStream compressedBlock = new ByteArrayOutputStream();
+
+	private final List<Long> blockOffsets = Lists.newArrayList();
+	private final List<Integer> blockRecords = Lists.newArrayList();
+
+	public ChunkedArchiveWriter(File file) throws FileNotFoundException, IOException {
+		this(file, DEFAULT_BLOCK_SIZE);
+	}
+
+	public ChunkedArchiveWriter(File file, int blockSize) throws FileNotFoundException, IOException {
+		this.blockSize = blockSize;
+		out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		position += HEADER_SIZE;
+	}
+
+	public void add(byte[] record) throws IOException {
+		rawOut.writeInt(record.length);
+		rawOut.write(record);
+		numRecordsInBlock++;
+		if (rawBlock.size() >= blockSize) {
+			flushBlock();
+		}
+	}
+
+	private void flushBlock() throws IOException {
+		if (numRecordsInBlock == 0) {
+			return;
+		}
+		byte[] raw = rawBlock.toByteArray();
+		byte[] compressed = compress(raw);
+
+		blockOffsets.add(position);
+		blockRecords.add(numRecordsInBlock);
+
+		out.writeInt(numRecordsInBlock);
+		out.writeInt(raw.length);
+		out.writeInt(compressed.length);
+		out.write(compressed);
+		position += 12 + compressed.length;
+
+		rawBlock.reset();
+		numRecordsInBlock = 0;
+	}
+
+	private byte[] compress(byte[] raw) {
+		deflater.reset();
+		deflater.setInput(raw);
+		deflater.finish();
+		compressedBlock.reset();
+		while (!deflater.finished()) {
+			int len = deflater.deflate(deflateBuffer);
+			compressedBlock.write(deflateBuffer, 0, len);
+		}
+		return compressedBlock.toByteArray();
+	}
+
+	@Override
+	public void close() throws IOException {
+		flushBlock();
+		long indexOffset = position;
+		for (int i = 0; i < blockOffsets.size(); i++) {
+			out.writeLong(blockOffsets.get(i));
+			out.writeInt(blockRecords.get(i));
+		}
+		out.writeInt(blockOffsets.size());
+		out.writeLong(indexOffset);
+		out.writeInt(MAGIC);
+		out.close();
+		deflater.end();
+	}
+}
@@ -120,13 +120,17 @@ public class Directory {
 	}
 
 	public WritingArchive getWritingArchive(String relativePath) throws IOException {
+		return getWritingArchive(relativePath, ArchiveFormat.ZIP);
+	}
+
+	public WritingArchive getWritingArchive(String relativePath, ArchiveFormat format) throws IOException {
 		File file = new File(rootDir + "/" + relativePath);
 		File parent = file.getParentFile();
 		if (parent != null && !parent.exists()) {
 			parent.mkdirs();
 		}
 		file.createNewFile();
-		WritingArchive archive = new WritingArchive(file);
+		WritingArchive archive = new WritingArchive(file, format);
 
 		return archive;
 	}
@@ -142,8 +146,9 @@ public class Directory {
 		File tmp = new File(rootDir + "/" + tmpFileName);
 		old.renameTo(tmp);
 
+		ArchiveFormat format = ArchiveFormat.detect(tmp);
 		ReadingArchive oldArchive = getReadingArchive(tmpFileName);
-		WritingArchive newArchive = getWritingArchive(fileName);
+		WritingArchive newArchive = getWritingArchive(fileName, format);
 
 		while (oldArchive.hasNext()) {
 			Object o = oldArchive.getNext(classOfT);
@@ -11,60 +11,226 @@
 package cc.recommenders.io;
 
 import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.util.ArrayDeque;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
 
+/**
+ * Static logger of all modules. Printed messages are handed to a bounded
+ * queue and written by a background thread, so logging never blocks the
+ * calling thread; if the queue is full, log, debug and error messages are
+ * dropped and the number of dropped messages is reported later. Output of
+ * {@link #append(String, Object...)} is never dropped (it is used for result
+ * tables), appending blocks until the queue has space instead. Messages are only formatted if they are
+ * printed or captured, and if all arguments are immutable (strings, boxed
+ * primitives, enums, ...), formatting is deferred to the writer thread as
+ * well. Stack traces have to be logged through
+ * {@link #err(Throwable, String, Object...)}, printing them directly would
+ * interleave them with the queued messages.
+ *
+ * Captured messages are stored synchronously, so they are available
+ * immediately.
+ * Use {@link #flush()} to wait until all printed messages are written.
+ */
 public class Logger {
 
-	private static PrintStream out = System.out;
-	private static boolean isCapturing = false;
-	private static boolean isPrinting = false;
-	private static boolean isDebugging = false;
+	public enum Level {
+		DEBUG, INFO, ERROR
+	}
+
+	static final int QUEUE_CAPACITY = 16384;
+	private static final long FLUSH_TIMEOUT_IN_MS = 10000;
+
+	private static volatile boolean isCapturing = false;
+	private static volatile boolean isPrinting = false;
+	private static volatile Level level = Level.INFO;
+
+	private static final ArrayDeque<String> log = new ArrayDeque<String>();
 
-	private static List<String> log = Lists.newLinkedList();
+	private static final BlockingQueue<Event> queue = new ArrayBlockingQueue<Event>(QUEUE_CAPACITY);
+	private static final AtomicLong numEnqueued = new AtomicLong();
+	private static final AtomicLong numDropped = new AtomicLong();
+	private static final Object writtenLock = new Object();
+	private static long numWritten = 0;
+	private static Thread writer;
 
-	// TODO add info(String msg) method
+	private static final ThreadLocal<DateFormat> dateFormat = new ThreadLocal<DateFormat>() {
+		@Override
+		protected DateFormat initialValue() {
+			return new SimpleDateFormat("MMM d, HH:mm:ss.SSS");
+		}
+	};
 
 	public static void log(String rawmsg, Object... args) {
-		out = System.out;
-		reallyLog("\n" + getTimeStamp() + "    " + rawmsg, args);
+		if (isEnabled(Level.INFO)) {
+			reallyLog(false, "    ", rawmsg, args);
+		}
 	}
 
 	public static void err(String rawmsg, Object... args) {
-		out = System.err;
-		reallyLog("\n" + getTimeStamp() + " EE " + rawmsg, args);
+		if (isEnabled(Level.ERROR)) {
+			reallyLog(true, " EE ", rawmsg, args);
+		}
+	}
+
+	/**
+	 * logs the message followed by the stack trace of the throwable
+	 */
+	public static void err(Throwable t, String rawmsg, Object... args) {
+		if (isEnabled(Level.ERROR)) {
+			reallyLog(true, " EE ", rawmsg, args, t);
+		}
 	}
 
 	public static void debug(String rawmsg, Object... args) {
-		out = System.out;
-		if (isDebugging) {
-			reallyLog("\n" + getTimeStamp() + " ~~ " + rawmsg, args);
+		if (isEnabled(Level.DEBUG)) {
+			reallyLog(false, " ~~ ", rawmsg, args);
 		}
 	}
 
 	public static void append(String rawmsg, Object... args) {
-		reallyLog(rawmsg, args);
+		if (isCapturing || isPrinting) {
+			reallyLog(false, null, rawmsg, args);
+		}
+	}
+
+	private static boolean isEnabled(Level msgLevel) {
+		return (isCapturing || isPrinting) && msgLevel.compareTo(level) >= 0;
 	}
 
-	private static void reallyLog(String rawmsg, Object[] args) {
-		String msg = String.format(rawmsg, args);
+	private static void reallyLog(boolean isError, String prefix, String rawmsg, Object[] args) {
+		reallyLog(isError, prefix, rawmsg, args, null);
+	}
+
+	private static void reallyLog(boolean isError, String prefix, String rawmsg, Object[] args, Throwable t) {
+		Event e = new Event(isError, prefix, System.currentTimeMillis(), rawmsg, args, t);
+		// throwables are mutable (causes, suppressed exceptions)
+		if (isCapturing || t != null || !isImmutable(args)) {
+			e.format();
+		}
 		if (isCapturing) {
-			log.add(msg);
+			synchronized (log) {
+				log.addLast(e.message);
+			}
 		}
 		if (isPrinting) {
-			out.print(msg);
+			enqueue(e);
 		}
 	}
 
-	private static String getTimeStamp() {
-		Calendar cal = Calendar.getInstance();
-		DateFormat fmt = new SimpleDateFormat("MMM d, HH:mm:ss.SSS");
-		String timestamp = fmt.format(cal.getTime());
-		return timestamp;
+	private static boolean isImmutable(Object[] args) {
+		for (Object arg : args) {
+			if (arg == null || arg instanceof Enum<?>) {
+				continue;
+			}
+			// exact classes, subclasses of Number can be mutable (e.g., AtomicLong)
+			Class<?> c = arg.getClass();
+			boolean isImmutable = c == String.class || c == Integer.class || c == Long.class || c == Double.class
+					|| c == Float.class || c == Short.class || c == Byte.class || c == Boolean.class
+					|| c == Character.class;
+			if (!isImmutable) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void enqueue(Event e) {
+		ensureWriterIsRunning();
+		boolean isAppended = e.prefix == null;
+		if (isAppended) {
+			Uninterruptibles.putUninterruptibly(queue, e);
+			numEnqueued.incrementAndGet();
+		} else if (queue.offer(e)) {
+			numEnqueued.incrementAndGet();
+		} else {
+			numDropped.incrementAndGet();
+		}
+	}
+
+	private static synchronized void ensureWriterIsRunning() {
+		if (writer != null) {
+			return;
+		}
+		writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				while (true) {
+					try {
+						write(queue.take());
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+			}
+		}, "logger");
+		writer.setDaemon(true);
+		writer.start();
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			@Override
+			public void run() {
+				flush();
+			}
+		});
+	}
+
+	private static void write(Event e) {
+		try {
+			long dropped = numDropped.getAndSet(0);
+			if (dropped > 0) {
+				System.err.print(String.format("\n%s EE %d log messages dropped (queue full)", getTimeStamp(e.time),
+						dropped));
+			}
+			if (e.message == null) {
+				e.format();
+			}
+			PrintStream out = e.isError ? System.err : System.out;
+			out.print(e.message);
+		} catch (RuntimeException ex) {
+			System.err.print(String.format("\nlogging failed for '%s': %s", e.rawmsg, ex));
+		} finally {
+			synchronized (writtenLock) {
+				numWritten++;
+				writtenLock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * blocks until all messages that have been logged before are written (or a
+	 * timeout is reached)
+	 */
+	public static void flush() {
+		long target = numEnqueued.get();
+		long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_IN_MS;
+		synchronized (writtenLock) {
+			while (numWritten < target) {
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					return;
+				}
+				try {
+					writtenLock.wait(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	private static String getTimeStamp(long time) {
+		return dateFormat.get().format(new Date(time));
 	}
 
 	public static void setCapturing(boolean isCapturing) {
@@ -76,14 +242,17 @@ public class Logger {
 	}
 
 	public static List<String> getCapturedLog() {
-		return Lists.newLinkedList(log);
+		synchronized (log) {
+			return Lists.newLinkedList(log);
+		}
 	}
 
 	public static void reset() {
-		log = Lists.newLinkedList();
+		flush();
+		clearLog();
 		isCapturing = false;
 		isPrinting = false;
-		isDebugging = false;
+		level = Level.INFO;
 	}
 
 	public static void setPrinting(boolean isPrinting) {
@@ -95,14 +264,58 @@ public class Logger {
 	}
 
 	public static void setDebugging(boolean debugging) {
-		isDebugging = debugging;
+		level = debugging ? Level.DEBUG : Level.INFO;
 	}
 
 	public static boolean isDebugging() {
-		return isDebugging;
+		return level == Level.DEBUG;
+	}
+
+	public static void setLevel(Level level) {
+		Logger.level = level;
+	}
+
+	public static Level getLevel() {
+		return level;
 	}
 
 	public static void clearLog() {
-		log = Lists.newLinkedList();
+		synchronized (log) {
+			log.clear();
+		}
+	}
+
+	private static class Event {
+		private final boolean isError;
+		private final String prefix;
+		private final long time;
+		private final String rawmsg;
+		private final Object[] args;
+		private final Throwable throwable;
+		private String message;
+
+		public Event(boolean isError, String prefix, long time, String rawmsg, Object[] args, Throwable throwable) {
+			this.isError = isError;
+			this.prefix = prefix;
+			this.time = time;
+			this.rawmsg = rawmsg;
+			this.args = args;
+			this.throwable = throwable;
+		}
+
+		public void format() {
+			String msg = String.format(rawmsg, args);
+			if (throwable != null) {
+				msg += "\n" + getStackTrace(throwable);
+			}
+			message = prefix == null ? msg : "\n" + getTimeStamp(time) + prefix + msg;
+		}
+
+		private static String getStackTrace(Throwable t) {
+			StringWriter sw = new StringWriter();
+			t.printStackTrace(new PrintWriter(sw));
+			// the next message starts with a line break
+			return sw.toString().trim();
+		}
 	}
-}
\ No newline at end of file
+}
@@ -82,6 +82,20 @@ public class NestedZipFolders<T> {
 		return typeDir;
 	}
 
+	/**
+	 * creates the zip folder of the key, if it does not exist yet, and opens a
+	 * new archive in it
+	 */
+	public WritingArchive createWritingArchive(T key, String zipName) throws IOException {
+		String markerName = getMarkerName(key);
+		String folder = markerName.substring(0, markerName.lastIndexOf('/') + 1);
+		WritingArchive wa = root.getWritingArchive(folder + zipName);
+		if (isUnknown(key)) {
+			root.write(key, markerName);
+		}
+		return wa;
+	}
+
 	private String getMarkerName(T key) {
 		String file = GsonUtil.serialize(key);
 		file = file.replaceAll("\\\"", "\""); // quotes inside json
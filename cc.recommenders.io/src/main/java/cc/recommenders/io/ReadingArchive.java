@@ -10,6 +10,7 @@
  ******************************************************************************/
 package cc.recommenders.io;
 
+import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
@@ -31,19 +32,35 @@ public class ReadingArchive implements Closeable {
 	private ZipFile zipFile;
 	private Enumeration<? extends ZipEntry> entries;
 
+	private ChunkedArchiveReader chunks;
+
 	public ReadingArchive(File file) throws ZipException, IOException {
-		zipFile = new ZipFile(file);
-		entries = zipFile.entries();
+		if (ArchiveFormat.detect(file) == ArchiveFormat.CHUNKED) {
+			chunks = new ChunkedArchiveReader(file);
+		} else {
+			zipFile = new ZipFile(file);
+			entries = zipFile.entries();
+		}
 	}
 
 	public boolean hasNext() throws IOException {
+		if (chunks != null) {
+			return chunks.hasNext();
+		}
 		return entries.hasMoreElements();
 	}
 
+	private InputStream openNext() throws IOException {
+		if (chunks != null) {
+			return new ByteArrayInputStream(chunks.next());
+		}
+		ZipEntry next = entries.nextElement();
+		return zipFile.getInputStream(next);
+	}
+
 	public <T> T getNext(Type classOfT) throws IOException {
 
-		ZipEntry next = entries.nextElement();
-		InputStream in = zipFile.getInputStream(next);
+		InputStream in = openNext();
 		T obj = GsonUtil.deserialize(in, classOfT);
 		in.close();
 
@@ -52,8 +69,7 @@ public class ReadingArchive implements Closeable {
 
 	public String getNextPlain() throws IOException {
 
-		ZipEntry next = entries.nextElement();
-		InputStream in = zipFile.getInputStream(next);
+		InputStream in = openNext();
 		StringWriter writer = new StringWriter();
 		IOUtils.copy(in, writer, Charset.defaultCharset());
 		String str = writer.toString();
@@ -63,11 +79,18 @@ public class ReadingArchive implements Closeable {
 	}
 
 	public int numberOfEntries() {
+		if (chunks != null) {
+			return chunks.numberOfEntries();
+		}
 		return zipFile.size();
 	}
 
 	@Override
 	public void close() throws IOException {
-		zipFile.close();
+		if (chunks != null) {
+			chunks.close();
+		} else {
+			zipFile.close();
+		}
 	}
 }
\ No newline at end of file
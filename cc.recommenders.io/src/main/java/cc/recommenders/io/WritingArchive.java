@@ -24,11 +24,20 @@ public class WritingArchive implements Closeable {
 
 	private int count = 0;
 	private ZipOutputStream out;
+	private ChunkedArchiveWriter chunks;
 
 	public WritingArchive(File file) throws FileNotFoundException {
 		out = new ZipOutputStream(new FileOutputStream(file));
 	}
 
+	public WritingArchive(File file, ArchiveFormat format) throws FileNotFoundException, IOException {
+		if (format == ArchiveFormat.CHUNKED) {
+			chunks = new ChunkedArchiveWriter(file);
+		} else {
+			out = new ZipOutputStream(new FileOutputStream(file));
+		}
+	}
+
 	public <T> void add(T obj) throws IOException {
 		String filename = count + ".json";
 		add(obj, filename);
@@ -36,9 +45,7 @@ public class WritingArchive implements Closeable {
 	}
 
 	public <T> void add(T obj, String filename) throws IOException {
-		out.putNextEntry(new ZipEntry(filename));
-		out.write(GsonUtil.serialize(obj).getBytes());
-		out.closeEntry();
+		write(GsonUtil.serialize(obj).getBytes(), filename);
 	}
 
 	public <T> void addPlain(String str) throws IOException {
@@ -48,13 +55,26 @@ public class WritingArchive implements Closeable {
 	}
 
 	public <T> void addPlain(String str, String filename) throws IOException {
-		out.putNextEntry(new ZipEntry(filename));
-		out.write(str.getBytes());
-		out.closeEntry();
+		write(str.getBytes(), filename);
+	}
+
+	// chunked archives do not store file names
+	private void write(byte[] content, String filename) throws IOException {
+		if (chunks != null) {
+			chunks.add(content);
+		} else {
+			out.putNextEntry(new ZipEntry(filename));
+			out.write(content);
+			out.closeEntry();
+		}
 	}
 
 	@Override
 	public void close() throws IOException {
-		out.close();
+		if (chunks != null) {
+			chunks.close();
+		} else {
+			out.close();
+		}
 	}
 }
\ No newline at end of file
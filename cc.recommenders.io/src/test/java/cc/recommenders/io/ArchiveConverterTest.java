@@ -0,0 +1,138 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Lists;
+
+public class ArchiveConverterTest {
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private Directory dir;
+	private ArchiveConverter sut;
+
+	@Before
+	public void setup() {
+		dir = new Directory(tempFolder.getRoot().getAbsolutePath());
+		sut = new ArchiveConverter(ArchiveFormat.CHUNKED);
+	}
+
+	@Test
+	public void convertingKeepsContent() throws IOException {
+		write("a.zip", "x", "y", "z");
+
+		sut.convert(file("a.zip"), file("b.zip"));
+
+		assertEquals(ArchiveFormat.CHUNKED, ArchiveFormat.detect(file("b.zip")));
+		assertEquals(Lists.newArrayList("x", "y", "z"), read("b.zip"));
+	}
+
+	@Test
+	public void convertingInPlace() throws IOException {
+		write("a.zip", "x", "y");
+
+		assertTrue(sut.convertInPlace(file("a.zip")));
+
+		assertEquals(ArchiveFormat.CHUNKED, ArchiveFormat.detect(file("a.zip")));
+		assertEquals(Lists.newArrayList("x", "y"), read("a.zip"));
+		assertEquals(1, dir.list().size());
+	}
+
+	@Test
+	public void failedConversionKeepsOriginal() throws IOException {
+		dir.writeContent("no archive", "a.zip");
+
+		try {
+			sut.convertInPlace(file("a.zip"));
+			fail();
+		} catch (IOException e) {
+			// expected
+		}
+
+		assertEquals("no archive", dir.readContent("a.zip"));
+		assertEquals(1, dir.list().size());
+	}
+
+	@Test
+	public void convertedArchivesAreSkipped() throws IOException {
+		write("a.zip", "x");
+		sut.convertInPlace(file("a.zip"));
+		assertFalse(sut.convertInPlace(file("a.zip")));
+	}
+
+	@Test
+	public void convertingBackToZip() throws IOException {
+		write("a.zip", "x", "y");
+		sut.convertInPlace(file("a.zip"));
+
+		new ArchiveConverter(ArchiveFormat.ZIP).convertInPlace(file("a.zip"));
+
+		assertEquals(ArchiveFormat.ZIP, ArchiveFormat.detect(file("a.zip")));
+		assertEquals(Lists.newArrayList("x", "y"), read("a.zip"));
+	}
+
+	@Test
+	public void convertingNestedFolders() throws IOException {
+		write("a.zip", "x");
+		write("b/c.zip", "y");
+		write("b/d/e.zip", "z");
+		dir.writeContent("...", "b/f.txt");
+
+		int actual = sut.convertAll(dir);
+
+		assertEquals(3, actual);
+		assertEquals(ArchiveFormat.CHUNKED, ArchiveFormat.detect(file("b/d/e.zip")));
+		assertEquals(Lists.newArrayList("z"), read("b/d/e.zip"));
+		assertEquals("...", dir.readContent("b/f.txt"));
+	}
+
+	private void write(String fileName, String... data) throws IOException {
+		WritingArchive wa = dir.getWritingArchive(fileName);
+		for (String s : data) {
+			wa.add(s);
+		}
+		wa.close();
+	}
+
+	private List<String> read(String fileName) throws IOException {
+		List<String> actual = Lists.newArrayList();
+		ReadingArchive ra = dir.getReadingArchive(fileName);
+		while (ra.hasNext()) {
+			actual.add(ra.getNext(String.class));
+		}
+		ra.close();
+		return actual;
+	}
+
+	private File file(String fileName) {
+		return new File(tempFolder.getRoot(), fileName);
+	}
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2014 Technische Universität Darmstadt
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cc.recommenders.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.Lists;
+
+public class ChunkedArchiveTest {
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private Directory dir;
+
+	@Before
+	public void setup() {
+		dir = new Directory(tempFolder.getRoot().getAbsolutePath());
+	}
+
+	@Test
+	public void formatIsDetected() throws IOException {
+		dir.getWritingArchive("a.zip", ArchiveFormat.ZIP).close();
+		dir.getWritingArchive("b.zip", ArchiveFormat.CHUNKED).close();
+
+		assertEquals(ArchiveFormat.ZIP, ArchiveFormat.detect(file("a.zip")));
+		assertEquals(ArchiveFormat.CHUNKED, ArchiveFormat.detect(file("b.zip")));
+	}
+
+	@Test
+	public void emptyArchive() throws IOException {
+		dir.getWritingArchive("a.zip", ArchiveFormat.CHUNKED).close();
+
+		ReadingArchive ra = dir.getReadingArchive("a.zip");
+		assertFalse(ra.hasNext());
+		assertEquals(0, ra.numberOfEntries());
+		ra.close();
+	}
+
+	@Test
+	public void objectRoundtrip() throws IOException {
+		List<String> expected = Lists.newArrayList("a", "b", "c");
+		write("a.zip", expected);
+
+		assertEquals(expected, read("a.zip"));
+	}
+
+	@Test
+	public void plainRoundtrip() throws IOException {
+		WritingArchive wa = dir.getWritingArchive("a.zip", ArchiveFormat.CHUNKED);
+		wa.addPlain("xyz", "x.txt");
+		wa.addPlain("fir<st st>ring");
+		wa.close();
+
+		ReadingArchive ra = dir.getReadingArchive("a.zip");
+		assertEquals(2, ra.numberOfEntries());
+		assertEquals("xyz", ra.getNextPlain());
+		assertEquals("fir<st st>ring", ra.getNextPlain());
+		assertFalse(ra.hasNext());
+		ra.close();
+	}
+
+	@Test
+	public void manyBlocks() throws IOException {
+		File f = file("a.zip");
+		ChunkedArchiveWriter writer = new ChunkedArchiveWriter(f, 64);
+		for (int i = 0; i < 1000; i++) {
+			writer.add(("record" + i).getBytes());
+		}
+		writer.close();
+
+		ChunkedArchiveReader reader = new ChunkedArchiveReader(f);
+		assertEquals(1000, reader.numberOfEntries());
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(reader.hasNext());
+			assertEquals("record" + i, new String(reader.next()));
+		}
+		assertFalse(reader.hasNext());
+		reader.close();
+	}
+
+	@Test
+	public void isSmallerThanZip() throws IOException {
+		List<String> data = Lists.newArrayList();
+		for (int i = 0; i < 1000; i++) {
+			data.add("some repeated content " + i);
+		}
+
+		WritingArchive zip = dir.getWritingArchive("a.zip", ArchiveFormat.ZIP);
+		WritingArchive chunked = dir.getWritingArchive("b.zip", ArchiveFormat.CHUNKED);
+		for (String s : data) {
+			zip.add(s);
+			chunked.add(s);
+		}
+		zip.close();
+		chunked.close();
+
+		assertTrue(file("b.zip").length() * 10 < file("a.zip").length());
+	}
+
+	@Test
+	public void reopeningKeepsFormat() throws IOException {
+		write("a.zip", Lists.newArrayList("a"));
+
+		WritingArchive wa = dir.reopenWritingArchive("a.zip", String.class);
+		wa.add("b");
+		wa.close();
+
+		assertEquals(ArchiveFormat.CHUNKED, ArchiveFormat.detect(file("a.zip")));
+		assertEquals(Lists.newArrayList("a", "b"), read("a.zip"));
+	}
+
+	@Test(expected = IOException.class)
+	public void truncatedArchivesAreDetected() throws IOException {
+		write("a.zip", Lists.newArrayList("a", "b"));
+		File f = file("a.zip");
+		RandomAccessFile raf = new RandomAccessFile(f, "rw");
+		raf.setLength(f.length() - 4);
+		raf.close();
+
+		new ChunkedArchiveReader(f);
+	}
+
+	@Test(expected = IOException.class, timeout = 5000)
+	public void truncatedBlocksAreDetected() throws IOException {
+		write("a.zip", Lists.newArrayList("a", "b"));
+		// the compressed length of the first block
+		long offset = ChunkedArchiveWriter.HEADER_SIZE + 8;
+		corrupt(offset, readInt(offset) / 2);
+
+		readFirst();
+	}
+
+	@Test(expected = IOException.class, timeout = 5000)
+	public void blocksWithWrongLengthAreDetected() throws IOException {
+		write("a.zip", Lists.newArrayList("a", "b"));
+		// the raw length of the first block
+		long offset = ChunkedArchiveWriter.HEADER_SIZE + 4;
+		corrupt(offset, readInt(offset) + 10);
+
+		readFirst();
+	}
+
+	private void readFirst() throws IOException {
+		ChunkedArchiveReader sut = new ChunkedArchiveReader(file("a.zip"));
+		try {
+			sut.next();
+		} finally {
+			sut.close();
+		}
+	}
+
+	private int readInt(long offset) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file("a.zip"), "r");
+		try {
+			raf.seek(offset);
+			return raf.readInt();
+		} finally {
+			raf.close();
+		}
+	}
+
+	private void corrupt(long offset, int value) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file("a.zip"), "rw");
+		try {
+			raf.seek(offset);
+			raf.writeInt(value);
+		} finally {
+			raf.close();
+		}
+	}
+
+	private void write(String fileName, List<String> data) throws IOException {
+		WritingArchive wa = dir.getWritingArchive(fileName, ArchiveFormat.CHUNKED);
+		for (String s : data) {
+			wa.add(s);
+		}
+		wa.close();
+	}
+
+	private List<String> read(String fileName) throws IOException {
+		List<String> actual = Lists.newArrayList();
+		ReadingArchive ra = dir.getReadingArchive(fileName);
+		while (ra.hasNext()) {
+			actual.add(ra.getNext(String.class));
+		}
+		ra.close();
+		return actual;
+	}
+
+	private File file(String fileName) {
+		return new File(tempFolder.getRoot(), fileName);
+	}
+}
@@ -12,11 +12,13 @@ package cc.recommenders.io;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -145,6 +147,108 @@ public class LoggerTest {
 		assertLog(" ~~ a");
 	}
 
+	@Test
+	public void printedMessagesAreWrittenAfterFlush() {
+		Logger.setPrinting(true);
+
+		Logger.log("a%d", 1);
+		Logger.err("b%s", "2");
+		Logger.append("c");
+		Logger.flush();
+
+		assertTrue(logBuilder.toString().endsWith("    a1c"));
+		assertTrue(errBuilder.toString().endsWith(" EE b2"));
+	}
+
+	@Test
+	public void mutableArgumentsAreFormattedImmediately() {
+		Logger.setPrinting(true);
+
+		StringBuilder sb = new StringBuilder("x");
+		Logger.log("%s", sb);
+		sb.append("y");
+		Logger.flush();
+
+		assertTrue(logBuilder.toString().endsWith("    x"));
+	}
+
+	@Test
+	public void mutableNumbersAreFormattedImmediately() {
+		Logger.setPrinting(true);
+
+		AtomicLong n = new AtomicLong(1);
+		Logger.log("%s", n);
+		n.set(2);
+		Logger.flush();
+
+		assertTrue(logBuilder.toString().endsWith("    1"));
+	}
+
+	@Test
+	public void stackTracesAreWrittenWithTheMessage() {
+		Logger.setPrinting(true);
+
+		Logger.err(new RuntimeException("x"), "a%d:", 1);
+		Logger.err("b");
+		Logger.flush();
+
+		String err = errBuilder.toString();
+		assertTrue(err.contains(" EE a1:\njava.lang.RuntimeException: x\n\tat "));
+		assertTrue(err.indexOf("LoggerTest") < err.indexOf(" EE b"));
+	}
+
+	@Test
+	public void levelsCanBeChanged() {
+		Logger.setCapturing(true);
+		Logger.setLevel(Logger.Level.ERROR);
+
+		Logger.debug("a");
+		Logger.log("b");
+		Logger.err("c");
+
+		List<String> actual = Logger.getCapturedLog();
+		assertEquals(1, actual.size());
+		assertTrue(actual.get(0).endsWith(" EE c"));
+	}
+
+	@Test
+	public void debuggingSetsTheLevel() {
+		Logger.setDebugging(true);
+		assertEquals(Logger.Level.DEBUG, Logger.getLevel());
+		Logger.setDebugging(false);
+		assertEquals(Logger.Level.INFO, Logger.getLevel());
+	}
+
+	@Test
+	public void capturedAppendsAreNeverDropped() {
+		Logger.setCapturing(true);
+		int num = 2 * Logger.QUEUE_CAPACITY;
+		for (int i = 0; i < num; i++) {
+			Logger.append("%d", i);
+		}
+		List<String> actual = Logger.getCapturedLog();
+		assertEquals(num, actual.size());
+		assertEquals("0", actual.get(0));
+	}
+
+	@Test
+	public void printedAppendsAreNeverDropped() {
+		Logger.setPrinting(true);
+		int num = 100000;
+		for (int i = 0; i < num; i++) {
+			Logger.append("\t%d", i);
+		}
+		Logger.flush();
+
+		String[] actual = logBuilder.toString().split("\t");
+		// the output starts with a tab
+		assertEquals(num + 1, actual.length);
+		for (int i = 0; i < num; i++) {
+			assertEquals(Integer.toString(i), actual[i + 1]);
+		}
+		assertFalse(errBuilder.toString().contains("dropped"));
+	}
+
 	@Test
 	public void initLoggerForCodeCoverage() {
 		new Logger();
@@ -120,6 +120,21 @@ public class NestedZipFoldersTest {
 		assertEquals(expecteds, actuals);
 	}
 
+	@Test
+	public void createdArchivesCanBeRead() throws IOException {
+		WritingArchive wa1 = sut.createWritingArchive("a.b", "0.zip");
+		wa1.add("1-1");
+		wa1.close();
+		WritingArchive wa2 = sut.createWritingArchive("a.b", "1.zip");
+		wa2.add("2-1");
+		wa2.close();
+
+		assertEquals(Sets.newHashSet("a.b"), sut.findKeys());
+		assertTrue(sut.hasZips("a.b"));
+		Set<String> actuals = Sets.newHashSet(sut.readAllZips("a.b", String.class));
+		assertEquals(Sets.newHashSet("1-1", "2-1"), actuals);
+	}
+
 	@Test
 	public void readAll_happyPath() throws IOException {
 		Directory dirA = rootDir.createDirectory("a");
@@ -0,0 +1,29 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.mining.calls;
+
+import java.util.List;
+
+/**
+ * miner that can create several recommenders from the same model, e.g., to
+ * evaluate different query options without mining again
+ */
+public interface ModelMiner<Input, Query, Model> extends Miner<Input, Query> {
+
+	@Override
+	public Model learnModel(List<Input> in);
+
+	/**
+	 * the model must not be changed by the recommender, so it can be shared
+	 * between several recommenders (and threads)
+	 */
+	public ICallsRecommender<Query> createRecommenderFromModel(Model model);
+}
@@ -156,6 +156,19 @@ public class QueryOptions {
 		return this;
 	}
 
+	/**
+	 * @return a copy, in which all options are reset that are only used for
+	 *         querying and do not influence the mined models
+	 */
+	public QueryOptions getModelRelevantOptions() {
+		QueryOptions modelOpts = new QueryOptions();
+		modelOpts.useClassContext = useClassContext;
+		modelOpts.useMethodContext = useMethodContext;
+		modelOpts.useDefinition = useDefinition;
+		modelOpts.useParameterSites = useParameterSites;
+		return modelOpts;
+	}
+
 	public enum QueryType {
 		ZERO, NM
 	}
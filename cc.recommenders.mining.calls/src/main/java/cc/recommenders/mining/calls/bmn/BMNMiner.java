@@ -14,10 +14,10 @@ import java.util.List;
 
 import cc.recommenders.assertions.Asserts;
 import cc.recommenders.mining.calls.DictionaryBuilder;
-import cc.recommenders.mining.calls.Miner;
 import cc.recommenders.mining.calls.MiningOptions;
 import cc.recommenders.mining.calls.MiningOptions.Algorithm;
 import cc.recommenders.mining.calls.MiningOptions.DistanceMeasure;
+import cc.recommenders.mining.calls.ModelMiner;
 import cc.recommenders.mining.calls.QueryOptions;
 import cc.recommenders.mining.features.FeatureExtractor;
 import cc.recommenders.mining.features.OptionAwareFeaturePredicate;
@@ -28,7 +28,7 @@ import cc.recommenders.utils.dictionary.Dictionary;
 
 import com.google.inject.Inject;
 
-public class BMNMiner implements Miner<Usage, Query> {
+public class BMNMiner implements ModelMiner<Usage, Query, BMNModel> {
 
 	private final QueryOptions qOpts;
 	private final DictionaryBuilder<Usage, UsageFeature> dictBuilder;
@@ -74,7 +74,11 @@ public class BMNMiner implements Miner<Usage, Query> {
 
 	@Override
 	public BMNRecommender createRecommender(List<Usage> in) {
-		BMNModel model = learnModel(in);
+		return createRecommenderFromModel(learnModel(in));
+	}
+
+	@Override
+	public BMNRecommender createRecommenderFromModel(BMNModel model) {
 		return new BMNRecommender(extractor, model, qOpts);
 	}
 }
\ No newline at end of file
@@ -23,8 +23,10 @@ import cc.recommenders.datastructures.Tuple;
 import cc.recommenders.mining.calls.AbstractCallsRecommender;
 import cc.recommenders.mining.calls.ProposalHelper;
 import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.mining.calls.metrics.QueryMetrics;
 import cc.recommenders.mining.features.FeatureExtractor;
 import cc.recommenders.names.IMethodName;
+import cc.recommenders.names.ITypeName;
 import cc.recommenders.usages.Query;
 import cc.recommenders.usages.Usage;
 import cc.recommenders.usages.features.CallFeature;
@@ -41,11 +43,16 @@ import com.google.common.collect.Maps;
 
 public class BMNRecommender extends AbstractCallsRecommender<Query> {
 
+	private static final QueryMetrics METRICS = QueryMetrics.get("bmn");
+
 	private FeatureExtractor<Usage, UsageFeature> featureExtractor;
 	private Dictionary<UsageFeature> dictionary;
 	private Table table;
 	private QueryOptions qOpts;
 
+	private ITypeName lastQueriedType;
+	private QueryMetrics typeMetrics;
+
 	public BMNRecommender(FeatureExtractor<Usage, UsageFeature> featureExtractor, BMNModel model, QueryOptions qOpts) {
 		this.featureExtractor = featureExtractor;
 		this.qOpts = qOpts;
@@ -55,6 +62,7 @@ public class BMNRecommender extends AbstractCallsRecommender<Query> {
 
 	@Override
 	public Set<Tuple<IMethodName, Double>> query(Query query) {
+		long start = System.nanoTime();
 		Set<Tuple<IMethodName, Double>> res = ProposalHelper.createSortedSet();
 
 		List<UsageFeature> fs = featureExtractor.extract(query);
@@ -72,9 +80,39 @@ public class BMNRecommender extends AbstractCallsRecommender<Query> {
 			}
 		}
 
+		recordQuery(query.getType(), fs, proposals.size(), res.size(), System.nanoTime() - start);
 		return res;
 	}
 
+	private void recordQuery(ITypeName type, List<UsageFeature> fs, int numCandidates, int numProposals, long nanos) {
+		int numUnknownOutcomes = 0;
+		int numMissingCalls = 0;
+		int numMissingParameters = 0;
+		for (UsageFeature f : fs) {
+			if (dictionary.getId(f) < 0) {
+				// features that are ignored by the query options are not counted
+				if (f instanceof CallFeature) {
+					numMissingCalls++;
+				} else if (getState(f, true) == TRUE) {
+					if (f instanceof ParameterFeature) {
+						numMissingParameters++;
+					} else {
+						numUnknownOutcomes++;
+					}
+				}
+			}
+		}
+		METRICS.record(nanos, numUnknownOutcomes, numMissingCalls, numMissingParameters, numCandidates, numProposals);
+		if (type != null && QueryMetrics.isRecordingPerType()) {
+			if (!type.equals(lastQueriedType)) {
+				typeMetrics = QueryMetrics.get("bmn", type);
+				lastQueriedType = type;
+			}
+			typeMetrics.record(nanos, numUnknownOutcomes, numMissingCalls, numMissingParameters, numCandidates,
+					numProposals);
+		}
+	}
+
 	private QueryState[] convert(List<UsageFeature> fs) {
 		QueryState[] qss = new QueryState[dictionary.size()];
 
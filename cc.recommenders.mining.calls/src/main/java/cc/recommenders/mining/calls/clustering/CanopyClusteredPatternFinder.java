@@ -19,6 +19,8 @@ import org.apache.mahout.common.distance.DistanceMeasure;
 import org.apache.mahout.math.Vector;
 
 import cc.recommenders.mining.calls.Pattern;
+import cc.recommenders.mining.calls.metrics.MiningMetrics;
+import cc.recommenders.mining.calls.metrics.StageTimer.Measurement;
 import cc.recommenders.utils.dictionary.Dictionary;
 
 public class CanopyClusteredPatternFinder<Feature> extends ClusteredPatternFinder<Feature> {
@@ -50,9 +52,13 @@ public class CanopyClusteredPatternFinder<Feature> extends ClusteredPatternFinde
 
 	@Override
 	public List<Pattern<Feature>> find(List<List<Feature>> usages, Dictionary<Feature> dictionary) {
+		Measurement m = MiningMetrics.VECTORIZATION.start();
 		List<Vector> vectors = vectorBuilder.build(usages, dictionary);
+		m.stop();
+		m = MiningMetrics.CLUSTERING.start();
 		List<Canopy> canopies = createCanopies(vectors, distanceMeasure, t1, t2);
 		List<Pattern<Feature>> patterns = createPatterns(canopies, dictionary);
+		m.stop();
 		return patterns;
 	}
 
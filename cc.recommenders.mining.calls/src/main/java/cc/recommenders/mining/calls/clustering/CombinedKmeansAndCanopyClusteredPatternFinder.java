@@ -23,6 +23,8 @@ import org.apache.mahout.common.distance.DistanceMeasure;
 import org.apache.mahout.math.Vector;
 
 import cc.recommenders.mining.calls.Pattern;
+import cc.recommenders.mining.calls.metrics.MiningMetrics;
+import cc.recommenders.mining.calls.metrics.StageTimer.Measurement;
 import cc.recommenders.utils.dictionary.Dictionary;
 
 public class CombinedKmeansAndCanopyClusteredPatternFinder<Feature> extends ClusteredPatternFinder<Feature> {
@@ -52,7 +54,10 @@ public class CombinedKmeansAndCanopyClusteredPatternFinder<Feature> extends Clus
 	@Override
 	public List<Pattern<Feature>> find(List<List<Feature>> usages, Dictionary<Feature> dictionary) {
 
+		Measurement m = MiningMetrics.VECTORIZATION.start();
 		List<Vector> vectors = vectorBuilder.build(usages, dictionary);
+		m.stop();
+		m = MiningMetrics.CLUSTERING.start();
 		List<Vector> vectors2 = new LinkedList<Vector>();
 		vectors2.addAll(vectors);
 
@@ -65,6 +70,7 @@ public class CombinedKmeansAndCanopyClusteredPatternFinder<Feature> extends Clus
 
 		List<Cluster> finalIteration = iterations.get(iterations.size() - 1);
 		List<Pattern<Feature>> patterns = createPatterns(finalIteration, dictionary);
+		m.stop();
 		return patterns;
 	}
 
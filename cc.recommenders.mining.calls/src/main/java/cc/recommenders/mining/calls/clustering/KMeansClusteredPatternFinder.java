@@ -20,6 +20,8 @@ import org.apache.mahout.common.distance.DistanceMeasure;
 import org.apache.mahout.math.Vector;
 
 import cc.recommenders.mining.calls.Pattern;
+import cc.recommenders.mining.calls.metrics.MiningMetrics;
+import cc.recommenders.mining.calls.metrics.StageTimer.Measurement;
 import cc.recommenders.utils.dictionary.Dictionary;
 
 public class KMeansClusteredPatternFinder<Feature> extends ClusteredPatternFinder<Feature> {
@@ -47,14 +49,18 @@ public class KMeansClusteredPatternFinder<Feature> extends ClusteredPatternFinde
 	@Override
 	public List<Pattern<Feature>> find(List<List<Feature>> usages, Dictionary<Feature> dictionary) {
 
+		Measurement m = MiningMetrics.VECTORIZATION.start();
 		List<Vector> vectors = vectorBuilder.build(usages, dictionary);
+		m.stop();
 
+		m = MiningMetrics.CLUSTERING.start();
 		List<Cluster> rndCenters = buildRandomCenters(vectors, clusterCount, distanceMeasure);
 		List<List<Cluster>> iterations = KMeansClusterer.clusterPoints(vectors, rndCenters, distanceMeasure,
 				numIterations, convergenceTreshold);
 
 		List<Cluster> finalIteration = iterations.get(iterations.size() - 1);
 		List<Pattern<Feature>> patterns = createPatterns(finalIteration, dictionary);
+		m.stop();
 		return patterns;
 	}
 
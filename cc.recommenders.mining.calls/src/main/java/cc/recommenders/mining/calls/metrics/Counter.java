@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.mining.calls.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters are incremented on every query from all threads, so they are
+ * striped to avoid contention. Reads are not atomic snapshots.
+ */
+public class Counter {
+
+	private final LongAdder count = new LongAdder();
+
+	public void inc() {
+		count.increment();
+	}
+
+	public void add(long n) {
+		count.add(n);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public void reset() {
+		count.reset();
+	}
+
+	@Override
+	public String toString() {
+		return Long.toString(count.sum());
+	}
+}
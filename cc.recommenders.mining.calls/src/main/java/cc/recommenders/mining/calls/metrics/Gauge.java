@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.mining.calls.metrics;
+
+/**
+ * most recent value of a measure, e.g., the size of the last dictionary
+ */
+public class Gauge {
+
+	private volatile long value;
+
+	public void set(long value) {
+		this.value = value;
+	}
+
+	public long getValue() {
+		return value;
+	}
+
+	public void reset() {
+		value = 0;
+	}
+
+	@Override
+	public String toString() {
+		return Long.toString(value);
+	}
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.mining.calls.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations with exponential buckets (bucket i contains the
+ * durations in [2^i, 2^(i+1)) microseconds), so percentiles are accurate up to
+ * a factor of two. Recording is lock-free and does not allocate, all sums are
+ * striped to avoid contention between threads. The maximum is only written
+ * when it grows.
+ */
+public class LatencyHistogram {
+
+	private static final int NUM_BUCKETS = 40;
+
+	private final LongAdder[] buckets = new LongAdder[NUM_BUCKETS];
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	public LatencyHistogram() {
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	public void record(long nanos) {
+		buckets[getBucket(nanos)].increment();
+		count.increment();
+		totalNanos.add(nanos);
+		long max = maxNanos.get();
+		while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+			max = maxNanos.get();
+		}
+	}
+
+	static int getBucket(long nanos) {
+		long micros = nanos / 1000;
+		if (micros <= 0) {
+			return 0;
+		}
+		int bucket = 63 - Long.numberOfLeadingZeros(micros);
+		return Math.min(bucket, NUM_BUCKETS - 1);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public double getMeanInMS() {
+		long n = count.sum();
+		return n == 0 ? 0 : totalNanos.sum() / 1000000.0 / n;
+	}
+
+	public double getMaxInMS() {
+		return maxNanos.get() / 1000000.0;
+	}
+
+	/**
+	 * @return the upper bound of the bucket that contains the given quantile
+	 *         (0 < quantile <= 1), but never more than the maximum
+	 */
+	public double getQuantileInMS(double quantile) {
+		long n = count.sum();
+		if (n == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(quantile * n);
+		long seen = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			seen += buckets[i].sum();
+			if (seen >= rank) {
+				double upperBoundInMS = (1L << (i + 1)) / 1000.0;
+				return Math.min(upperBoundInMS, getMaxInMS());
+			}
+		}
+		return getMaxInMS();
+	}
+
+	public void reset() {
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			buckets[i].reset();
+		}
+		count.reset();
+		totalNanos.reset();
+		maxNanos.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%dx, mean %.3fms, p50 %.3fms, p90 %.3fms, p99 %.3fms, max %.3fms", getCount(),
+				getMeanInMS(), getQuantileInMS(0.5), getQuantileInMS(0.9), getQuantileInMS(0.99), getMaxInMS());
+	}
+}
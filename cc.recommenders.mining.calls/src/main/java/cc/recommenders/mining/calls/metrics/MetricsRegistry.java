@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.mining.calls.metrics;
+
+import static cc.recommenders.assertions.Asserts.assertGreaterThan;
+import static cc.recommenders.assertions.Asserts.assertNotNull;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import cc.recommenders.io.Logger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Named counters, gauges, timers and histograms. Metrics are created on first
+ * access and are never removed, so references can be kept in fields;
+ * {@link #reset()} only clears their values.
+ *
+ * All components report to the {@link #getDefault()} registry, its content
+ * can be read programmatically or logged periodically.
+ */
+public class MetricsRegistry {
+
+	private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+	private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<String, Counter>();
+	private final ConcurrentMap<String, Gauge> gauges = new ConcurrentHashMap<String, Gauge>();
+	private final ConcurrentMap<String, StageTimer> timers = new ConcurrentHashMap<String, StageTimer>();
+	private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<String, LatencyHistogram>();
+
+	private ScheduledExecutorService dumpExecutor;
+
+	public static MetricsRegistry getDefault() {
+		return DEFAULT;
+	}
+
+	public Counter counter(String name) {
+		assertNotNull(name);
+		Counter c = counters.get(name);
+		if (c == null) {
+			Counter newCounter = new Counter();
+			c = counters.putIfAbsent(name, newCounter);
+			if (c == null) {
+				c = newCounter;
+			}
+		}
+		return c;
+	}
+
+	public Gauge gauge(String name) {
+		assertNotNull(name);
+		Gauge g = gauges.get(name);
+		if (g == null) {
+			Gauge newGauge = new Gauge();
+			g = gauges.putIfAbsent(name, newGauge);
+			if (g == null) {
+				g = newGauge;
+			}
+		}
+		return g;
+	}
+
+	public StageTimer timer(String name) {
+		assertNotNull(name);
+		StageTimer t = timers.get(name);
+		if (t == null) {
+			StageTimer newTimer = new StageTimer();
+			t = timers.putIfAbsent(name, newTimer);
+			if (t == null) {
+				t = newTimer;
+			}
+		}
+		return t;
+	}
+
+	public LatencyHistogram histogram(String name) {
+		assertNotNull(name);
+		LatencyHistogram h = histograms.get(name);
+		if (h == null) {
+			LatencyHistogram newHistogram = new LatencyHistogram();
+			h = histograms.putIfAbsent(name, newHistogram);
+			if (h == null) {
+				h = newHistogram;
+			}
+		}
+		return h;
+	}
+
+	public SortedMap<String, Counter> getCounters() {
+		return new TreeMap<String, Counter>(counters);
+	}
+
+	public SortedMap<String, Gauge> getGauges() {
+		return new TreeMap<String, Gauge>(gauges);
+	}
+
+	public SortedMap<String, StageTimer> getTimers() {
+		return new TreeMap<String, StageTimer>(timers);
+	}
+
+	public SortedMap<String, LatencyHistogram> getHistograms() {
+		return new TreeMap<String, LatencyHistogram>(histograms);
+	}
+
+	public void reset() {
+		for (Counter c : counters.values()) {
+			c.reset();
+		}
+		for (Gauge g : gauges.values()) {
+			g.reset();
+		}
+		for (StageTimer t : timers.values()) {
+			t.reset();
+		}
+		for (LatencyHistogram h : histograms.values()) {
+			h.reset();
+		}
+	}
+
+	public String dump() {
+		StringBuilder sb = new StringBuilder();
+		append(sb, getTimers());
+		append(sb, getHistograms());
+		append(sb, getCounters());
+		append(sb, getGauges());
+		return sb.toString();
+	}
+
+	private static void append(StringBuilder sb, Map<String, ?> metrics) {
+		for (Map.Entry<String, ?> e : metrics.entrySet()) {
+			sb.append(e.getKey()).append(": ").append(e.getValue()).append('\n');
+		}
+	}
+
+	/**
+	 * logs the content of the registry in the given interval until
+	 * {@link #stopPeriodicDump()} is called
+	 */
+	public synchronized void startPeriodicDump(long period, TimeUnit unit) {
+		assertGreaterThan(period, 0);
+		stopPeriodicDump();
+		dumpExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+				.setNameFormat("metrics-dump-%d").setDaemon(true).build());
+		dumpExecutor.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				Logger.log("metrics:\n%s", dump());
+			}
+		}, period, period, unit);
+	}
+
+	public synchronized void stopPeriodicDump() {
+		if (dumpExecutor != null) {
+			dumpExecutor.shutdownNow();
+			dumpExecutor = null;
+		}
+	}
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.mining.calls.metrics;
+
+/**
+ * Names and shared instances of the metrics of the mining pipeline, all
+ * registered in the default {@link MetricsRegistry}.
+ */
+public class MiningMetrics {
+
+	private static final MetricsRegistry REGISTRY = MetricsRegistry.getDefault();
+
+	public static final StageTimer EXTRACTION = REGISTRY.timer("mining.1.extraction");
+	public static final StageTimer DICTIONARY = REGISTRY.timer("mining.2.dictionary");
+	public static final StageTimer FEATURE_DROPPING = REGISTRY.timer("mining.3.featureDropping");
+	public static final StageTimer VECTORIZATION = REGISTRY.timer("mining.4.vectorization");
+	public static final StageTimer CLUSTERING = REGISTRY.timer("mining.5.clustering");
+	public static final StageTimer NETWORK = REGISTRY.timer("mining.6.network");
+	public static final StageTimer RECOMMENDER = REGISTRY.timer("mining.7.recommender");
+	public static final StageTimer TOTAL = REGISTRY.timer("mining.total");
+
+	public static final Counter MODELS = REGISTRY.counter("mining.models");
+	public static final Counter USAGES = REGISTRY.counter("mining.usages");
+	public static final Counter DROPPED_FEATURES = REGISTRY.counter("mining.droppedFeatures");
+	public static final Counter PATTERNS = REGISTRY.counter("mining.patterns");
+
+	public static final Gauge LAST_NUM_USAGES = REGISTRY.gauge("mining.last.usages");
+	public static final Gauge LAST_NUM_FEATURES = REGISTRY.gauge("mining.last.features");
+	public static final Gauge LAST_NUM_PATTERNS = REGISTRY.gauge("mining.last.patterns");
+
+	private MiningMetrics() {
+		// not meant to be instantiated
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.mining.calls.metrics;
+
+import cc.recommenders.names.ITypeName;
+
+/**
+ * Metrics of the query path of a recommender, registered in the default
+ * {@link MetricsRegistry} once for all queries of a recommender kind (e.g.,
+ * "query.pbn.latency"). Metrics per queried type (e.g.,
+ * "query.pbn.Lorg/Type.latency") are only recorded if enabled through
+ * {@link #setRecordingPerType(boolean)}, because the registry never removes
+ * them. Instances are meant to be looked up once and kept, recording does not
+ * allocate.
+ */
+public class QueryMetrics {
+
+	private static volatile boolean isRecordingPerType = false;
+
+	public final Counter queries;
+	public final Counter unknownOutcomes;
+	public final Counter missingCallNodes;
+	public final Counter missingParameterNodes;
+	public final Counter candidates;
+	public final Counter proposals;
+	public final LatencyHistogram latency;
+
+	private QueryMetrics(MetricsRegistry registry, String prefix) {
+		queries = registry.counter(prefix + ".queries");
+		unknownOutcomes = registry.counter(prefix + ".unknownOutcomes");
+		missingCallNodes = registry.counter(prefix + ".missingCallNodes");
+		missingParameterNodes = registry.counter(prefix + ".missingParameterNodes");
+		candidates = registry.counter(prefix + ".candidates");
+		proposals = registry.counter(prefix + ".proposals");
+		latency = registry.histogram(prefix + ".latency");
+	}
+
+	public void record(long nanos, int numUnknownOutcomes, int numMissingCallNodes, int numMissingParameterNodes,
+			int numCandidates, int numProposals) {
+		queries.inc();
+		unknownOutcomes.add(numUnknownOutcomes);
+		missingCallNodes.add(numMissingCallNodes);
+		missingParameterNodes.add(numMissingParameterNodes);
+		candidates.add(numCandidates);
+		proposals.add(numProposals);
+		latency.record(nanos);
+	}
+
+	public static boolean isRecordingPerType() {
+		return isRecordingPerType;
+	}
+
+	/**
+	 * only meant for diagnosis runs over a bounded set of types, each queried
+	 * type adds metrics to the registry that are kept until the JVM exits
+	 */
+	public static void setRecordingPerType(boolean isEnabled) {
+		isRecordingPerType = isEnabled;
+	}
+
+	public static QueryMetrics get(String recommender) {
+		return new QueryMetrics(MetricsRegistry.getDefault(), "query." + recommender);
+	}
+
+	public static QueryMetrics get(String recommender, ITypeName type) {
+		return new QueryMetrics(MetricsRegistry.getDefault(), "query." + recommender + "." + type.getIdentifier());
+	}
+}
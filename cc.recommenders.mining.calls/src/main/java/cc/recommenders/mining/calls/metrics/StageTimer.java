@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.mining.calls.metrics;
+
+import cc.recommenders.utils.AllocationMeter;
+
+/**
+ * Aggregates the durations and, if supported by the VM, the allocated bytes
+ * of the executions of a stage. A {@link Measurement} from {@link #start()}
+ * is a (small) allocation itself, hot paths should use the allocation-free
+ * {@link #startNanos()} and {@link #recordSince(long)} instead, which only
+ * measure the duration.
+ */
+public class StageTimer {
+
+	private static final AllocationMeter ALLOCATION_METER = new AllocationMeter();
+
+	private long count;
+	private long totalNanos;
+	private long maxNanos;
+	private long allocatedBytes;
+
+	public Measurement start() {
+		return new Measurement();
+	}
+
+	/**
+	 * @return the start time that has to be passed to
+	 *         {@link #recordSince(long)}
+	 */
+	public long startNanos() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * @return the duration in ms
+	 */
+	public double recordSince(long startNanos) {
+		long nanos = System.nanoTime() - startNanos;
+		record(nanos);
+		return nanos / 1000000.0;
+	}
+
+	public void record(long nanos) {
+		record(nanos, 0);
+	}
+
+	public synchronized void record(long nanos, long bytes) {
+		count++;
+		totalNanos += nanos;
+		maxNanos = Math.max(maxNanos, nanos);
+		allocatedBytes += bytes;
+	}
+
+	public synchronized long getCount() {
+		return count;
+	}
+
+	public synchronized double getTotalInMS() {
+		return totalNanos / 1000000.0;
+	}
+
+	public synchronized double getMeanInMS() {
+		return count == 0 ? 0 : totalNanos / 1000000.0 / count;
+	}
+
+	public synchronized double getMaxInMS() {
+		return maxNanos / 1000000.0;
+	}
+
+	/**
+	 * @return the total bytes allocated by the measured executions or -1, if
+	 *         allocations cannot be measured in this VM
+	 */
+	public synchronized long getAllocatedBytes() {
+		return ALLOCATION_METER.isSupported() ? allocatedBytes : -1;
+	}
+
+	public synchronized void reset() {
+		count = 0;
+		totalNanos = 0;
+		maxNanos = 0;
+		allocatedBytes = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		String alloc = ALLOCATION_METER.isSupported() ? String.format("%.1fMB", allocatedBytes / 1048576.0) : "n/a";
+		return String.format("%dx, total %.1fms, mean %.3fms, max %.3fms, allocated %s", count, getTotalInMS(),
+				getMeanInMS(), getMaxInMS(), alloc);
+	}
+
+	/**
+	 * one execution of a stage, has to be stopped in the thread that started
+	 * it
+	 */
+	public class Measurement {
+
+		private final long startNanos;
+		private final long startBytes;
+
+		private Measurement() {
+			startBytes = ALLOCATION_METER.getAllocatedBytes();
+			startNanos = System.nanoTime();
+		}
+
+		/**
+		 * @return the duration in ms
+		 */
+		public double stop() {
+			long nanos = System.nanoTime() - startNanos;
+			long bytes = ALLOCATION_METER.isSupported() ? ALLOCATION_METER.getAllocatedBytes() - startBytes : 0;
+			record(nanos, bytes);
+			return nanos / 1000000.0;
+		}
+	}
+}
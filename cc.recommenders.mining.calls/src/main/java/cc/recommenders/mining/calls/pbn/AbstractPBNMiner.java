@@ -31,6 +31,8 @@ import cc.recommenders.mining.calls.ModelBuilder;
 import cc.recommenders.mining.calls.Pattern;
 import cc.recommenders.mining.calls.PatternFinderFactory;
 import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.mining.calls.metrics.MiningMetrics;
+import cc.recommenders.mining.calls.metrics.StageTimer.Measurement;
 import cc.recommenders.mining.features.FeatureExtractor;
 import cc.recommenders.mining.features.OptionAwareFeaturePredicate;
 import cc.recommenders.mining.features.RareFeatureDropper;
@@ -67,22 +69,45 @@ public abstract class AbstractPBNMiner<Model> implements Miner<Usage, Query> {
 
 	@Override
 	public Model learnModel(List<Usage> usages) {
+		Measurement total = MiningMetrics.TOTAL.start();
+		MiningMetrics.MODELS.inc();
+		MiningMetrics.USAGES.add(usages.size());
+		MiningMetrics.LAST_NUM_USAGES.set(usages.size());
+
 		Logger.debug("extracting features");
+		Measurement m = MiningMetrics.EXTRACTION.start();
 		List<List<UsageFeature>> features = extractFeatures(usages);
+		m.stop();
 		Logger.debug("creating dictionary");
 		Dictionary<UsageFeature> dictionary = createDictionary(usages, features);
 
 		lastNumberOfFeatures = dictionary.size();
+		MiningMetrics.LAST_NUM_FEATURES.set(lastNumberOfFeatures);
 
 		Logger.debug("mining");
 		List<Pattern<UsageFeature>> patterns = patternFinderFactory.createPatternFinder().find(features, dictionary);
 
 		lastNumberOfPatterns = patterns.size();
+		MiningMetrics.PATTERNS.add(lastNumberOfPatterns);
+		MiningMetrics.LAST_NUM_PATTERNS.set(lastNumberOfPatterns);
 
 		Logger.debug("building network");
+		m = MiningMetrics.NETWORK.start();
 		Model network = buildModel(patterns, dictionary);
+		m.stop();
+
+		double durationInMS = total.stop();
+		if (Logger.isDebugging()) {
+			Logger.debug("mined %s: %d usages, %d features, %d patterns in %.1fms", getType(usages), usages.size(),
+					lastNumberOfFeatures, lastNumberOfPatterns, durationInMS);
+		}
 		return network;
 	}
+
+	private static Object getType(List<Usage> usages) {
+		Usage first = usages.isEmpty() ? null : usages.get(0);
+		return first == null ? "?" : first.getType();
+	}
 	
 	protected abstract Model buildModel(List<Pattern<UsageFeature>> patterns, Dictionary<UsageFeature> dictionary);
 
@@ -91,9 +116,14 @@ public abstract class AbstractPBNMiner<Model> implements Miner<Usage, Query> {
 	}
 
 	protected Dictionary<UsageFeature> createDictionary(List<Usage> usages, List<List<UsageFeature>> features) {
+		Measurement m = MiningMetrics.DICTIONARY.start();
 		Dictionary<UsageFeature> rawDictionary = dictionaryBuilder.newDictionary(usages, featurePred);
+		m.stop();
 		if (mOpts.isFeatureDropping()) {
+			m = MiningMetrics.FEATURE_DROPPING.start();
 			Dictionary<UsageFeature> dictionary = dropper.dropRare(rawDictionary, features);
+			m.stop();
+			MiningMetrics.DROPPED_FEATURES.add(rawDictionary.size() - dictionary.size());
 			Set<String> diff = DictionaryHelper.diff(rawDictionary, dictionary);
 
 			Set<UsageFeature> rawClassContexts = new DictionaryHelper(rawDictionary).getClassContexts();
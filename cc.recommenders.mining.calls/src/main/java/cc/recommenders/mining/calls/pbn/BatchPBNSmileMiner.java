@@ -18,6 +18,7 @@ package cc.recommenders.mining.calls.pbn;
 import java.io.IOException;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import com.google.inject.Inject;
 
@@ -29,6 +30,7 @@ import cc.recommenders.io.NestedZipFolders;
 import cc.recommenders.io.WritingArchive;
 import cc.recommenders.mining.calls.MiningOptions;
 import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.mining.calls.metrics.MetricsRegistry;
 import cc.recommenders.names.ITypeName;
 import cc.recommenders.names.VmTypeName;
 import cc.recommenders.usages.Usage;
@@ -37,6 +39,7 @@ import smile.Network;
 public class BatchPBNSmileMiner {
 
 	private int MAX_NUM_OF_USAGES = 20000;
+	private static final int METRICS_DUMP_INTERVAL_IN_MIN = 5;
 	private static final ITypeName unknownType = VmTypeName.get("LUnknown");
 
 	private IoUtils io;
@@ -56,6 +59,17 @@ public class BatchPBNSmileMiner {
 	}
 
 	public void run(NestedZipFolders<ITypeName> usagesDir, Directory modelDir) {
+		MetricsRegistry metrics = MetricsRegistry.getDefault();
+		metrics.startPeriodicDump(METRICS_DUMP_INTERVAL_IN_MIN, TimeUnit.MINUTES);
+		try {
+			mineAll(usagesDir, modelDir);
+		} finally {
+			metrics.stopPeriodicDump();
+		}
+		Logger.log("metrics:\n%s", metrics.dump());
+	}
+
+	private void mineAll(NestedZipFolders<ITypeName> usagesDir, Directory modelDir) {
 		int numMined = 0;
 		int numUsages = 0;
 
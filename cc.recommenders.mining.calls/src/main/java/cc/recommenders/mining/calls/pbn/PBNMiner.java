@@ -20,9 +20,12 @@ import cc.recommenders.mining.calls.DictionaryBuilder;
 import cc.recommenders.mining.calls.ICallsRecommender;
 import cc.recommenders.mining.calls.MiningOptions;
 import cc.recommenders.mining.calls.ModelBuilder;
+import cc.recommenders.mining.calls.ModelMiner;
 import cc.recommenders.mining.calls.Pattern;
 import cc.recommenders.mining.calls.PatternFinderFactory;
 import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.mining.calls.metrics.MiningMetrics;
+import cc.recommenders.mining.calls.metrics.StageTimer.Measurement;
 import cc.recommenders.mining.features.FeatureExtractor;
 import cc.recommenders.mining.features.OptionAwareFeaturePredicate;
 import cc.recommenders.mining.features.RareFeatureDropper;
@@ -31,7 +34,8 @@ import cc.recommenders.usages.Usage;
 import cc.recommenders.usages.features.UsageFeature;
 import cc.recommenders.utils.dictionary.Dictionary;
 
-public class PBNMiner extends AbstractPBNMiner<BayesianNetwork> {
+public class PBNMiner extends AbstractPBNMiner<BayesianNetwork> implements
+		ModelMiner<Usage, Query, BayesianNetwork> {
 
 	private ModelBuilder<UsageFeature, BayesianNetwork> modelBuilder;
 	private QueryOptions qOpts;
@@ -55,7 +59,14 @@ public class PBNMiner extends AbstractPBNMiner<BayesianNetwork> {
 
 	@Override
 	public ICallsRecommender<Query> createRecommender(List<Usage> in) {
-		BayesianNetwork network = learnModel(in);
-		return new PBNRecommender(network, qOpts);
+		return createRecommenderFromModel(learnModel(in));
+	}
+
+	@Override
+	public ICallsRecommender<Query> createRecommenderFromModel(BayesianNetwork network) {
+		Measurement m = MiningMetrics.RECOMMENDER.start();
+		PBNRecommender rec = new PBNRecommender(network, qOpts);
+		m.stop();
+		return rec;
 	}
 }
\ No newline at end of file
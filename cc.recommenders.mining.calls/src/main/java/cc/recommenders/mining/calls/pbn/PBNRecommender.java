@@ -23,7 +23,6 @@ import static cc.recommenders.mining.calls.pbn.PBNModelConstants.newMethodContex
 import static cc.recommenders.mining.calls.pbn.PBNModelConstants.newParameterSite;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
-import static com.google.common.collect.Sets.newHashSet;
 
 import java.util.HashMap;
 import java.util.List;
@@ -37,32 +36,47 @@ import org.eclipse.recommenders.jayes.BayesNode;
 import org.eclipse.recommenders.jayes.inference.junctionTree.JunctionTreeAlgorithm;
 import org.eclipse.recommenders.jayes.util.NumericalInstabilityException;
 
+import cc.recommenders.datastructures.IntHashSet;
+import cc.recommenders.datastructures.IntObjectHashMap;
 import cc.recommenders.datastructures.Tuple;
 import cc.recommenders.io.Logger;
 import cc.recommenders.mining.calls.ICallsRecommender;
 import cc.recommenders.mining.calls.ProposalHelper;
 import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.mining.calls.metrics.QueryMetrics;
 import cc.recommenders.names.IMethodName;
 import cc.recommenders.names.ITypeName;
+import cc.recommenders.names.NameTable;
 import cc.recommenders.names.VmMethodName;
 import cc.recommenders.usages.CallSite;
 import cc.recommenders.usages.Query;
 
 public class PBNRecommender implements ICallsRecommender<Query> {
 
+	private static final QueryMetrics METRICS = QueryMetrics.get("pbn");
+
 	private BayesNet bayesNet;
 	private BayesNode patternNode;
 	private BayesNode classContextNode;
 	private BayesNode methodContextNode;
 	private BayesNode definitionNode;
 
-	private Map<IMethodName, BayesNode> callNodes = newHashMap();
+	// call nodes are looked up by the NameTable id of the method
+	private IntObjectHashMap<BayesNode> callNodes = new IntObjectHashMap<BayesNode>();
+	private List<IMethodName> callMethods = newArrayList();
+	private List<BayesNode> callNodeList = newArrayList();
 	private Map<String, BayesNode> paramNodes = newHashMap();
 
 	private JunctionTreeAlgorithm junctionTreeAlgorithm;
 	private QueryOptions options;
 
-	private Set<IMethodName> queriedMethods = newHashSet();
+	private IntHashSet queriedMethods = new IntHashSet();
+
+	private ITypeName lastQueriedType;
+	private QueryMetrics typeMetrics;
+	private int numUnknownOutcomes;
+	private int numMissingCallNodes;
+	private int numMissingParameterNodes;
 
 	public PBNRecommender(BayesianNetwork network, QueryOptions options) {
 		this.options = options;
@@ -115,7 +129,9 @@ public class PBNRecommender implements ICallsRecommender<Query> {
 			patternNode = bayesNode;
 		} else if (nodeTitle.startsWith(CALL_PREFIX)) {
 			IMethodName call = VmMethodName.get(nodeTitle.substring(CALL_PREFIX.length()));
-			callNodes.put(call, bayesNode);
+			callNodes.put(NameTable.getId(call), bayesNode);
+			callMethods.add(call);
+			callNodeList.add(bayesNode);
 		} else {
 			paramNodes.put(nodeTitle, bayesNode);
 		}
@@ -148,7 +164,11 @@ public class PBNRecommender implements ICallsRecommender<Query> {
 
 	@Override
 	public Set<Tuple<IMethodName, Double>> query(Query u) {
+		long start = System.nanoTime();
 		clearEvidence();
+		numUnknownOutcomes = 0;
+		numMissingCallNodes = 0;
+		numMissingParameterNodes = 0;
 
 		if (options.useClassContext) {
 			addEvidenceIfAvailableInNetwork(classContextNode, newClassContext(u.getClassContext()));
@@ -164,16 +184,31 @@ public class PBNRecommender implements ICallsRecommender<Query> {
 		for (CallSite site : u.getAllCallsites()) {
 			markRebasedSite(type, site);
 		}
-		
-		return collectCallProbabilities();
+
+		Set<Tuple<IMethodName, Double>> res = collectCallProbabilities();
+		recordQuery(type, res.size(), System.nanoTime() - start);
+		return res;
+	}
+
+	private void recordQuery(ITypeName type, int numProposals, long nanos) {
+		int numCandidates = callMethods.size() - queriedMethods.size();
+		METRICS.record(nanos, numUnknownOutcomes, numMissingCallNodes, numMissingParameterNodes, numCandidates,
+				numProposals);
+		if (type != null && QueryMetrics.isRecordingPerType()) {
+			if (!type.equals(lastQueriedType)) {
+				typeMetrics = QueryMetrics.get("pbn", type);
+				lastQueriedType = type;
+			}
+			typeMetrics.record(nanos, numUnknownOutcomes, numMissingCallNodes, numMissingParameterNodes,
+					numCandidates, numProposals);
+		}
 	}
 
 	private void addEvidenceIfAvailableInNetwork(BayesNode node, String outcome) {
 		if (node.getOutcomes().contains(outcome)) {
 			junctionTreeAlgorithm.addEvidence(node, outcome);
-			// debug("outcome marked '%s'", node.getName());
 		} else {
-			debug("unknown outcome: %s (%s)", outcome, node.getName());
+			numUnknownOutcomes++;
 		}
 	}
 
@@ -185,9 +220,8 @@ public class PBNRecommender implements ICallsRecommender<Query> {
 				BayesNode node = paramNodes.get(nodeTitle);
 				if (node != null) {
 					junctionTreeAlgorithm.addEvidence(node, STATE_TRUE);
-					// debug("outcome marked 'parameter'");
 				} else {
-					debug("unknown node: %s (%s)", nodeTitle, type);
+					numMissingParameterNodes++;
 				}
 			}
 			break;
@@ -199,14 +233,14 @@ public class PBNRecommender implements ICallsRecommender<Query> {
 			// it is not necessary to call OUMC.newCallSite(...), because the
 			// prefix is already stripped in that map (see
 			// assignToClassMember())
-			BayesNode node = callNodes.get(site.getMethod());
+			int methodId = NameTable.getId(site.getMethod());
+			BayesNode node = callNodes.get(methodId);
 			if (node != null) {
 				// queriedMethods.add(rebasedName);
-				queriedMethods.add(site.getMethod());
+				queriedMethods.add(methodId);
 				junctionTreeAlgorithm.addEvidence(node, STATE_TRUE);
-				// debug("outcome marked 'method call'");
 			} else {
-				debug("unknown node: %S%s (%s)", CALL_PREFIX, site.getMethod(), type);
+				numMissingCallNodes++;
 			}
 			break;
 		}
@@ -215,18 +249,15 @@ public class PBNRecommender implements ICallsRecommender<Query> {
 	private Set<Tuple<IMethodName, Double>> collectCallProbabilities() {
 		Set<Tuple<IMethodName, Double>> res = ProposalHelper.createSortedSet();
 		try {
-			for (IMethodName methodName : callNodes.keySet()) {
+			for (int i = 0; i < callMethods.size(); i++) {
+				IMethodName methodName = callMethods.get(i);
 				if (!isPartOfQuery(methodName)) {
-					BayesNode node = callNodes.get(methodName);
-					if (node == null) {
-						debug("no node found for %s", methodName);
-					} else {
-						double[] beliefs = junctionTreeAlgorithm.getBeliefs(node);
-						boolean isGreaterOrEqualToMinProbability = beliefs[0] >= options.minProbability;
-						if (isGreaterOrEqualToMinProbability) {
-							Tuple<IMethodName, Double> tuple = newTuple(methodName, beliefs[0]);
-							res.add(tuple);
-						}
+					BayesNode node = callNodeList.get(i);
+					double[] beliefs = junctionTreeAlgorithm.getBeliefs(node);
+					boolean isGreaterOrEqualToMinProbability = beliefs[0] >= options.minProbability;
+					if (isGreaterOrEqualToMinProbability) {
+						Tuple<IMethodName, Double> tuple = newTuple(methodName, beliefs[0]);
+						res.add(tuple);
 					}
 				}
 			}
@@ -237,7 +268,7 @@ public class PBNRecommender implements ICallsRecommender<Query> {
 	}
 
 	private boolean isPartOfQuery(IMethodName methodName) {
-		return queriedMethods.contains(methodName);
+		return queriedMethods.contains(NameTable.getId(methodName));
 	}
 
 	@Override
@@ -295,10 +326,5 @@ public class PBNRecommender implements ICallsRecommender<Query> {
 	protected BayesNode getPatternNode() {
 		return this.patternNode;
 	}
-	
-
-	private static void debug(String msg, Object... args) {
-		// Logger.debug(msg, args);
-	}
 
 }
\ No newline at end of file
@@ -34,6 +34,8 @@ import org.mockito.Mock;
 import cc.recommenders.datastructures.Tuple;
 import cc.recommenders.exceptions.AssertionException;
 import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.mining.calls.metrics.MetricsRegistry;
+import cc.recommenders.mining.calls.metrics.QueryMetrics;
 import cc.recommenders.mining.features.FeatureExtractor;
 import cc.recommenders.names.IMethodName;
 import cc.recommenders.names.VmMethodName;
@@ -249,6 +251,24 @@ public class BMNRecommenderTest {
 		assertProposals(expecteds, actuals);
 	}
 
+	@Test
+	public void unknownInformationIsCounted() {
+		MetricsRegistry.getDefault().reset();
+		setqOpts("+CLASS+METHOD+DEF+PARAMS");
+		table.add(_(1, 0, 1, 0, 0));
+		table.add(_(1, 0, 1, 1, 1));
+
+		sut.query(q(methodUnknown, callUnknown, call1));
+
+		QueryMetrics metrics = QueryMetrics.get("bmn");
+		assertEquals(1, metrics.queries.getCount());
+		assertEquals(1, metrics.unknownOutcomes.getCount());
+		assertEquals(1, metrics.missingCallNodes.getCount());
+		assertEquals(0, metrics.missingParameterNodes.getCount());
+		assertEquals(2, metrics.candidates.getCount());
+		assertEquals(1, metrics.latency.getCount());
+	}
+
 	@Test
 	public void sizeIsCalculated() {
 		bmnModel.table = mock(Table.class);
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.mining.calls.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	private LatencyHistogram sut;
+
+	@Before
+	public void setup() {
+		sut = new LatencyHistogram();
+	}
+
+	@Test
+	public void buckets() {
+		assertEquals(0, LatencyHistogram.getBucket(0));
+		assertEquals(0, LatencyHistogram.getBucket(1999));
+		assertEquals(1, LatencyHistogram.getBucket(2000));
+		assertEquals(1, LatencyHistogram.getBucket(3999));
+		assertEquals(2, LatencyHistogram.getBucket(4000));
+		assertEquals(39, LatencyHistogram.getBucket(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void emptyHistogram() {
+		assertEquals(0, sut.getCount());
+		assertEquals(0.0, sut.getMeanInMS(), 0.0001);
+		assertEquals(0.0, sut.getQuantileInMS(0.5), 0.0001);
+	}
+
+	@Test
+	public void statistics() {
+		for (int i = 0; i < 9; i++) {
+			sut.record(100000); // 0.1ms
+		}
+		sut.record(10000000); // 10ms
+
+		assertEquals(10, sut.getCount());
+		assertEquals(1.09, sut.getMeanInMS(), 0.0001);
+		assertEquals(10.0, sut.getMaxInMS(), 0.0001);
+		// 100us are in bucket [64us, 128us)
+		assertEquals(0.128, sut.getQuantileInMS(0.5), 0.0001);
+		assertEquals(0.128, sut.getQuantileInMS(0.9), 0.0001);
+		// the bucket bound (16.384ms) is capped by the maximum
+		assertEquals(10.0, sut.getQuantileInMS(0.99), 0.0001);
+	}
+
+	@Test
+	public void reset() {
+		sut.record(100000);
+		sut.reset();
+		assertEquals(0, sut.getCount());
+		assertEquals(0.0, sut.getMaxInMS(), 0.0001);
+		assertEquals(0.0, sut.getQuantileInMS(0.9), 0.0001);
+	}
+}
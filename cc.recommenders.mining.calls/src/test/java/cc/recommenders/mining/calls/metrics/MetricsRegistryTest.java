@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.mining.calls.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cc.recommenders.exceptions.AssertionException;
+import cc.recommenders.io.Logger;
+
+import com.google.common.collect.Lists;
+
+public class MetricsRegistryTest {
+
+	private MetricsRegistry sut;
+
+	@Before
+	public void setup() {
+		Logger.reset();
+		sut = new MetricsRegistry();
+	}
+
+	@After
+	public void teardown() {
+		sut.stopPeriodicDump();
+		Logger.reset();
+	}
+
+	@Test
+	public void metricsAreCreatedOnce() {
+		assertSame(sut.counter("a"), sut.counter("a"));
+		assertSame(sut.gauge("a"), sut.gauge("a"));
+		assertSame(sut.timer("a"), sut.timer("a"));
+	}
+
+	@Test(expected = AssertionException.class)
+	public void nameMustNotBeNull() {
+		sut.counter(null);
+	}
+
+	@Test
+	public void countersAndGauges() {
+		sut.counter("c").inc();
+		sut.counter("c").add(2);
+		sut.gauge("g").set(3);
+		sut.gauge("g").set(5);
+
+		assertEquals(3, sut.getCounters().get("c").getCount());
+		assertEquals(5, sut.getGauges().get("g").getValue());
+	}
+
+	@Test
+	public void metricsAreSortedByName() {
+		sut.timer("b");
+		sut.timer("c");
+		sut.timer("a");
+		List<String> expected = Lists.newArrayList("a", "b", "c");
+		assertEquals(expected, Lists.newArrayList(sut.getTimers().keySet()));
+	}
+
+	@Test
+	public void resetKeepsTheInstances() {
+		Counter c = sut.counter("c");
+		c.inc();
+		Gauge g = sut.gauge("g");
+		g.set(1);
+		StageTimer t = sut.timer("t");
+		t.record(1000);
+
+		sut.reset();
+
+		assertSame(c, sut.counter("c"));
+		assertEquals(0, c.getCount());
+		assertEquals(0, g.getValue());
+		assertEquals(0, t.getCount());
+	}
+
+	@Test
+	public void dumpContainsAllMetrics() {
+		sut.counter("some.counter").add(12);
+		sut.gauge("some.gauge").set(34);
+		sut.timer("some.timer").record(2000000);
+
+		String actual = sut.dump();
+
+		assertTrue(actual.contains("some.counter: 12\n"));
+		assertTrue(actual.contains("some.gauge: 34\n"));
+		assertTrue(actual.contains("some.timer: 1x, total 2.0ms"));
+	}
+
+	@Test
+	public void dumpIsLoggedPeriodically() throws InterruptedException {
+		Logger.setCapturing(true);
+		sut.counter("c").inc();
+
+		sut.startPeriodicDump(10, TimeUnit.MILLISECONDS);
+		Thread.sleep(200);
+		sut.stopPeriodicDump();
+
+		List<String> log = Logger.getCapturedLog();
+		assertTrue(log.size() >= 2);
+		assertTrue(log.get(0).contains("c: 1"));
+	}
+
+	@Test(expected = AssertionException.class)
+	public void periodMustBePositive() {
+		sut.startPeriodicDump(0, TimeUnit.SECONDS);
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.mining.calls.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import cc.recommenders.utils.AllocationMeter;
+
+public class StageTimerTest {
+
+	private StageTimer sut;
+
+	@Before
+	public void setup() {
+		sut = new StageTimer();
+	}
+
+	@Test
+	public void defaultValues() {
+		assertEquals(0, sut.getCount());
+		assertEquals(0.0, sut.getTotalInMS(), 0.0001);
+		assertEquals(0.0, sut.getMeanInMS(), 0.0001);
+		assertEquals(0.0, sut.getMaxInMS(), 0.0001);
+	}
+
+	@Test
+	public void recordedDurationsAreAggregated() {
+		sut.record(1000000);
+		sut.record(3000000);
+
+		assertEquals(2, sut.getCount());
+		assertEquals(4.0, sut.getTotalInMS(), 0.0001);
+		assertEquals(2.0, sut.getMeanInMS(), 0.0001);
+		assertEquals(3.0, sut.getMaxInMS(), 0.0001);
+	}
+
+	@Test
+	public void measurementsAreRecorded() throws InterruptedException {
+		StageTimer.Measurement m = sut.start();
+		Thread.sleep(5);
+		double actual = m.stop();
+
+		assertTrue(actual >= 4);
+		assertEquals(1, sut.getCount());
+		assertEquals(actual, sut.getTotalInMS(), 0.0001);
+	}
+
+	@Test
+	public void durationsSinceAStartAreRecorded() throws InterruptedException {
+		long start = sut.startNanos();
+		Thread.sleep(5);
+		double actual = sut.recordSince(start);
+
+		assertTrue(actual >= 4);
+		assertEquals(1, sut.getCount());
+		assertEquals(actual, sut.getTotalInMS(), 0.0001);
+	}
+
+	@Test
+	public void recordingSinceAStartDoesNotAllocate() {
+		AllocationMeter meter = new AllocationMeter();
+		assumeTrue(meter.isSupported());
+		for (int i = 0; i < 100000; i++) {
+			sut.recordSince(sut.startNanos());
+		}
+
+		long before = meter.getAllocatedBytes();
+		for (int i = 0; i < 1000; i++) {
+			sut.recordSince(sut.startNanos());
+		}
+		long allocated = meter.getAllocatedBytes() - before;
+
+		assertTrue("allocated " + allocated + " bytes", allocated < 1000);
+	}
+
+	@Test
+	public void allocationsAreMeasured() {
+		assumeTrue(new AllocationMeter().isSupported());
+
+		StageTimer.Measurement m = sut.start();
+		byte[] data = new byte[1024 * 1024];
+		m.stop();
+
+		assertEquals(1024 * 1024, data.length);
+		assertTrue(sut.getAllocatedBytes() >= 1024 * 1024);
+	}
+}
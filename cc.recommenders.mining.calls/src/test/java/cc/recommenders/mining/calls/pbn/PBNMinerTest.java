@@ -11,6 +11,7 @@
 package cc.recommenders.mining.calls.pbn;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
@@ -31,6 +32,9 @@ import cc.recommenders.mining.calls.Pattern;
 import cc.recommenders.mining.calls.PatternFinder;
 import cc.recommenders.mining.calls.PatternFinderFactory;
 import cc.recommenders.mining.calls.QueryOptions;
+import cc.recommenders.mining.calls.metrics.MetricsRegistry;
+import cc.recommenders.mining.calls.metrics.MiningMetrics;
+import cc.recommenders.mining.calls.metrics.StageTimer;
 import cc.recommenders.mining.calls.pbn.PBNMiner;
 import cc.recommenders.mining.calls.pbn.PBNModelBuilder;
 import cc.recommenders.mining.features.FeatureExtractor;
@@ -145,6 +149,24 @@ public class PBNMinerTest {
 		assertSame(expected, actual);
 	}
 
+	@Test
+	public void stagesAreMeasured() {
+		MetricsRegistry.getDefault().reset();
+		miningOptions.setFeatureDropping(true);
+		when(usages.size()).thenReturn(7);
+
+		sut.learnModel(usages);
+
+		for (StageTimer t : new StageTimer[] { MiningMetrics.EXTRACTION, MiningMetrics.DICTIONARY,
+				MiningMetrics.FEATURE_DROPPING, MiningMetrics.NETWORK, MiningMetrics.TOTAL }) {
+			assertEquals(1, t.getCount());
+		}
+		assertEquals(1, MiningMetrics.MODELS.getCount());
+		assertEquals(7, MiningMetrics.USAGES.getCount());
+		assertEquals(1, MiningMetrics.DROPPED_FEATURES.getCount());
+		assertEquals(3, MiningMetrics.LAST_NUM_FEATURES.getValue());
+	}
+
 	@Test
 	public void whatHappensWhenFeatureDroppingIsEnabled() {
 		miningOptions.setFeatureDropping(true);
@@ -32,7 +32,10 @@ import org.junit.Before;
 import org.junit.Test;
 
 import cc.recommenders.datastructures.Tuple;
+import cc.recommenders.mining.calls.metrics.MetricsRegistry;
+import cc.recommenders.mining.calls.metrics.QueryMetrics;
 import cc.recommenders.names.IMethodName;
+import cc.recommenders.names.VmTypeName;
 
 @SuppressWarnings("unchecked")
 public class PBNRecommenderTest {
@@ -146,6 +149,55 @@ public class PBNRecommenderTest {
 		recommender.query(createQueryWithUnobservedData());
 	}
 
+	@Test
+	public void metricsAreRecorded() {
+		MetricsRegistry.getDefault().reset();
+		recommender.query(createQuery());
+
+		QueryMetrics metrics = QueryMetrics.get("pbn");
+		assertEquals(1, metrics.queries.getCount());
+		assertEquals(0, metrics.unknownOutcomes.getCount());
+		assertEquals(0, metrics.missingCallNodes.getCount());
+		assertEquals(2, metrics.candidates.getCount());
+		assertEquals(2, metrics.proposals.getCount());
+		assertEquals(1, metrics.latency.getCount());
+	}
+
+	@Test
+	public void unobservedDataIsCounted() {
+		MetricsRegistry.getDefault().reset();
+		recommender.query(createQueryWithUnobservedData());
+
+		QueryMetrics metrics = QueryMetrics.get("pbn");
+		assertEquals(3, metrics.unknownOutcomes.getCount());
+		assertEquals(1, metrics.missingCallNodes.getCount());
+		assertEquals(1, metrics.missingParameterNodes.getCount());
+	}
+
+	@Test
+	public void metricsAreRecordedPerType() {
+		MetricsRegistry.getDefault().reset();
+		QueryMetrics.setRecordingPerType(true);
+		try {
+			recommender.query(createQuery());
+			recommender.query(createQuery());
+		} finally {
+			QueryMetrics.setRecordingPerType(false);
+		}
+
+		assertEquals(2, QueryMetrics.get("pbn", VmTypeName.get("LC")).queries.getCount());
+		assertEquals(0, QueryMetrics.get("pbn", VmTypeName.get("LD")).queries.getCount());
+	}
+
+	@Test
+	public void metricsPerTypeAreOptIn() {
+		MetricsRegistry.getDefault().reset();
+		recommender.query(createQuery());
+
+		assertEquals(1, QueryMetrics.get("pbn").queries.getCount());
+		assertEquals(0, QueryMetrics.get("pbn", VmTypeName.get("LC")).queries.getCount());
+	}
+
 	@Test
 	public void size_floatMinimal() {
 		int actual = newFloatRecommender().getSize();
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * open addressing hash set of primitive ints, see {@link IntObjectHashMap}
+ */
+public class IntHashSet {
+
+	private int[] keys;
+	private boolean[] used;
+	private int size;
+	private int mask;
+
+	public IntHashSet() {
+		this(16);
+	}
+
+	public IntHashSet(int expectedSize) {
+		allocate(capacityFor(expectedSize));
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		used = new boolean[capacity];
+		mask = capacity - 1;
+	}
+
+	public boolean add(int key) {
+		int idx = indexOf(key);
+		if (used[idx]) {
+			return false;
+		}
+		keys[idx] = key;
+		used[idx] = true;
+		if (++size > keys.length / 2) {
+			rehash();
+		}
+		return true;
+	}
+
+	public boolean contains(int key) {
+		return used[indexOf(key)];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		if (size > 0) {
+			Arrays.fill(used, false);
+			size = 0;
+		}
+	}
+
+	public int[] toArray() {
+		int[] res = new int[size];
+		int num = 0;
+		for (int i = 0; i < used.length; i++) {
+			if (used[i]) {
+				res[num++] = keys[i];
+			}
+		}
+		return res;
+	}
+
+	private int indexOf(int key) {
+		int idx = mix(key) & mask;
+		while (used[idx] && keys[idx] != key) {
+			idx = (idx + 1) & mask;
+		}
+		return idx;
+	}
+
+	private void rehash() {
+		int[] oldKeys = keys;
+		boolean[] oldUsed = used;
+		allocate(oldKeys.length * 2);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldUsed[i]) {
+				int idx = indexOf(oldKeys[i]);
+				keys[idx] = oldKeys[i];
+				used[idx] = true;
+			}
+		}
+	}
+
+	static int capacityFor(int expectedSize) {
+		int capacity = 4;
+		while (capacity < 2 * expectedSize) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	static int mix(int key) {
+		// dense ids would otherwise end up in long runs of neighboring slots
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
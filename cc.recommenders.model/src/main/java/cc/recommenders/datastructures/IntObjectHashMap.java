@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.datastructures;
+
+import java.util.Arrays;
+
+import cc.recommenders.assertions.Asserts;
+
+/**
+ * open addressing hash map from primitive int keys to non-null values, meant
+ * to be used with the ids of cc.recommenders.names.NameTable (no boxing, no
+ * entry objects)
+ */
+public class IntObjectHashMap<V> {
+
+	private int[] keys;
+	private Object[] values;
+	private int size;
+	private int mask;
+
+	public IntObjectHashMap() {
+		this(16);
+	}
+
+	public IntObjectHashMap(int expectedSize) {
+		allocate(IntHashSet.capacityFor(expectedSize));
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+	}
+
+	public V put(int key, V value) {
+		Asserts.assertNotNull(value);
+		int idx = indexOf(key);
+		@SuppressWarnings("unchecked")
+		V old = (V) values[idx];
+		keys[idx] = key;
+		values[idx] = value;
+		if (old == null && ++size > keys.length / 2) {
+			rehash();
+		}
+		return old;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		return (V) values[indexOf(key)];
+	}
+
+	public boolean containsKey(int key) {
+		return values[indexOf(key)] != null;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	public int[] keys() {
+		int[] res = new int[size];
+		int num = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				res[num++] = keys[i];
+			}
+		}
+		return res;
+	}
+
+	private int indexOf(int key) {
+		int idx = IntHashSet.mix(key) & mask;
+		while (values[idx] != null && keys[idx] != key) {
+			idx = (idx + 1) & mask;
+		}
+		return idx;
+	}
+
+	private void rehash() {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(oldKeys.length * 2);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != null) {
+				int idx = indexOf(oldKeys[i]);
+				keys[idx] = oldKeys[i];
+				values[idx] = oldValues[i];
+			}
+		}
+	}
+}
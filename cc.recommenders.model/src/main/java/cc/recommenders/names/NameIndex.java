@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.names;
+
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.base.Function;
+import com.google.common.collect.MapMaker;
+
+/**
+ * Canonicalizing index for names that is safe for concurrent use without a
+ * global lock. Lookups of already known names do not lock at all, concurrent
+ * creation of the same name may create several candidates, but only the first
+ * one that is published is ever returned.
+ */
+class NameIndex<T extends IName> {
+
+    private final ConcurrentMap<String, T> index;
+    private final Function<String, T> factory;
+
+    public NameIndex(final Function<String, T> factory) {
+        this.factory = factory;
+        int concurrencyLevel = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+        index = new MapMaker().concurrencyLevel(concurrencyLevel).weakValues().makeMap();
+    }
+
+    public T getIfPresent(final String identifier) {
+        return index.get(identifier);
+    }
+
+    public T get(final String identifier) {
+        T res = index.get(identifier);
+        if (res == null) {
+            final T candidate = factory.apply(identifier);
+            res = index.putIfAbsent(identifier, candidate);
+            if (res == null) {
+                res = candidate;
+            }
+        }
+        return res;
+    }
+
+    public int size() {
+        return index.size();
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.names;
+
+import static cc.recommenders.assertions.Checks.ensureIsNotNull;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.MapMaker;
+
+/**
+ * Dense int ids for method and type names, which can be used as keys in the
+ * primitive collections of cc.recommenders.datastructures. {@link VmMethodName}
+ * and {@link VmTypeName} draw their id once when they are interned, other
+ * implementations get an id on their first request (compared by identity).
+ */
+public final class NameTable {
+
+    private static final AtomicInteger nextId = new AtomicInteger();
+    private static final ConcurrentMap<IName, Integer> foreignIds = new MapMaker().weakKeys().makeMap();
+
+    private NameTable() {
+    }
+
+    static int nextId() {
+        return nextId.getAndIncrement();
+    }
+
+    public static int getId(final IMethodName name) {
+        if (name instanceof VmMethodName) {
+            return ((VmMethodName) name).getId();
+        }
+        return getForeignId(name);
+    }
+
+    public static int getId(final ITypeName name) {
+        if (name instanceof VmTypeName) {
+            return ((VmTypeName) name).getId();
+        }
+        return getForeignId(name);
+    }
+
+    private static int getForeignId(final IName name) {
+        ensureIsNotNull(name);
+        Integer id = foreignIds.get(name);
+        if (id == null) {
+            final Integer candidate = nextId();
+            id = foreignIds.putIfAbsent(name, candidate);
+            if (id == null) {
+                id = candidate;
+            }
+        }
+        return id;
+    }
+
+    /**
+     * @return upper bound (exclusive) of all ids that have been assigned so far
+     */
+    public static int size() {
+        return nextId.get();
+    }
+}
@@ -12,16 +12,12 @@ package cc.recommenders.names;
 
 import static cc.recommenders.assertions.Checks.ensureIsNotNull;
 
-import java.util.Map;
-
 import org.apache.commons.lang3.StringUtils;
 
-import com.google.common.collect.MapMaker;
-
 public class VmFieldName implements IFieldName {
     private static final long serialVersionUID = 5067244907255465328L;
 
-    private static Map<String /* vmTypeName */, VmFieldName> index = new MapMaker().weakValues().makeMap();
+    private static final NameIndex<VmFieldName> index = new NameIndex<VmFieldName>(VmFieldName::new);
 
     /**
      * Format: DeclaringType'.'fieldName;FieldType, i.e., &lt;VmTypeName&gt;.&lt;String&gt;;&lt;VmTypeName&gt;
@@ -30,13 +26,7 @@ public class VmFieldName implements IFieldName {
      * @return
      */
     public static VmFieldName get(final String fieldName) {
-        // typeName = removeGenerics(typeName);
-        VmFieldName res = index.get(fieldName);
-        if (res == null) {
-            res = new VmFieldName(fieldName);
-            index.put(fieldName, res);
-        }
-        return res;
+        return index.get(fieldName);
     }
 
     private String identifier;
@@ -24,17 +24,15 @@ import static cc.recommenders.names.VmTypeName.LONG;
 import static cc.recommenders.names.VmTypeName.SHORT;
 import static cc.recommenders.names.VmTypeName.VOID;
 
+import java.io.ObjectStreamException;
 import java.util.ArrayList;
-import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 
-import com.google.common.collect.MapMaker;
-
 public class VmMethodName implements IMethodName {
     private static final long serialVersionUID = 688964238062226061L;
 
-    private static Map<String /* name */, VmMethodName> index = new MapMaker().weakValues().makeMap();
+    private static final NameIndex<VmMethodName> index = new NameIndex<VmMethodName>(VmMethodName::create);
 
     public static VmMethodName get(final String vmFullQualifiedTypeName, final String vmMethodSignature) {
         return get(vmFullQualifiedTypeName + "." + vmMethodSignature);
@@ -57,16 +55,15 @@ public class VmMethodName implements IMethodName {
         return get(vmBaseTypeName.getIdentifier(), vmMethodName.getSignature());
     }
 
-    public static synchronized VmMethodName get(final String vmFullQualifiedMethodName) {
-        VmMethodName res = index.get(vmFullQualifiedMethodName);
-        if (res == null) {
-            if (vmFullQualifiedMethodName.startsWith("< ")) {
-                throwIllegalArgumentException("invalid input: " + vmFullQualifiedMethodName);
-            }
-            res = new VmMethodName(vmFullQualifiedMethodName);
-            index.put(vmFullQualifiedMethodName, res);
+    public static VmMethodName get(final String vmFullQualifiedMethodName) {
+        return index.get(vmFullQualifiedMethodName);
+    }
+
+    private static VmMethodName create(final String vmFullQualifiedMethodName) {
+        if (vmFullQualifiedMethodName.startsWith("< ")) {
+            throwIllegalArgumentException("invalid input: " + vmFullQualifiedMethodName);
         }
-        return res;
+        return new VmMethodName(vmFullQualifiedMethodName);
     }
 
     public static final IMethodName NULL = VmMethodName.get("L_null.null()V");
@@ -76,6 +73,15 @@ public class VmMethodName implements IMethodName {
     // }
     private String identifier;
 
+    // only valid for interned instances, see readResolve()
+    private final transient int id = NameTable.nextId();
+
+    // parsed components, computed once (racy initialization is fine, all values are interned)
+    private transient ITypeName declaringType;
+    private transient String name;
+    private transient ITypeName[] parameterTypes;
+    private transient ITypeName returnType;
+
     protected VmMethodName() {
         // no-one should instantiate this class. But maybe we need subclasses
         // later...
@@ -93,8 +99,26 @@ public class VmMethodName implements IMethodName {
         getReturnType();
     }
 
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * deserialized names are replaced by the interned instance, which has a valid id
+     */
+    protected Object readResolve() throws ObjectStreamException {
+        return get(identifier);
+    }
+
     @Override
     public ITypeName getDeclaringType() {
+        if (declaringType == null) {
+            declaringType = parseDeclaringType();
+        }
+        return declaringType;
+    }
+
+    private ITypeName parseDeclaringType() {
         final int bracket = identifier.lastIndexOf('(');
         final int methodSeperator = identifier.lastIndexOf('.', bracket);
         return VmTypeName.get(identifier.substring(0, methodSeperator));
@@ -113,6 +137,13 @@ public class VmMethodName implements IMethodName {
 
     @Override
     public String getName() {
+        if (name == null) {
+            name = parseName();
+        }
+        return name;
+    }
+
+    private String parseName() {
         final int methodSeperator = identifier.lastIndexOf('.');
         final int argumentsSeperator = identifier.lastIndexOf('(');
         return identifier.substring(methodSeperator + 1, argumentsSeperator);
@@ -120,6 +151,13 @@ public class VmMethodName implements IMethodName {
 
     @Override
     public ITypeName[] getParameterTypes() {
+        if (parameterTypes == null) {
+            parameterTypes = parseParameterTypes();
+        }
+        return parameterTypes.clone();
+    }
+
+    private ITypeName[] parseParameterTypes() {
         final ArrayList<VmTypeName> argTypes = new ArrayList<VmTypeName>();
         final int openingBracket = identifier.lastIndexOf('(');
         final char[] desc = identifier.substring(openingBracket + 1).toCharArray();
@@ -220,19 +258,26 @@ public class VmMethodName implements IMethodName {
 
     @Override
     public ITypeName getReturnType() {
-        String returnType = StringUtils.substringAfterLast(identifier, ")");
+        if (returnType == null) {
+            returnType = parseReturnType();
+        }
+        return returnType;
+    }
+
+    private ITypeName parseReturnType() {
+        String type = StringUtils.substringAfterLast(identifier, ")");
         // strip off throws type from method return
-        returnType = StringUtils.substringBefore(returnType, "|");
-        if (!returnType.endsWith(";")) {
+        type = StringUtils.substringBefore(type, "|");
+        if (!type.endsWith(";")) {
 
             // be sure that if it does not end with a ';' is MUST be a primitive
             // or an array of primitives:
-            final ITypeName res = VmTypeName.get(returnType);
+            final ITypeName res = VmTypeName.get(type);
             ensureIsTrue(res.isPrimitiveType() || res.isArrayType() && res.getArrayBaseType().isPrimitiveType());
             return res;
         } else {
-            returnType = StringUtils.substring(returnType, 0, -1);
-            return VmTypeName.get(returnType);
+            type = StringUtils.substring(type, 0, -1);
+            return VmTypeName.get(type);
         }
     }
 
@@ -280,6 +325,9 @@ public class VmMethodName implements IMethodName {
 
     @Override
     public boolean hasParameters() {
-        return getParameterTypes().length > 0;
+        if (parameterTypes == null) {
+            parameterTypes = parseParameterTypes();
+        }
+        return parameterTypes.length > 0;
     }
 }
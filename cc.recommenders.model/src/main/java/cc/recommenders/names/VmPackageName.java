@@ -10,24 +10,17 @@
  */
 package cc.recommenders.names;
 
-import java.util.Map;
 import java.util.Set;
 
-import com.google.common.collect.MapMaker;
 import com.google.common.collect.Sets;
 
 public class VmPackageName implements IPackageName {
 
-    private static Map<String/* name 2 */, VmPackageName> index = new MapMaker().weakValues().makeMap();
+    private static final NameIndex<VmPackageName> index = new NameIndex<VmPackageName>(VmPackageName::new);
     public static IPackageName DEFAULT_PACKAGE = get("");
 
     public static VmPackageName get(final String vmPackageName) {
-        VmPackageName res = index.get(vmPackageName);
-        if (res == null) {
-            res = new VmPackageName(vmPackageName);
-            index.put(vmPackageName, res);
-        }
-        return res;
+        return index.get(vmPackageName);
     }
 
     /**
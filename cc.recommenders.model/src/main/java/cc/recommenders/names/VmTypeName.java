@@ -16,14 +16,12 @@ import static cc.recommenders.assertions.Checks.ensureIsTrue;
 import static cc.recommenders.assertions.Throws.throwIllegalArgumentException;
 import static cc.recommenders.assertions.Throws.throwUnreachable;
 
-import java.util.Map;
+import java.io.ObjectStreamException;
 
 import org.apache.commons.lang3.StringUtils;
 
-import com.google.common.collect.MapMaker;
-
 public class VmTypeName implements ITypeName {
-    private static Map<String /* vmTypeName */, VmTypeName> index = new MapMaker().weakValues().makeMap();
+    private static final NameIndex<VmTypeName> index = new NameIndex<VmTypeName>(VmTypeName::new);
 
     public static final VmTypeName OBJECT = VmTypeName.get("Ljava/lang/Object");
 
@@ -58,12 +56,11 @@ public class VmTypeName implements ITypeName {
 
     public static final VmTypeName VOID = get("V");
 
-    public static VmTypeName get(String typeName) {
-        typeName = removeGenerics(typeName);
-        VmTypeName res = index.get(typeName);
+    public static VmTypeName get(final String typeName) {
+        // fast path, names without generics are their own key
+        VmTypeName res = index.getIfPresent(typeName);
         if (res == null) {
-            res = new VmTypeName(typeName);
-            index.put(typeName, res);
+            res = index.get(removeGenerics(typeName));
         }
         return res;
     }
@@ -74,6 +71,9 @@ public class VmTypeName implements ITypeName {
 
     private String identifier;
 
+    // only valid for interned instances, see readResolve()
+    private final transient int id = NameTable.nextId();
+
     protected VmTypeName() {
         // no-one should instantiate this class. O
     }
@@ -158,6 +158,17 @@ public class VmTypeName implements ITypeName {
         return identifier;
     }
 
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * deserialized names are replaced by the interned instance, which has a valid id
+     */
+    protected Object readResolve() throws ObjectStreamException {
+        return get(identifier);
+    }
+
     @Override
     public IPackageName getPackage() {
         final int lastSlash = identifier.lastIndexOf('/');
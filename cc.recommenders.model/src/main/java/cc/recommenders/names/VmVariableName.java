@@ -12,17 +12,13 @@ package cc.recommenders.names;
 
 import static cc.recommenders.assertions.Checks.ensureIsNotNull;
 
-import java.util.Map;
-
 import org.apache.commons.lang3.StringUtils;
 
-import com.google.common.collect.MapMaker;
-
 public class VmVariableName implements IVariableName {
 
     private static final long serialVersionUID = 5067244907255465328L;
 
-    private static Map<String /* vmTypeName */, VmVariableName> index = new MapMaker().weakValues().makeMap();
+    private static final NameIndex<VmVariableName> index = new NameIndex<VmVariableName>(VmVariableName::new);
 
     /**
      * Format: DeclaringType'.'fieldName;FieldType, i.e., &lt;VmTypeName&gt;.&lt;String&gt;;&lt;VmTypeName&gt;
@@ -31,13 +27,7 @@ public class VmVariableName implements IVariableName {
      * @return
      */
     public static VmVariableName get(final String variableName) {
-
-        VmVariableName res = index.get(variableName);
-        if (res == null) {
-            res = new VmVariableName(variableName);
-            index.put(variableName, res);
-        }
-        return res;
+        return index.get(variableName);
     }
 
     private String identifier;
@@ -17,7 +17,7 @@ import cc.recommenders.names.IMethodName;
  */
 public class CallSite {
 
-	// ensure consistent naming with hard-coded names in "UsageTypeAdapter"
+	// ensure consistent naming with hard-coded names in "CallSiteTypeAdapter"
 
 	private CallSiteKind kind;
 	private IMethodName method;
@@ -18,7 +18,8 @@ import cc.recommenders.names.IMethodName;
  */
 public class DefinitionSite {
 
-	// ensure consistent naming with hard-coded names in "UsageTypeAdapter"
+	// ensure consistent naming with hard-coded names in
+	// "DefinitionSiteTypeAdapter"
 
 	private DefinitionSiteKind kind;
 	private IMethodName method;
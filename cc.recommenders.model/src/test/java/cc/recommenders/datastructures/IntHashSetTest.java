@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.datastructures;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class IntHashSetTest {
+
+	@Test
+	public void emptySet() {
+		IntHashSet sut = new IntHashSet();
+		assertTrue(sut.isEmpty());
+		assertEquals(0, sut.size());
+		assertFalse(sut.contains(0));
+		assertArrayEquals(new int[0], sut.toArray());
+	}
+
+	@Test
+	public void addAndContains() {
+		IntHashSet sut = new IntHashSet();
+		assertTrue(sut.add(3));
+		assertTrue(sut.add(-7));
+		assertFalse(sut.add(3));
+
+		assertEquals(2, sut.size());
+		assertTrue(sut.contains(3));
+		assertTrue(sut.contains(-7));
+		assertFalse(sut.contains(4));
+	}
+
+	@Test
+	public void growing() {
+		IntHashSet sut = new IntHashSet(1);
+		for (int i = 0; i < 1000; i++) {
+			sut.add(i * 16);
+		}
+		assertEquals(1000, sut.size());
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(sut.contains(i * 16));
+			assertFalse(sut.contains(i * 16 + 1));
+		}
+	}
+
+	@Test
+	public void toArrayContainsAllElements() {
+		IntHashSet sut = new IntHashSet();
+		sut.add(5);
+		sut.add(1);
+		sut.add(3);
+		int[] actual = sut.toArray();
+		Arrays.sort(actual);
+		assertArrayEquals(new int[] { 1, 3, 5 }, actual);
+	}
+
+	@Test
+	public void clear() {
+		IntHashSet sut = new IntHashSet();
+		sut.add(1);
+		sut.clear();
+		assertTrue(sut.isEmpty());
+		assertFalse(sut.contains(1));
+		assertTrue(sut.add(1));
+	}
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.datastructures;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import cc.recommenders.exceptions.AssertionException;
+
+public class IntObjectHashMapTest {
+
+	@Test
+	public void emptyMap() {
+		IntObjectHashMap<String> sut = new IntObjectHashMap<String>();
+		assertTrue(sut.isEmpty());
+		assertNull(sut.get(1));
+		assertFalse(sut.containsKey(1));
+	}
+
+	@Test
+	public void putAndGet() {
+		IntObjectHashMap<String> sut = new IntObjectHashMap<String>();
+		assertNull(sut.put(1, "a"));
+		assertNull(sut.put(2, "b"));
+		assertEquals("a", sut.put(1, "c"));
+
+		assertEquals(2, sut.size());
+		assertEquals("c", sut.get(1));
+		assertEquals("b", sut.get(2));
+		assertTrue(sut.containsKey(2));
+		assertNull(sut.get(3));
+	}
+
+	@Test(expected = AssertionException.class)
+	public void nullValuesAreNotSupported() {
+		new IntObjectHashMap<String>().put(1, null);
+	}
+
+	@Test
+	public void growing() {
+		IntObjectHashMap<Integer> sut = new IntObjectHashMap<Integer>(1);
+		for (int i = 0; i < 1000; i++) {
+			sut.put(i, i * 2);
+		}
+		assertEquals(1000, sut.size());
+		for (int i = 0; i < 1000; i++) {
+			assertEquals((Integer) (i * 2), sut.get(i));
+		}
+	}
+
+	@Test
+	public void keys() {
+		IntObjectHashMap<String> sut = new IntObjectHashMap<String>();
+		sut.put(7, "a");
+		sut.put(3, "b");
+		int[] actual = sut.keys();
+		Arrays.sort(actual);
+		assertArrayEquals(new int[] { 3, 7 }, actual);
+	}
+
+	@Test
+	public void clear() {
+		IntObjectHashMap<String> sut = new IntObjectHashMap<String>();
+		sut.put(1, "a");
+		sut.clear();
+		assertTrue(sut.isEmpty());
+		assertNull(sut.get(1));
+	}
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.names;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class NameIndexTest {
+
+	private static final int NUM_THREADS = 8;
+	private static final int NUM_NAMES = 500;
+
+	@Test
+	public void namesAreCreatedOnce() {
+		final AtomicInteger numCreated = new AtomicInteger();
+		NameIndex<VmTypeName> sut = new NameIndex<VmTypeName>(s -> {
+			numCreated.incrementAndGet();
+			return new VmTypeName(s);
+		});
+
+		assertNull(sut.getIfPresent("La/B"));
+		VmTypeName a = sut.get("La/B");
+		assertSame(a, sut.get("La/B"));
+		assertSame(a, sut.getIfPresent("La/B"));
+		assertEquals(1, numCreated.get());
+		assertEquals(1, sut.size());
+	}
+
+	@Test
+	public void genericsAreRemoved() {
+		assertSame(VmTypeName.get("La/B"), VmTypeName.get("La/B<La/C;>"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidMethodsAreRejected() {
+		VmMethodName.get("< La/B.m()V");
+	}
+
+	@Test
+	public void concurrentRequestsResultInIdenticalInstances() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(NUM_THREADS);
+		final CountDownLatch start = new CountDownLatch(1);
+		List<Future<IName[]>> futures = Lists.newLinkedList();
+		for (int t = 0; t < NUM_THREADS; t++) {
+			futures.add(pool.submit(new Callable<IName[]>() {
+				@Override
+				public IName[] call() throws Exception {
+					start.await();
+					IName[] names = new IName[NUM_NAMES * 2];
+					for (int i = 0; i < NUM_NAMES; i++) {
+						names[2 * i] = VmTypeName.get("Lconcurrent/T" + i);
+						names[2 * i + 1] = VmMethodName.get("Lconcurrent/T" + i + ".m(Lconcurrent/T" + i + ";)V");
+					}
+					return names;
+				}
+			}));
+		}
+		start.countDown();
+
+		IName[] expected = futures.get(0).get();
+		for (Future<IName[]> f : futures) {
+			IName[] actual = f.get();
+			for (int i = 0; i < actual.length; i++) {
+				assertSame(expected[i], actual[i]);
+			}
+		}
+		pool.shutdown();
+	}
+}
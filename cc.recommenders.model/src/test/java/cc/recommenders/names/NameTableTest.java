@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.names;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Test;
+
+public class NameTableTest {
+
+	@Test
+	public void deserializedNamesAreInterned() throws Exception {
+		VmMethodName m = VmMethodName.get("La/B.m(La/C;)V");
+
+		VmMethodName copy = (VmMethodName) roundTrip(m);
+
+		assertSame(m, copy);
+		assertEquals(m.getId(), copy.getId());
+		assertSame(VmTypeName.get("La/B"), copy.getDeclaringType());
+	}
+
+	private static Object roundTrip(Object o) throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(baos);
+		out.writeObject(o);
+		out.close();
+		return new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray())).readObject();
+	}
+
+	@Test
+	public void idsAreStable() {
+		VmMethodName m = VmMethodName.get("La/B.m()V");
+		assertEquals(m.getId(), NameTable.getId(m));
+		assertEquals(NameTable.getId(m), NameTable.getId(VmMethodName.get("La/B.m()V")));
+	}
+
+	@Test
+	public void idsAreUnique() {
+		int a = NameTable.getId(VmMethodName.get("La/B.m()V"));
+		int b = NameTable.getId(VmMethodName.get("La/B.n()V"));
+		int c = NameTable.getId(VmTypeName.get("La/B"));
+		assertNotEquals(a, b);
+		assertNotEquals(a, c);
+		assertNotEquals(b, c);
+		assertTrue(NameTable.size() > Math.max(a, Math.max(b, c)));
+	}
+
+	@Test
+	public void otherImplementationsAreSupported() {
+		IMethodName m1 = mock(IMethodName.class);
+		IMethodName m2 = mock(IMethodName.class);
+		int id1 = NameTable.getId(m1);
+		assertEquals(id1, NameTable.getId(m1));
+		assertNotEquals(id1, NameTable.getId(m2));
+		assertNotEquals(id1, NameTable.getId(VmMethodName.get("La/B.m()V")));
+	}
+
+	@Test
+	public void parsedComponentsAreCached() {
+		IMethodName m = VmMethodName.get("La/B.m(La/C;I)La/D;");
+		assertSame(VmTypeName.get("La/B"), m.getDeclaringType());
+		assertSame(m.getName(), m.getName());
+		assertEquals("m", m.getName());
+		assertSame(VmTypeName.get("La/D"), m.getReturnType());
+		assertArrayEquals(new ITypeName[] { VmTypeName.get("La/C"), VmTypeName.INT }, m.getParameterTypes());
+		assertTrue(m.hasParameters());
+	}
+
+	@Test
+	public void cachedParametersCannotBeModified() {
+		IMethodName m = VmMethodName.get("La/B.m(La/C;)V");
+		m.getParameterTypes()[0] = null;
+		assertSame(VmTypeName.get("La/C"), m.getParameterTypes()[0]);
+	}
+}
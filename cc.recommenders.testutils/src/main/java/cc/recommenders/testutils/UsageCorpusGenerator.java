@@ -0,0 +1,413 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.testutils;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import cc.recommenders.assertions.Asserts;
+import cc.recommenders.io.Directory;
+import cc.recommenders.io.NestedZipFolders;
+import cc.recommenders.io.WritingArchive;
+import cc.recommenders.names.IMethodName;
+import cc.recommenders.names.ITypeName;
+import cc.recommenders.names.VmFieldName;
+import cc.recommenders.names.VmMethodName;
+import cc.recommenders.names.VmTypeName;
+import cc.recommenders.usages.ProjectFoldedUsage;
+import cc.recommenders.usages.ProjectFoldingIndex;
+import cc.recommenders.usages.Usage;
+
+import com.codetrails.data.CallSite;
+import com.codetrails.data.CallSiteKind;
+import com.codetrails.data.DefinitionKind;
+import com.codetrails.data.DefinitionSite;
+import com.codetrails.data.DefinitionSites;
+import com.codetrails.data.EnclosingMethodContext;
+import com.codetrails.data.ObjectUsage;
+import com.codetrails.data.UsageConverter;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Generates synthetic, but realistically distributed corpora of object usages
+ * for scale tests. The popularity of types, call sites, contexts and projects
+ * follows Zipf distributions. Each type has a number of patterns (a set of
+ * calls, a definition and preferred contexts), every usage is a noisy copy of
+ * one of them.
+ *
+ * The same seed and configuration always result in the same corpus, all
+ * write methods start from the beginning, so the different layouts contain
+ * the same usages.
+ */
+public class UsageCorpusGenerator {
+
+	private final long seed;
+
+	private int numUsages = 10000;
+	private int numProjects = 20;
+	private double projectExponent = 0.8;
+	private int numTypes = 100;
+	private double typeExponent = 1.0;
+	private int numCallsPerType = 30;
+	private double callExponent = 1.0;
+	private int numPatternsPerType = 10;
+	private double patternExponent = 1.0;
+	private int maxCallsPerPattern = 6;
+	private int numClassContexts = 200;
+	private int numMethodContexts = 20;
+	private double contextExponent = 1.0;
+	private double noise = 0.1;
+	private final Map<DefinitionKind, Double> definitionWeights = new EnumMap<DefinitionKind, Double>(
+			DefinitionKind.class);
+
+	private final UsageConverter converter = new UsageConverter();
+
+	private Random rnd;
+	private ZipfDistribution typeDist;
+	private ZipfDistribution patternDist;
+	private ZipfDistribution callDist;
+	private ZipfDistribution classContextDist;
+	private ZipfDistribution methodContextDist;
+	private Pattern[][] patterns;
+
+	public UsageCorpusGenerator(long seed) {
+		this.seed = seed;
+		definitionWeights.put(DefinitionKind.RETURN, 0.4);
+		definitionWeights.put(DefinitionKind.NEW, 0.25);
+		definitionWeights.put(DefinitionKind.PARAM, 0.15);
+		definitionWeights.put(DefinitionKind.FIELD, 0.15);
+		definitionWeights.put(DefinitionKind.THIS, 0.05);
+	}
+
+	public UsageCorpusGenerator setNumUsages(int numUsages) {
+		Asserts.assertGreaterThan(numUsages, 0);
+		this.numUsages = numUsages;
+		return this;
+	}
+
+	public UsageCorpusGenerator setProjects(int numProjects, double exponent) {
+		Asserts.assertGreaterThan(numProjects, 0);
+		this.numProjects = numProjects;
+		this.projectExponent = exponent;
+		return invalidate();
+	}
+
+	public UsageCorpusGenerator setTypes(int numTypes, double exponent) {
+		Asserts.assertGreaterThan(numTypes, 0);
+		this.numTypes = numTypes;
+		this.typeExponent = exponent;
+		return invalidate();
+	}
+
+	public UsageCorpusGenerator setCallsPerType(int numCalls, double exponent) {
+		Asserts.assertGreaterThan(numCalls, 0);
+		this.numCallsPerType = numCalls;
+		this.callExponent = exponent;
+		return invalidate();
+	}
+
+	public UsageCorpusGenerator setPatternsPerType(int numPatterns, double exponent, int maxCalls) {
+		Asserts.assertGreaterThan(numPatterns, 0);
+		Asserts.assertGreaterThan(maxCalls, 0);
+		this.numPatternsPerType = numPatterns;
+		this.patternExponent = exponent;
+		this.maxCallsPerPattern = maxCalls;
+		return invalidate();
+	}
+
+	public UsageCorpusGenerator setContexts(int numClassContexts, int numMethodContexts, double exponent) {
+		Asserts.assertGreaterThan(numClassContexts, 0);
+		Asserts.assertGreaterThan(numMethodContexts, 0);
+		this.numClassContexts = numClassContexts;
+		this.numMethodContexts = numMethodContexts;
+		this.contextExponent = exponent;
+		return invalidate();
+	}
+
+	/**
+	 * probability that a usage deviates from its pattern by a missing or an
+	 * additional call
+	 */
+	public UsageCorpusGenerator setNoise(double noise) {
+		Asserts.assertGreaterOrEqual(noise, 0.0);
+		Asserts.assertGreaterOrEqual(1.0, noise);
+		this.noise = noise;
+		return invalidate();
+	}
+
+	/**
+	 * relative frequency of a definition kind among the patterns (supported:
+	 * RETURN, NEW, PARAM, FIELD, THIS)
+	 */
+	public UsageCorpusGenerator setDefinitionWeight(DefinitionKind kind, double weight) {
+		Asserts.assertTrue(kind != DefinitionKind.CONSTANT && kind != DefinitionKind.UNKNOWN);
+		Asserts.assertGreaterOrEqual(weight, 0.0);
+		definitionWeights.put(kind, weight);
+		return invalidate();
+	}
+
+	private UsageCorpusGenerator invalidate() {
+		rnd = null;
+		return this;
+	}
+
+	public List<String> getProjectNames() {
+		List<String> names = Lists.newArrayList();
+		for (int i = 0; i < numProjects; i++) {
+			names.add(String.format("project%03d", i));
+		}
+		return names;
+	}
+
+	/**
+	 * number of usages per project, the sum is exactly the configured number
+	 * of usages
+	 */
+	public int[] getProjectSizes() {
+		ZipfDistribution projectDist = new ZipfDistribution(numProjects, projectExponent);
+		int[] sizes = new int[numProjects];
+		int sum = 0;
+		for (int i = 0; i < numProjects; i++) {
+			sizes[i] = (int) (numUsages * projectDist.getProbability(i));
+			sum += sizes[i];
+		}
+		sizes[0] += numUsages - sum;
+		return sizes;
+	}
+
+	/**
+	 * starts the generation from the beginning
+	 */
+	public void reset() {
+		rnd = new Random(seed);
+		typeDist = new ZipfDistribution(numTypes, typeExponent);
+		patternDist = new ZipfDistribution(numPatternsPerType, patternExponent);
+		callDist = new ZipfDistribution(numCallsPerType, callExponent);
+		classContextDist = new ZipfDistribution(numClassContexts, contextExponent);
+		methodContextDist = new ZipfDistribution(numMethodContexts, contextExponent);
+		patterns = new Pattern[numTypes][numPatternsPerType];
+		for (int t = 0; t < numTypes; t++) {
+			for (int p = 0; p < numPatternsPerType; p++) {
+				patterns[t][p] = createPattern(t, p);
+			}
+		}
+	}
+
+	private Pattern createPattern(int typeNum, int patternNum) {
+		Pattern p = new Pattern();
+		p.type = VmTypeName.get("Lorg/synthetic/api/Type" + typeNum);
+		p.def = createDefinition(p.type, patternNum);
+		int numCalls = 1 + rnd.nextInt(maxCallsPerPattern);
+		for (int i = 0; i < numCalls; i++) {
+			p.calls.add(getCall(p.type, callDist.sample(rnd)));
+		}
+		p.classContextOffset = rnd.nextInt(numClassContexts);
+		return p;
+	}
+
+	private DefinitionSite createDefinition(ITypeName type, int patternNum) {
+		DefinitionSite def;
+		String t = type.getIdentifier();
+		switch (sampleDefinitionKind()) {
+		case NEW:
+			def = DefinitionSites.createDefinitionByConstructor(VmMethodName.get(t + ".<init>()V"));
+			break;
+		case PARAM:
+			IMethodName m = VmMethodName.get("Lorg/synthetic/app/Handler.handle" + patternNum + "(" + t + ";)V");
+			def = DefinitionSites.createDefinitionByParam(m, 0);
+			break;
+		case FIELD:
+			def = DefinitionSites.createDefinitionByField(VmFieldName.get("Lorg/synthetic/app/Holder.field"
+					+ patternNum + ";" + t));
+			break;
+		case THIS:
+			def = DefinitionSites.createDefinitionByThis();
+			break;
+		default:
+			def = DefinitionSites.createDefinitionByReturn(VmMethodName.get("Lorg/synthetic/api/Factory.create"
+					+ patternNum + "()" + t + ";"));
+		}
+		def.setType(type);
+		return def;
+	}
+
+	private DefinitionKind sampleDefinitionKind() {
+		double sum = 0;
+		for (double w : definitionWeights.values()) {
+			sum += w;
+		}
+		double r = rnd.nextDouble() * sum;
+		for (Map.Entry<DefinitionKind, Double> e : definitionWeights.entrySet()) {
+			r -= e.getValue();
+			if (r < 0) {
+				return e.getKey();
+			}
+		}
+		return DefinitionKind.RETURN;
+	}
+
+	private static IMethodName getCall(ITypeName type, int callNum) {
+		return VmMethodName.get(type.getIdentifier() + ".m" + callNum + "()V");
+	}
+
+	public ObjectUsage createObjectUsage() {
+		if (rnd == null) {
+			reset();
+		}
+		Pattern p = patterns[typeDist.sample(rnd)][patternDist.sample(rnd)];
+
+		Set<IMethodName> calls = Sets.newLinkedHashSet(p.calls);
+		if (rnd.nextDouble() < noise) {
+			if (calls.size() > 1 && rnd.nextBoolean()) {
+				calls.remove(calls.iterator().next());
+			} else {
+				calls.add(getCall(p.type, callDist.sample(rnd)));
+			}
+		}
+
+		List<CallSite> path = Lists.newArrayList();
+		if (p.def.getKind() == DefinitionKind.NEW) {
+			path.add(newReceiverCallSite(p.def.getMethod()));
+		}
+		for (IMethodName call : calls) {
+			path.add(newReceiverCallSite(call));
+		}
+
+		ObjectUsage ou = new ObjectUsage();
+		ou.setUuid(new UUID(rnd.nextLong(), rnd.nextLong()));
+		ou.setDef(p.def);
+		ou.setContext(createContext(p));
+		ou.getPaths().add(path);
+		return ou;
+	}
+
+	private EnclosingMethodContext createContext(Pattern p) {
+		int classNum = (p.classContextOffset + classContextDist.sample(rnd)) % numClassContexts;
+		int methodNum = methodContextDist.sample(rnd);
+		ITypeName superclass = VmTypeName.get("Lorg/synthetic/app/Base" + classNum);
+		ITypeName declaringType = VmTypeName.get("Lorg/synthetic/app/Impl" + classNum + "_" + rnd.nextInt(5));
+
+		EnclosingMethodContext ctx = new EnclosingMethodContext();
+		ctx.setName(VmMethodName.get(declaringType.getIdentifier() + ".method" + methodNum + "()V"));
+		ctx.setSuperclass(superclass);
+		if (rnd.nextBoolean()) {
+			ctx.setIntroducedBy(superclass);
+		}
+		return ctx;
+	}
+
+	private static CallSite newReceiverCallSite(IMethodName call) {
+		CallSite cs = new CallSite();
+		cs.setKind(CallSiteKind.RECEIVER_CALL_SITE);
+		cs.setCall(call);
+		return cs;
+	}
+
+	public Usage createUsage() {
+		return converter.toRecommenderUsage(createObjectUsage());
+	}
+
+	/**
+	 * one archive of {@link ObjectUsage}s per project, the input of the
+	 * ProjectIndexer
+	 */
+	public void writeProjectArchives(Directory out) throws IOException {
+		reset();
+		List<String> projects = getProjectNames();
+		int[] sizes = getProjectSizes();
+		for (int i = 0; i < numProjects; i++) {
+			WritingArchive wa = out.getWritingArchive(projects.get(i) + ".zip");
+			try {
+				for (int j = 0; j < sizes[i]; j++) {
+					wa.add(createObjectUsage());
+				}
+			} finally {
+				wa.close();
+			}
+		}
+	}
+
+	/**
+	 * one archive of {@link ProjectFoldedUsage}s per type and the
+	 * "index.json", like the output of the ProjectIndexer for the archives of
+	 * {@link #writeProjectArchives(Directory)}
+	 */
+	public void writeIndexedUsages(Directory out) throws IOException {
+		reset();
+		ProjectFoldingIndex index = new ProjectFoldingIndex();
+		Map<ITypeName, WritingArchive> archives = Maps.newHashMap();
+		List<String> projects = getProjectNames();
+		int[] sizes = getProjectSizes();
+		try {
+			for (int i = 0; i < numProjects; i++) {
+				String fileName = projects.get(i) + ".zip";
+				for (int j = 0; j < sizes[i]; j++) {
+					Usage u = createUsage();
+					index.count(u.getType(), fileName);
+					WritingArchive wa = archives.get(u.getType());
+					if (wa == null) {
+						wa = out.getWritingArchive(u.getType().toString().replace("/", "_") + ".zip");
+						archives.put(u.getType(), wa);
+					}
+					wa.add(new ProjectFoldedUsage(u, fileName));
+				}
+			}
+		} finally {
+			for (WritingArchive wa : archives.values()) {
+				wa.close();
+			}
+		}
+		out.write(index, "index.json");
+	}
+
+	/**
+	 * {@link Usage}s in the {@link NestedZipFolders} layout with the type as
+	 * key and one archive per project
+	 */
+	public void writeNestedZipFolders(Directory out) throws IOException {
+		reset();
+		NestedZipFolders<ITypeName> folders = new NestedZipFolders<ITypeName>(out, ITypeName.class);
+		List<String> projects = getProjectNames();
+		int[] sizes = getProjectSizes();
+		for (int i = 0; i < numProjects; i++) {
+			Map<ITypeName, WritingArchive> archives = Maps.newHashMap();
+			try {
+				for (int j = 0; j < sizes[i]; j++) {
+					Usage u = createUsage();
+					WritingArchive wa = archives.get(u.getType());
+					if (wa == null) {
+						wa = folders.createWritingArchive(u.getType(), projects.get(i) + ".zip");
+						archives.put(u.getType(), wa);
+					}
+					wa.add(u);
+				}
+			} finally {
+				for (WritingArchive wa : archives.values()) {
+					wa.close();
+				}
+			}
+		}
+	}
+
+	private static class Pattern {
+		private ITypeName type;
+		private DefinitionSite def;
+		private List<IMethodName> calls = Lists.newArrayList();
+		private int classContextOffset;
+	}
+}
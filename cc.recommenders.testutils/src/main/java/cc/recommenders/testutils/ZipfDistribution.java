@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.testutils;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import cc.recommenders.assertions.Asserts;
+
+/**
+ * Zipf distribution over the ranks 0..n-1, rank 0 is the most frequent one.
+ * An exponent of 0 results in a uniform distribution.
+ */
+public class ZipfDistribution {
+
+	private final double[] cumulative;
+
+	public ZipfDistribution(int n, double exponent) {
+		Asserts.assertGreaterThan(n, 0);
+		Asserts.assertGreaterOrEqual(exponent, 0.0);
+		cumulative = new double[n];
+		double sum = 0;
+		for (int i = 0; i < n; i++) {
+			sum += 1.0 / Math.pow(i + 1, exponent);
+			cumulative[i] = sum;
+		}
+		for (int i = 0; i < n; i++) {
+			cumulative[i] /= sum;
+		}
+	}
+
+	public int getNumberOfElements() {
+		return cumulative.length;
+	}
+
+	public double getProbability(int rank) {
+		return rank == 0 ? cumulative[0] : cumulative[rank] - cumulative[rank - 1];
+	}
+
+	public int sample(Random rnd) {
+		int idx = Arrays.binarySearch(cumulative, rnd.nextDouble());
+		int rank = idx >= 0 ? idx + 1 : -idx - 1;
+		return Math.min(rank, cumulative.length - 1);
+	}
+}
@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.testutils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cc.recommenders.io.Directory;
+import cc.recommenders.io.NestedZipFolders;
+import cc.recommenders.io.ReadingArchive;
+import cc.recommenders.names.ITypeName;
+import cc.recommenders.usages.ProjectFoldedUsage;
+import cc.recommenders.usages.ProjectFoldingIndex;
+import cc.recommenders.usages.Usage;
+
+import com.codetrails.data.DefinitionKind;
+import com.codetrails.data.ObjectUsage;
+import com.codetrails.data.ObjectUsageValidator;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+public class UsageCorpusGeneratorTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private Directory dir;
+
+	@Before
+	public void setup() {
+		dir = new Directory(tmp.getRoot().getAbsolutePath());
+	}
+
+	private static UsageCorpusGenerator createSut(long seed) {
+		return new UsageCorpusGenerator(seed).setNumUsages(300).setProjects(5, 1.0).setTypes(8, 1.0);
+	}
+
+	@Test
+	public void generationIsDeterministic() {
+		UsageCorpusGenerator a = createSut(42);
+		UsageCorpusGenerator b = createSut(42);
+		for (int i = 0; i < 50; i++) {
+			assertEquals(a.createObjectUsage(), b.createObjectUsage());
+		}
+	}
+
+	@Test
+	public void resetStartsFromTheBeginning() {
+		UsageCorpusGenerator sut = createSut(42);
+		ObjectUsage first = sut.createObjectUsage();
+		sut.createObjectUsage();
+		sut.reset();
+		assertEquals(first, sut.createObjectUsage());
+	}
+
+	@Test
+	public void differentSeedsResultInDifferentCorpora() {
+		assertNotEquals(createSut(1).createObjectUsage(), createSut(2).createObjectUsage());
+	}
+
+	@Test
+	public void usagesAreValid() {
+		UsageCorpusGenerator sut = createSut(42);
+		ObjectUsageValidator validator = new ObjectUsageValidator();
+		for (int i = 0; i < 500; i++) {
+			ObjectUsage ou = sut.createObjectUsage();
+			assertTrue(validator.getLastError(), validator.isValid(ou));
+		}
+	}
+
+	@Test
+	public void convertedUsagesHaveCalls() {
+		UsageCorpusGenerator sut = createSut(42);
+		for (int i = 0; i < 100; i++) {
+			Usage u = sut.createUsage();
+			assertFalse(u.getReceiverCallsites().isEmpty());
+		}
+	}
+
+	@Test
+	public void typePopularityIsSkewed() {
+		UsageCorpusGenerator sut = createSut(42).setTypes(20, 1.5);
+		Map<ITypeName, Integer> counts = Maps.newHashMap();
+		for (int i = 0; i < 2000; i++) {
+			ITypeName type = sut.createUsage().getType();
+			Integer c = counts.get(type);
+			counts.put(type, c == null ? 1 : c + 1);
+		}
+		List<Integer> sorted = Lists.newArrayList(counts.values());
+		Collections.sort(sorted);
+		int max = sorted.get(sorted.size() - 1);
+		int min = sorted.get(0);
+		assertTrue(max > 10 * min);
+	}
+
+	@Test
+	public void definitionWeightsAreRespected() {
+		UsageCorpusGenerator sut = createSut(42);
+		for (DefinitionKind kind : new DefinitionKind[] { DefinitionKind.RETURN, DefinitionKind.PARAM,
+				DefinitionKind.FIELD, DefinitionKind.THIS }) {
+			sut.setDefinitionWeight(kind, 0.0);
+		}
+		for (int i = 0; i < 100; i++) {
+			assertEquals(DefinitionKind.NEW, sut.createObjectUsage().getDef().getKind());
+		}
+	}
+
+	@Test
+	public void projectSizesSumUpToTheNumberOfUsages() {
+		int[] sizes = createSut(42).getProjectSizes();
+		assertEquals(5, sizes.length);
+		int sum = 0;
+		for (int size : sizes) {
+			sum += size;
+		}
+		assertEquals(300, sum);
+		assertTrue(sizes[0] > sizes[4]);
+	}
+
+	@Test
+	public void projectArchivesAreWritten() throws IOException {
+		UsageCorpusGenerator sut = createSut(42);
+		sut.writeProjectArchives(dir);
+
+		int[] sizes = sut.getProjectSizes();
+		List<String> projects = sut.getProjectNames();
+		for (int i = 0; i < projects.size(); i++) {
+			ReadingArchive ra = dir.getReadingArchive(projects.get(i) + ".zip");
+			assertEquals(sizes[i], ra.numberOfEntries());
+			ra.close();
+		}
+
+		sut.reset();
+		ReadingArchive ra = dir.getReadingArchive(projects.get(0) + ".zip");
+		assertEquals(sut.createObjectUsage(), ra.getNext(ObjectUsage.class));
+		ra.close();
+	}
+
+	@Test
+	public void indexedUsagesMatchTheIndex() throws IOException {
+		UsageCorpusGenerator sut = createSut(42);
+		sut.writeIndexedUsages(dir);
+
+		ProjectFoldingIndex index = dir.read("index.json", ProjectFoldingIndex.class);
+		int total = 0;
+		for (ITypeName type : index.getTypes()) {
+			ReadingArchive ra = dir.getReadingArchive(type.toString().replace("/", "_") + ".zip");
+			Map<String, Integer> counts = Maps.newHashMap();
+			while (ra.hasNext()) {
+				ProjectFoldedUsage pfu = ra.getNext(ProjectFoldedUsage.class);
+				assertEquals(type, pfu.getType());
+				Integer c = counts.get(pfu.getProjectName());
+				counts.put(pfu.getProjectName(), c == null ? 1 : c + 1);
+			}
+			ra.close();
+			assertEquals(index.getCounts(type), counts);
+			total += index.getTotalCount(type);
+		}
+		assertEquals(300, total);
+	}
+
+	@Test
+	public void nestedZipFoldersCanBeRead() throws IOException {
+		UsageCorpusGenerator sut = createSut(42);
+		sut.writeNestedZipFolders(dir);
+
+		NestedZipFolders<ITypeName> folders = new NestedZipFolders<ITypeName>(dir, ITypeName.class);
+		int total = 0;
+		for (ITypeName type : folders.findKeys()) {
+			List<Usage> usages = folders.readAllZips(type, Usage.class);
+			for (Usage u : usages) {
+				assertEquals(type, u.getType());
+			}
+			total += usages.size();
+		}
+		assertEquals(300, total);
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.testutils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import cc.recommenders.exceptions.AssertionException;
+
+public class ZipfDistributionTest {
+
+	@Test(expected = AssertionException.class)
+	public void numberOfElementsMustBePositive() {
+		new ZipfDistribution(0, 1.0);
+	}
+
+	@Test
+	public void probabilitiesSumUpToOne() {
+		ZipfDistribution sut = new ZipfDistribution(50, 1.2);
+		double sum = 0;
+		for (int i = 0; i < sut.getNumberOfElements(); i++) {
+			sum += sut.getProbability(i);
+		}
+		assertEquals(1.0, sum, 0.000001);
+	}
+
+	@Test
+	public void probabilitiesFollowThePowerLaw() {
+		ZipfDistribution sut = new ZipfDistribution(10, 1.0);
+		assertEquals(2.0, sut.getProbability(0) / sut.getProbability(1), 0.000001);
+		assertEquals(10.0, sut.getProbability(0) / sut.getProbability(9), 0.000001);
+	}
+
+	@Test
+	public void exponentZeroIsUniform() {
+		ZipfDistribution sut = new ZipfDistribution(4, 0.0);
+		for (int i = 0; i < 4; i++) {
+			assertEquals(0.25, sut.getProbability(i), 0.000001);
+		}
+	}
+
+	@Test
+	public void samplesMatchTheProbabilities() {
+		ZipfDistribution sut = new ZipfDistribution(5, 1.0);
+		Random rnd = new Random(123);
+		int[] counts = new int[5];
+		int num = 100000;
+		for (int i = 0; i < num; i++) {
+			int s = sut.sample(rnd);
+			assertTrue(s >= 0 && s < 5);
+			counts[s]++;
+		}
+		for (int i = 0; i < 5; i++) {
+			assertEquals(sut.getProbability(i), counts[i] / (double) num, 0.01);
+		}
+	}
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Counts the bytes allocated by the current thread, based on the (HotSpot
+ * specific) {@link com.sun.management.ThreadMXBean}. On other VMs the meter is
+ * not supported and all counts are -1.
+ */
+public class AllocationMeter {
+
+	private final com.sun.management.ThreadMXBean bean;
+
+	public AllocationMeter() {
+		bean = findBean();
+	}
+
+	private static com.sun.management.ThreadMXBean findBean() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+			return null;
+		}
+		com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+		if (!sunBean.isThreadAllocatedMemorySupported()) {
+			return null;
+		}
+		if (!sunBean.isThreadAllocatedMemoryEnabled()) {
+			sunBean.setThreadAllocatedMemoryEnabled(true);
+		}
+		return sunBean;
+	}
+
+	public boolean isSupported() {
+		return bean != null;
+	}
+
+	public long getAllocatedBytes() {
+		if (bean == null) {
+			return -1;
+		}
+		return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
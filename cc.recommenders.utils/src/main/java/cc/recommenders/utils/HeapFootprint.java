@@ -0,0 +1,322 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Measures the heap memory that is retained by an object graph by walking all
+ * instance fields via reflection. The shallow sizes follow the HotSpot object
+ * layout (object headers, compressed references, 8 byte alignment), so the
+ * result is a close estimate of the real memory and not just the size of the
+ * payload.
+ *
+ * The result is broken down by component (the fields of the root object; an
+ * object that is reachable from several fields is counted for the first one)
+ * and by class. Classes, class loaders, threads, enum constants and instances
+ * of the given excluded types (e.g., shared configuration) are not counted.
+ */
+public class HeapFootprint {
+
+	public static final String ROOT = "<root>";
+
+	private static final boolean IS_64_BIT = !"32".equals(System.getProperty("sun.arch.data.model"));
+	private static final boolean USE_COMPRESSED_OOPS = IS_64_BIT && isUsingCompressedOops();
+
+	static final int REFERENCE_SIZE = IS_64_BIT && !USE_COMPRESSED_OOPS ? 8 : 4;
+	static final int OBJECT_HEADER_SIZE = IS_64_BIT ? (USE_COMPRESSED_OOPS ? 12 : 16) : 8;
+	static final int ARRAY_HEADER_SIZE = IS_64_BIT ? (USE_COMPRESSED_OOPS ? 16 : 24) : 12;
+
+	private static final ConcurrentMap<Class<?>, ClassLayout> layouts = new ConcurrentHashMap<Class<?>, ClassLayout>();
+
+	private final Set<Class<?>> excludedTypes;
+
+	private long totalBytes = 0;
+	private int numObjects = 0;
+	private final Map<String, Long> bytesPerComponent = new LinkedHashMap<String, Long>();
+	private final Map<Class<?>, Long> bytesPerClass = Maps.newHashMap();
+	private final Map<Class<?>, Integer> numPerClass = Maps.newHashMap();
+
+	private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+	private HeapFootprint(Class<?>[] excludedTypes) {
+		this.excludedTypes = Collections.newSetFromMap(new IdentityHashMap<Class<?>, Boolean>());
+		Collections.addAll(this.excludedTypes, excludedTypes);
+	}
+
+	public static HeapFootprint measure(Object root, Class<?>... excludedTypes) {
+		HeapFootprint fp = new HeapFootprint(excludedTypes);
+		if (root != null && !fp.isExcluded(root)) {
+			fp.walkRoot(root);
+		}
+		return fp;
+	}
+
+	private void walkRoot(Object root) {
+		visited.add(root);
+		count(root, ROOT);
+		Class<?> c = root.getClass();
+		if (c.isArray()) {
+			walk(ROOT, getArrayElements(root));
+			return;
+		}
+		ClassLayout layout = getLayout(c);
+		for (Field f : layout.referenceFields) {
+			Object value = getValue(f, root);
+			if (value != null) {
+				walk(f.getName(), Collections.singletonList(value));
+			}
+		}
+	}
+
+	private void walk(String component, List<Object> start) {
+		Deque<Object> stack = new ArrayDeque<Object>();
+		push(stack, start);
+		while (!stack.isEmpty()) {
+			Object o = stack.pop();
+			count(o, component);
+			Class<?> c = o.getClass();
+			if (c.isArray()) {
+				push(stack, getArrayElements(o));
+			} else {
+				for (Field f : getLayout(c).referenceFields) {
+					Object value = getValue(f, o);
+					if (value != null) {
+						push(stack, Collections.singletonList(value));
+					}
+				}
+			}
+		}
+	}
+
+	private void push(Deque<Object> stack, List<Object> objects) {
+		for (Object o : objects) {
+			if (o != null && !isExcluded(o) && visited.add(o)) {
+				stack.push(o);
+			}
+		}
+	}
+
+	private boolean isExcluded(Object o) {
+		if (o instanceof Class || o instanceof ClassLoader || o instanceof Thread || o instanceof Enum) {
+			return true;
+		}
+		for (Class<?> c : excludedTypes) {
+			if (c.isInstance(o)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void count(Object o, String component) {
+		Class<?> c = o.getClass();
+		long size = getShallowSize(o);
+		totalBytes += size;
+		numObjects++;
+		add(bytesPerComponent, component, size);
+		add(bytesPerClass, c, size);
+		Integer num = numPerClass.get(c);
+		numPerClass.put(c, num == null ? 1 : num + 1);
+	}
+
+	private static <K> void add(Map<K, Long> map, K key, long value) {
+		Long old = map.get(key);
+		map.put(key, old == null ? value : old + value);
+	}
+
+	private static List<Object> getArrayElements(Object array) {
+		if (array.getClass().getComponentType().isPrimitive()) {
+			return Collections.emptyList();
+		}
+		Object[] elements = (Object[]) array;
+		List<Object> res = Lists.newArrayListWithCapacity(elements.length);
+		Collections.addAll(res, elements);
+		return res;
+	}
+
+	private static Object getValue(Field f, Object o) {
+		try {
+			return f.get(o);
+		} catch (IllegalAccessException e) {
+			return null;
+		}
+	}
+
+	public static long getShallowSize(Object o) {
+		Class<?> c = o.getClass();
+		if (c.isArray()) {
+			Class<?> componentType = c.getComponentType();
+			int elementSize = componentType.isPrimitive() ? getPrimitiveSize(componentType) : REFERENCE_SIZE;
+			return align(ARRAY_HEADER_SIZE + (long) Array.getLength(o) * elementSize);
+		}
+		return getLayout(c).shallowSize;
+	}
+
+	private static ClassLayout getLayout(Class<?> c) {
+		ClassLayout layout = layouts.get(c);
+		if (layout == null) {
+			layout = new ClassLayout(c);
+			layouts.putIfAbsent(c, layout);
+		}
+		return layout;
+	}
+
+	private static long align(long size) {
+		return (size + 7) / 8 * 8;
+	}
+
+	private static int getPrimitiveSize(Class<?> type) {
+		if (type == long.class || type == double.class) {
+			return 8;
+		}
+		if (type == int.class || type == float.class) {
+			return 4;
+		}
+		if (type == short.class || type == char.class) {
+			return 2;
+		}
+		return 1;
+	}
+
+	private static boolean isUsingCompressedOops() {
+		try {
+			com.sun.management.HotSpotDiagnosticMXBean bean = ManagementFactory
+					.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class);
+			return Boolean.parseBoolean(bean.getVMOption("UseCompressedOops").getValue());
+		} catch (RuntimeException e) {
+			// not a HotSpot VM, assume the default for heaps below 32GB
+			return Runtime.getRuntime().maxMemory() < 32L * 1024 * 1024 * 1024;
+		} catch (LinkageError e) {
+			return Runtime.getRuntime().maxMemory() < 32L * 1024 * 1024 * 1024;
+		}
+	}
+
+	public long getTotalBytes() {
+		return totalBytes;
+	}
+
+	public int getNumberOfObjects() {
+		return numObjects;
+	}
+
+	/**
+	 * @return the retained bytes per field of the root object (plus the root
+	 *         object itself, see {@link #ROOT}), sorted by size
+	 */
+	public Map<String, Long> getBytesPerComponent() {
+		return sortBySize(bytesPerComponent);
+	}
+
+	/**
+	 * @return the bytes of all counted instances per class, sorted by size
+	 */
+	public Map<Class<?>, Long> getBytesPerClass() {
+		return sortBySize(bytesPerClass);
+	}
+
+	public int getNumberOfInstances(Class<?> c) {
+		Integer num = numPerClass.get(c);
+		return num == null ? 0 : num;
+	}
+
+	private static <K> Map<K, Long> sortBySize(Map<K, Long> in) {
+		List<Map.Entry<K, Long>> entries = Lists.newArrayList(in.entrySet());
+		Collections.sort(entries, new Comparator<Map.Entry<K, Long>>() {
+			@Override
+			public int compare(Map.Entry<K, Long> a, Map.Entry<K, Long> b) {
+				return b.getValue().compareTo(a.getValue());
+			}
+		});
+		Map<K, Long> out = new LinkedHashMap<K, Long>();
+		for (Map.Entry<K, Long> e : entries) {
+			out.put(e.getKey(), e.getValue());
+		}
+		return out;
+	}
+
+	public String toString(int maxNumberOfClasses) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%d bytes in %d objects\n", totalBytes, numObjects));
+		sb.append("components:\n");
+		for (Map.Entry<String, Long> e : getBytesPerComponent().entrySet()) {
+			sb.append(String.format("\t%s\t%d\n", e.getKey(), e.getValue()));
+		}
+		sb.append("classes:\n");
+		int num = 0;
+		for (Map.Entry<Class<?>, Long> e : getBytesPerClass().entrySet()) {
+			if (num++ == maxNumberOfClasses) {
+				break;
+			}
+			Class<?> c = e.getKey();
+			sb.append(String.format("\t%s\t%d\t(%dx)\n", c.getName(), e.getValue(), numPerClass.get(c)));
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public String toString() {
+		return toString(10);
+	}
+
+	private static class ClassLayout {
+		private final long shallowSize;
+		private final List<Field> referenceFields = Lists.newArrayList();
+
+		public ClassLayout(Class<?> c) {
+			long size = OBJECT_HEADER_SIZE;
+			for (Class<?> cur = c; cur != null; cur = cur.getSuperclass()) {
+				for (Field f : cur.getDeclaredFields()) {
+					if (Modifier.isStatic(f.getModifiers())) {
+						continue;
+					}
+					Class<?> type = f.getType();
+					if (type.isPrimitive()) {
+						size += getPrimitiveSize(type);
+					} else {
+						size += REFERENCE_SIZE;
+						if (makeAccessible(f)) {
+							referenceFields.add(f);
+						}
+					}
+				}
+			}
+			shallowSize = align(size);
+		}
+
+		private static boolean makeAccessible(Field f) {
+			try {
+				f.setAccessible(true);
+				return true;
+			} catch (RuntimeException e) {
+				// e.g., fields of JDK internals that are not accessible
+				return false;
+			}
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.utils.gson;
+
+import java.io.IOException;
+
+import cc.recommenders.names.IMethodName;
+import cc.recommenders.names.VmMethodName;
+import cc.recommenders.usages.CallSite;
+import cc.recommenders.usages.CallSiteKind;
+import cc.recommenders.usages.CallSites;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+public class CallSiteTypeAdapter extends TypeAdapter<CallSite> {
+
+	// make sure the naming is consistent to the field names in "CallSite"
+
+	private static final String KIND = "kind";
+	private static final String METHOD = "method";
+	private static final String ARG = "argIndex";
+
+	private static final IMethodName PLACEHOLDER = VmMethodName.get("LT.m()V");
+	private static final int DEFAULT_ARG_INDEX = CallSites.createReceiverCallSite(PLACEHOLDER).getArgIndex();
+
+	@Override
+	public void write(JsonWriter out, CallSite site) throws IOException {
+		out.beginObject();
+		if (site.getKind() != null) {
+			out.name(KIND).value(site.getKind().toString());
+		}
+		if (site.getMethod() != null) {
+			out.name(METHOD).value(site.getMethod().toString());
+		}
+		if (site.getArgIndex() != DEFAULT_ARG_INDEX) {
+			out.name(ARG).value(site.getArgIndex());
+		}
+		out.endObject();
+	}
+
+	@Override
+	public CallSite read(JsonReader in) throws IOException {
+		CallSite site = CallSites.createReceiverCallSite(PLACEHOLDER);
+		site.setKind(null);
+		site.setMethod(null);
+
+		in.beginObject();
+		while (in.hasNext()) {
+			String name = in.nextName();
+			if (ARG.equals(name)) {
+				site.setArgIndex(in.nextInt());
+			} else if (METHOD.equals(name)) {
+				site.setMethod(VmMethodName.get(in.nextString()));
+			} else if (KIND.equals(name)) {
+				site.setKind(CallSiteKind.valueOf(in.nextString()));
+			} else {
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		return site;
+	}
+}
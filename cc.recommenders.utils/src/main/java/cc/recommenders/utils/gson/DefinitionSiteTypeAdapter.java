@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.utils.gson;
+
+import java.io.IOException;
+
+import cc.recommenders.names.VmFieldName;
+import cc.recommenders.names.VmMethodName;
+import cc.recommenders.usages.DefinitionSite;
+import cc.recommenders.usages.DefinitionSiteKind;
+import cc.recommenders.usages.DefinitionSites;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+public class DefinitionSiteTypeAdapter extends TypeAdapter<DefinitionSite> {
+
+	// make sure the naming is consistent to the field names in
+	// "DefinitionSite"
+
+	private static final String KIND = "kind";
+	private static final String METHOD = "method";
+	private static final String FIELD = "field";
+	private static final String ARG = "argIndex";
+
+	private static final int DEFAULT_ARG_INDEX = DefinitionSites.createUnknownDefinitionSite().getArgIndex();
+
+	@Override
+	public void write(JsonWriter out, DefinitionSite def) throws IOException {
+		out.beginObject();
+		if (def.getKind() != null) {
+			out.name(KIND).value(def.getKind().toString());
+		}
+		if (def.getField() != null) {
+			out.name(FIELD).value(def.getField().toString());
+		}
+		if (def.getMethod() != null) {
+			out.name(METHOD).value(def.getMethod().toString());
+		}
+		if (def.getArgIndex() != DEFAULT_ARG_INDEX) {
+			out.name(ARG).value(def.getArgIndex());
+		}
+		out.endObject();
+	}
+
+	@Override
+	public DefinitionSite read(JsonReader in) throws IOException {
+		DefinitionSite def = DefinitionSites.createUnknownDefinitionSite();
+		def.setKind(null);
+
+		in.beginObject();
+		while (in.hasNext()) {
+			String name = in.nextName();
+			if (KIND.equals(name)) {
+				def.setKind(DefinitionSiteKind.valueOf(in.nextString()));
+			} else if (ARG.equals(name)) {
+				def.setArgIndex(in.nextInt());
+			} else if (FIELD.equals(name)) {
+				def.setField(VmFieldName.get(in.nextString()));
+			} else if (METHOD.equals(name)) {
+				def.setMethod(VmMethodName.get(in.nextString()));
+			} else {
+				in.skipValue();
+			}
+		}
+		in.endObject();
+
+		return def;
+	}
+}
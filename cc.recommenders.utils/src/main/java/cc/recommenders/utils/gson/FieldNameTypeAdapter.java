@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.utils.gson;
+
+import java.io.IOException;
+
+import cc.recommenders.names.IFieldName;
+import cc.recommenders.names.VmFieldName;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * streaming replacement for {@link GsonNameSerializer} and
+ * {@link GsonFieldNameDeserializer}, names are interned while reading
+ */
+public class FieldNameTypeAdapter extends TypeAdapter<IFieldName> {
+
+	@Override
+	public void write(JsonWriter out, IFieldName name) throws IOException {
+		out.value(name.getIdentifier());
+	}
+
+	@Override
+	public IFieldName read(JsonReader in) throws IOException {
+		return VmFieldName.get(in.nextString());
+	}
+}
@@ -38,6 +38,9 @@ import cc.recommenders.names.ITypeName;
 import cc.recommenders.names.VmFieldName;
 import cc.recommenders.names.VmMethodName;
 import cc.recommenders.names.VmTypeName;
+import cc.recommenders.usages.CallSite;
+import cc.recommenders.usages.DefinitionSite;
+import cc.recommenders.usages.ProjectFoldedUsage;
 import cc.recommenders.usages.Query;
 import cc.recommenders.usages.Usage;
 import cc.recommenders.usages.features.CallFeature;
@@ -68,18 +71,12 @@ public class GsonUtil {
 	public static synchronized Gson getInstance() {
 		if (gson == null) {
 			final GsonBuilder builder = new GsonBuilder();
-			builder.registerTypeAdapter(VmMethodName.class, new GsonNameSerializer());
-			builder.registerTypeAdapter(IMethodName.class, new GsonNameSerializer());
-			builder.registerTypeAdapter(VmMethodName.class, new GsonMethodNameDeserializer());
-			builder.registerTypeAdapter(IMethodName.class, new GsonMethodNameDeserializer());
-			builder.registerTypeAdapter(VmTypeName.class, new GsonNameSerializer());
-			builder.registerTypeAdapter(ITypeName.class, new GsonNameSerializer());
-			builder.registerTypeAdapter(VmTypeName.class, new GsonTypeNameDeserializer());
-			builder.registerTypeAdapter(ITypeName.class, new GsonTypeNameDeserializer());
-			builder.registerTypeAdapter(VmFieldName.class, new GsonNameSerializer());
-			builder.registerTypeAdapter(IFieldName.class, new GsonNameSerializer());
-			builder.registerTypeAdapter(VmFieldName.class, new GsonFieldNameDeserializer());
-			builder.registerTypeAdapter(IFieldName.class, new GsonFieldNameDeserializer());
+			builder.registerTypeAdapter(VmMethodName.class, new MethodNameTypeAdapter().nullSafe());
+			builder.registerTypeAdapter(IMethodName.class, new MethodNameTypeAdapter().nullSafe());
+			builder.registerTypeAdapter(VmTypeName.class, new TypeNameTypeAdapter().nullSafe());
+			builder.registerTypeAdapter(ITypeName.class, new TypeNameTypeAdapter().nullSafe());
+			builder.registerTypeAdapter(VmFieldName.class, new FieldNameTypeAdapter().nullSafe());
+			builder.registerTypeAdapter(IFieldName.class, new FieldNameTypeAdapter().nullSafe());
 			//
 			builder.registerTypeAdapter(File.class, new GsonFileDeserializer());
 			builder.registerTypeAdapter(File.class, new GsonFileSerializer());
@@ -90,6 +87,9 @@ public class GsonUtil {
 			//
 			builder.registerTypeAdapter(Usage.class, new UsageTypeAdapter());
 			builder.registerTypeAdapter(Query.class, new UsageTypeAdapter());
+			builder.registerTypeAdapter(CallSite.class, new CallSiteTypeAdapter().nullSafe());
+			builder.registerTypeAdapter(DefinitionSite.class, new DefinitionSiteTypeAdapter().nullSafe());
+			builder.registerTypeAdapter(ProjectFoldedUsage.class, new ProjectFoldedUsageTypeAdapter().nullSafe());
 
 			RuntimeTypeAdapterFactory<UsageFeature> rtaf = RuntimeTypeAdapterFactory.of(UsageFeature.class, "$type")
 					.registerSubtype(CallFeature.class).registerSubtype(ClassFeature.class)
@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.utils.gson;
+
+import java.io.IOException;
+
+import cc.recommenders.names.IMethodName;
+import cc.recommenders.names.VmMethodName;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * streaming replacement for {@link GsonNameSerializer} and
+ * {@link GsonMethodNameDeserializer}, names are interned while reading
+ */
+public class MethodNameTypeAdapter extends TypeAdapter<IMethodName> {
+
+	@Override
+	public void write(JsonWriter out, IMethodName name) throws IOException {
+		out.value(name.getIdentifier());
+	}
+
+	@Override
+	public IMethodName read(JsonReader in) throws IOException {
+		return VmMethodName.get(in.nextString());
+	}
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.utils.gson;
+
+import java.io.IOException;
+
+import cc.recommenders.usages.ProjectFoldedUsage;
+import cc.recommenders.usages.Usage;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+public class ProjectFoldedUsageTypeAdapter extends TypeAdapter<ProjectFoldedUsage> {
+
+	// make sure the naming is consistent to the field names in
+	// "ProjectFoldedUsage"
+
+	private static final String USAGE = "usage";
+	private static final String NAME = "name";
+
+	private final UsageTypeAdapter usageAdapter = new UsageTypeAdapter();
+
+	@Override
+	public void write(JsonWriter out, ProjectFoldedUsage pfu) throws IOException {
+		out.beginObject();
+		if (pfu.getRawUsage() != null) {
+			out.name(USAGE);
+			usageAdapter.write(out, pfu.getRawUsage());
+		}
+		if (pfu.getProjectName() != null) {
+			out.name(NAME).value(pfu.getProjectName());
+		}
+		out.endObject();
+	}
+
+	@Override
+	public ProjectFoldedUsage read(JsonReader in) throws IOException {
+		Usage usage = null;
+		String projectName = null;
+
+		in.beginObject();
+		while (in.hasNext()) {
+			String name = in.nextName();
+			if (USAGE.equals(name)) {
+				usage = usageAdapter.read(in);
+			} else if (NAME.equals(name)) {
+				projectName = in.nextString();
+			} else {
+				in.skipValue();
+			}
+		}
+		in.endObject();
+
+		return new ProjectFoldedUsage(usage, projectName);
+	}
+}
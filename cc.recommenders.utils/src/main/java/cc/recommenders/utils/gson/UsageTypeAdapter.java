@@ -13,15 +13,9 @@ package cc.recommenders.utils.gson;
 import java.io.IOException;
 import java.util.Set;
 
-import cc.recommenders.names.VmFieldName;
 import cc.recommenders.names.VmMethodName;
 import cc.recommenders.names.VmTypeName;
 import cc.recommenders.usages.CallSite;
-import cc.recommenders.usages.CallSiteKind;
-import cc.recommenders.usages.CallSites;
-import cc.recommenders.usages.DefinitionSite;
-import cc.recommenders.usages.DefinitionSiteKind;
-import cc.recommenders.usages.DefinitionSites;
 import cc.recommenders.usages.Query;
 import cc.recommenders.usages.Usage;
 
@@ -32,8 +26,7 @@ import com.google.gson.stream.JsonWriter;
 
 public class UsageTypeAdapter extends TypeAdapter<Usage> {
 
-	// make sure the naming is consistent to the field names in "Query",
-	// "DefinitionSite" and "CallSite"
+	// make sure the naming is consistent to the field names in "Query"
 
 	private static final String TYPE = "type";
 	private static final String CLASS_CTX = "classCtx";
@@ -41,14 +34,8 @@ public class UsageTypeAdapter extends TypeAdapter<Usage> {
 	private static final String DEFINITION = "definition";
 	private static final String SITES = "sites";
 
-	private static final String DEF_KIND = "kind";
-	private static final String DEF_METHOD = "method";
-	private static final String DEF_FIELD = "field";
-	private static final String DEF_ARG = "argIndex";
-
-	private static final String CS_KIND = "kind";
-	private static final String CS_CALL = "method";
-	private static final String CS_ARG = "argIndex";
+	private final DefinitionSiteTypeAdapter definitionAdapter = new DefinitionSiteTypeAdapter();
+	private final CallSiteTypeAdapter callSiteAdapter = new CallSiteTypeAdapter();
 
 	@Override
 	public void write(JsonWriter out, Usage usage) throws IOException {
@@ -65,14 +52,14 @@ public class UsageTypeAdapter extends TypeAdapter<Usage> {
 		}
 		if (usage.getDefinitionSite() != null) {
 			out.name(DEFINITION);
-			writeDefinition(out, usage.getDefinitionSite());
+			definitionAdapter.write(out, usage.getDefinitionSite());
 		}
 
 		if (usage.getAllCallsites() != null) {
 			out.name(SITES);
 			out.beginArray();
 			for (CallSite m : usage.getAllCallsites()) {
-				writeCallSite(out, m);
+				callSiteAdapter.write(out, m);
 			}
 			out.endArray();
 		}
@@ -95,100 +82,25 @@ public class UsageTypeAdapter extends TypeAdapter<Usage> {
 			} else if (METHOD_CTX.equals(name)) {
 				q.setMethodContext(VmMethodName.get(in.nextString()));
 			} else if (DEFINITION.equals(name)) {
-				q.setDefinition(readDefinition(in));
+				q.setDefinition(definitionAdapter.read(in));
 			} else if (SITES.equals(name)) {
 				q.setAllCallsites(readCallSites(in));
 			} else {
 				// skip value (most likely $type key from .net serialization)
-				in.nextString();
+				in.skipValue();
 			}
 		}
 		in.endObject();
 		return q;
 	}
 
-	private void writeDefinition(JsonWriter out, DefinitionSite def) throws IOException {
-		out.beginObject();
-		if (def.getKind() != null) {
-			out.name(DEF_KIND).value(def.getKind().toString());
-		}
-		if (def.getField() != null) {
-			out.name(DEF_FIELD).value(def.getField().toString());
-		}
-		if (def.getMethod() != null) {
-			out.name(DEF_METHOD).value(def.getMethod().toString());
-		}
-		boolean isNonDefaultArgIndex = def.getArgIndex() != DefinitionSites.createUnknownDefinitionSite().getArgIndex();
-		if (isNonDefaultArgIndex) {
-			out.name(DEF_ARG).value(def.getArgIndex());
-		}
-		out.endObject();
-	}
-
-	private DefinitionSite readDefinition(JsonReader in) throws IOException {
-		DefinitionSite def = DefinitionSites.createUnknownDefinitionSite();
-		def.setKind(null);
-
-		in.beginObject();
-		while (in.hasNext()) {
-			String name = in.nextName();
-			if (DEF_KIND.equals(name)) {
-				def.setKind(DefinitionSiteKind.valueOf(in.nextString()));
-			} else if (DEF_ARG.equals(name)) {
-				def.setArgIndex(in.nextInt());
-			} else if (DEF_FIELD.equals(name)) {
-				def.setField(VmFieldName.get(in.nextString()));
-			} else if (DEF_METHOD.equals(name)) {
-				def.setMethod(VmMethodName.get(in.nextString()));
-			}
-		}
-		in.endObject();
-
-		return def;
-	}
-
 	private Set<CallSite> readCallSites(JsonReader in) throws IOException {
 		Set<CallSite> sites = Sets.newLinkedHashSet();
 		in.beginArray();
 		while (in.hasNext()) {
-			sites.add(readCallSite(in));
+			sites.add(callSiteAdapter.read(in));
 		}
 		in.endArray();
 		return sites;
 	}
-
-	private void writeCallSite(JsonWriter out, CallSite site) throws IOException {
-		out.beginObject();
-		if (site.getKind() != null) {
-			out.name(CS_KIND).value(site.getKind().toString());
-		}
-		if (site.getMethod() != null) {
-			out.name(CS_CALL).value(site.getMethod().toString());
-		}
-		boolean isNonDefaultArgIndex = site.getArgIndex() != CallSites.createReceiverCallSite("LT.m()V").getArgIndex();
-		if (isNonDefaultArgIndex) {
-			out.name(CS_ARG).value(site.getArgIndex());
-		}
-		out.endObject();
-	}
-
-	private CallSite readCallSite(JsonReader in) throws IOException {
-		CallSite site = CallSites.createReceiverCallSite("LT.m()V");
-		site.setKind(null);
-		site.setMethod(null);
-
-		in.beginObject();
-		while (in.hasNext()) {
-			String name = in.nextName();
-			if (CS_ARG.equals(name)) {
-				site.setArgIndex(in.nextInt());
-			} else if (CS_CALL.equals(name)) {
-				site.setMethod(VmMethodName.get(in.nextString()));
-			} else if (CS_KIND.equals(name)) {
-				site.setKind(CallSiteKind.valueOf(in.nextString()));
-			}
-		}
-		in.endObject();
-		return site;
-	}
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Test;
+
+public class AllocationMeterTest {
+
+	private final AllocationMeter sut = new AllocationMeter();
+
+	@Test
+	public void allocationsAreCounted() {
+		assumeTrue(sut.isSupported());
+		long before = sut.getAllocatedBytes();
+		byte[] data = new byte[1024 * 1024];
+		long after = sut.getAllocatedBytes();
+		assertEquals(1024 * 1024, data.length);
+		assertTrue(after - before >= 1024 * 1024);
+	}
+
+	@Test
+	public void countsAreMonotonic() {
+		assumeTrue(sut.isSupported());
+		long before = sut.getAllocatedBytes();
+		assertTrue(sut.getAllocatedBytes() >= before);
+	}
+}
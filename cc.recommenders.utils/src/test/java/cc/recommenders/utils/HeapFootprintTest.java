@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2011-2014 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class HeapFootprintTest {
+
+	@Test
+	public void nullHasNoSize() {
+		HeapFootprint actual = HeapFootprint.measure(null);
+		assertEquals(0, actual.getTotalBytes());
+		assertEquals(0, actual.getNumberOfObjects());
+	}
+
+	@Test
+	public void plainObject() {
+		HeapFootprint actual = HeapFootprint.measure(new Object());
+		assertEquals(16, actual.getTotalBytes());
+		assertEquals(1, actual.getNumberOfObjects());
+	}
+
+	@Test
+	public void sizesAreAligned() {
+		assertEquals(0, HeapFootprint.getShallowSize(new byte[3]) % 8);
+		assertEquals(0, HeapFootprint.getShallowSize(new Leaf()) % 8);
+	}
+
+	@Test
+	public void primitiveArrays() {
+		long expected = align(HeapFootprint.ARRAY_HEADER_SIZE + 10 * 8);
+		assertEquals(expected, HeapFootprint.measure(new long[10]).getTotalBytes());
+	}
+
+	@Test
+	public void referencesArePartOfTheShallowSize() {
+		long expected = align(HeapFootprint.OBJECT_HEADER_SIZE + 2 * HeapFootprint.REFERENCE_SIZE);
+		assertEquals(expected, HeapFootprint.getShallowSize(new Node()));
+	}
+
+	@Test
+	public void referencedObjectsAreIncluded() {
+		Node n = new Node();
+		n.a = new Leaf();
+		n.b = new Leaf();
+
+		HeapFootprint actual = HeapFootprint.measure(n);
+
+		long expected = HeapFootprint.getShallowSize(n) + 2 * HeapFootprint.getShallowSize(n.a);
+		assertEquals(expected, actual.getTotalBytes());
+		assertEquals(3, actual.getNumberOfObjects());
+		assertEquals(2, actual.getNumberOfInstances(Leaf.class));
+	}
+
+	@Test
+	public void sharedObjectsAreCountedOnce() {
+		Node n = new Node();
+		n.a = new Leaf();
+		n.b = n.a;
+
+		HeapFootprint actual = HeapFootprint.measure(n);
+
+		assertEquals(2, actual.getNumberOfObjects());
+		Map<String, Long> components = actual.getBytesPerComponent();
+		assertEquals(HeapFootprint.getShallowSize(n.a), (long) components.get("a"));
+		assertTrue(!components.containsKey("b"));
+	}
+
+	@Test
+	public void cyclesAreSupported() {
+		Node n = new Node();
+		n.a = n;
+		assertEquals(1, HeapFootprint.measure(n).getNumberOfObjects());
+	}
+
+	@Test
+	public void componentsAreTheFieldsOfTheRoot() {
+		Node n = new Node();
+		n.a = new long[100];
+		n.b = new Leaf();
+
+		Map<String, Long> actual = HeapFootprint.measure(n).getBytesPerComponent();
+
+		List<String> expected = Lists.newArrayList("a", HeapFootprint.ROOT, "b");
+		assertEquals(expected, Lists.newArrayList(actual.keySet()));
+		assertEquals(HeapFootprint.getShallowSize(n), (long) actual.get(HeapFootprint.ROOT));
+	}
+
+	@Test
+	public void excludedTypesAreNotCounted() {
+		Node n = new Node();
+		n.a = new Leaf();
+		n.b = "some shared string";
+
+		HeapFootprint actual = HeapFootprint.measure(n, Leaf.class, String.class);
+
+		assertEquals(HeapFootprint.getShallowSize(n), actual.getTotalBytes());
+	}
+
+	@Test
+	public void enumsAreNotCounted() {
+		Node n = new Node();
+		n.a = Thread.State.NEW;
+		assertEquals(1, HeapFootprint.measure(n).getNumberOfObjects());
+	}
+
+	@Test
+	public void collectionsAreBrokenDownByClass() {
+		List<Leaf> leafs = Lists.newArrayList();
+		for (int i = 0; i < 10; i++) {
+			leafs.add(new Leaf());
+		}
+
+		HeapFootprint actual = HeapFootprint.measure(leafs);
+
+		assertEquals(10, actual.getNumberOfInstances(Leaf.class));
+		assertEquals(10 * HeapFootprint.getShallowSize(new Leaf()), (long) actual.getBytesPerClass().get(Leaf.class));
+		assertTrue(actual.toString().contains(Leaf.class.getName()));
+	}
+
+	private static long align(long size) {
+		return (size + 7) / 8 * 8;
+	}
+
+	private static class Leaf {
+		@SuppressWarnings("unused")
+		private int x;
+		@SuppressWarnings("unused")
+		private byte y;
+	}
+
+	private static class Node {
+		private Object a;
+		private Object b;
+	}
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2011-2013 Darmstadt University of Technology.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     Sebastian Proksch - initial API and implementation
+ */
+package cc.recommenders.utils.gson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import cc.recommenders.names.IMethodName;
+import cc.recommenders.names.ITypeName;
+import cc.recommenders.names.VmFieldName;
+import cc.recommenders.names.VmMethodName;
+import cc.recommenders.names.VmTypeName;
+import cc.recommenders.usages.CallSite;
+import cc.recommenders.usages.CallSites;
+import cc.recommenders.usages.DefinitionSite;
+import cc.recommenders.usages.DefinitionSites;
+import cc.recommenders.usages.ProjectFoldedUsage;
+import cc.recommenders.usages.Query;
+
+import com.google.common.collect.Lists;
+import com.google.gson.reflect.TypeToken;
+
+public class GsonUtilStreamingTest {
+
+	@Test
+	public void callSiteRoundtrip() {
+		CallSite expected = CallSites.createParameterCallSite("LA.m(LB;)V", 1);
+		assertRoundtrip(expected, CallSite.class);
+	}
+
+	@Test
+	public void callSiteDefaultArgIndexIsOmitted() {
+		String json = GsonUtil.serialize(CallSites.createReceiverCallSite("LA.m()V"));
+		assertEquals("{\"kind\":\"RECEIVER\",\"method\":\"LA.m()V\"}", json);
+	}
+
+	@Test
+	public void definitionSiteRoundtrip() {
+		DefinitionSite expected = DefinitionSites.createDefinitionByThis();
+		expected.setMethod(VmMethodName.get("LA.m()V"));
+		expected.setField(VmFieldName.get("LA.f;LB"));
+		expected.setArgIndex(3);
+		assertRoundtrip(expected, DefinitionSite.class);
+	}
+
+	@Test
+	public void projectFoldedUsageRoundtrip() {
+		ProjectFoldedUsage expected = new ProjectFoldedUsage(createQuery(), "p1");
+		assertRoundtrip(expected, ProjectFoldedUsage.class);
+	}
+
+	@Test
+	public void reflectiveOutputCanBeRead() {
+		String json = "{\"usage\":{\"type\":\"LA\",\"sites\":[{\"kind\":\"RECEIVER\",\"method\":\"LA.m()V\",\"argIndex\":0}]},\"name\":\"p1\"}";
+		ProjectFoldedUsage actual = GsonUtil.deserialize(json, ProjectFoldedUsage.class);
+
+		Query q = new Query();
+		q.setType(VmTypeName.get("LA"));
+		q.addCallSite(CallSites.createReceiverCallSite("LA.m()V"));
+		ProjectFoldedUsage expected = new ProjectFoldedUsage(q, "p1");
+
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void unknownKeysAreSkipped() {
+		String json = "{\"$type\":{\"x\":[1,2]},\"kind\":\"RECEIVER\",\"unknown\":[{}],\"method\":\"LA.m()V\"}";
+		CallSite actual = GsonUtil.deserialize(json, CallSite.class);
+		assertEquals(CallSites.createReceiverCallSite("LA.m()V"), actual);
+	}
+
+	@Test
+	public void namesAreInterned() {
+		String json = GsonUtil.serialize(Lists.newArrayList(VmMethodName.get("LA.m()V")));
+		List<IMethodName> actual = GsonUtil.deserialize(json, new TypeToken<List<IMethodName>>() {
+		}.getType());
+		assertSame(VmMethodName.get("LA.m()V"), actual.get(0));
+	}
+
+	@Test
+	public void nullNames() {
+		List<ITypeName> in = Lists.newArrayList(VmTypeName.get("LA"), null);
+		String json = GsonUtil.serialize(in);
+		assertEquals("[\"LA\",null]", json);
+		List<ITypeName> actual = GsonUtil.deserialize(json, new TypeToken<List<ITypeName>>() {
+		}.getType());
+		assertEquals(VmTypeName.get("LA"), actual.get(0));
+		assertNull(actual.get(1));
+	}
+
+	private static Query createQuery() {
+		Query q = new Query();
+		q.setType(VmTypeName.get("LA"));
+		q.setClassContext(VmTypeName.get("LB"));
+		q.setMethodContext(VmMethodName.get("LB.n()V"));
+		q.setDefinition(DefinitionSites.createDefinitionByReturn("LC.get()LA;"));
+		q.addCallSite(CallSites.createReceiverCallSite("LA.m()V"));
+		q.addCallSite(CallSites.createParameterCallSite("LD.p(LA;)V", 0));
+		return q;
+	}
+
+	private static <T> void assertRoundtrip(T expected, Class<T> classOfT) {
+		String json = GsonUtil.serialize(expected);
+		T actual = GsonUtil.deserialize(json, classOfT);
+		assertEquals(expected, actual);
+	}
+}
@@ -18,12 +18,10 @@ package exec.csharp.evaluation;
 import java.util.List;
 import java.util.Set;
 
-import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 
 import cc.recommenders.datastructures.Tuple;
-import cc.recommenders.evaluation.data.BoxplotData;
-import cc.recommenders.evaluation.data.Measure;
+import cc.recommenders.evaluation.data.MethodIdMeasure;
 import cc.recommenders.io.Logger;
 import cc.recommenders.io.NestedZipFolders;
 import cc.recommenders.mining.calls.ICallsRecommender;
@@ -54,6 +52,7 @@ public class Evaluation implements IEvaluation {
 	private ICallsRecommender<Query> rec;
 	private IQueryBuilder<Usage, Query> queryBuilder;
 	private IEvaluationConsumer consumer;
+	private final MethodIdMeasure measure = new MethodIdMeasure();
 
 	@Inject
 	public Evaluation(ModelHelper models, QueryBuilderFactory queryBuilderFactory, StorageHelper storageHelper,
@@ -128,32 +127,24 @@ public class Evaluation implements IEvaluation {
 
 	private double measurePredictionQuality(Query start, Query end) {
 		List<Query> queries = queryBuilder.createQueries(start, end);
-		BoxplotData res = new BoxplotData();
-		for (Query q : queries) {
-			Set<IMethodName> proposals = getProposals(rec, q);
-			Set<IMethodName> expectation = getExpectation(q, end);
-			Measure measure = Measure.newMeasure(expectation, proposals);
-			res.add(measure.getF1());
+		if (queries.isEmpty()) {
+			return Double.NaN;
 		}
-		return res.getMean();
-	}
-
-	private Set<IMethodName> getExpectation(Query q, Query end) {
-
-		Set<IMethodName> expectation = Sets.newLinkedHashSet();
-		for (CallSite cs : end.getReceiverCallsites()) {
-			if (!q.getAllCallsites().contains(cs)) {
-				expectation.add(cs.getMethod());
+		Set<CallSite> expectedSites = end.getReceiverCallsites();
+		double sum = 0;
+		for (Query q : queries) {
+			measure.reset();
+			Set<CallSite> querySites = q.getAllCallsites();
+			for (CallSite cs : expectedSites) {
+				if (!querySites.contains(cs)) {
+					measure.addExpected(cs.getMethod());
+				}
 			}
+			for (Tuple<IMethodName, Double> p : rec.query(q)) {
+				measure.addProposed(p.getFirst());
+			}
+			sum += measure.getF1();
 		}
-		return expectation;
-	}
-
-	private Set<IMethodName> getProposals(ICallsRecommender<Query> rec, Query query) {
-		Set<IMethodName> proposals = Sets.newHashSet();
-		for (Tuple<IMethodName, Double> p : rec.query(query)) {
-			proposals.add(p.getFirst());
-		}
-		return proposals;
+		return sum / queries.size();
 	}
 }
\ No newline at end of file